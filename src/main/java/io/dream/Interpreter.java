@@ -5,24 +5,40 @@ import io.dream.ast.Statement;
 import io.dream.config.Config;
 import io.dream.config.Messages;
 import io.dream.environment.Environment;
+import io.dream.environment.FrameLayout;
+import io.dream.error.ErrorReporter;
 import io.dream.error.RuntimeError;
+import io.dream.exec.ExecNode;
+import io.dream.exec.ExecutionContext;
+import io.dream.jit.JitRuntime;
+import io.dream.jit.TieredCompiler;
 import io.dream.natives.FileIO;
+import io.dream.natives.InputReader;
+import io.dream.natives.NativeFunction;
+import io.dream.natives.Natives;
+import io.dream.natives.OutputSink;
+import io.dream.optimizer.FrameSize;
+import io.dream.optimizer.Purity;
 import io.dream.scanner.Token;
 import io.dream.scanner.TokenType;
 import io.dream.types.*;
 
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
 import java.util.*;
-
-@FunctionalInterface
-interface NativeFunction {
-    Object call(List<Object> arguments);
-}
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Complete Interpreter for AlgoLang
  * Executes the validated AST with runtime value management
  */
-public class Interpreter implements Expression.Visitor<Object>, Statement.Visitor<Void>
+public class Interpreter implements Expression.Visitor<Object>, Statement.Visitor<Void>, ExecutionContext
 {
     // Global environment
     private final Environment globals;
@@ -30,8 +46,6 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     // Current environment (changes with scopes)
     private Environment environment;
 
-    private Map<String, NativeFunction> nativeFunctions = new HashMap<>();
-
     // Symbol tables from parser
     private final Map<String, Type> globalSymbolTable;
     private final Map<String, FunctionType> functionTable;
@@ -42,15 +56,85 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     private final Map<String, Statement.FunctionDeclaration> functions;
     private final Map<String, Statement.MethodDeclaration> methods;
 
-    // Return value handling
-    private static class ReturnException extends RuntimeException
+    // Hot routines compiled to JVM bytecode (null when disabled)
+    private TieredCompiler jit;
+
+    // Profile of the routine being interpreted, null in the main block
+    private TieredCompiler.Profile currentProfile;
+
+    // Whether this runs a task of a pour parallele, which only reads the JIT
+    private final boolean worker;
+
+    // Sink of ecrire and stream of lire (null for the standard ones), open
+    // files and where runtime errors go: each execution of a script has its own
+    private OutputSink sink;
+    private InputStream in;
+    private InputReader input;
+    private final FileIO files;
+    private ErrorReporter reporter = ErrorReporter.MAIN;
+
+    /**
+     * Default number of nested routine calls before a stack overflow is reported
+     */
+    public static final int DEFAULT_MAX_FRAMES = 100_000;
+
+    /**
+     * Largest number of nested routine calls that may be asked for
+     */
+    public static final int MAX_FRAMES = 1_000_000;
+
+    // Routine calls in progress and how many may be nested
+    private int frames = 0;
+    private int maxFrames = DEFAULT_MAX_FRAMES;
+
+    // Java stack one call of the program may take, and the stack left for
+    // what runs below the calls
+    private long frameBytes;
+    private static final long STACK_RESERVE = 1 << 20;
+
+    // Threads whose stacks hold a frame budget, by stack size, kept between
+    // executions; the idle ones stop after a minute
+    private static final Map<Long, ExecutorService> THREADS = new ConcurrentHashMap<>();
+
+    // Function whose body is being interpreted, null outside functions
+    private Statement.FunctionDeclaration currentFunction;
+
+    // Completion of the last statement: a retourne sets returning and the
+    // value (or, for a call of the current function, the arguments of the
+    // next pass through its body) and every enclosing block stops early
+    private boolean returning = false;
+    private Object returnValue;
+    private List<Object> tailArguments;
+
+    /**
+     * Default number of argument lists whose result is kept per memoized function
+     */
+    public static final int DEFAULT_MEMO_SIZE = 10_000;
+
+    // Results of the pure functions by argument list, null when memoization is off
+    private Map<String, Memo> memos;
+
+    /**
+     * Results of one pure function, the least recently used dropped first
+     */
+    private static final class Memo extends LinkedHashMap<List<Object>, Object>
     {
-        final Object value;
+        private static final long serialVersionUID = 1L;
 
-        ReturnException(Object value)
+        private final int capacity;
+        private long hits;
+        private long misses;
+
+        Memo(int capacity)
+        {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> eldest)
         {
-            super(null, null, false, false);
-            this.value = value;
+            return size() > capacity;
         }
     }
 
@@ -67,8 +151,9 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         this.structTable = new HashMap<>();
         this.functions = new HashMap<>();
         this.methods = new HashMap<>();
-
-        registerNativeFunctions();
+        this.jit = new TieredCompiler(functions, methods);
+        this.worker = false;
+        this.files = new FileIO();
     }
 
     /**
@@ -87,85 +172,269 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         this.structTable = structTable != null ? structTable : new HashMap<>();
         this.functions = new HashMap<>();
         this.methods = new HashMap<>();
+        this.jit = new TieredCompiler(functions, methods);
+        this.worker = false;
+        this.files = new FileIO();
+    }
 
-        registerNativeFunctions();
-    }
-
-    // In Interpreter constructor
-    private void registerNativeFunctions() {
-        // Register file I/O functions as callable from AlgoLang
-        nativeFunctions.put("open", (args) -> {
-            String filename = (String) args.get(0);
-            String mode = (String) args.get(1);
-            return FileIO.open(filename, mode);
-        });
-
-        nativeFunctions.put("close", (args) -> {
-            int handle = (int) args.get(0);
-            FileIO.close(handle);
-            return null; // void function
-        });
-
-        nativeFunctions.put("readLine", (args) -> {
-            int handle = (int) args.get(0);
-            return FileIO.readLine(handle);
-        });
-
-        nativeFunctions.put("writeLine", (args) -> {
-            int handle = (int) args.get(0);
-            String content = (String) args.get(1);
-            FileIO.writeLine(handle, content);
-            return null;
-        });
-
-        nativeFunctions.put("eof", (args) -> {
-            int handle = (int) args.get(0);
-            return FileIO.eof(handle);
-        });
-
-        nativeFunctions.put("readAll", (args) -> {
-            int handle = (int) args.get(0);
-            return FileIO.readAll(handle);
-        });
-
-        nativeFunctions.put("readInt", (args) -> {
-            int handle = (int) args.get(0);
-            return FileIO.readInt(handle);
-        });
-
-        nativeFunctions.put("readReal", (args) -> {
-            int handle = (int) args.get(0);
-            return FileIO.readReal(handle);
-        });
-
-        nativeFunctions.put("write", (args) -> {
-            int handle = (int) args.get(0);
-            String content = (String) args.get(1);
-            FileIO.write(handle, content);
-            return null;
-        });
+    /**
+     * Context of one task of a pour parallele: the routines of a running
+     * interpreter over a copy of its current frame. Tasks run the routines
+     * the JIT already compiled but profile nothing, and skip the memo
+     * caches: both belong to the interpreter's thread, blocked meanwhile
+     */
+    private Interpreter(Interpreter parent)
+    {
+        this.globals = parent.globals;
+        this.environment = parent.environment.copy();
+        this.globalSymbolTable = parent.globalSymbolTable;
+        this.functionTable = parent.functionTable;
+        this.methodTable = parent.methodTable;
+        this.structTable = parent.structTable;
+        this.functions = parent.functions;
+        this.methods = parent.methods;
+        this.jit = parent.jit;
+        this.worker = true;
+        this.sink = parent.sink;
+        this.in = parent.in;
+        this.input = parent.input;
+        this.files = parent.files;
+        this.reporter = parent.reporter;
+        this.frames = parent.frames;
+        this.maxFrames = parent.maxFrames;
+        this.frameBytes = parent.frameBytes;
+        this.currentFunction = parent.currentFunction;
+    }
 
-        nativeFunctions.put("closeAll", (args) -> {
-            FileIO.closeAll();
-            return null;
-        });
+    /**
+     * Print what ecrire writes somewhere else than the standard output
+     */
+    public void setOutput(PrintStream out)
+    {
+        this.sink = new OutputSink(out);
+    }
+
+    /**
+     * Print what ecrire writes through a sink of its own, to choose how it buffers
+     */
+    public void setOutputSink(OutputSink sink)
+    {
+        this.sink = sink;
+    }
+
+    /**
+     * Read what lire reads somewhere else than the standard input
+     */
+    public void setInput(InputStream in)
+    {
+        this.in = in;
+        this.input = null;
+    }
+
+    /**
+     * Send the runtime errors somewhere else than the command line
+     */
+    public void setErrorReporter(ErrorReporter reporter)
+    {
+        this.reporter = reporter;
+    }
+
+    private OutputSink output()
+    {
+        if (sink == null)
+        {
+            sink = new OutputSink(System.out);
+        }
+        return sink;
+    }
 
-        nativeFunctions.put("exists", (args) -> {
-            String filename = (String) args.get(0);
-            return FileIO.exists(filename);
-        });
+    /**
+     * Get the reader of lire, kept across reads so that nothing it buffered is lost
+     * What was written so far shows before the script waits for input
+     */
+    private InputReader input()
+    {
+        if (input == null)
+        {
+            input = new InputReader(in != null ? in : System.in, () -> output().flush());
+        }
+        return input;
+    }
 
-        nativeFunctions.put("delete", (args) -> {
-            String filename = (String) args.get(0);
-            return FileIO.delete(filename);
-        });
+    /**
+     * Keep every function and method in the tree walker
+     */
+    public void disableJit()
+    {
+        this.jit = null;
+    }
+
+    /**
+     * Set how many routine calls may be nested before a stack overflow
+     *
+     * @throws IllegalArgumentException when it is not between 1 and {@link #MAX_FRAMES}
+     */
+    public void setMaxFrames(int maxFrames)
+    {
+        if (maxFrames <= 0 || maxFrames > MAX_FRAMES)
+        {
+            throw new IllegalArgumentException(Messages.invalidFrameBudget(MAX_FRAMES));
+        }
+        this.maxFrames = maxFrames;
+    }
+
+    /**
+     * Answer the calls of the program's pure functions from a cache keeping
+     * the results of at most capacity argument lists per function
+     */
+    public void memoize(List<Statement> statements, int capacity)
+    {
+        memos = new HashMap<>();
+        for (String name : Purity.pureFunctions(statements))
+        {
+            memos.put(name, new Memo(capacity));
+        }
+
+        // Compiled code would call them without the cache
+        if (jit != null)
+        {
+            jit.keepInterpreted(memos.keySet());
+        }
+    }
+
+    /**
+     * Describe the cache hits and misses of each memoized function that was called
+     */
+    public List<String> memoStatistics()
+    {
+        List<String> lines = new ArrayList<>();
+        if (memos != null)
+        {
+            new TreeMap<>(memos).forEach((name, memo) ->
+            {
+                if (memo.hits + memo.misses > 0)
+                {
+                    lines.add(Messages.memoStatistics(name, memo.hits, memo.misses, memo.size()));
+                }
+            });
+        }
+        return lines;
     }
 
     /**
      * Main interpretation entry point
+     *
+     * The tree walker recurses on the Java stack, so the program runs on a
+     * thread whose stack holds the whole frame budget: only the budget
+     * limits how deep calls nest.
      */
     public void interpret(List<Statement> statements)
     {
+        List<Statement> program = new ArrayList<>(statements);
+        program.addAll(functions.values());
+        program.addAll(methods.values());
+        frameBytes = FrameSize.bytesPerCall(program);
+
+        boolean language = Config.getLanguage();
+        Future<?> execution;
+        try
+        {
+            execution = threads(stackBytes()).submit(() ->
+            {
+                Boolean previous = Config.setThreadLanguage(language);
+                try
+                {
+                    run(statements);
+                }
+                finally
+                {
+                    Config.setThreadLanguage(previous);
+                }
+            });
+        }
+        catch (OutOfMemoryError e)
+        {
+            reporter.runtimeError(new RuntimeError(null, Messages.frameBudgetTooLarge(maxFrames)));
+            return;
+        }
+        await(List.of(execution));
+    }
+
+    /**
+     * Get the Java stack a thread running the program needs
+     */
+    private long stackBytes()
+    {
+        return (maxFrames + 1L) * frameBytes + STACK_RESERVE;
+    }
+
+    /**
+     * Get threads whose stacks hold at least the given bytes. Sizes are
+     * rounded up to an eighth of their highest bit, so that scripts share
+     * threads without reserving much more stack than they need
+     */
+    private static ExecutorService threads(long bytes)
+    {
+        long grain = Math.max(Long.highestOneBit(bytes) / 8, 1);
+        long stack = (bytes + grain - 1) / grain * grain;
+        return THREADS.computeIfAbsent(stack, size -> Executors.newCachedThreadPool(task ->
+        {
+            Thread thread = new Thread(null, task, "algolang", size);
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Wait for tasks, even when interrupted, and throw what the first of
+     * them that failed without reporting threw
+     */
+    private static void await(List<Future<?>> tasks)
+    {
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<?> task : tasks)
+        {
+            while (true)
+            {
+                try
+                {
+                    task.get();
+                    break;
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+                catch (ExecutionException e)
+                {
+                    if (failure == null)
+                    {
+                        failure = e.getCause();
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure instanceof RuntimeException e)
+        {
+            throw e;
+        }
+        if (failure instanceof Error e)
+        {
+            throw e;
+        }
+    }
+
+    private void run(List<Statement> statements)
+    {
+        // Compiled routines print where this interpreter does
+        OutputSink previousOutput = JitRuntime.setOutput(output());
         try
         {
             // First pass: Register functions and methods
@@ -198,7 +467,15 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         }
         catch (RuntimeError re)
         {
-            Main.runtimeError(re);
+            output().flush();
+            reporter.runtimeError(re);
+        }
+        finally
+        {
+            // Files the script left open are closed, and what it wrote to them kept
+            files.closeAll();
+            output().flush();
+            JitRuntime.setOutput(previousOutput);
         }
     }
 
@@ -210,19 +487,225 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         statement.accept(this);
     }
 
+    /**
+     * Execute a list of statements, stopping at a retourne
+     * (indexed so that loop bodies do not allocate an iterator per pass)
+     */
+    private void executeBlock(List<Statement> statements)
+    {
+        for (int i = 0; i < statements.size() && !returning; i++)
+        {
+            execute(statements.get(i));
+        }
+    }
+
     /**
      * Evaluate an expression
      */
     private Object evaluate(Expression expression)
+    {
+        // Lowered expressions run as specialized nodes
+        ExecNode node = expression.getNode();
+        return node != null ? node.execute(this) : expression.accept(this);
+    }
+
+    /**
+     * Evaluate an entier without boxing when it has been lowered
+     */
+    private int evaluateInt(Expression expression)
+    {
+        ExecNode node = expression.getNode();
+        return node != null ? node.executeInt(this) : (Integer) expression.accept(this);
+    }
+
+    /**
+     * Evaluate an array index
+     */
+    private int evaluateIndex(Expression index)
+    {
+        ExecNode node = index.getNode();
+        if (node != null && index.getType() == TypeFactory.INTEGER)
+        {
+            return node.executeInt(this);
+        }
+
+        Object indexObj = evaluate(index);
+        if (!(indexObj instanceof Integer))
+        {
+            throw new RuntimeError(null, "Array index must be an integer");
+        }
+        return (Integer) indexObj;
+    }
+
+    /**
+     * Evaluate a value into an array element, unboxed for primitive arrays
+     */
+    private void store(ArrayValue array, int index, Expression value)
+    {
+        ExecNode node = value.getNode();
+        if (node != null)
+        {
+            if (array instanceof IntArrayValue ints)
+            {
+                ints.setInt(index, node.executeInt(this));
+                return;
+            }
+            if (array instanceof DoubleArrayValue reals)
+            {
+                reals.setDouble(index, node.executeDouble(this));
+                return;
+            }
+            if (array instanceof BooleanArrayValue booleans)
+            {
+                booleans.setBoolean(index, node.executeBoolean(this));
+                return;
+            }
+        }
+        array.set(index, wrapValue(evaluate(value), value.getType()));
+    }
+
+    /**
+     * Evaluate a value into a structure field, unboxed for numeric fields
+     */
+    private void store(StructValue struct, int index, Expression value)
+    {
+        ExecNode node = value.getNode();
+        Type fieldType = struct.getStructType().getFieldTypeAt(index);
+        if (node != null)
+        {
+            if (fieldType == TypeFactory.INTEGER)
+            {
+                struct.setIntField(index, node.executeInt(this));
+                return;
+            }
+            if (fieldType == TypeFactory.FLOATING)
+            {
+                struct.setDoubleField(index, node.executeDouble(this));
+                return;
+            }
+            if (fieldType == TypeFactory.BOOLEAN)
+            {
+                struct.setBooleanField(index, node.executeBoolean(this));
+                return;
+            }
+        }
+        struct.setField(index, wrapValue(evaluate(value), value.getType()));
+    }
+
+    /**
+     * Get the index of a field: the one bound by the Resolver, or a lookup by name
+     */
+    private int fieldIndex(StructValue struct, int bound, Token field)
+    {
+        if (bound >= 0)
+        {
+            return bound;
+        }
+
+        int index = struct.getStructType().indexOf(field.lexeme());
+        if (index < 0)
+        {
+            throw new RuntimeException(
+                    Messages.fieldNotFound(struct.getStructType().getName(), field.lexeme()));
+        }
+        return index;
+    }
+
+    /**
+     * Evaluate a condition without boxing when it has been lowered
+     */
+    private boolean condition(Expression expression)
+    {
+        ExecNode node = expression.getNode();
+        return node != null ? node.executeBoolean(this) : isTruthy(expression.accept(this));
+    }
+
+    @Override
+    public Environment environment()
+    {
+        return environment;
+    }
+
+    @Override
+    public Object evaluateTree(Expression expression)
     {
         return expression.accept(this);
     }
 
+    /**
+     * Get the value of the variable a statement targets
+     * (resolved slot when available, name lookup otherwise)
+     */
+    private Value lookUp(Statement statement, Token name)
+    {
+        if (statement.getSlot() >= 0)
+        {
+            return environment.getAt(statement.getDepth(), statement.getSlot());
+        }
+        return environment.get_value(name.lexeme());
+    }
+
+    /**
+     * Get the type of the variable a statement targets
+     */
+    private Type typeOf(Statement statement, Token name)
+    {
+        if (statement.getSlot() >= 0)
+        {
+            return environment.getTypeAt(statement.getDepth(), statement.getSlot());
+        }
+        return environment.get_type(name.lexeme());
+    }
+
+    /**
+     * Evaluate a value into the variable a statement targets,
+     * unboxed when the slot holds an entier, reel or booleen
+     */
+    private void assign(Statement statement, Token name, Expression value)
+    {
+        ExecNode node = value.getNode();
+        int slot = statement.getSlot();
+        if (node != null && slot >= 0)
+        {
+            int depth = statement.getDepth();
+            Type type = environment.getTypeAt(depth, slot);
+            if (type == TypeFactory.INTEGER)
+            {
+                environment.setIntAt(depth, slot, node.executeInt(this));
+                return;
+            }
+            if (type == TypeFactory.FLOATING)
+            {
+                environment.setDoubleAt(depth, slot, node.executeDouble(this));
+                return;
+            }
+            if (type == TypeFactory.BOOLEAN)
+            {
+                environment.setBooleanAt(depth, slot, node.executeBoolean(this));
+                return;
+            }
+        }
+        assign(statement, name, wrapValue(evaluate(value), value.getType()));
+    }
+
+    /**
+     * Update the variable a statement targets
+     */
+    private void assign(Statement statement, Token name, Value value)
+    {
+        if (statement.getSlot() >= 0)
+        {
+            environment.assignAt(statement.getDepth(), statement.getSlot(), value);
+            return;
+        }
+        environment.update_value(name.lexeme(), value);
+    }
+
     @Override
     public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
     {
         // Get structure value
-        Value structVal = environment.get_value(statement.objectName.lexeme());
+        Value structVal = lookUp(statement, statement.objectName);
 
         if (!(structVal instanceof StructValue))
         {
@@ -233,7 +716,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         StructValue struct = (StructValue) structVal;
 
         // Get field value (should be an array)
-        Value fieldVal = struct.getField(statement.fieldName.lexeme());
+        Value fieldVal = struct.getField(fieldIndex(struct, statement.getFieldIndex(), statement.fieldName));
 
         if (!(fieldVal instanceof ArrayValue))
         {
@@ -244,27 +727,18 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         ArrayValue array = (ArrayValue) fieldVal;
 
         // Evaluate index
-        Object indexObj = evaluate(statement.index);
-        if (!(indexObj instanceof Integer))
-        {
-            throw new RuntimeError(null, "Array index must be an integer");
-        }
-
-        int index = (Integer) indexObj;
+        int index = evaluateIndex(statement.index);
 
         // Get element type
-        Type structType = environment.get_type(statement.objectName.lexeme());
+        Type structType = typeOf(statement, statement.objectName);
         StructType st = (StructType) structType;
         Type fieldType = st.getFieldType(statement.fieldName.lexeme());
         ArrayType arrayType = (ArrayType) fieldType;
         Type elementType = arrayType.getElementType();
 
-        // Prompt and read value
-        System.out.print("> ");
-        Value value = readValueOfType(elementType);
-
-        // Set array element within the structure's field
-        array.set(index, value);
+        // Prompt and read value into the structure's field
+        output().print("> ");
+        read(array, index, elementType, statement.fieldName);
 
         return null;
     }
@@ -280,105 +754,15 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     public Void visitWriteStatement(Statement.Write statement)
     {
         Object value = evaluate(statement.expression);
-        System.out.println(stringify(value));
+        output().println(stringify(value));
         return null;
     }
 
     @Override
     public Void visitReadStatement(Statement.Read statement)
     {
-        // Read from standard input
-        Scanner scanner = new Scanner(System.in);
-        String varName = statement.variable.lexeme();
-
-        // Get variable type
-        Type varType = environment.get_type(varName);
-
-        // Read value based on type
-        Object value = null;
-
-        if (varType.equals(TypeFactory.INTEGER))
-        {
-            if (scanner.hasNextInt())
-            {
-                value = scanner.nextInt();
-            }
-            else
-            {
-                throw new RuntimeError(statement.variable, "Expected integer input");
-            }
-        }
-        else if (varType.equals(TypeFactory.FLOATING))
-        {
-            if (scanner.hasNextDouble())
-            {
-                value = scanner.nextDouble();
-            }
-            else
-            {
-                throw new RuntimeError(statement.variable, "Expected real number input");
-            }
-        }
-        else if (varType.equals(TypeFactory.STRING))
-        {
-            value = scanner.nextLine();
-        }
-        else if (varType.equals(TypeFactory.CHAR))
-        {
-            String input = scanner.nextLine();
-            if (!input.isEmpty())
-            {
-                value = input.charAt(0);
-            }
-            else
-            {
-                throw new RuntimeError(statement.variable, "Expected character input");
-            }
-        }
-        else if (varType.equals(TypeFactory.BOOLEAN))
-        {
-            String input = scanner.nextLine().trim();
-
-            // Accept numeric input: 1 = true, 0 = false
-            if (input.equals("1"))
-            {
-                value = new AtomicValue<>(true, AtomicTypes.BOOLEAN);
-            }
-            else if (input.equals("0"))
-            {
-                value = new AtomicValue<>(false, AtomicTypes.BOOLEAN);
-            }
-            // Accept French boolean words
-            else if (input.equalsIgnoreCase("vrai"))
-            {
-                value = new AtomicValue<>(true, AtomicTypes.BOOLEAN);
-            }
-            else if (input.equalsIgnoreCase("faux"))
-            {
-                value = new AtomicValue<>(false, AtomicTypes.BOOLEAN);
-            }
-            // Accept English boolean words
-            else if (input.equalsIgnoreCase("true"))
-            {
-                value = new AtomicValue<>(true, AtomicTypes.BOOLEAN);
-            }
-            else if (input.equalsIgnoreCase("false"))
-            {
-                value = new AtomicValue<>(false, AtomicTypes.BOOLEAN);
-            }
-            else
-            {
-                String expectedFormats = Config.getLanguage()
-                        ? "vrai/faux, 1/0"
-                        : "true/false, 1/0";
-                throw new RuntimeError(statement.variable,
-                        "Expected boolean input (" + expectedFormats + ")");
-            }
-        }
-
-        // Wrap value and update variable
-        Value wrappedValue = wrapValue(value, varType);
-        environment.update_value(varName, wrappedValue);
+        Type varType = typeOf(statement, statement.variable);
+        assign(statement, statement.variable, read(varType, statement.variable));
 
         return null;
     }
@@ -416,45 +800,28 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     @Override
     public Void visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
     {
-        // Constants are evaluated and stored
-        Object value = evaluate(statement.value);
-        Type type = statement.value.getType();
-        Value wrappedValue = wrapValue(value, type);
-
-        // Store as a variable that won't be reassigned (no special handling needed)
-        environment.define(statement.name.lexeme(), type, wrappedValue);
+        // Constants are globals the Checker never lets the program reassign
+        assign(statement, statement.name, statement.value);
         return null;
     }
 
     @Override
     public Void visitAssignmentStatement(Statement.Assignment statement)
     {
-        Object evaluatedValue = evaluate(statement.value);
-        Type varType = statement.value.getType();
-        Value value = wrapValue(evaluatedValue, varType);
-
-        environment.update_value(statement.name.lexeme(), value);
+        assign(statement, statement.name, statement.value);
         return null;
     }
 
     @Override
     public Void visitIfStatement(Statement.If statement)
     {
-        Object condition = evaluate(statement.condition);
-
-        if (isTruthy(condition))
+        if (condition(statement.condition))
         {
-            for (Statement stmt : statement.thenBranch)
-            {
-                execute(stmt);
-            }
+            executeBlock(statement.thenBranch);
         }
         else if (statement.elseBranch != null && !statement.elseBranch.isEmpty())
         {
-            for (Statement stmt : statement.elseBranch)
-            {
-                execute(stmt);
-            }
+            executeBlock(statement.elseBranch);
         }
 
         return null;
@@ -463,12 +830,10 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     @Override
     public Void visitWhileStatement(Statement.While statement)
     {
-        while (isTruthy(evaluate(statement.condition)))
+        while (!returning && condition(statement.condition))
         {
-            for (Statement stmt : statement.body)
-            {
-                execute(stmt);
-            }
+            TieredCompiler.loopIteration(currentProfile);
+            executeBlock(statement.body);
         }
         return null;
     }
@@ -478,12 +843,10 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     {
         do
         {
-            for (Statement stmt : statement.body)
-            {
-                execute(stmt);
-            }
+            TieredCompiler.loopIteration(currentProfile);
+            executeBlock(statement.body);
         }
-        while (!isTruthy(evaluate(statement.condition)));
+        while (!returning && !condition(statement.condition));
 
         return null;
     }
@@ -492,7 +855,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
     {
         // Get structure value
-        Value structVal = environment.get_value(statement.objectName.lexeme());
+        Value structVal = lookUp(statement, statement.objectName);
 
         if (!(structVal instanceof StructValue struct))
         {
@@ -501,7 +864,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         }
 
         // Get field value (should be an array)
-        Value fieldVal = struct.getField(statement.fieldName.lexeme());
+        Value fieldVal = struct.getField(fieldIndex(struct, statement.getFieldIndex(), statement.fieldName));
 
         if (!(fieldVal instanceof ArrayValue array))
         {
@@ -510,13 +873,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         }
 
         // Evaluate index
-        Object indexObj = evaluate(statement.index);
-        if (!(indexObj instanceof Integer))
-        {
-            throw new RuntimeError(null, "Array index must be an integer");
-        }
-
-        int index = (Integer) indexObj;
+        int index = evaluateIndex(statement.index);
 
         // Evaluate value
         Object value = evaluate(statement.value);
@@ -533,7 +890,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
     {
         // Get array value
-        Value arrayVal = environment.get_value(statement.arrayName.lexeme());
+        Value arrayVal = lookUp(statement, statement.arrayName);
 
         if (!(arrayVal instanceof ArrayValue array))
         {
@@ -541,21 +898,10 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         }
 
         // Evaluate index
-        Object indexObj = evaluate(statement.index);
-        if (!(indexObj instanceof Integer))
-        {
-            throw new RuntimeError(null, "Array index must be an integer");
-        }
-
-        int index = (Integer) indexObj;
-
-        // Evaluate value
-        Object value = evaluate(statement.value);
-        Type valueType = statement.value.getType();
-        Value wrappedValue = wrapValue(value, valueType);
+        int index = evaluateIndex(statement.index);
 
-        // Set array element
-        array.set(index, wrappedValue);
+        // Evaluate value and set array element
+        store(array, index, statement.value);
 
         return null;
     }
@@ -564,7 +910,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
     {
         // Get structure value
-        Value structVal = environment.get_value(statement.objectName.lexeme());
+        Value structVal = lookUp(statement, statement.objectName);
 
         if (!(structVal instanceof StructValue struct))
         {
@@ -572,13 +918,9 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
                     Messages.cannotAccessFieldOfNonStruct());
         }
 
-        // Evaluate value
-        Object value = evaluate(statement.value);
-        Type valueType = statement.value.getType();
-        Value wrappedValue = wrapValue(value, valueType);
-
-        // Set field
-        struct.setField(statement.fieldName.lexeme(), wrappedValue);
+        // Evaluate value and set field
+        int index = fieldIndex(struct, statement.getFieldIndex(), statement.fieldName);
+        store(struct, index, statement.value);
 
         return null;
     }
@@ -586,54 +928,163 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     @Override
     public Void visitForStatement(Statement.For statement)
     {
-        String varName = statement.variable.lexeme();
+        // Evaluate start, end, and step
+        int start = evaluateInt(statement.start);
+        int end = evaluateInt(statement.end);
+        int step = 1;
+
+        if (statement.step != null)
+        {
+            step = evaluateInt(statement.step);
+        }
+
+        if (statement.parallel && step != 0)
+        {
+            executeParallelFor(statement, start, end, step);
+            return null;
+        }
+
+        // A resolved entier loop variable is updated in place
+        boolean unboxed = statement.getSlot() >= 0
+                && environment.getTypeAt(statement.getDepth(), statement.getSlot()) == TypeFactory.INTEGER;
+
+        // Determine loop direction
+        boolean ascending = step > 0;
+
+        // Execute loop
+        if (ascending)
+        {
+            for (int i = start; i <= end && !returning; i += step)
+            {
+                // Update loop variable
+                setLoopVariable(statement, unboxed, i);
+                TieredCompiler.loopIteration(currentProfile);
+
+                // Execute body
+                executeBlock(statement.body);
+            }
+        }
+        else
+        {
+            for (int i = start; i >= end && !returning; i += step)
+            {
+                // Update loop variable
+                setLoopVariable(statement, unboxed, i);
+                TieredCompiler.loopIteration(currentProfile);
+
+                // Execute body
+                executeBlock(statement.body);
+            }
+        }
+
+        return null;
+    }
 
-        // Evaluate start, end, and step
-        int start = (Integer) evaluate(statement.start);
-        int end = (Integer) evaluate(statement.end);
-        int step = 1;
+    // Threads running the iterations of a pour parallele
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
 
-        if (statement.step != null)
+    /**
+     * Run the iterations of a pour parallele in chunks, a few per worker,
+     * each over its own copy of the frame. The workers, this thread among
+     * them, take the next chunk as they finish one. The Checker only lets
+     * the iterations write their own array elements, so once they are done
+     * the frame takes the variables of the chunk that ran the last
+     * iteration, as if the loop had run in order; a runtime error is the
+     * one of the earliest failing chunk
+     */
+    private void executeParallelFor(Statement.For statement, int start, int end, int step)
+    {
+        long distance = step > 0 ? (long) end - start : (long) start - end;
+        if (distance < 0)
         {
-            step = (Integer) evaluate(statement.step);
+            return;
         }
+        long count = distance / Math.abs((long) step) + 1;
 
-        // Determine loop direction
-        boolean ascending = step > 0;
+        // Workers report errors in the language of this execution
+        boolean language = Config.getLanguage();
 
-        // Execute loop
-        if (ascending)
+        int chunks = (int) Math.min(count, PARALLELISM * 4L);
+        Interpreter[] contexts = new Interpreter[chunks];
+        RuntimeError[] failures = new RuntimeError[chunks];
+        for (int c = 0; c < chunks; c++)
         {
-            for (int i = start; i <= end; i += step)
+            contexts[c] = new Interpreter(this);
+        }
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () ->
+        {
+            Boolean previous = Config.setThreadLanguage(language);
+            try
             {
-                // Update loop variable
-                Value loopValue = new AtomicValue<>(i, AtomicTypes.INTEGER);
-                environment.update_value(varName, loopValue);
-
-                // Execute body
-                for (Statement stmt : statement.body)
+                for (int c = next.getAndIncrement(); c < chunks; c = next.getAndIncrement())
                 {
-                    execute(stmt);
+                    try
+                    {
+                        contexts[c].runIterations(statement, start, step, count * c / chunks, count * (c + 1) / chunks);
+                    }
+                    catch (RuntimeError e)
+                    {
+                        failures[c] = e;
+                    }
                 }
             }
-        }
-        else
+            finally
+            {
+                Config.setThreadLanguage(previous);
+            }
+        };
+
+        List<Future<?>> helpers = new ArrayList<>();
+        try
         {
-            for (int i = start; i >= end; i += step)
+            ExecutorService threads = threads(stackBytes());
+            for (int w = 1; w < Math.min(chunks, PARALLELISM); w++)
             {
-                // Update loop variable
-                Value loopValue = new AtomicValue<>(i, AtomicTypes.INTEGER);
-                environment.update_value(varName, loopValue);
+                helpers.add(threads.submit(worker));
+            }
+        }
+        catch (OutOfMemoryError e)
+        {
+            // The chunks left run on the threads already started
+        }
+        worker.run();
+        await(helpers);
 
-                // Execute body
-                for (Statement stmt : statement.body)
-                {
-                    execute(stmt);
-                }
+        for (RuntimeError failure : failures)
+        {
+            if (failure != null)
+            {
+                throw failure;
             }
         }
+        environment.restore(contexts[chunks - 1].environment);
+    }
+
+    /**
+     * Run iterations from (included) to to (excluded) of a pour parallele
+     */
+    private void runIterations(Statement.For statement, int start, int step, long from, long to)
+    {
+        boolean unboxed = statement.getSlot() >= 0
+                && environment.getTypeAt(statement.getDepth(), statement.getSlot()) == TypeFactory.INTEGER;
+        for (long k = from; k < to; k++)
+        {
+            setLoopVariable(statement, unboxed, (int) (start + k * step));
+            executeBlock(statement.body);
+        }
+    }
 
-        return null;
+    private void setLoopVariable(Statement.For statement, boolean unboxed, int value)
+    {
+        if (unboxed)
+        {
+            environment.setIntAt(statement.getDepth(), statement.getSlot(), value);
+        }
+        else
+        {
+            assign(statement, statement.variable, new AtomicValue<>(value, AtomicTypes.INTEGER));
+        }
     }
 
     // ========================================================================
@@ -656,8 +1107,19 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     @Override
     public Void visitReturnStatement(Statement.Return statement)
     {
-        Object value = evaluate(statement.value);
-        throw new ReturnException(value);
+        // A call of the current function in tail position reuses its frame
+        if (statement.value instanceof Expression.Call call
+                && currentFunction != null
+                && functions.get(call.name.lexeme()) == currentFunction)
+        {
+            tailArguments = evaluateArguments(call.arguments);
+        }
+        else
+        {
+            returnValue = evaluate(statement.value);
+        }
+        returning = true;
+        return null;
     }
 
     @Override
@@ -679,15 +1141,8 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
                     Messages.functionNotDefined(statement.name.lexeme()));
         }
 
-        // Evaluate arguments
-        List<Object> arguments = new ArrayList<>();
-        for (Expression arg : statement.arguments)
-        {
-            arguments.add(evaluate(arg));
-        }
-
         // Execute method
-        executeMethod(method, arguments);
+        executeMethod(method, evaluateArguments(statement.arguments), statement.name);
 
         return null;
     }
@@ -728,7 +1183,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
                 }
                 else
                 {
-                    return (double) left - (double) right;
+                    return ((Number) left).doubleValue() - ((Number) right).doubleValue();
                 }
 
             case SLASH:
@@ -769,7 +1224,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
                 }
                 else
                 {
-                    return (double) left * (double) right;
+                    return ((Number) left).doubleValue() * ((Number) right).doubleValue();
                 }
 
             case MOD:
@@ -785,12 +1240,12 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
                 }
                 else
                 {
-                    double divisor = (double) right;
+                    double divisor = ((Number) right).doubleValue();
                     if (divisor == 0.0)
                     {
                         throw new RuntimeError(expression.operator, Messages.divisionByZero());
                     }
-                    return (double) left % divisor;
+                    return ((Number) left).doubleValue() % divisor;
                 }
 
             case PLUS:
@@ -806,7 +1261,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
                 }
                 else
                 {
-                    return (double) left + (double) right;
+                    return ((Number) left).doubleValue() + ((Number) right).doubleValue();
                 }
         }
 
@@ -859,6 +1314,11 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     @Override
     public Object visitVariableExpression(Expression.Variable expression)
     {
+        if (expression.getSlot() >= 0)
+        {
+            return environment.loadAt(expression.getDepth(), expression.getSlot());
+        }
+
         Value value = environment.get_value(expression.name.lexeme());
 
         if (value instanceof AtomicValue)
@@ -891,20 +1351,17 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     @Override
     public Object visitCallExpression(Expression.Call expression)
     {
-
         String functionName = expression.name.lexeme();
-        // Check if it's a native function
-        if (nativeFunctions.containsKey(functionName))
+        if (!expression.isBound())
         {
-            // Evaluate arguments
-            List<Object> args = new ArrayList<>();
-            for (Expression arg : expression.arguments)
-            {
-                args.add(evaluate(arg));
-            }
+            // A Fonction of the program hides the native of the same name
+            expression.bind(functions.containsKey(functionName) ? null : Natives.get(functionName));
+        }
 
-            // Call native function
-            return nativeFunctions.get(functionName).call(args);
+        NativeFunction nativeFunction = expression.getNativeFunction();
+        if (nativeFunction != null)
+        {
+            return callNative(nativeFunction, expression);
         }
 
         // Get function declaration
@@ -916,15 +1373,65 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
                     Messages.functionNotDefined(expression.name.lexeme()));
         }
 
-        // Evaluate arguments
-        List<Object> arguments = new ArrayList<>();
-        for (Expression arg : expression.arguments)
+        List<Object> arguments = evaluateArguments(expression.arguments);
+        Memo memo = memos == null ? null : memos.get(functionName);
+        if (memo == null)
+        {
+            // Execute function and return result
+            return executeFunction(function, arguments, expression.name);
+        }
+
+        // A pure function gives the same result for the same atomic arguments
+        Object result = memo.get(arguments);
+        if (result != null)
+        {
+            memo.hits++;
+            return result;
+        }
+        memo.misses++;
+        result = executeFunction(function, arguments, expression.name);
+        if (result != null)
+        {
+            memo.put(arguments, result);
+        }
+        return result;
+    }
+
+    private Object callNative(NativeFunction nativeFunction, Expression.Call expression)
+    {
+        // Arguments go straight to the method of the call's arity
+        List<Expression> args = expression.arguments;
+        try
         {
-            arguments.add(evaluate(arg));
+            return switch (args.size())
+            {
+                case 0 -> nativeFunction.call0(files);
+                case 1 -> nativeFunction.call1(files, evaluate(args.get(0)));
+                case 2 -> nativeFunction.call2(files, evaluate(args.get(0)), evaluate(args.get(1)));
+                case 3 -> nativeFunction.call3(files, evaluate(args.get(0)), evaluate(args.get(1)),
+                        evaluate(args.get(2)));
+                default -> nativeFunction.call(files, evaluateArguments(args));
+            };
+        }
+        catch (RuntimeError e)
+        {
+            // Natives know no token: their errors are reported at the call
+            if (e.token() != null)
+            {
+                throw e;
+            }
+            throw new RuntimeError(expression.name, e.getMessage());
         }
+    }
 
-        // Execute function and return result
-        return executeFunction(function, arguments);
+    private List<Object> evaluateArguments(List<Expression> expressions)
+    {
+        List<Object> arguments = new ArrayList<>(expressions.size());
+        for (Expression argument : expressions)
+        {
+            arguments.add(evaluate(argument));
+        }
+        return arguments;
     }
 
     @Override
@@ -940,24 +1447,10 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         }
 
         // Evaluate index
-        Object indexObj = evaluate(expression.index);
-        if (!(indexObj instanceof Integer))
-        {
-            throw new RuntimeError(null, "Array index must be an integer");
-        }
-
-        int index = (Integer) indexObj;
-
-        // Get element
-        Value element = arrayValue.get(index);
+        int index = evaluateIndex(expression.index);
 
-        // Unwrap if atomic value
-        if (element instanceof AtomicValue)
-        {
-            return ((AtomicValue<?>) element).getValue();
-        }
-
-        return element;
+        // Get element, already unwrapped
+        return arrayValue.getElement(index);
     }
 
     @Override
@@ -972,18 +1465,9 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
             throw new RuntimeError(expression.field, Messages.cannotAccessFieldOfNonStruct());
         }
 
-        String fieldName = expression.field.lexeme();
-
-        // Get field value
-        Value fieldValue = structValue.getField(fieldName);
-
-        // Unwrap if atomic value
-        if (fieldValue instanceof AtomicValue)
-        {
-            return ((AtomicValue<?>) fieldValue).getValue();
-        }
-
-        return fieldValue;
+        // Get field value, already unwrapped
+        int index = fieldIndex(structValue, expression.getFieldIndex(), expression.field);
+        return structValue.loadField(index);
     }
 
     @Override
@@ -991,7 +1475,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     {
         // Get array type from expression
         ArrayType arrayType = (ArrayType) expression.getType();
-        ArrayValue arrayValue = new ArrayValue(arrayType);
+        ArrayValue arrayValue = ArrayValue.create(arrayType);
 
         // Evaluate and store each element
         for (int i = 0; i < expression.elements.size(); i++)
@@ -1009,7 +1493,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     public Void visitFieldReadStatement(Statement.FieldRead statement)
     {
         // Get structure value
-        Value structVal = environment.get_value(statement.objectName.lexeme());
+        Value structVal = lookUp(statement, statement.objectName);
 
         if (!(structVal instanceof StructValue struct))
         {
@@ -1018,16 +1502,14 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         }
 
         // Get field type
-        Type structType = environment.get_type(statement.objectName.lexeme());
+        Type structType = typeOf(statement, statement.objectName);
         StructType st = (StructType) structType;
         Type fieldType = st.getFieldType(statement.fieldName.lexeme());
 
-        // Prompt and read value
-        System.out.print("> ");
-        Value value = readValueOfType(fieldType);
-
-        // Set field
-        struct.setField(statement.fieldName.lexeme(), value);
+        // Prompt and read value into the field
+        output().print("> ");
+        read(struct, fieldIndex(struct, statement.getFieldIndex(), statement.fieldName), fieldType,
+                statement.fieldName);
 
         return null;
     }
@@ -1036,7 +1518,7 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     public Void visitArrayReadStatement(Statement.ArrayRead statement)
     {
         // Get array value
-        Value arrayVal = environment.get_value(statement.arrayName.lexeme());
+        Value arrayVal = lookUp(statement, statement.arrayName);
 
         if (!(arrayVal instanceof ArrayValue array))
         {
@@ -1044,203 +1526,312 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
         }
 
         // Evaluate index
-        Object indexObj = evaluate(statement.index);
-        if (!(indexObj instanceof Integer))
-        {
-            throw new RuntimeError(null, "Array index must be an integer");
-        }
-
-        int index = (Integer) indexObj;
+        int index = evaluateIndex(statement.index);
 
         // Get element type
-        Type arrayType = environment.get_type(statement.arrayName.lexeme());
+        Type arrayType = typeOf(statement, statement.arrayName);
         ArrayType at = (ArrayType) arrayType;
         Type elementType = at.getElementType();
 
-        // Prompt and read value
-        System.out.print("> ");
-        Value value = readValueOfType(elementType);
-
-        // Set array element
-        array.set(index, value);
+        // Prompt and read value into the element
+        output().print("> ");
+        read(array, index, elementType, statement.arrayName);
 
         return null;
     }
 
-    // Helper method to extract reading logic
-    private Value readValueOfType(Type type)
+    /**
+     * Read a value of a type for lire
+     */
+    private Value read(Type type, Token token)
     {
-        Value value = null;
-
-        Scanner scanner = new Scanner(System.in);
         if (type.equals(TypeFactory.INTEGER))
         {
-            try
-            {
-                int inputValue = scanner.nextInt();
-                scanner.nextLine(); // Consume newline
-                value = new AtomicValue<>(inputValue, AtomicTypes.INTEGER);
-            }
-            catch (Exception e)
-            {
-                throw new RuntimeError(null, "Expected integer input");
-            }
+            return new AtomicValue<>(readInt(token), AtomicTypes.INTEGER);
         }
-        else if (type.equals(TypeFactory.FLOATING))
+        if (type.equals(TypeFactory.FLOATING))
         {
-            try
-            {
-                String input = scanner.nextLine().trim();
-
-                // Handle both comma and dot as decimal separator
-                if (Config.getLanguage())
-                {
-                    // French: comma is decimal separator
-                    input = input.replace(',', '.');
-                }
+            return new AtomicValue<>(readReal(token), AtomicTypes.FLOATING);
+        }
+        if (type.equals(TypeFactory.STRING))
+        {
+            return new AtomicValue<>(input().readLine(), AtomicTypes.STRING);
+        }
+        if (type.equals(TypeFactory.CHAR))
+        {
+            return new AtomicValue<>(readChar(token), AtomicTypes.CHAR);
+        }
+        if (type.equals(TypeFactory.BOOLEAN))
+        {
+            return new AtomicValue<>(readBoolean(token), AtomicTypes.BOOLEAN);
+        }
+        throw new RuntimeError(token, "Cannot read value of type: " + type);
+    }
 
-                double inputValue = Double.parseDouble(input);
-                value = new AtomicValue<>(inputValue, AtomicTypes.FLOATING);
-            }
-            catch (Exception e)
-            {
-                throw new RuntimeError(null, "Expected real number input");
-            }
+    /**
+     * Read a value into an array element, unboxed for primitive arrays
+     */
+    private void read(ArrayValue array, int index, Type elementType, Token token)
+    {
+        if (array instanceof IntArrayValue ints)
+        {
+            ints.setInt(index, readInt(token));
         }
-        else if (type.equals(TypeFactory.STRING))
+        else if (array instanceof DoubleArrayValue reals)
         {
-            String input = scanner.nextLine();
-            value = new AtomicValue<>(input, AtomicTypes.STRING);
+            reals.setDouble(index, readReal(token));
         }
-        else if (type.equals(TypeFactory.CHAR))
+        else if (array instanceof BooleanArrayValue booleans)
+        {
+            booleans.setBoolean(index, readBoolean(token));
+        }
+        else if (array instanceof CharArrayValue chars)
+        {
+            chars.setChar(index, readChar(token));
+        }
+        else
         {
-            String input = scanner.nextLine().trim();
+            array.set(index, read(elementType, token));
+        }
+    }
 
-            if (input.length() != 1)
-            {
-                throw new RuntimeError(null, "Expected single character input");
-            }
+    /**
+     * Read a value into a structure field, unboxed for primitive fields
+     */
+    private void read(StructValue struct, int index, Type fieldType, Token token)
+    {
+        if (fieldType == TypeFactory.INTEGER)
+        {
+            struct.setIntField(index, readInt(token));
+        }
+        else if (fieldType == TypeFactory.FLOATING)
+        {
+            struct.setDoubleField(index, readReal(token));
+        }
+        else if (fieldType == TypeFactory.BOOLEAN)
+        {
+            struct.setBooleanField(index, readBoolean(token));
+        }
+        else if (fieldType == TypeFactory.CHAR)
+        {
+            struct.setCharField(index, readChar(token));
+        }
+        else
+        {
+            struct.setField(index, read(fieldType, token));
+        }
+    }
 
-            value = new AtomicValue<>(input.charAt(0), AtomicTypes.CHAR);
+    private int readInt(Token token)
+    {
+        try
+        {
+            return input().readInt();
         }
-        else if (type.equals(TypeFactory.BOOLEAN))
+        catch (InputMismatchException e)
         {
-            String input = scanner.nextLine().trim().toLowerCase();
+            throw new RuntimeError(token, "Expected integer input");
+        }
+    }
 
-            // Accept multiple formats
-            if (input.equals("1") || input.equals("vrai") || input.equals("true"))
-            {
-                value = new AtomicValue<>(true, AtomicTypes.BOOLEAN);
-            }
-            else if (input.equals("0") || input.equals("faux") || input.equals("false"))
-            {
-                value = new AtomicValue<>(false, AtomicTypes.BOOLEAN);
-            }
-            else
-            {
-                String expectedFormats = Config.getLanguage()
-                        ? "vrai/faux, 1/0"
-                        : "true/false, 1/0";
-                throw new RuntimeError(null,
-                        "Expected boolean input (" + expectedFormats + ")");
-            }
+    private double readReal(Token token)
+    {
+        try
+        {
+            // French accepts the comma as decimal separator too
+            return input().readDouble(Config.getLanguage());
         }
-        else
+        catch (InputMismatchException e)
         {
-            throw new RuntimeError(null, "Cannot read value of type: " + type);
+            throw new RuntimeError(token, "Expected real number input");
         }
+    }
 
-        return value;
+    private char readChar(Token token)
+    {
+        try
+        {
+            return input().readChar();
+        }
+        catch (InputMismatchException e)
+        {
+            throw new RuntimeError(token, "Expected single character input");
+        }
     }
 
-// Then use it in the visitor methods as shown above
+    private boolean readBoolean(Token token)
+    {
+        try
+        {
+            return input().readBoolean();
+        }
+        catch (InputMismatchException e)
+        {
+            String expectedFormats = Config.getLanguage()
+                    ? "vrai/faux, 1/0"
+                    : "true/false, 1/0";
+            throw new RuntimeError(token, "Expected boolean input (" + expectedFormats + ")");
+        }
+    }
 
     /**
      * Execute a function and return its result
      */
-    private Object executeFunction(Statement.FunctionDeclaration function, List<Object> arguments)
+    private Object executeFunction(Statement.FunctionDeclaration function, List<Object> arguments, Token call)
     {
-        // Create new environment for function
+        // Hot functions run as compiled JVM code
+        TieredCompiler.Profile profile = null;
+        if (jit != null && (memos == null || !memos.containsKey(function.name.lexeme())))
+        {
+            MethodHandle compiled;
+            if (worker)
+            {
+                compiled = jit.compiled(function);
+            }
+            else
+            {
+                profile = jit.profile(function);
+                compiled = jit.enter(profile, function);
+            }
+            if (compiled != null)
+            {
+                return invokeCompiled(compiled, arguments, call);
+            }
+        }
+
+        enterFrame(call);
+        TieredCompiler.Profile previousProfile = currentProfile;
+        Statement.FunctionDeclaration previousFunction = currentFunction;
         Environment previous = this.environment;
-        this.environment = new Environment(globals);
+        currentProfile = profile;
+        currentFunction = function;
 
         try
         {
-            // Bind parameters
-            for (int i = 0; i < function.parameters.size(); i++)
+            // A tail call runs the body again in a new frame instead of nesting
+            do
             {
-                Statement.Parameter param = function.parameters.get(i);
-                Object argValue = arguments.get(i);
-                Value wrappedValue = wrapValue(argValue, param.type);
-                environment.define(param.name.lexeme(), param.type, wrappedValue);
+                this.environment = frame(function.parameters, function.localVariables, function.getLayout(), arguments);
+                tailArguments = null;
+                returning = false;
+                executeBlock(function.body);
+                arguments = tailArguments;
             }
+            while (arguments != null);
 
-            // initialize local variable to null;
-            for (Map.Entry<String, Type> localVar : function.localVariables.entrySet())
-            {
-                environment.define(localVar.getKey(), localVar.getValue(), null);
-            }
+            // If no return statement was executed, return null
+            // (This shouldn't happen with proper type checking)
+            return returning ? returnValue : null;
+        }
+        finally
+        {
+            // Restore the caller
+            returning = false;
+            returnValue = null;
+            tailArguments = null;
+            this.environment = previous;
+            currentProfile = previousProfile;
+            currentFunction = previousFunction;
+            frames--;
+        }
+    }
 
-            // Execute function body
-            for (Statement stmt : function.body)
+    /**
+     * Execute a method (no return value)
+     */
+    private void executeMethod(Statement.MethodDeclaration method, List<Object> arguments, Token call)
+    {
+        // Hot methods run as compiled JVM code
+        TieredCompiler.Profile profile = null;
+        if (jit != null && !worker)
+        {
+            profile = jit.profile(method);
+            MethodHandle compiled = jit.enter(profile, method);
+            if (compiled != null)
             {
-                execute(stmt);
+                invokeCompiled(compiled, arguments, call);
+                return;
             }
         }
-        catch (ReturnException returnValue)
+
+        enterFrame(call);
+        TieredCompiler.Profile previousProfile = currentProfile;
+        Statement.FunctionDeclaration previousFunction = currentFunction;
+        Environment previous = this.environment;
+        currentProfile = profile;
+        currentFunction = null;
+
+        try
         {
-            // Restore environment and return the value
-            this.environment = previous;
-            return returnValue.value;
+            this.environment = frame(method.parameters, method.localVariables, method.getLayout(), arguments);
+            executeBlock(method.body);
         }
         finally
         {
-            // Restore environment
+            // Restore the caller
+            returning = false;
             this.environment = previous;
+            currentProfile = previousProfile;
+            currentFunction = previousFunction;
+            frames--;
         }
+    }
 
-        // If no return statement was executed, return null
-        // (This shouldn't happen with proper type checking)
-        return null;
+    private void enterFrame(Token call)
+    {
+        if (frames == maxFrames)
+        {
+            throw new RuntimeError(call, Messages.stackOverflow());
+        }
+        frames++;
+    }
+
+    private Object invokeCompiled(MethodHandle compiled, List<Object> arguments, Token call)
+    {
+        // The compiled routine takes a frame, and counts the calls it nests
+        if (frames == maxFrames)
+        {
+            throw new RuntimeError(call, Messages.stackOverflow());
+        }
+        return TieredCompiler.invoke(compiled, arguments, maxFrames - frames - 1);
     }
 
     /**
-     * Execute a method (no return value)
+     * Create the frame of a routine: parameters hold the arguments and
+     * locals their zero value
      */
-    private void executeMethod(Statement.MethodDeclaration method, List<Object> arguments)
+    private Environment frame(List<Statement.Parameter> parameters, Map<String, Type> localVariables,
+                              FrameLayout layout, List<Object> arguments)
     {
-        // Create new environment for method
-        Environment previous = this.environment;
-        this.environment = new Environment(globals);
+        Environment frame = layout != null
+                ? new Environment(globals, layout)
+                : new Environment(globals);
 
-        try
+        // Bind parameters
+        for (int i = 0; i < parameters.size(); i++)
         {
-            // Bind parameters
-            for (int i = 0; i < method.parameters.size(); i++)
+            Statement.Parameter param = parameters.get(i);
+            Object argValue = arguments.get(i);
+            if (layout != null)
             {
-                Statement.Parameter param = method.parameters.get(i);
-                Object argValue = arguments.get(i);
-                Value wrappedValue = wrapValue(argValue, param.type);
-                environment.define(param.name.lexeme(), param.type, wrappedValue);
+                // Parameters occupy the first slots of the frame
+                frame.storeAt(0, i, argValue);
             }
-
-            // Initialize local variables to null;
-            for (Map.Entry<String, Type> localVar : method.localVariables.entrySet())
+            else
             {
-                environment.define(localVar.getKey(), localVar.getValue(), null);
+                frame.define(param.name.lexeme(), param.type, wrapValue(argValue, param.type));
             }
+        }
 
-            // Execute method body
-            for (Statement stmt : method.body)
+        // initialize local variable to null;
+        if (layout == null)
+        {
+            for (Map.Entry<String, Type> localVar : localVariables.entrySet())
             {
-                execute(stmt);
+                frame.define(localVar.getKey(), localVar.getValue(), null);
             }
         }
-        finally
-        {
-            // Restore environment
-            this.environment = previous;
-        }
+        return frame;
     }
 
     /**
@@ -1290,19 +1881,22 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     {
         checkNumberOperands(null, left, right);
 
-        int leftVal, rightVal;
-
-        if (type.equals(TypeFactory.INTEGER))
-        {
-            leftVal = (int) left;
-            rightVal = (int) right;
-        }
-        else
+        if (left instanceof Integer && right instanceof Integer)
         {
-            leftVal = (int) left;
-            rightVal = (int) right;
+            int leftVal = (int) left;
+            int rightVal = (int) right;
+            return switch (operator) {
+                case GREATER -> leftVal > rightVal;
+                case GREATER_OR_EQUAL -> leftVal >= rightVal;
+                case LESS -> leftVal < rightVal;
+                case LESS_OR_EQUAL -> leftVal <= rightVal;
+                default -> null;
+            };
         }
 
+        // reel operands (or mixed) compare as doubles, never truncated
+        double leftVal = ((Number) left).doubleValue();
+        double rightVal = ((Number) right).doubleValue();
         return switch (operator) {
             case GREATER -> leftVal > rightVal;
             case GREATER_OR_EQUAL -> leftVal >= rightVal;
@@ -1310,7 +1904,6 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
             case LESS_OR_EQUAL -> leftVal <= rightVal;
             default -> null;
         };
-
     }
 
     /**
@@ -1330,6 +1923,11 @@ public class Interpreter implements Expression.Visitor<Object>, Statement.Visito
     {
         if (left == null && right == null) return true;
         if (left == null || right == null) return false;
+        if (left instanceof Number && right instanceof Number && left.getClass() != right.getClass())
+        {
+            // entier against reel compares the numbers
+            return ((Number) left).doubleValue() == ((Number) right).doubleValue();
+        }
         return left.equals(right);
     }
 
@@ -1,21 +1,34 @@
 package io.dream;
 
 import io.dream.ast.Statement;
+import io.dream.cache.CheckedProgram;
+import io.dream.cache.ScriptCache;
 import io.dream.config.Config;
 import io.dream.config.Messages;
 import io.dream.error.RuntimeError;
+import io.dream.exec.Lowering;
+import io.dream.natives.OutputSink;
+import io.dream.optimizer.Optimizer;
 import io.dream.parser.Parser;
 import io.dream.repl.EnhancedREPL;
+import io.dream.resolver.Resolver;
 import io.dream.scanner.Scanner;
 import io.dream.scanner.Token;
 import io.dream.scanner.TokenType;
+import io.dream.tools.AstPrinter;
 import io.dream.types.Checker;
+import io.dream.vm.Compiler;
+import io.dream.vm.Program;
+import io.dream.vm.VM;
 
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 public class Main
@@ -24,6 +37,39 @@ public class Main
     private static boolean hadRuntimeError = false;
     private static Interpreter interpreter = null;
 
+    // Run scripts on the bytecode VM instead of the tree walker
+    private static boolean useVm = false;
+
+    // Compile hot functions of the tree walker to JVM bytecode
+    private static boolean useJit = true;
+
+    // AST optimizations applied after type checking (0 turns them off)
+    private static int optLevel = Optimizer.FULL;
+
+    // Largest function body inlined at level 2, in AST nodes, and how many calls deep
+    private static int inlineSize = Optimizer.DEFAULT_INLINE_SIZE;
+    private static int inlineDepth = Optimizer.DEFAULT_INLINE_DEPTH;
+
+    // Routine calls that may be nested before a stack overflow is reported
+    private static int maxFrames = Interpreter.DEFAULT_MAX_FRAMES;
+
+    // Results kept per pure function of the tree walker, 0 when memoization is off
+    private static int memoSize = 0;
+
+    // Print what ecrire writes line by line instead of in large blocks
+    private static boolean unbuffered = false;
+
+    // Print the optimized program instead of running it
+    private static boolean dumpAst = false;
+
+    // Reuse the checked program of an unchanged script, kept in the cache directory
+    private static boolean useCache = true;
+    private static Path cacheDirectory = ScriptCache.defaultDirectory();
+
+    // Report the time from launch to the first statement, and whether the cache was used
+    private static boolean reportStartup = false;
+    private static long startNanos;
+
     /**
      * The entry point of application.
      *
@@ -32,71 +78,168 @@ public class Main
      */
     public static void main(String[] args) throws IOException
     {
-        if (args.length > 2)
+        startNanos = System.nanoTime();
+        if (args.length == 0)
         {
-            System.out.format("Usage: alglang <script>.al\n");
-            System.exit(64);
-        } else if (args.length == 2)
+            // user prefer run the prompt.
+            runPrompt();
+            return;
+        }
+
+        for (int i = 1; i < args.length; i++)
         {
-            if (args[1].startsWith("--language="))
-            {
-                int language_level = Integer.parseInt(args[1].split("=")[1].trim());
-                if (language_level != 0 && language_level != 1)
-                {
-                    System.err.println("You should provide 0 or 1");
-                    System.exit(64);
-                }
-                Config.setLanguage((language_level == 0));
+            parseOption(args[i]);
+        }
+        if (memoSize > 0 && useVm)
+        {
+            System.err.println("Memoization runs on the tree engine only");
+            System.exit(64);
+        }
 
-                if (!Files.exists(Path.of(args[0])))
-                {
-                    // check to see if the file does exist.
-                    System.err.println("File " + args[0] + " does not exists.");
-                    System.exit(64);
-                }
-                if (args[0].endsWith(".al"))
-                {
-                    // run the file containing the source of the user only if the file ends with the .al extension.
-                    runFile(args[0]);
-                } else
-                {
-                    // the file does exist, but it is not an algo file.
-                    System.err.println("Wrong script file");
-                    System.exit(64);
-                }
+        if (!Files.exists(Path.of(args[0])))
+        {
+            // check to see if the file does exist.
+            System.err.println("File " + args[0] + " does not exists.");
+            System.exit(64);
+        }
+        if (args[0].endsWith(".al"))
+        {
+            // run the file containing the source of the user only if the file ends with the .al extension.
+            runFile(args[0]);
+        } else
+        {
+            // the file does exist, but it is not an algo file.
+            System.err.println("Wrong script file");
+            System.exit(64);
+        }
+    }
 
-            }else
+    /**
+     * Apply one command line option given after the script name
+     *
+     * @param option the option, in the --name=value form
+     */
+    private static void parseOption(String option)
+    {
+        if (option.startsWith("--language="))
+        {
+            int language_level = Integer.parseInt(option.split("=")[1].trim());
+            if (language_level != 0 && language_level != 1)
+            {
+                System.err.println("You should provide 0 or 1");
+                System.exit(64);
+            }
+            Config.setLanguage((language_level == 0));
+        } else if (option.startsWith("--engine="))
+        {
+            String value = option.split("=")[1].trim();
+            if (!value.equals("tree") && !value.equals("vm"))
+            {
+                System.err.println("Your engine should be tree or vm");
+                System.exit(64);
+            }
+            useVm = value.equals("vm");
+        } else if (option.startsWith("--jit="))
+        {
+            String value = option.split("=")[1].trim();
+            if (!value.equals("on") && !value.equals("off"))
+            {
+                System.err.println("The jit should be on or off");
+                System.exit(64);
+            }
+            useJit = value.equals("on");
+        } else if (option.startsWith("--opt-level="))
+        {
+            String value = option.split("=")[1].trim();
+            if (!value.equals("0") && !value.equals("1") && !value.equals("2"))
+            {
+                System.err.println("The optimization level should be 0, 1 or 2");
+                System.exit(64);
+            }
+            optLevel = Integer.parseInt(value);
+        } else if (option.startsWith("--inline-size=") || option.startsWith("--inline-depth="))
+        {
+            int value = -1;
+            try
+            {
+                value = Integer.parseInt(option.split("=")[1].trim());
+            }
+            catch (NumberFormatException ignored)
             {
-                System.err.println("Your prefix should have this form: --language=(0|1).\n 0 means french and 1 english.");
+            }
+            if (value < 0)
+            {
+                System.err.println("The inlining limits should be positive numbers");
                 System.exit(64);
             }
-        } else if (args.length == 1)
+            if (option.startsWith("--inline-size="))
+            {
+                inlineSize = value;
+            }
+            else
+            {
+                inlineDepth = value;
+            }
+        } else if (option.startsWith("--max-frames="))
         {
-            if (!Files.exists(Path.of(args[0])))
+            try
+            {
+                maxFrames = Integer.parseInt(option.split("=")[1].trim());
+            }
+            catch (NumberFormatException e)
             {
-                // check to see if the file does exist.
-                System.err.println("File " + args[0] + " does not exists.");
+                maxFrames = 0;
+            }
+            if (maxFrames <= 0 || maxFrames > Interpreter.MAX_FRAMES)
+            {
+                System.err.println(Messages.invalidFrameBudget(Interpreter.MAX_FRAMES));
                 System.exit(64);
             }
-            if (args[0].endsWith(".al"))
+        } else if (option.equals("--memo") || option.startsWith("--memo="))
+        {
+            memoSize = Interpreter.DEFAULT_MEMO_SIZE;
+            if (option.startsWith("--memo="))
             {
-                // run the file containing the source of the user only if the file ends with the .al extension.
-                runFile(args[0]);
-            } else
+                try
+                {
+                    memoSize = Integer.parseInt(option.split("=")[1].trim());
+                }
+                catch (NumberFormatException e)
+                {
+                    memoSize = 0;
+                }
+            }
+            if (memoSize <= 0)
             {
-                // the file does exist, but it is not an algo file.
-                System.err.println("Wrong script file");
+                System.err.println("The memoization cache size should be a positive number");
                 System.exit(64);
             }
+        } else if (option.equals("--unbuffered"))
+        {
+            unbuffered = true;
+        } else if (option.equals("--dump-ast"))
+        {
+            dumpAst = true;
+        } else if (option.equals("--no-cache"))
+        {
+            useCache = false;
+        } else if (option.startsWith("--cache-dir="))
+        {
+            cacheDirectory = Paths.get(option.substring("--cache-dir=".length()));
+        } else if (option.equals("--startup-time"))
+        {
+            reportStartup = true;
         } else
         {
-            // user prefer run the prompt.
-            runPrompt();
+            System.err.println("Usage: alglang <script>.al [--language=(0|1)] [--engine=(tree|vm)] [--jit=(on|off)] [--opt-level=(0|1|2)] [--inline-size=N] [--inline-depth=N] [--max-frames=N] [--memo[=N]] [--unbuffered] [--dump-ast] [--no-cache] [--cache-dir=DIR] [--startup-time]\n 0 means french and 1 english.");
+            System.exit(64);
         }
     }
 
     private static void runPrompt() throws IOException
     {
+        // Lines show as they are written in an interactive session
+        unbuffered = true;
         EnhancedREPL repl = new EnhancedREPL();
         repl.start();
     }
@@ -109,8 +252,36 @@ public class Main
      */
     private static void runFile(String fileName) throws IOException
     {
-        byte[] bytes = Files.readAllBytes(Paths.get(fileName));
-        run(new String(bytes, Charset.defaultCharset()));
+        // The scanner decodes the mapped file as the parser asks for tokens
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
+        {
+            if (!useCache)
+            {
+                run(new Parser(new Scanner(channel, Charset.defaultCharset())));
+            }
+            else
+            {
+                // An unchanged script skips scanning, parsing and type checking
+                ScriptCache cache = new ScriptCache(cacheDirectory);
+                MappedByteBuffer source = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                String key = cache.key(source, Config.getLanguage(), Charset.defaultCharset());
+
+                CheckedProgram program = cache.load(key);
+                boolean warm = program != null;
+                if (!warm)
+                {
+                    program = check(new Parser(new Scanner(channel, Charset.defaultCharset())));
+                    if (program != null)
+                    {
+                        cache.store(key, program);
+                    }
+                }
+                if (program != null)
+                {
+                    run(program, warm);
+                }
+            }
+        }
 
         if (Main.hadError) System.exit(64);
         if (Main.hadRuntimeError) System.exit(70);
@@ -127,29 +298,127 @@ public class Main
         Scanner scanner = new Scanner(script);
         List<Token> tokens = scanner.scanTokens();
 
-        Parser parser = new Parser(tokens);
+        run(new Parser(tokens));
+    }
+
+    /**
+     * This function checks and runs the program read by a parser
+     *
+     * @param parser the parser over the script's tokens
+     * @throws IOException the io exception
+     */
+    private static void run(Parser parser) throws IOException
+    {
+        CheckedProgram program = check(parser);
+        if (program != null)
+        {
+            run(program, false);
+        }
+    }
+
+    /**
+     * This function parses and type checks a script
+     *
+     * @param parser the parser over the script's tokens
+     * @return the checked program, or null when the script has errors
+     */
+    private static CheckedProgram check(Parser parser)
+    {
         List<Statement> statements = parser.parse();
+        if (hadError)
+        {
+            return null;
+        }
+
+        try
+        {
+            // Create type checker with symbol table from parser
+            Checker typeChecker = new Checker(
+                    parser.getSymbolTable(),
+                    parser.getFunctionTable(),
+                    parser.getMethodTable(),
+                    parser.getStructTable()
+            );
+            typeChecker.check(statements);
+        } catch (Exception e)
+        {
+            System.err.println(Messages.typeError() + e.getMessage());
+            hadError = true;
+            return null;
+        }
+
+        return new CheckedProgram(statements, parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable(), parser.getConstantTable());
+    }
+
+    /**
+     * This function optimizes and runs a checked program
+     *
+     * @param checked the program
+     * @param warm whether the program came from the cache
+     */
+    private static void run(CheckedProgram checked, boolean warm)
+    {
+        List<Statement> statements = checked.statements();
+        Program program = null;
 
         if (!hadError)
         {
             try
             {
-                // Create type checker with symbol table from parser
-                Checker typeChecker = new Checker(
-                        parser.getSymbolTable(),
-                        parser.getFunctionTable(),
-                        parser.getMethodTable(),
-                        parser.getStructTable()
-                );
-                typeChecker.check(statements);
+                // Fold constants, drop code that can never run, inline small functions and simplify loops
+                statements = new Optimizer(optLevel, checked.symbolTable(), inlineSize, inlineDepth)
+                        .optimize(statements);
+                if (dumpAst)
+                {
+                    System.out.print(new AstPrinter().print(statements));
+                    return;
+                }
+
+                // Bind every variable use to its frame slot
+                Resolver resolver = new Resolver(checked.symbolTable());
+                resolver.resolve(statements);
+
+                if (useVm)
+                {
+                    try
+                    {
+                        program = new Compiler(resolver.getGlobalLayout()).compile(statements);
+                    }
+                    catch (RuntimeError e)
+                    {
+                        // A checked script the VM cannot compile, one calling a native for instance
+                        if (e.token() == null)
+                        {
+                            throw e;
+                        }
+                        error(e.token(), e.getMessage());
+                        return;
+                    }
+                }
+                else
+                {
+                    // Specialize expressions on their checked types
+                    new Lowering().lower(statements);
+                }
 
                 // Create interpreter with symbol table
                 interpreter = new Interpreter(
-                        parser.getSymbolTable(),
-                        parser.getFunctionTable(),
-                        parser.getMethodTable(),
-                        parser.getStructTable()
+                        checked.symbolTable(),
+                        checked.functionTable(),
+                        checked.methodTable(),
+                        checked.structTable()
                 );
+                if (!useJit)
+                {
+                    interpreter.disableJit();
+                }
+                interpreter.setMaxFrames(maxFrames);
+                interpreter.setOutputSink(outputSink());
+                if (memoSize > 0)
+                {
+                    interpreter.memoize(statements, memoSize);
+                }
             } catch (Exception e)
             {
                 System.err.println(Messages.typeError() + e.getMessage());
@@ -160,10 +429,27 @@ public class Main
 
         if (!hadError)
         {
-            interpreter.interpret(statements);
+            if (reportStartup)
+            {
+                System.err.println(Messages.startupTime(warm, (System.nanoTime() - startNanos) / 1e6));
+            }
+            if (program != null)
+            {
+                new VM(program, maxFrames, outputSink()).run();
+            }
+            else
+            {
+                interpreter.interpret(statements);
+                interpreter.memoStatistics().forEach(System.err::println);
+            }
         }
     }
 
+    private static OutputSink outputSink()
+    {
+        return new OutputSink(System.out, unbuffered ? 0 : OutputSink.DEFAULT_CAPACITY);
+    }
+
     /**
      * Public method for REPL to execute code
      *
@@ -231,7 +517,10 @@ public class Main
 
     public static void runtimeError(RuntimeError error)
     {
-        System.err.println(error.getMessage() + "\n" + Messages.linePrefix(error.token().line()));
+        // An error with no token is reported without a line rather than lost
+        Token token = error.token();
+        System.err.println(token == null ? error.getMessage()
+                : error.getMessage() + "\n" + Messages.linePrefix(token.line()));
         hadRuntimeError = true;
     }
 }
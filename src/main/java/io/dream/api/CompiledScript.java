@@ -0,0 +1,79 @@
+package io.dream.api;
+
+import io.dream.Interpreter;
+import io.dream.ast.Statement;
+import io.dream.config.Config;
+import io.dream.types.FunctionType;
+import io.dream.types.StructType;
+import io.dream.types.Type;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A checked, optimized and resolved script, ready to run
+ *
+ * Nothing changes the tree once it is compiled, so executions may run
+ * concurrently: each one gets its own interpreter, hence its own globals,
+ * call frames, JIT profiles, input reader and open files, and its own
+ * output and language through its {@link ScriptContext}.
+ */
+public final class CompiledScript
+{
+    private final List<Statement> statements;
+    private final Map<String, Type> symbolTable;
+    private final Map<String, FunctionType> functionTable;
+    private final Map<String, List<Statement.Parameter>> methodTable;
+    private final Map<String, StructType> structTable;
+
+    CompiledScript(List<Statement> statements,
+                   Map<String, Type> symbolTable,
+                   Map<String, FunctionType> functionTable,
+                   Map<String, List<Statement.Parameter>> methodTable,
+                   Map<String, StructType> structTable)
+    {
+        this.statements = Collections.unmodifiableList(statements);
+        this.symbolTable = Collections.unmodifiableMap(symbolTable);
+        this.functionTable = Collections.unmodifiableMap(functionTable);
+        this.methodTable = Collections.unmodifiableMap(methodTable);
+        this.structTable = Collections.unmodifiableMap(structTable);
+    }
+
+    /**
+     * Run the script to its end
+     *
+     * @param context where the script reads and writes
+     * @throws ScriptException when a runtime error stopped the script
+     */
+    public void execute(ScriptContext context)
+    {
+        Diagnostics diagnostics = new Diagnostics();
+        Interpreter interpreter = new Interpreter(symbolTable, functionTable, methodTable, structTable);
+        interpreter.setInput(context.input());
+        interpreter.setOutput(context.output());
+        interpreter.setErrorReporter(diagnostics);
+        interpreter.setMaxFrames(context.maxFrames());
+
+        Boolean previous = Config.setThreadLanguage(context.french());
+        try
+        {
+            interpreter.interpret(statements);
+        }
+        catch (RuntimeException e)
+        {
+            // The few failures the tree walker does not report, an index out of bounds for one
+            throw new ScriptException(e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        finally
+        {
+            Config.setThreadLanguage(previous);
+        }
+        diagnostics.check();
+    }
+
+    /**
+     * Get the checked statements, in program order
+     */
+    public List<Statement> statements() { return this.statements; }
+}
@@ -0,0 +1,52 @@
+package io.dream.api;
+
+import io.dream.config.Messages;
+import io.dream.error.ErrorReporter;
+import io.dream.error.RuntimeError;
+import io.dream.scanner.Token;
+import io.dream.scanner.TokenType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the errors of one compilation or execution, worded as the
+ * command line prints them
+ */
+final class Diagnostics implements ErrorReporter
+{
+    private final List<String> errors = new ArrayList<>();
+
+    @Override
+    public void error(int line, String message)
+    {
+        errors.add(Messages.errorPrefix(line, "") + " :  " + message);
+    }
+
+    @Override
+    public void error(Token token, String message)
+    {
+        String where = token.type() == TokenType.EOF ? Messages.atEnd() : Messages.atToken(token.lexeme());
+        errors.add(Messages.errorPrefix(token.line(), where) + " :  " + message);
+    }
+
+    @Override
+    public void runtimeError(RuntimeError error)
+    {
+        // An error raised away from any token is reported without a line
+        Token token = error.token();
+        errors.add(token == null ? error.getMessage()
+                : error.getMessage() + "\n" + Messages.linePrefix(token.line()));
+    }
+
+    /**
+     * Throw the errors collected so far, if any
+     */
+    void check()
+    {
+        if (!errors.isEmpty())
+        {
+            throw new ScriptException(errors);
+        }
+    }
+}
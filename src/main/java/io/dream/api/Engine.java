@@ -0,0 +1,93 @@
+package io.dream.api;
+
+import io.dream.ast.Statement;
+import io.dream.config.Config;
+import io.dream.config.Messages;
+import io.dream.error.TypeException;
+import io.dream.exec.Lowering;
+import io.dream.optimizer.Optimizer;
+import io.dream.parser.Parser;
+import io.dream.resolver.Resolver;
+import io.dream.scanner.Scanner;
+import io.dream.scanner.Token;
+import io.dream.types.Checker;
+
+import java.util.List;
+
+/**
+ * Entry point for programs embedding AlgoLang
+ *
+ * A script is compiled once into a {@link CompiledScript}, which any number
+ * of threads may then execute at the same time. An engine holds no state of
+ * its own besides its optimization level, so it can be shared as well.
+ */
+public final class Engine
+{
+    private final int optLevel;
+
+    public Engine()
+    {
+        this(Optimizer.FULL);
+    }
+
+    /**
+     * @param optLevel the optimizations applied after type checking (Optimizer.NONE, BASIC or FULL)
+     */
+    public Engine(int optLevel)
+    {
+        this.optLevel = optLevel;
+    }
+
+    /**
+     * Compile a script written in the default language
+     */
+    public CompiledScript compile(String source)
+    {
+        return compile(source, Config.getLanguage());
+    }
+
+    /**
+     * Compile a script: scan, parse, check, optimize and resolve it
+     *
+     * @param source the script's content
+     * @param french whether the script uses the French keywords
+     * @throws ScriptException when the script has syntax or type errors
+     */
+    public CompiledScript compile(String source, boolean french)
+    {
+        Boolean previous = Config.setThreadLanguage(french);
+        try
+        {
+            Diagnostics diagnostics = new Diagnostics();
+            Scanner scanner = new Scanner(source);
+            scanner.setReporter(diagnostics);
+            List<Token> tokens = scanner.scanTokens();
+
+            Parser parser = new Parser(tokens);
+            parser.setReporter(diagnostics);
+            List<Statement> statements = parser.parse();
+            diagnostics.check();
+
+            try
+            {
+                new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                        parser.getMethodTable(), parser.getStructTable()).check(statements);
+            }
+            catch (TypeException e)
+            {
+                throw new ScriptException(Messages.typeError() + e.getMessage());
+            }
+
+            statements = new Optimizer(optLevel, parser.getSymbolTable()).optimize(statements);
+            new Resolver(parser.getSymbolTable()).resolve(statements);
+            new Lowering().lower(statements);
+
+            return new CompiledScript(statements, parser.getSymbolTable(), parser.getFunctionTable(),
+                    parser.getMethodTable(), parser.getStructTable());
+        }
+        finally
+        {
+            Config.setThreadLanguage(previous);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.dream.api;
+
+import io.dream.Interpreter;
+import io.dream.config.Messages;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+
+/**
+ * What one execution of a script reads, writes and reports in
+ *
+ * @param input     what lire reads
+ * @param output    what ecrire writes to
+ * @param french    whether runtime errors are worded in French
+ * @param maxFrames how many routine calls may be nested, from 1 to {@link Interpreter#MAX_FRAMES}
+ */
+public record ScriptContext(InputStream input, PrintStream output, boolean french, int maxFrames)
+{
+    public ScriptContext
+    {
+        if (maxFrames <= 0 || maxFrames > Interpreter.MAX_FRAMES)
+        {
+            throw new IllegalArgumentException(Messages.invalidFrameBudget(Interpreter.MAX_FRAMES));
+        }
+    }
+
+    public ScriptContext(InputStream input, PrintStream output, boolean french)
+    {
+        this(input, output, french, Interpreter.DEFAULT_MAX_FRAMES);
+    }
+}
@@ -0,0 +1,29 @@
+package io.dream.api;
+
+import java.util.List;
+
+/**
+ * Errors that stopped a script from compiling or from running to its end
+ */
+public class ScriptException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    private final String[] errors;
+
+    public ScriptException(List<String> errors)
+    {
+        super(String.join("\n", errors));
+        this.errors = errors.toArray(String[]::new);
+    }
+
+    public ScriptException(String error)
+    {
+        this(List.of(error));
+    }
+
+    /**
+     * Get every error reported, in the order they were found
+     */
+    public List<String> errors() { return List.of(this.errors); }
+}
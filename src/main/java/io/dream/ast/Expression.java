@@ -1,6 +1,8 @@
 package io.dream.ast;
 
 import java.util.List;
+import io.dream.exec.ExecNode;
+import io.dream.natives.NativeFunction;
 import io.dream.types.Type;
 import io.dream.types.Value;
 import java.util.Objects;
@@ -176,6 +178,26 @@ public abstract class Expression
 
 		public final Token name;
 
+		// Frame coordinate set by the Resolver (-1 while unresolved)
+		private int depth = -1;
+		private int slot = -1;
+
+		public int getDepth()
+		{
+			return depth;
+		}
+
+		public int getSlot()
+		{
+			return slot;
+		}
+
+		public void resolve(int depth, int slot)
+		{
+			this.depth = depth;
+			this.slot = slot;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) return true;
@@ -246,6 +268,27 @@ public abstract class Expression
 		public final Token name;
 		public final List<Expression> arguments;
 
+		// Native function called, set once by the Checker or on the first
+		// execution (null when the call is to a Fonction of the program)
+		private NativeFunction nativeFunction;
+		private volatile boolean bound;
+
+		public NativeFunction getNativeFunction()
+		{
+			return nativeFunction;
+		}
+
+		public boolean isBound()
+		{
+			return bound;
+		}
+
+		public void bind(NativeFunction nativeFunction)
+		{
+			this.nativeFunction = nativeFunction;
+			this.bound = true;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) return true;
@@ -314,6 +357,19 @@ public abstract class Expression
 		public final Expression object;
 		public final Token field;
 
+		// Index of the field in its structure, set by the Resolver (-1 while unbound)
+		private int fieldIndex = -1;
+
+		public int getFieldIndex()
+		{
+			return fieldIndex;
+		}
+
+		public void bindField(int fieldIndex)
+		{
+			this.fieldIndex = fieldIndex;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) return true;
@@ -376,5 +432,20 @@ public abstract class Expression
 		this.type = type;
 	}
 
+	// ========================================================================
+	// EXECUTABLE FORM (set by the Lowering pass, null until then)
+	// ========================================================================
+	private ExecNode node;
+
+	public ExecNode getNode()
+	{
+		return node;
+	}
+
+	public void setNode(ExecNode node)
+	{
+		this.node = node;
+	}
+
 	public abstract <R> R accept(Visitor<R> visitor);
 }
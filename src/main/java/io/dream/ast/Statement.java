@@ -2,6 +2,7 @@ package io.dream.ast;
 
 import java.util.HashMap;
 import java.util.List;
+import io.dream.environment.FrameLayout;
 import io.dream.types.Type;
 import io.dream.types.Value;
 
@@ -445,12 +446,19 @@ public abstract class Statement
 	public static class For extends Statement
 	{
 		public For(Token variable, Expression start, Expression end, Expression step, List<Statement> body)
+		{
+			this(variable, start, end, step, body, false);
+		}
+
+		public For(Token variable, Expression start, Expression end, Expression step, List<Statement> body,
+				   boolean parallel)
 		{
 			this.variable = variable;
 			this.start = start;
 			this.end = end;
 			this.step = step;
 			this.body = body;
+			this.parallel = parallel;
 		}
 
 		@Override
@@ -463,6 +471,7 @@ public abstract class Statement
 		public final Expression end;
 		public final Expression step;  // Can be null (defaults to 1)
 		public final List<Statement> body;
+		public final boolean parallel;  // pour parallele: iterations may run at the same time
 
 		@Override
 		public boolean equals(Object o) {
@@ -473,12 +482,13 @@ public abstract class Statement
 					Objects.equals(start, that.start) &&
 					Objects.equals(end, that.end) &&
 					Objects.equals(step, that.step) &&
-					Objects.equals(body, that.body);
+					Objects.equals(body, that.body) &&
+					parallel == that.parallel;
 		}
 
 		@Override
 		public int hashCode() {
-			return Objects.hash(variable, start, end, step, body);
+			return Objects.hash(variable, start, end, step, body, parallel);
 		}
 	}
 
@@ -509,6 +519,19 @@ public abstract class Statement
 		public final List<Statement> body;
 		public final Map<String, Type> localVariables;
 
+		// Slot layout of the function frame (parameters first), set by the Resolver
+		private FrameLayout layout;
+
+		public FrameLayout getLayout()
+		{
+			return layout;
+		}
+
+		public void setLayout(FrameLayout layout)
+		{
+			this.layout = layout;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) return true;
@@ -588,6 +611,19 @@ public abstract class Statement
 		public final List<Statement> body;
 		public final Map<String, Type> localVariables;
 
+		// Slot layout of the method frame (parameters first), set by the Resolver
+		private FrameLayout layout;
+
+		public FrameLayout getLayout()
+		{
+			return layout;
+		}
+
+		public void setLayout(FrameLayout layout)
+		{
+			this.layout = layout;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) return true;
@@ -769,6 +805,47 @@ public abstract class Statement
 		}
 	}
 
+	// ========================================================================
+	// VARIABLE RESOLUTION
+	// Frame coordinate of the variable a statement reads or writes
+	// (assignment target, loop variable, lire target...), set by the Resolver
+	// ========================================================================
+	private int depth = -1;
+	private int slot = -1;
+
+	public int getDepth()
+	{
+		return depth;
+	}
+
+	public int getSlot()
+	{
+		return slot;
+	}
+
+	public void resolve(int depth, int slot)
+	{
+		this.depth = depth;
+		this.slot = slot;
+	}
+
+	// ========================================================================
+	// FIELD RESOLUTION
+	// Index of the structure field a statement reads or writes
+	// (object.field targets), set by the Resolver
+	// ========================================================================
+	private int fieldIndex = -1;
+
+	public int getFieldIndex()
+	{
+		return fieldIndex;
+	}
+
+	public void bindField(int fieldIndex)
+	{
+		this.fieldIndex = fieldIndex;
+	}
+
 	// ========================================================================
 	// TYPE INFORMATION
 	// ========================================================================
@@ -0,0 +1,65 @@
+package io.dream.cache;
+
+/**
+ * Layout of the .alc files, which hold a checked program
+ *
+ * A file starts with the magic number, the format version and the CRC32
+ * of everything after it, then come the string table, the type table and the program itself. Tokens, types
+ * and names refer to the tables by index (-1 for null), so a lexeme or a
+ * structure type used a hundred times is stored once, and a type shared
+ * by several nodes is shared again once read. Nodes are stored in prefix
+ * order as a tag followed by their children, then their checked type; the
+ * tag 0 stands for a missing node.
+ */
+final class AlcFormat
+{
+    static final int MAGIC = 0x414C4321;  // "ALC!"
+
+    // Bumped whenever the layout or the AST changes
+    static final int VERSION = 2;
+
+    // Entries of the type table
+    static final int ATOMIC = 0;
+    static final int ARRAY = 1;
+    static final int STRUCT = 2;
+    static final int FUNCTION = 3;
+
+    // Statements
+    static final int EXPRESSION_STMT = 1;
+    static final int WRITE = 2;
+    static final int READ = 3;
+    static final int VARIABLE_DECLARATION = 4;
+    static final int CONSTANT_DECLARATION = 5;
+    static final int ASSIGNMENT = 6;
+    static final int IF = 7;
+    static final int WHILE = 8;
+    static final int DO_WHILE = 9;
+    static final int FOR = 10;
+    static final int FUNCTION_DECLARATION = 11;
+    static final int METHOD_DECLARATION = 12;
+    static final int RETURN = 13;
+    static final int STRUCT_DECLARATION = 14;
+    static final int METHOD_CALL = 15;
+    static final int ARRAY_ASSIGNMENT = 16;
+    static final int FIELD_ASSIGNMENT = 17;
+    static final int NESTED_FIELD_ARRAY_ASSIGNMENT = 18;
+    static final int FIELD_READ = 19;
+    static final int ARRAY_READ = 20;
+    static final int NESTED_FIELD_ARRAY_READ = 21;
+
+    // Expressions
+    static final int BINARY = 1;
+    static final int GROUPING = 2;
+    static final int UNARY = 3;
+    static final int LITERAL = 4;
+    static final int VARIABLE = 5;
+    static final int LOGICAL = 6;
+    static final int CALL = 7;
+    static final int ARRAY_ACCESS = 8;
+    static final int FIELD_ACCESS = 9;
+    static final int ARRAY_LITERAL = 10;
+
+    private AlcFormat()
+    {
+    }
+}
@@ -0,0 +1,445 @@
+package io.dream.cache;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.scanner.Token;
+import io.dream.scanner.TokenType;
+import io.dream.types.ArrayType;
+import io.dream.types.AtomicTypes;
+import io.dream.types.AtomicValue;
+import io.dream.types.FunctionType;
+import io.dream.types.StructType;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+import io.dream.types.Value;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static io.dream.cache.AlcFormat.*;
+
+/**
+ * Decode a checked program from the .alc format
+ *
+ * Maps are read back in the order they were written, so the program sees
+ * its variables, functions and fields in the same order as when parsed.
+ */
+final class AlcReader
+{
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final AtomicTypes[] ATOMIC_TYPES = AtomicTypes.values();
+
+    private final ByteBuffer in;
+    private String[] strings;
+    private Type[] types;
+
+    private AlcReader(ByteBuffer in)
+    {
+        this.in = in;
+    }
+
+    /**
+     * Decode a program
+     *
+     * @throws IllegalArgumentException when the bytes are not a program of this format version,
+     *                                  or were changed since written
+     */
+    static CheckedProgram read(ByteBuffer in)
+    {
+        try
+        {
+            return new AlcReader(in).program();
+        }
+        catch (RuntimeException e)
+        {
+            throw new IllegalArgumentException("Corrupted .alc file", e);
+        }
+    }
+
+    private CheckedProgram program()
+    {
+        if (in.getInt() != MAGIC || in.getInt() != VERSION)
+        {
+            throw new IllegalArgumentException("Not an .alc file of version " + VERSION);
+        }
+        int expected = in.getInt();
+        CRC32 checksum = new CRC32();
+        checksum.update(in.duplicate());
+        if ((int) checksum.getValue() != expected)
+        {
+            throw new IllegalArgumentException("Checksum mismatch");
+        }
+
+        strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++)
+        {
+            byte[] encoded = new byte[in.getInt()];
+            in.get(encoded);
+            strings[i] = new String(encoded, StandardCharsets.UTF_8);
+        }
+        types = new Type[in.getInt()];
+        for (int i = 0; i < types.length; i++)
+        {
+            types[i] = readType();
+        }
+
+        List<Statement> statements = statements();
+        Map<String, Type> symbolTable = typeMap();
+
+        Map<String, FunctionType> functionTable = new LinkedHashMap<>();
+        for (int count = in.getInt(); count > 0; count--)
+        {
+            functionTable.put(string(), (FunctionType) type());
+        }
+
+        Map<String, List<Statement.Parameter>> methodTable = new LinkedHashMap<>();
+        for (int count = in.getInt(); count > 0; count--)
+        {
+            methodTable.put(string(), parameters());
+        }
+
+        Map<String, StructType> structTable = new LinkedHashMap<>();
+        for (int count = in.getInt(); count > 0; count--)
+        {
+            structTable.put(string(), (StructType) type());
+        }
+
+        Map<String, Value> constantTable = new LinkedHashMap<>();
+        for (int count = in.getInt(); count > 0; count--)
+        {
+            constantTable.put(string(), value());
+        }
+
+        return new CheckedProgram(statements, symbolTable, functionTable, methodTable, structTable, constantTable);
+    }
+
+    // ========================================================================
+    // TABLES
+    // ========================================================================
+
+    private String string()
+    {
+        int index = in.getInt();
+        return index < 0 ? null : strings[index];
+    }
+
+    private Type type()
+    {
+        int index = in.getInt();
+        return index < 0 ? null : types[index];
+    }
+
+    private Type readType()
+    {
+        switch (in.get())
+        {
+            case ARRAY:
+            {
+                Type element = type();
+                int lowerBound = in.getInt();
+                return new ArrayType(element, lowerBound, in.getInt());
+            }
+            case STRUCT:
+            {
+                String name = string();
+                Map<String, Type> fields = new LinkedHashMap<>();
+                for (int count = in.getInt(); count > 0; count--)
+                {
+                    fields.put(string(), type());
+                }
+                return new StructType(name, fields);
+            }
+            case FUNCTION:
+            {
+                String name = string();
+                List<Type> parameters = new ArrayList<>();
+                for (int count = in.getInt(); count > 0; count--)
+                {
+                    parameters.add(type());
+                }
+                return new FunctionType(name, parameters, type());
+            }
+            case ATOMIC:
+                return TypeFactory.getAtomicType(ATOMIC_TYPES[in.get()]);
+            default:
+                throw new IllegalArgumentException("Unknown type kind");
+        }
+    }
+
+    // ========================================================================
+    // LEAVES
+    // ========================================================================
+
+    private Token token()
+    {
+        int type = in.getShort();
+        if (type < 0)
+        {
+            return null;
+        }
+        String lexeme = string();
+        Value literal = value();
+        return new Token(TOKEN_TYPES[type], lexeme, literal, in.getInt());
+    }
+
+    private Value value()
+    {
+        int tag = in.get();
+        if (tag == 0)
+        {
+            return null;
+        }
+
+        AtomicTypes type = ATOMIC_TYPES[tag - 1];
+        return switch (type)
+        {
+            case INTEGER -> new AtomicValue<>(in.getInt(), type);
+            case FLOATING -> new AtomicValue<>(in.getDouble(), type);
+            case STRING -> new AtomicValue<>(string(), type);
+            case CHAR -> new AtomicValue<>(in.getChar(), type);
+            case BOOLEAN -> new AtomicValue<>(in.get() != 0, type);
+            case VOID -> new AtomicValue<Void>(null, type);
+        };
+    }
+
+    private Map<String, Type> typeMap()
+    {
+        Map<String, Type> map = new LinkedHashMap<>();
+        for (int count = in.getInt(); count > 0; count--)
+        {
+            map.put(string(), type());
+        }
+        return map;
+    }
+
+    private List<Statement.Parameter> parameters()
+    {
+        int count = in.getInt();
+        List<Statement.Parameter> parameters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            Token name = token();
+            parameters.add(new Statement.Parameter(name, type()));
+        }
+        return parameters;
+    }
+
+    // ========================================================================
+    // NODES
+    // ========================================================================
+
+    private List<Statement> statements()
+    {
+        int count = in.getInt();
+        if (count < 0)
+        {
+            return null;
+        }
+        List<Statement> statements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            statements.add(statement());
+        }
+        return statements;
+    }
+
+    private List<Expression> expressions()
+    {
+        int count = in.getInt();
+        List<Expression> expressions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            expressions.add(expression());
+        }
+        return expressions;
+    }
+
+    private Statement statement()
+    {
+        int tag = in.get();
+        if (tag == 0)
+        {
+            return null;
+        }
+
+        Statement statement = switch (tag)
+        {
+            case EXPRESSION_STMT -> new Statement.ExpressionStmt(expression());
+            case WRITE -> new Statement.Write(expression());
+            case READ -> new Statement.Read(token());
+            case VARIABLE_DECLARATION ->
+            {
+                Token name = token();
+                yield new Statement.VariableDeclaration(name, expression());
+            }
+            case CONSTANT_DECLARATION ->
+            {
+                Token name = token();
+                Expression value = expression();
+                yield new Statement.ConstantDeclaration(name, value, type());
+            }
+            case ASSIGNMENT ->
+            {
+                Token name = token();
+                yield new Statement.Assignment(name, expression());
+            }
+            case IF ->
+            {
+                Expression condition = expression();
+                List<Statement> thenBranch = statements();
+                yield new Statement.If(condition, thenBranch, statements());
+            }
+            case WHILE ->
+            {
+                Expression condition = expression();
+                yield new Statement.While(condition, statements());
+            }
+            case DO_WHILE ->
+            {
+                List<Statement> body = statements();
+                yield new Statement.DoWhile(body, expression());
+            }
+            case FOR ->
+            {
+                Token variable = token();
+                Expression start = expression();
+                Expression end = expression();
+                Expression step = expression();
+                List<Statement> body = statements();
+                yield new Statement.For(variable, start, end, step, body, in.get() != 0);
+            }
+            case FUNCTION_DECLARATION ->
+            {
+                Token name = token();
+                List<Statement.Parameter> parameters = parameters();
+                Type returnType = type();
+                List<Statement> body = statements();
+                yield new Statement.FunctionDeclaration(name, parameters, returnType, body, typeMap());
+            }
+            case METHOD_DECLARATION ->
+            {
+                Token name = token();
+                List<Statement.Parameter> parameters = parameters();
+                List<Statement> body = statements();
+                yield new Statement.MethodDeclaration(name, parameters, body, typeMap());
+            }
+            case RETURN ->
+            {
+                Token keyword = token();
+                yield new Statement.Return(keyword, expression());
+            }
+            case STRUCT_DECLARATION ->
+            {
+                Token name = token();
+                int count = in.getInt();
+                List<Statement.Field> fields = new ArrayList<>(count);
+                for (int i = 0; i < count; i++)
+                {
+                    Token field = token();
+                    fields.add(new Statement.Field(field, type()));
+                }
+                yield new Statement.StructDeclaration(name, fields);
+            }
+            case METHOD_CALL ->
+            {
+                Token name = token();
+                yield new Statement.MethodCall(name, expressions());
+            }
+            case ARRAY_ASSIGNMENT ->
+            {
+                Token arrayName = token();
+                Expression index = expression();
+                yield new Statement.ArrayAssignment(arrayName, index, expression());
+            }
+            case FIELD_ASSIGNMENT ->
+            {
+                Token objectName = token();
+                Token fieldName = token();
+                yield new Statement.FieldAssignment(objectName, fieldName, expression());
+            }
+            case NESTED_FIELD_ARRAY_ASSIGNMENT ->
+            {
+                Token objectName = token();
+                Token fieldName = token();
+                Expression index = expression();
+                yield new Statement.NestedFieldArrayAssignment(objectName, fieldName, index, expression());
+            }
+            case FIELD_READ ->
+            {
+                Token objectName = token();
+                yield new Statement.FieldRead(objectName, token());
+            }
+            case ARRAY_READ ->
+            {
+                Token arrayName = token();
+                yield new Statement.ArrayRead(arrayName, expression());
+            }
+            case NESTED_FIELD_ARRAY_READ ->
+            {
+                Token objectName = token();
+                Token fieldName = token();
+                yield new Statement.NestedFieldArrayRead(objectName, fieldName, expression());
+            }
+            default -> throw new IllegalArgumentException("Unknown statement " + tag);
+        };
+        statement.setType(type());
+        return statement;
+    }
+
+    private Expression expression()
+    {
+        int tag = in.get();
+        if (tag == 0)
+        {
+            return null;
+        }
+
+        Expression expression = switch (tag)
+        {
+            case BINARY ->
+            {
+                Expression left = expression();
+                Token operator = token();
+                yield new Expression.Binary(left, operator, expression());
+            }
+            case GROUPING -> new Expression.Grouping(expression());
+            case UNARY ->
+            {
+                Token operator = token();
+                yield new Expression.Unary(operator, expression());
+            }
+            case LITERAL -> new Expression.Literal(value());
+            case VARIABLE -> new Expression.Variable(token());
+            case LOGICAL ->
+            {
+                Expression left = expression();
+                Token operator = token();
+                yield new Expression.Logical(left, operator, expression());
+            }
+            case CALL ->
+            {
+                Token name = token();
+                yield new Expression.Call(name, expressions());
+            }
+            case ARRAY_ACCESS ->
+            {
+                Expression array = expression();
+                yield new Expression.ArrayAccess(array, expression());
+            }
+            case FIELD_ACCESS ->
+            {
+                Expression object = expression();
+                yield new Expression.FieldAccess(object, token());
+            }
+            case ARRAY_LITERAL -> new Expression.ArrayLiteral(expressions());
+            default -> throw new IllegalArgumentException("Unknown expression " + tag);
+        };
+        expression.setType(type());
+        return expression;
+    }
+}
@@ -0,0 +1,659 @@
+package io.dream.cache;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.scanner.Token;
+import io.dream.types.ArrayType;
+import io.dream.types.AtomicTypes;
+import io.dream.types.AtomicValue;
+import io.dream.types.FunctionType;
+import io.dream.types.StructType;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+import io.dream.types.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static io.dream.cache.AlcFormat.*;
+
+/**
+ * Encode a checked program in the .alc format
+ */
+final class AlcWriter implements Statement.Visitor<Void>, Expression.Visitor<Void>
+{
+    private final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+    private final DataOutputStream body = new DataOutputStream(bodyBytes);
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final List<String> stringTable = new ArrayList<>();
+
+    private final Map<Type, Integer> types = new IdentityHashMap<>();
+    private final ByteArrayOutputStream typeBytes = new ByteArrayOutputStream();
+    private final DataOutputStream typeTable = new DataOutputStream(typeBytes);
+
+    private AlcWriter()
+    {
+    }
+
+    /**
+     * Encode a program
+     *
+     * @throws IllegalArgumentException when the program holds a value the format cannot store
+     */
+    static byte[] write(CheckedProgram program)
+    {
+        AlcWriter writer = new AlcWriter();
+        try
+        {
+            writer.program(program);
+
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(payload);
+            out.writeInt(writer.stringTable.size());
+            for (String string : writer.stringTable)
+            {
+                byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+            out.writeInt(writer.types.size());
+            writer.typeBytes.writeTo(out);
+            writer.bodyBytes.writeTo(out);
+            out.flush();
+
+            CRC32 checksum = new CRC32();
+            checksum.update(payload.toByteArray());
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.size() + 3 * Integer.BYTES);
+            DataOutputStream file = new DataOutputStream(bytes);
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+            file.writeInt((int) checksum.getValue());
+            payload.writeTo(file);
+            file.flush();
+            return bytes.toByteArray();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void program(CheckedProgram program) throws IOException
+    {
+        statements(program.statements());
+        typeMap(program.symbolTable());
+
+        body.writeInt(program.functionTable().size());
+        for (Map.Entry<String, FunctionType> function : program.functionTable().entrySet())
+        {
+            body.writeInt(string(function.getKey()));
+            body.writeInt(type(function.getValue()));
+        }
+
+        body.writeInt(program.methodTable().size());
+        for (Map.Entry<String, List<Statement.Parameter>> method : program.methodTable().entrySet())
+        {
+            body.writeInt(string(method.getKey()));
+            parameters(method.getValue());
+        }
+
+        body.writeInt(program.structTable().size());
+        for (Map.Entry<String, StructType> struct : program.structTable().entrySet())
+        {
+            body.writeInt(string(struct.getKey()));
+            body.writeInt(type(struct.getValue()));
+        }
+
+        body.writeInt(program.constantTable().size());
+        for (Map.Entry<String, Value> constant : program.constantTable().entrySet())
+        {
+            body.writeInt(string(constant.getKey()));
+            value(constant.getValue());
+        }
+    }
+
+    // ========================================================================
+    // TABLES
+    // ========================================================================
+
+    private int string(String string)
+    {
+        if (string == null)
+        {
+            return -1;
+        }
+        return strings.computeIfAbsent(string, key ->
+        {
+            stringTable.add(key);
+            return stringTable.size() - 1;
+        });
+    }
+
+    /**
+     * Get the index of a type, adding it after the types it is made of
+     */
+    private int type(Type type) throws IOException
+    {
+        if (type == null)
+        {
+            return -1;
+        }
+        Integer index = types.get(type);
+        if (index != null)
+        {
+            return index;
+        }
+
+        if (type instanceof ArrayType array)
+        {
+            int element = type(array.getElementType());
+            typeTable.writeByte(ARRAY);
+            typeTable.writeInt(element);
+            typeTable.writeInt(array.getLowerBound());
+            typeTable.writeInt(array.getUpperBound());
+        }
+        else if (type instanceof StructType struct)
+        {
+            int[] fields = new int[struct.getFieldCount()];
+            for (int i = 0; i < fields.length; i++)
+            {
+                fields[i] = type(struct.getFieldTypeAt(i));
+            }
+            typeTable.writeByte(STRUCT);
+            typeTable.writeInt(string(struct.getName()));
+            typeTable.writeInt(fields.length);
+            for (int i = 0; i < fields.length; i++)
+            {
+                typeTable.writeInt(string(struct.getFieldName(i)));
+                typeTable.writeInt(fields[i]);
+            }
+        }
+        else if (type instanceof FunctionType function)
+        {
+            List<Type> parameterTypes = function.getParameterTypes();
+            int[] parameters = new int[parameterTypes.size()];
+            for (int i = 0; i < parameters.length; i++)
+            {
+                parameters[i] = type(parameterTypes.get(i));
+            }
+            int result = type(function.getReturnType());
+            typeTable.writeByte(FUNCTION);
+            typeTable.writeInt(string(function.getName()));
+            typeTable.writeInt(parameters.length);
+            for (int parameter : parameters)
+            {
+                typeTable.writeInt(parameter);
+            }
+            typeTable.writeInt(result);
+        }
+        else
+        {
+            typeTable.writeByte(ATOMIC);
+            typeTable.writeByte(atomic(type).ordinal());
+        }
+
+        index = types.size();
+        types.put(type, index);
+        return index;
+    }
+
+    private static AtomicTypes atomic(Type type)
+    {
+        for (AtomicTypes atomic : AtomicTypes.values())
+        {
+            if (TypeFactory.getAtomicType(atomic) == type)
+            {
+                return atomic;
+            }
+        }
+        throw new IllegalArgumentException("Cannot store the type " + type);
+    }
+
+    // ========================================================================
+    // LEAVES
+    // ========================================================================
+
+    private void token(Token token) throws IOException
+    {
+        if (token == null)
+        {
+            body.writeShort(-1);
+            return;
+        }
+        body.writeShort(token.type().ordinal());
+        body.writeInt(string(token.lexeme()));
+        value(token.literal());
+        body.writeInt(token.line());
+    }
+
+    private void value(Value value) throws IOException
+    {
+        if (value == null)
+        {
+            body.writeByte(0);
+            return;
+        }
+        if (!(value instanceof AtomicValue<?> atomic))
+        {
+            throw new IllegalArgumentException("Cannot store the value " + value);
+        }
+
+        body.writeByte(atomic.getAtomicType().ordinal() + 1);
+        switch (atomic.getAtomicType())
+        {
+            case INTEGER -> body.writeInt((Integer) atomic.getValue());
+            case FLOATING -> body.writeDouble((Double) atomic.getValue());
+            case STRING -> body.writeInt(string((String) atomic.getValue()));
+            case CHAR -> body.writeChar((Character) atomic.getValue());
+            case BOOLEAN -> body.writeBoolean((Boolean) atomic.getValue());
+            case VOID -> { }
+        }
+    }
+
+    private void typeMap(Map<String, Type> map) throws IOException
+    {
+        body.writeInt(map.size());
+        for (Map.Entry<String, Type> entry : map.entrySet())
+        {
+            body.writeInt(string(entry.getKey()));
+            body.writeInt(type(entry.getValue()));
+        }
+    }
+
+    private void parameters(List<Statement.Parameter> parameters) throws IOException
+    {
+        body.writeInt(parameters.size());
+        for (Statement.Parameter parameter : parameters)
+        {
+            token(parameter.name);
+            body.writeInt(type(parameter.type));
+        }
+    }
+
+    // ========================================================================
+    // NODES
+    // ========================================================================
+
+    private void statement(Statement statement) throws IOException
+    {
+        if (statement == null)
+        {
+            body.writeByte(0);
+            return;
+        }
+        statement.accept(this);
+        body.writeInt(type(statement.getType()));
+    }
+
+    private void statements(List<Statement> statements) throws IOException
+    {
+        if (statements == null)
+        {
+            body.writeInt(-1);
+            return;
+        }
+        body.writeInt(statements.size());
+        for (Statement statement : statements)
+        {
+            statement(statement);
+        }
+    }
+
+    private void expression(Expression expression) throws IOException
+    {
+        if (expression == null)
+        {
+            body.writeByte(0);
+            return;
+        }
+        expression.accept(this);
+        body.writeInt(type(expression.getType()));
+    }
+
+    private void expressions(List<Expression> expressions) throws IOException
+    {
+        body.writeInt(expressions.size());
+        for (Expression expression : expressions)
+        {
+            expression(expression);
+        }
+    }
+
+    /**
+     * Write the tag of a node, then its parts, from a visitor (which cannot throw)
+     */
+    private Void node(int tag, Parts parts)
+    {
+        try
+        {
+            body.writeByte(tag);
+            parts.write();
+            return null;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Parts
+    {
+        void write() throws IOException;
+    }
+
+    @Override
+    public Void visitExpressionStmtStatement(Statement.ExpressionStmt statement)
+    {
+        return node(EXPRESSION_STMT, () -> expression(statement.expression));
+    }
+
+    @Override
+    public Void visitWriteStatement(Statement.Write statement)
+    {
+        return node(WRITE, () -> expression(statement.expression));
+    }
+
+    @Override
+    public Void visitReadStatement(Statement.Read statement)
+    {
+        return node(READ, () -> token(statement.variable));
+    }
+
+    @Override
+    public Void visitVariableDeclarationStatement(Statement.VariableDeclaration statement)
+    {
+        return node(VARIABLE_DECLARATION, () ->
+        {
+            token(statement.name);
+            expression(statement.value);
+        });
+    }
+
+    @Override
+    public Void visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
+    {
+        return node(CONSTANT_DECLARATION, () ->
+        {
+            token(statement.name);
+            expression(statement.value);
+            body.writeInt(type(statement.type));
+        });
+    }
+
+    @Override
+    public Void visitAssignmentStatement(Statement.Assignment statement)
+    {
+        return node(ASSIGNMENT, () ->
+        {
+            token(statement.name);
+            expression(statement.value);
+        });
+    }
+
+    @Override
+    public Void visitIfStatement(Statement.If statement)
+    {
+        return node(IF, () ->
+        {
+            expression(statement.condition);
+            statements(statement.thenBranch);
+            statements(statement.elseBranch);
+        });
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        return node(WHILE, () ->
+        {
+            expression(statement.condition);
+            statements(statement.body);
+        });
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        return node(DO_WHILE, () ->
+        {
+            statements(statement.body);
+            expression(statement.condition);
+        });
+    }
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        return node(FOR, () ->
+        {
+            token(statement.variable);
+            expression(statement.start);
+            expression(statement.end);
+            expression(statement.step);
+            statements(statement.body);
+            body.writeBoolean(statement.parallel);
+        });
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        return node(FUNCTION_DECLARATION, () ->
+        {
+            token(statement.name);
+            parameters(statement.parameters);
+            body.writeInt(type(statement.returnType));
+            statements(statement.body);
+            typeMap(statement.localVariables);
+        });
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        return node(METHOD_DECLARATION, () ->
+        {
+            token(statement.name);
+            parameters(statement.parameters);
+            statements(statement.body);
+            typeMap(statement.localVariables);
+        });
+    }
+
+    @Override
+    public Void visitReturnStatement(Statement.Return statement)
+    {
+        return node(RETURN, () ->
+        {
+            token(statement.keyword);
+            expression(statement.value);
+        });
+    }
+
+    @Override
+    public Void visitStructDeclarationStatement(Statement.StructDeclaration statement)
+    {
+        return node(STRUCT_DECLARATION, () ->
+        {
+            token(statement.name);
+            body.writeInt(statement.fields.size());
+            for (Statement.Field field : statement.fields)
+            {
+                token(field.name);
+                body.writeInt(type(field.type));
+            }
+        });
+    }
+
+    @Override
+    public Void visitMethodCallStatement(Statement.MethodCall statement)
+    {
+        return node(METHOD_CALL, () ->
+        {
+            token(statement.name);
+            expressions(statement.arguments);
+        });
+    }
+
+    @Override
+    public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
+    {
+        return node(ARRAY_ASSIGNMENT, () ->
+        {
+            token(statement.arrayName);
+            expression(statement.index);
+            expression(statement.value);
+        });
+    }
+
+    @Override
+    public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
+    {
+        return node(FIELD_ASSIGNMENT, () ->
+        {
+            token(statement.objectName);
+            token(statement.fieldName);
+            expression(statement.value);
+        });
+    }
+
+    @Override
+    public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
+    {
+        return node(NESTED_FIELD_ARRAY_ASSIGNMENT, () ->
+        {
+            token(statement.objectName);
+            token(statement.fieldName);
+            expression(statement.index);
+            expression(statement.value);
+        });
+    }
+
+    @Override
+    public Void visitFieldReadStatement(Statement.FieldRead statement)
+    {
+        return node(FIELD_READ, () ->
+        {
+            token(statement.objectName);
+            token(statement.fieldName);
+        });
+    }
+
+    @Override
+    public Void visitArrayReadStatement(Statement.ArrayRead statement)
+    {
+        return node(ARRAY_READ, () ->
+        {
+            token(statement.arrayName);
+            expression(statement.index);
+        });
+    }
+
+    @Override
+    public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
+    {
+        return node(NESTED_FIELD_ARRAY_READ, () ->
+        {
+            token(statement.objectName);
+            token(statement.fieldName);
+            expression(statement.index);
+        });
+    }
+
+    @Override
+    public Void visitBinaryExpression(Expression.Binary expression)
+    {
+        return node(BINARY, () ->
+        {
+            expression(expression.left);
+            token(expression.operator);
+            expression(expression.right);
+        });
+    }
+
+    @Override
+    public Void visitGroupingExpression(Expression.Grouping expression)
+    {
+        return node(GROUPING, () -> expression(expression.expression));
+    }
+
+    @Override
+    public Void visitUnaryExpression(Expression.Unary expression)
+    {
+        return node(UNARY, () ->
+        {
+            token(expression.operator);
+            expression(expression.right);
+        });
+    }
+
+    @Override
+    public Void visitLiteralExpression(Expression.Literal expression)
+    {
+        return node(LITERAL, () -> value(expression.value));
+    }
+
+    @Override
+    public Void visitVariableExpression(Expression.Variable expression)
+    {
+        return node(VARIABLE, () -> token(expression.name));
+    }
+
+    @Override
+    public Void visitLogicalExpression(Expression.Logical expression)
+    {
+        return node(LOGICAL, () ->
+        {
+            expression(expression.left);
+            token(expression.operator);
+            expression(expression.right);
+        });
+    }
+
+    @Override
+    public Void visitCallExpression(Expression.Call expression)
+    {
+        return node(CALL, () ->
+        {
+            token(expression.name);
+            expressions(expression.arguments);
+        });
+    }
+
+    @Override
+    public Void visitArrayAccessExpression(Expression.ArrayAccess expression)
+    {
+        return node(ARRAY_ACCESS, () ->
+        {
+            expression(expression.array);
+            expression(expression.index);
+        });
+    }
+
+    @Override
+    public Void visitFieldAccessExpression(Expression.FieldAccess expression)
+    {
+        return node(FIELD_ACCESS, () ->
+        {
+            expression(expression.object);
+            token(expression.field);
+        });
+    }
+
+    @Override
+    public Void visitArrayLiteralExpression(Expression.ArrayLiteral expression)
+    {
+        return node(ARRAY_LITERAL, () -> expressions(expression.elements));
+    }
+}
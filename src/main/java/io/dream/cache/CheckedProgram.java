@@ -0,0 +1,25 @@
+package io.dream.cache;
+
+import io.dream.ast.Statement;
+import io.dream.types.FunctionType;
+import io.dream.types.StructType;
+import io.dream.types.Type;
+import io.dream.types.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A program the type checker accepted, with the tables the parser built for it
+ *
+ * This is what the .alc cache stores: everything after it (optimization,
+ * resolution, lowering) is cheap and depends on the command line options.
+ */
+public record CheckedProgram(List<Statement> statements,
+                             Map<String, Type> symbolTable,
+                             Map<String, FunctionType> functionTable,
+                             Map<String, List<Statement.Parameter>> methodTable,
+                             Map<String, StructType> structTable,
+                             Map<String, Value> constantTable)
+{
+}
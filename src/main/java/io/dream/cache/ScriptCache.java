@@ -0,0 +1,147 @@
+package io.dream.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Directory of .alc files, each holding the checked program of a script
+ *
+ * A file is named after a digest of the engine version, the keyword
+ * language, the charset and the bytes of the source, so an edited script
+ * or a new engine never reads a stale program. Losing the cache only costs
+ * time: a file that cannot be written is ignored, and one that cannot be
+ * read back, or fails its checksum, is deleted.
+ */
+public final class ScriptCache
+{
+    /**
+     * Version of the engine, part of every key
+     */
+    public static final String ENGINE_VERSION = "2.0.2";
+
+    private static final String EXTENSION = ".alc";
+
+    private final Path directory;
+
+    public ScriptCache(Path directory)
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the cache shared by the scripts of the current user
+     */
+    public static Path defaultDirectory()
+    {
+        return Paths.get(System.getProperty("user.home"), ".algolang", "cache");
+    }
+
+    /**
+     * Get the key of a script
+     *
+     * The key is the SHA-256 digest of the engine version, the format
+     * version, the keyword language, the charset and the source.
+     *
+     * @param source  the bytes of the script, from its position to its limit (left unchanged)
+     * @param french  whether the script is scanned with the French keywords
+     * @param charset the charset the script is decoded with
+     */
+    public String key(ByteBuffer source, boolean french, Charset charset)
+    {
+        String header = ENGINE_VERSION + "/" + AlcFormat.VERSION + "/" + (french ? "fr" : "en") + "/" + charset.name() + "/";
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every Java platform provides SHA-256
+            throw new IllegalStateException(e);
+        }
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+        digest.update(source.duplicate());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Get the program stored under a key, or null when there is none
+     */
+    public CheckedProgram load(String key)
+    {
+        Path file = file(key);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            return AlcReader.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // A damaged file, or one left by another format: drop it so the next run rewrites it
+            try
+            {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException ignored)
+            {
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Store a program under a key
+     *
+     * The file is written aside then moved into place, so concurrent runs of
+     * the same script never read half of it.
+     *
+     * @return whether the program was stored
+     */
+    public boolean store(String key, CheckedProgram program)
+    {
+        Path temporary = null;
+        try
+        {
+            byte[] bytes = AlcWriter.write(program);
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temporary, bytes);
+            Files.move(temporary, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        catch (IOException | IllegalArgumentException e)
+        {
+            if (temporary != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(temporary);
+                }
+                catch (IOException ignored)
+                {
+                }
+            }
+            return false;
+        }
+    }
+
+    private Path file(String key)
+    {
+        return directory.resolve(key + EXTENSION);
+    }
+}
@@ -13,18 +13,44 @@ import static io.dream.scanner.TokenType.*;
 final public class Config
 {
     // true means French, false means English
-    private static boolean language = true;
+    private static volatile boolean language = true;
+
+    // Language of the scripts run by a thread, when it is not the default one
+    private static final ThreadLocal<Boolean> threadLanguage = new ThreadLocal<>();
 
     public static boolean getLanguage()
     {
-        return language;
+        Boolean own = threadLanguage.get();
+        return own != null ? own : language;
     }
 
+    /**
+     * Set the default language, used by every thread without its own
+     */
     public static void setLanguage(boolean language)
     {
         Config.language = language;
     }
 
+    /**
+     * Set the language of the current thread only (null goes back to the default)
+     *
+     * @return the language the thread had of its own before, or null
+     */
+    public static Boolean setThreadLanguage(Boolean language)
+    {
+        Boolean previous = threadLanguage.get();
+        if (language == null)
+        {
+            threadLanguage.remove();
+        }
+        else
+        {
+            threadLanguage.set(language);
+        }
+        return previous;
+    }
+
     /**
      * Get English keywords mapping
      */
@@ -62,6 +88,7 @@ final public class Config
         keywords.put("to", TO);
         keywords.put("step", STEP);
         keywords.put("endfor", ENDFOR);
+        keywords.put("parallel", PARALLEL);
 
         keywords.put("while", WHILE);
         keywords.put("do", DO);
@@ -138,6 +165,7 @@ final public class Config
         keywords.put("jusqu_a", TO);
         keywords.put("pas", STEP);
         keywords.put("finpour", ENDFOR);
+        keywords.put("parallele", PARALLEL);
 
         keywords.put("tant_que", WHILE);
         keywords.put("faire", DO);
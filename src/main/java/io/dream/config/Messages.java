@@ -80,6 +80,24 @@ public class Messages
                 "Invalid file handle: " + handle;
     }
 
+    public static String staleFileHandle(int handle) {
+        return Config.getLanguage() ?
+                "Handle de fichier perime, son fichier a ete ferme: " + handle :
+                "Stale file handle, its file was closed: " + handle;
+    }
+
+    public static String invalidTaskHandle(int task) {
+        return Config.getLanguage() ?
+                "Tache invalide ou deja attendue: " + task :
+                "Invalid or already awaited task: " + task;
+    }
+
+    public static String tooManyOpenFiles(int max) {
+        return Config.getLanguage() ?
+                "Trop de fichiers ouverts (" + max + " au plus)" :
+                "Too many open files (" + max + " at most)";
+    }
+
     public static String unexpectedEndOfFile() {
         return Config.getLanguage() ?
                 "Fin de fichier inattendue" :
@@ -98,6 +116,12 @@ public class Messages
                 "Invalid real format: " + value;
     }
 
+    public static String expectedArrayOf(String elementType) {
+        return Config.getLanguage() ?
+                "Un tableau de " + elementType + " est attendu" :
+                "An array of " + elementType + " is expected";
+    }
+
     public static String expectVariableName() {
         return Config.getLanguage()
                 ? "Attend un nom de variable."
@@ -308,6 +332,18 @@ public class Messages
                 : "Function '" + name + "' is not defined.";
     }
 
+    public static String missingReturn(String name) {
+        return Config.getLanguage()
+                ? "La fonction '" + name + "' peut se terminer sans retourner de valeur."
+                : "Function '" + name + "' can end without returning a value.";
+    }
+
+    public static String nativeNotSupportedByVm(String name) {
+        return Config.getLanguage()
+                ? "La fonction native '" + name + "' n'est pas prise en charge par le moteur vm, lancez le script avec --engine=tree."
+                : "The native function '" + name + "' is not supported by the vm engine, run the script with --engine=tree.";
+    }
+
     public static String structureNotDefined(String name) {
         return Config.getLanguage()
                 ? "Structure '" + name + "' n'est pas définie."
@@ -374,6 +410,12 @@ public class Messages
                 : "Variable '" + name + "' not declared.";
     }
 
+    public static String cannotAssignConstant(String name) {
+        return Config.getLanguage()
+                ? "La constante '" + name + "' ne peut pas être modifiée."
+                : "Constant '" + name + "' cannot be assigned.";
+    }
+
     public static String typeIncompatibility(String varType, String valueType) {
         return Config.getLanguage()
                 ? "Incompatibilité de type: variable de type " + varType + " ne peut pas recevoir une valeur de type " + valueType
@@ -601,4 +643,70 @@ public class Messages
                 ? "Erreur d'E/S de fichier: " + message
                 : "File I/O error: " + message;
     }
+
+    public static String functionNotResolved(String name) {
+        return Config.getLanguage()
+                ? "La fonction '" + name + "' n'a pas été résolue avant la compilation."
+                : "Function '" + name + "' was not resolved before compilation.";
+    }
+
+    public static String stackOverflow() {
+        return Config.getLanguage()
+                ? "Débordement de pile: trop d'appels imbriqués."
+                : "Stack overflow: too many nested calls.";
+    }
+
+    public static String invalidFrameBudget(int max) {
+        return Config.getLanguage()
+                ? "Le nombre d'appels imbriqués doit être compris entre 1 et " + max + "."
+                : "The frame budget should be between 1 and " + max + ".";
+    }
+
+    public static String frameBudgetTooLarge(int frames) {
+        return Config.getLanguage()
+                ? "Pas assez de mémoire pour une pile de " + frames + " appels imbriqués."
+                : "Not enough memory for a stack of " + frames + " nested calls.";
+    }
+
+    public static String memoStatistics(String function, long hits, long misses, int size) {
+        return Config.getLanguage()
+                ? "Mémoïsation de " + function + ": " + hits + " succès, " + misses + " échecs, " + size + " résultats gardés"
+                : "Memoization of " + function + ": " + hits + " hits, " + misses + " misses, " + size + " results kept";
+    }
+
+    public static String startupTime(boolean warm, double millis) {
+        return Config.getLanguage()
+                ? String.format("Démarrage %s : %.1f ms jusqu'à la première instruction", warm ? "à chaud (cache)" : "à froid", millis)
+                : String.format("Startup %s: %.1f ms to the first statement", warm ? "warm (cached)" : "cold", millis);
+    }
+
+    public static String parallelStatementNotAllowed() {
+        return Config.getLanguage()
+                ? "Une boucle parallèle ne peut ni lire, ni écrire, ni appeler de méthode, ni retourner, ni contenir une autre boucle parallèle."
+                : "A parallel loop cannot read, write, call a method, return or contain another parallel loop.";
+    }
+
+    public static String parallelSharedWrite(String name) {
+        return Config.getLanguage()
+                ? "Une boucle parallèle ne peut pas modifier la variable partagée '" + name + "'."
+                : "A parallel loop cannot write the shared variable '" + name + "'.";
+    }
+
+    public static String parallelIndexOnly(String array, String index) {
+        return Config.getLanguage()
+                ? "Une boucle parallèle ne peut écrire dans '" + array + "' qu'à l'indice '" + index + "'."
+                : "A parallel loop can only write '" + array + "' at index '" + index + "'.";
+    }
+
+    public static String parallelReadIndexOnly(String array, String index) {
+        return Config.getLanguage()
+                ? "Une boucle parallèle ne peut lire '" + array + "', qu'elle modifie, qu'à l'indice '" + index + "'."
+                : "A parallel loop can only read '" + array + "', which it writes, at index '" + index + "'.";
+    }
+
+    public static String parallelImpureCall(String function) {
+        return Config.getLanguage()
+                ? "Une boucle parallèle ne peut appeler que des fonctions pures, pas '" + function + "'."
+                : "A parallel loop can only call pure functions, not '" + function + "'.";
+    }
 }
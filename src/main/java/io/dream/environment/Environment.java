@@ -1,20 +1,37 @@
 package io.dream.environment;
 
 import io.dream.config.Messages;
+import io.dream.types.AtomicValue;
+import io.dream.types.RawValues;
 import io.dream.types.Type;
 import io.dream.types.Value;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Enhanced Environment with scope support
  * Supports parent scopes for functions and blocks
+ *
+ * Values live in an array of slots. Names are only needed for unresolved
+ * lookups (REPL, hand-built ASTs); resolved code goes through getAt/assignAt
+ * with the (depth, slot) coordinate computed by the Resolver.
+ *
+ * entier, reel, booleen and caractere slots are kept unboxed as raw bits
+ * next to the Value array; the typed accessors read and write them without
+ * allocating. AtomicValue only appears at the Value based entry points.
  */
 public class Environment
 {
-    private final Map<String, Value> values = new HashMap<>();
-    private final Map<String, Type> types = new HashMap<>();
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Map<String, Integer> slots;
+    private boolean sharedSlots;
+    private Value[] values;
+    private long[] bits;
+    private Type[] types;
+    private int size;
     private final Environment parent;
 
     /**
@@ -22,7 +39,7 @@ public class Environment
      */
     public Environment()
     {
-        this.parent = null;
+        this((Environment) null);
     }
 
     /**
@@ -31,6 +48,54 @@ public class Environment
     public Environment(Environment parent)
     {
         this.parent = parent;
+        this.slots = new HashMap<>();
+        this.sharedSlots = false;
+        this.values = new Value[INITIAL_CAPACITY];
+        this.bits = new long[INITIAL_CAPACITY];
+        this.types = new Type[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Create nested environment whose slots follow a layout computed by the Resolver
+     */
+    public Environment(Environment parent, FrameLayout layout)
+    {
+        this.parent = parent;
+        this.slots = layout.getSlots();
+        this.sharedSlots = true;
+        this.size = layout.size();
+        this.values = new Value[size];
+        this.bits = new long[size];
+        this.types = layout.getTypes();
+    }
+
+    /**
+     * Copy this frame, so that its variables can be assigned without
+     * changing this one while the arrays and structures stay shared
+     */
+    public Environment copy()
+    {
+        Environment copy = new Environment(parent);
+        copy.slots = slots;
+        copy.sharedSlots = true;
+        copy.size = size;
+        copy.values = Arrays.copyOf(values, values.length);
+        copy.bits = Arrays.copyOf(bits, bits.length);
+        copy.types = types;
+
+        // Both frames now share the layout, the first to grow it copies it
+        sharedSlots = true;
+        return copy;
+    }
+
+    /**
+     * Take back the variables of a copy of this frame
+     */
+    public void restore(Environment copy)
+    {
+        System.arraycopy(copy.values, 0, values, 0, size);
+        System.arraycopy(copy.bits, 0, bits, 0, size);
     }
 
     /**
@@ -38,15 +103,42 @@ public class Environment
      */
     public void define(String name, Type type, Value value)
     {
-        // We allow redefinition in local scopes (shadowing)
-        // but not in the same scope
-        if (values.containsKey(name) && parent == null)
+        Integer slot = slots.get(name);
+
+        if (slot != null)
         {
-            throw new RuntimeException(Messages.variableAlreadyDefined(name));
+            // We allow redefinition in local scopes (shadowing)
+            // but not in the same scope
+            if (parent == null)
+            {
+                throw new RuntimeException(Messages.variableAlreadyDefined(name));
+            }
+
+            types[slot] = type;
+            store(slot, value);
+            return;
+        }
+
+        if (sharedSlots)
+        {
+            // The layout is shared between frames, copy it before growing
+            slots = new HashMap<>(slots);
+            types = Arrays.copyOf(types, types.length);
+            sharedSlots = false;
         }
 
-        types.put(name, type);
-        values.put(name, value);
+        if (size == values.length)
+        {
+            int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+            values = Arrays.copyOf(values, capacity);
+            bits = Arrays.copyOf(bits, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+
+        slots.put(name, size);
+        types[size] = type;
+        store(size, value);
+        size++;
     }
 
     /**
@@ -54,9 +146,10 @@ public class Environment
      */
     public Value get_value(String name)
     {
-        if (values.containsKey(name))
+        Integer slot = slots.get(name);
+        if (slot != null)
         {
-            return values.get(name);
+            return load(slot);
         }
 
         // Check parent scope
@@ -73,9 +166,10 @@ public class Environment
      */
     public Type get_type(String name)
     {
-        if (types.containsKey(name))
+        Integer slot = slots.get(name);
+        if (slot != null)
         {
-            return types.get(name);
+            return types[slot];
         }
 
         // Check parent scope
@@ -92,9 +186,10 @@ public class Environment
      */
     public void update_value(String name, Value new_value)
     {
-        if (values.containsKey(name))
+        Integer slot = slots.get(name);
+        if (slot != null)
         {
-            values.put(name, new_value);
+            store(slot, new_value);
             return;
         }
 
@@ -113,7 +208,7 @@ public class Environment
      */
     public boolean isDefined(String name)
     {
-        if (values.containsKey(name))
+        if (slots.containsKey(name))
         {
             return true;
         }
@@ -126,6 +221,143 @@ public class Environment
         return false;
     }
 
+    /**
+     * Get the value stored in a resolved slot
+     */
+    public Value getAt(int depth, int slot)
+    {
+        return ancestor(depth).load(slot);
+    }
+
+    /**
+     * Get the value of a resolved slot as the interpreter sees it
+     * (Integer, Double, Boolean, Character, String, or a composite Value)
+     */
+    public Object loadAt(int depth, int slot)
+    {
+        Environment environment = ancestor(depth);
+        Type type = environment.types[slot];
+        if (RawValues.isUnboxed(type))
+        {
+            return RawValues.decode(type, environment.bits[slot]);
+        }
+
+        Value value = environment.values[slot];
+        return value instanceof AtomicValue<?> atomic ? atomic.getValue() : value;
+    }
+
+    /**
+     * Store a value as the interpreter sees it into a resolved slot
+     */
+    public void storeAt(int depth, int slot, Object value)
+    {
+        Environment environment = ancestor(depth);
+        Type type = environment.types[slot];
+
+        if (RawValues.isUnboxed(type))
+        {
+            environment.bits[slot] = RawValues.encode(type, value);
+        }
+        else
+        {
+            environment.values[slot] = value == null || value instanceof Value
+                    ? (Value) value
+                    : RawValues.box(type, value);
+        }
+    }
+
+    public int getIntAt(int depth, int slot)
+    {
+        return (int) ancestor(depth).bits[slot];
+    }
+
+    public void setIntAt(int depth, int slot, int value)
+    {
+        ancestor(depth).bits[slot] = value;
+    }
+
+    public double getDoubleAt(int depth, int slot)
+    {
+        return Double.longBitsToDouble(ancestor(depth).bits[slot]);
+    }
+
+    public void setDoubleAt(int depth, int slot, double value)
+    {
+        ancestor(depth).bits[slot] = Double.doubleToRawLongBits(value);
+    }
+
+    public boolean getBooleanAt(int depth, int slot)
+    {
+        return ancestor(depth).bits[slot] != 0;
+    }
+
+    public void setBooleanAt(int depth, int slot, boolean value)
+    {
+        ancestor(depth).bits[slot] = value ? 1 : 0;
+    }
+
+    public char getCharAt(int depth, int slot)
+    {
+        return (char) ancestor(depth).bits[slot];
+    }
+
+    public void setCharAt(int depth, int slot, char value)
+    {
+        ancestor(depth).bits[slot] = value;
+    }
+
+    /**
+     * Get the type of a resolved slot
+     */
+    public Type getTypeAt(int depth, int slot)
+    {
+        return ancestor(depth).types[slot];
+    }
+
+    /**
+     * Update the value stored in a resolved slot
+     */
+    public void assignAt(int depth, int slot, Value value)
+    {
+        ancestor(depth).store(slot, value);
+    }
+
+    /**
+     * Walk up the scope chain the given number of hops
+     */
+    public Environment ancestor(int depth)
+    {
+        Environment environment = this;
+        for (int i = 0; i < depth; i++)
+        {
+            environment = environment.parent;
+        }
+        return environment;
+    }
+
+    // ========================================================================
+    // UNBOXED SLOTS
+    // ========================================================================
+
+    private Value load(int slot)
+    {
+        Type type = types[slot];
+        return RawValues.isUnboxed(type) ? RawValues.box(type, loadAt(0, slot)) : values[slot];
+    }
+
+    private void store(int slot, Value value)
+    {
+        if (RawValues.isUnboxed(types[slot]))
+        {
+            bits[slot] = RawValues.encode(types[slot], value);
+            values[slot] = null;
+        }
+        else
+        {
+            values[slot] = value;
+        }
+    }
+
     /**
      * Get parent environment
      */
@@ -0,0 +1,72 @@
+package io.dream.environment;
+
+import io.dream.types.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed slot layout of a frame, computed once by the Resolver
+ * Every activation of the same function shares its layout
+ */
+public final class FrameLayout
+{
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+    private final List<Type> types = new ArrayList<>();
+
+    /**
+     * Add a name to the layout and return its slot
+     * (an already known name keeps its slot)
+     */
+    public int add(String name, Type type)
+    {
+        Integer existing = slots.get(name);
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        int slot = types.size();
+        slots.put(name, slot);
+        types.add(type);
+        return slot;
+    }
+
+    /**
+     * Get the slot of a name, or -1 if the name is not part of this frame
+     */
+    public int slotOf(String name)
+    {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    public Type typeAt(int slot)
+    {
+        return types.get(slot);
+    }
+
+    public int size()
+    {
+        return types.size();
+    }
+
+    /**
+     * Name to slot mapping (read only)
+     */
+    public Map<String, Integer> getSlots()
+    {
+        return Collections.unmodifiableMap(slots);
+    }
+
+    /**
+     * Slot types, indexed by slot
+     */
+    public Type[] getTypes()
+    {
+        return types.toArray(new Type[0]);
+    }
+}
@@ -0,0 +1,43 @@
+package io.dream.error;
+
+import io.dream.Main;
+import io.dream.scanner.Token;
+
+/**
+ * Receives the errors found while scanning, parsing and running a script
+ *
+ * The command line prints them and sets its exit status; an embedding
+ * collects them per script instead.
+ */
+public interface ErrorReporter
+{
+    /**
+     * Errors reported by the command line
+     */
+    ErrorReporter MAIN = new ErrorReporter()
+    {
+        @Override
+        public void error(int line, String message)
+        {
+            Main.error(line, message);
+        }
+
+        @Override
+        public void error(Token token, String message)
+        {
+            Main.error(token, message);
+        }
+
+        @Override
+        public void runtimeError(RuntimeError error)
+        {
+            Main.runtimeError(error);
+        }
+    };
+
+    void error(int line, String message);
+
+    void error(Token token, String message);
+
+    void runtimeError(RuntimeError error);
+}
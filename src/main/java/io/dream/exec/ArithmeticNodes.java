@@ -0,0 +1,249 @@
+package io.dream.exec;
+
+import io.dream.config.Messages;
+import io.dream.error.RuntimeError;
+import io.dream.scanner.Token;
+
+/**
+ * Arithmetic on entier and reel
+ * reel nodes read their operands through executeDouble, which widens
+ * entier operands, so mixed expressions need no conversion node.
+ */
+final class ArithmeticNodes
+{
+    private ArithmeticNodes()
+    {
+    }
+
+    abstract static class IntBinary extends ExecNode.IntNode
+    {
+        final ExecNode left;
+        final ExecNode right;
+
+        IntBinary(ExecNode left, ExecNode right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    abstract static class RealBinary extends ExecNode.RealNode
+    {
+        final ExecNode left;
+        final ExecNode right;
+
+        RealBinary(ExecNode left, ExecNode right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    static final class IntAdd extends IntBinary
+    {
+        IntAdd(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            return left.executeInt(context) + right.executeInt(context);
+        }
+    }
+
+    static final class IntSubtract extends IntBinary
+    {
+        IntSubtract(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            return left.executeInt(context) - right.executeInt(context);
+        }
+    }
+
+    static final class IntMultiply extends IntBinary
+    {
+        IntMultiply(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            return left.executeInt(context) * right.executeInt(context);
+        }
+    }
+
+    static final class IntDivide extends IntBinary
+    {
+        private final Token operator;
+
+        IntDivide(ExecNode left, ExecNode right, Token operator)
+        {
+            super(left, right);
+            this.operator = operator;
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            int dividend = left.executeInt(context);
+            int divisor = right.executeInt(context);
+            if (divisor == 0)
+            {
+                throw new RuntimeError(operator, Messages.divisionByZero());
+            }
+            return dividend / divisor;
+        }
+    }
+
+    static final class IntModulo extends IntBinary
+    {
+        private final Token operator;
+
+        IntModulo(ExecNode left, ExecNode right, Token operator)
+        {
+            super(left, right);
+            this.operator = operator;
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            int dividend = left.executeInt(context);
+            int divisor = right.executeInt(context);
+            if (divisor == 0)
+            {
+                throw new RuntimeError(operator, Messages.divisionByZero());
+            }
+            return dividend % divisor;
+        }
+    }
+
+    static final class IntNegate extends ExecNode.IntNode
+    {
+        private final ExecNode operand;
+
+        IntNegate(ExecNode operand)
+        {
+            this.operand = operand;
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            return -operand.executeInt(context);
+        }
+    }
+
+    static final class RealAdd extends RealBinary
+    {
+        RealAdd(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            return left.executeDouble(context) + right.executeDouble(context);
+        }
+    }
+
+    static final class RealSubtract extends RealBinary
+    {
+        RealSubtract(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            return left.executeDouble(context) - right.executeDouble(context);
+        }
+    }
+
+    static final class RealMultiply extends RealBinary
+    {
+        RealMultiply(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            return left.executeDouble(context) * right.executeDouble(context);
+        }
+    }
+
+    static final class RealDivide extends RealBinary
+    {
+        private final Token operator;
+
+        RealDivide(ExecNode left, ExecNode right, Token operator)
+        {
+            super(left, right);
+            this.operator = operator;
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            double dividend = left.executeDouble(context);
+            double divisor = right.executeDouble(context);
+            if (divisor == 0.0)
+            {
+                throw new RuntimeError(operator, Messages.divisionByZero());
+            }
+            return dividend / divisor;
+        }
+    }
+
+    static final class RealModulo extends RealBinary
+    {
+        private final Token operator;
+
+        RealModulo(ExecNode left, ExecNode right, Token operator)
+        {
+            super(left, right);
+            this.operator = operator;
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            double dividend = left.executeDouble(context);
+            double divisor = right.executeDouble(context);
+            if (divisor == 0.0)
+            {
+                throw new RuntimeError(operator, Messages.divisionByZero());
+            }
+            return dividend % divisor;
+        }
+    }
+
+    static final class RealNegate extends ExecNode.RealNode
+    {
+        private final ExecNode operand;
+
+        RealNegate(ExecNode operand)
+        {
+            this.operand = operand;
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            return -operand.executeDouble(context);
+        }
+    }
+}
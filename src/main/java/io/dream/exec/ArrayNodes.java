@@ -0,0 +1,107 @@
+package io.dream.exec;
+
+import io.dream.config.Messages;
+import io.dream.error.RuntimeError;
+import io.dream.types.ArrayValue;
+import io.dream.types.BooleanArrayValue;
+import io.dream.types.DoubleArrayValue;
+import io.dream.types.IntArrayValue;
+
+/**
+ * Array element reads
+ * The element type proved by the Checker selects the primitive-backed
+ * array, so entier, reel and booleen elements are read without boxing.
+ */
+final class ArrayNodes
+{
+    private ArrayNodes()
+    {
+    }
+
+    private static ArrayValue array(ExecNode array, ExecutionContext context)
+    {
+        if (!(array.execute(context) instanceof ArrayValue value))
+        {
+            throw new RuntimeError(null, Messages.cannotIndexNonArray());
+        }
+        return value;
+    }
+
+    static final class IntElement extends ExecNode.IntNode
+    {
+        private final ExecNode array;
+        private final ExecNode index;
+
+        IntElement(ExecNode array, ExecNode index)
+        {
+            this.array = array;
+            this.index = index;
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            IntArrayValue values = (IntArrayValue) array(array, context);
+            return values.getInt(index.executeInt(context));
+        }
+    }
+
+    static final class RealElement extends ExecNode.RealNode
+    {
+        private final ExecNode array;
+        private final ExecNode index;
+
+        RealElement(ExecNode array, ExecNode index)
+        {
+            this.array = array;
+            this.index = index;
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            DoubleArrayValue values = (DoubleArrayValue) array(array, context);
+            return values.getDouble(index.executeInt(context));
+        }
+    }
+
+    static final class BooleanElement extends ExecNode.BooleanNode
+    {
+        private final ExecNode array;
+        private final ExecNode index;
+
+        BooleanElement(ExecNode array, ExecNode index)
+        {
+            this.array = array;
+            this.index = index;
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            BooleanArrayValue values = (BooleanArrayValue) array(array, context);
+            return values.getBoolean(index.executeInt(context));
+        }
+    }
+
+    /**
+     * Read of a caractere, chaine, array or structure element
+     */
+    static final class Element extends ExecNode
+    {
+        private final ExecNode array;
+        private final ExecNode index;
+
+        Element(ExecNode array, ExecNode index)
+        {
+            this.array = array;
+            this.index = index;
+        }
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return array(array, context).getElement(index.executeInt(context));
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package io.dream.exec;
+
+import java.util.Objects;
+
+/**
+ * Comparisons and equality
+ * reel comparisons compare doubles: operands are never truncated to entier.
+ */
+final class ComparisonNodes
+{
+    private ComparisonNodes()
+    {
+    }
+
+    abstract static class Comparison extends ExecNode.BooleanNode
+    {
+        final ExecNode left;
+        final ExecNode right;
+
+        Comparison(ExecNode left, ExecNode right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+    }
+
+    static final class IntLess extends Comparison
+    {
+        IntLess(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeInt(context) < right.executeInt(context);
+        }
+    }
+
+    static final class IntLessEqual extends Comparison
+    {
+        IntLessEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeInt(context) <= right.executeInt(context);
+        }
+    }
+
+    static final class IntGreater extends Comparison
+    {
+        IntGreater(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeInt(context) > right.executeInt(context);
+        }
+    }
+
+    static final class IntGreaterEqual extends Comparison
+    {
+        IntGreaterEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeInt(context) >= right.executeInt(context);
+        }
+    }
+
+    static final class IntEqual extends Comparison
+    {
+        IntEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeInt(context) == right.executeInt(context);
+        }
+    }
+
+    static final class IntNotEqual extends Comparison
+    {
+        IntNotEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeInt(context) != right.executeInt(context);
+        }
+    }
+
+    static final class RealLess extends Comparison
+    {
+        RealLess(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeDouble(context) < right.executeDouble(context);
+        }
+    }
+
+    static final class RealLessEqual extends Comparison
+    {
+        RealLessEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeDouble(context) <= right.executeDouble(context);
+        }
+    }
+
+    static final class RealGreater extends Comparison
+    {
+        RealGreater(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeDouble(context) > right.executeDouble(context);
+        }
+    }
+
+    static final class RealGreaterEqual extends Comparison
+    {
+        RealGreaterEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeDouble(context) >= right.executeDouble(context);
+        }
+    }
+
+    static final class RealEqual extends Comparison
+    {
+        RealEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeDouble(context) == right.executeDouble(context);
+        }
+    }
+
+    static final class RealNotEqual extends Comparison
+    {
+        RealNotEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeDouble(context) != right.executeDouble(context);
+        }
+    }
+
+    static final class BooleanEqual extends Comparison
+    {
+        BooleanEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeBoolean(context) == right.executeBoolean(context);
+        }
+    }
+
+    static final class BooleanNotEqual extends Comparison
+    {
+        BooleanNotEqual(ExecNode left, ExecNode right)
+        {
+            super(left, right);
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeBoolean(context) != right.executeBoolean(context);
+        }
+    }
+
+    /**
+     * Equality of caracteres, chaines, arrays and structures (by equals)
+     */
+    static final class ValueEqual extends Comparison
+    {
+        private final boolean negated;
+
+        ValueEqual(ExecNode left, ExecNode right, boolean negated)
+        {
+            super(left, right);
+            this.negated = negated;
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return Objects.equals(left.execute(context), right.execute(context)) != negated;
+        }
+    }
+}
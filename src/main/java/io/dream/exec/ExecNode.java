@@ -0,0 +1,82 @@
+package io.dream.exec;
+
+/**
+ * Executable form of a checked expression
+ *
+ * Nodes are specialized on the operator and on the operand types the
+ * Checker proved, so the typed entry points return primitives without
+ * boxing or runtime type tests. execute returns the same boxed value the
+ * tree walker would produce, for consumers that need an Object.
+ */
+public abstract class ExecNode
+{
+    public abstract Object execute(ExecutionContext context);
+
+    public int executeInt(ExecutionContext context)
+    {
+        return (Integer) execute(context);
+    }
+
+    public double executeDouble(ExecutionContext context)
+    {
+        Object value = execute(context);
+        return value instanceof Integer integer ? integer : (Double) value;
+    }
+
+    public boolean executeBoolean(ExecutionContext context)
+    {
+        Object value = execute(context);
+        return value != null && (!(value instanceof Boolean bool) || bool);
+    }
+
+    /**
+     * Node producing an entier
+     */
+    abstract static class IntNode extends ExecNode
+    {
+        @Override
+        public abstract int executeInt(ExecutionContext context);
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return executeInt(context);
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            return executeInt(context);
+        }
+    }
+
+    /**
+     * Node producing a reel
+     */
+    abstract static class RealNode extends ExecNode
+    {
+        @Override
+        public abstract double executeDouble(ExecutionContext context);
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return executeDouble(context);
+        }
+    }
+
+    /**
+     * Node producing a booleen
+     */
+    abstract static class BooleanNode extends ExecNode
+    {
+        @Override
+        public abstract boolean executeBoolean(ExecutionContext context);
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return executeBoolean(context);
+        }
+    }
+}
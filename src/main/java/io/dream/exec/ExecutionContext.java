@@ -0,0 +1,20 @@
+package io.dream.exec;
+
+import io.dream.ast.Expression;
+import io.dream.environment.Environment;
+
+/**
+ * What executable nodes need from the interpreter running them
+ */
+public interface ExecutionContext
+{
+    /**
+     * Get the frame variables are read from
+     */
+    Environment environment();
+
+    /**
+     * Evaluate an expression with the tree walker (calls, arrays, structures)
+     */
+    Object evaluateTree(Expression expression);
+}
@@ -0,0 +1,63 @@
+package io.dream.exec;
+
+/**
+ * Short-circuit "et"/"ou" and negation
+ */
+final class LogicNodes
+{
+    private LogicNodes()
+    {
+    }
+
+    static final class And extends ExecNode.BooleanNode
+    {
+        private final ExecNode left;
+        private final ExecNode right;
+
+        And(ExecNode left, ExecNode right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeBoolean(context) && right.executeBoolean(context);
+        }
+    }
+
+    static final class Or extends ExecNode.BooleanNode
+    {
+        private final ExecNode left;
+        private final ExecNode right;
+
+        Or(ExecNode left, ExecNode right)
+        {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return left.executeBoolean(context) || right.executeBoolean(context);
+        }
+    }
+
+    static final class Not extends ExecNode.BooleanNode
+    {
+        private final ExecNode operand;
+
+        Not(ExecNode operand)
+        {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return !operand.executeBoolean(context);
+        }
+    }
+}
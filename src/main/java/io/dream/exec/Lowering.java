@@ -0,0 +1,445 @@
+package io.dream.exec;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.types.AtomicValue;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+
+import java.util.List;
+
+/**
+ * Lowering pass for AlgoLang, run after the Resolver
+ * Turns every checked expression into an executable node specialized on
+ * its operator and operand types, and stores it on the expression so the
+ * Interpreter evaluates the node instead of visiting the tree.
+ * Calls and array literals stay with the tree walker.
+ */
+public class Lowering implements Expression.Visitor<ExecNode>, Statement.Visitor<Void>
+{
+    /**
+     * Lower every expression of a program
+     */
+    public void lower(List<Statement> statements)
+    {
+        lowerBlock(statements);
+    }
+
+    private void lowerBlock(List<Statement> statements)
+    {
+        if (statements == null)
+        {
+            return;
+        }
+        for (Statement statement : statements)
+        {
+            statement.accept(this);
+        }
+    }
+
+    /**
+     * Lower one expression and its operands
+     */
+    public ExecNode lower(Expression expression)
+    {
+        if (expression == null)
+        {
+            return null;
+        }
+        ExecNode node = expression.accept(this);
+        expression.setNode(node);
+        return node;
+    }
+
+    private void lowerAll(List<Expression> expressions)
+    {
+        for (Expression expression : expressions)
+        {
+            lower(expression);
+        }
+    }
+
+    private static boolean isNumber(Type type)
+    {
+        return type == TypeFactory.INTEGER || type == TypeFactory.FLOATING;
+    }
+
+    // ========================================================================
+    // STATEMENT VISITORS
+    // ========================================================================
+
+    @Override
+    public Void visitExpressionStmtStatement(Statement.ExpressionStmt statement)
+    {
+        lower(statement.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitWriteStatement(Statement.Write statement)
+    {
+        lower(statement.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReadStatement(Statement.Read statement)
+    {
+        return null;
+    }
+
+    @Override
+    public Void visitVariableDeclarationStatement(Statement.VariableDeclaration statement)
+    {
+        lower(statement.value);
+        return null;
+    }
+
+    @Override
+    public Void visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
+    {
+        lower(statement.value);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignmentStatement(Statement.Assignment statement)
+    {
+        lower(statement.value);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(Statement.If statement)
+    {
+        lower(statement.condition);
+        lowerBlock(statement.thenBranch);
+        lowerBlock(statement.elseBranch);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        lower(statement.condition);
+        lowerBlock(statement.body);
+        return null;
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        lowerBlock(statement.body);
+        lower(statement.condition);
+        return null;
+    }
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        lower(statement.start);
+        lower(statement.end);
+        lower(statement.step);
+        lowerBlock(statement.body);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        lowerBlock(statement.body);
+        return null;
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        lowerBlock(statement.body);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStatement(Statement.Return statement)
+    {
+        lower(statement.value);
+        return null;
+    }
+
+    @Override
+    public Void visitStructDeclarationStatement(Statement.StructDeclaration statement)
+    {
+        return null;
+    }
+
+    @Override
+    public Void visitMethodCallStatement(Statement.MethodCall statement)
+    {
+        lowerAll(statement.arguments);
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
+    {
+        lower(statement.index);
+        lower(statement.value);
+        return null;
+    }
+
+    @Override
+    public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
+    {
+        lower(statement.value);
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
+    {
+        lower(statement.index);
+        lower(statement.value);
+        return null;
+    }
+
+    @Override
+    public Void visitFieldReadStatement(Statement.FieldRead statement)
+    {
+        return null;
+    }
+
+    @Override
+    public Void visitArrayReadStatement(Statement.ArrayRead statement)
+    {
+        lower(statement.index);
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
+    {
+        lower(statement.index);
+        return null;
+    }
+
+    // ========================================================================
+    // EXPRESSION VISITORS
+    // ========================================================================
+
+    @Override
+    public ExecNode visitBinaryExpression(Expression.Binary expression)
+    {
+        ExecNode left = lower(expression.left);
+        ExecNode right = lower(expression.right);
+        Type leftType = expression.left.getType();
+        Type rightType = expression.right.getType();
+        Type type = expression.getType();
+        boolean real = leftType == TypeFactory.FLOATING || rightType == TypeFactory.FLOATING;
+
+        switch (expression.operator.type())
+        {
+            case LESS:
+                return real ? new ComparisonNodes.RealLess(left, right) : new ComparisonNodes.IntLess(left, right);
+            case LESS_OR_EQUAL:
+                return real ? new ComparisonNodes.RealLessEqual(left, right) : new ComparisonNodes.IntLessEqual(left, right);
+            case GREATER:
+                return real ? new ComparisonNodes.RealGreater(left, right) : new ComparisonNodes.IntGreater(left, right);
+            case GREATER_OR_EQUAL:
+                return real ? new ComparisonNodes.RealGreaterEqual(left, right) : new ComparisonNodes.IntGreaterEqual(left, right);
+            case EQUAL_EQUAL:
+                return equality(left, leftType, right, rightType, false);
+            case DIFF:
+                return equality(left, leftType, right, rightType, true);
+            default:
+                break;
+        }
+
+        if (type == TypeFactory.STRING)
+        {
+            return new StringConcat(left, leftType, right, rightType);
+        }
+        if (!isNumber(type))
+        {
+            return new TreeNode(expression);
+        }
+
+        boolean integer = type == TypeFactory.INTEGER;
+        return switch (expression.operator.type())
+        {
+            case PLUS -> integer ? new ArithmeticNodes.IntAdd(left, right) : new ArithmeticNodes.RealAdd(left, right);
+            case MINUS -> integer ? new ArithmeticNodes.IntSubtract(left, right) : new ArithmeticNodes.RealSubtract(left, right);
+            case STAR -> integer ? new ArithmeticNodes.IntMultiply(left, right) : new ArithmeticNodes.RealMultiply(left, right);
+            case SLASH -> integer
+                    ? new ArithmeticNodes.IntDivide(left, right, expression.operator)
+                    : new ArithmeticNodes.RealDivide(left, right, expression.operator);
+            case MOD -> integer
+                    ? new ArithmeticNodes.IntModulo(left, right, expression.operator)
+                    : new ArithmeticNodes.RealModulo(left, right, expression.operator);
+            default -> new TreeNode(expression);
+        };
+    }
+
+    private static ExecNode equality(ExecNode left, Type leftType, ExecNode right, Type rightType, boolean negated)
+    {
+        if (leftType == TypeFactory.INTEGER && rightType == TypeFactory.INTEGER)
+        {
+            return negated ? new ComparisonNodes.IntNotEqual(left, right) : new ComparisonNodes.IntEqual(left, right);
+        }
+        if (isNumber(leftType) && isNumber(rightType))
+        {
+            return negated ? new ComparisonNodes.RealNotEqual(left, right) : new ComparisonNodes.RealEqual(left, right);
+        }
+        if (leftType == TypeFactory.BOOLEAN && rightType == TypeFactory.BOOLEAN)
+        {
+            return negated ? new ComparisonNodes.BooleanNotEqual(left, right) : new ComparisonNodes.BooleanEqual(left, right);
+        }
+        return new ComparisonNodes.ValueEqual(left, right, negated);
+    }
+
+    @Override
+    public ExecNode visitGroupingExpression(Expression.Grouping expression)
+    {
+        return lower(expression.expression);
+    }
+
+    @Override
+    public ExecNode visitUnaryExpression(Expression.Unary expression)
+    {
+        ExecNode operand = lower(expression.right);
+
+        return switch (expression.operator.type())
+        {
+            case MINUS -> expression.getType() == TypeFactory.INTEGER
+                    ? new ArithmeticNodes.IntNegate(operand)
+                    : new ArithmeticNodes.RealNegate(operand);
+            case BANG, NOT -> new LogicNodes.Not(operand);
+            default -> new TreeNode(expression);
+        };
+    }
+
+    @Override
+    public ExecNode visitLiteralExpression(Expression.Literal expression)
+    {
+        Object value = expression.value instanceof AtomicValue<?> atomic
+                ? atomic.getValue()
+                : expression.value;
+
+        if (value instanceof Integer integer)
+        {
+            return new ValueNodes.IntLiteral(integer);
+        }
+        if (value instanceof Double real)
+        {
+            return new ValueNodes.RealLiteral(real);
+        }
+        if (value instanceof Boolean bool)
+        {
+            return new ValueNodes.BooleanLiteral(bool);
+        }
+        return new ValueNodes.Constant(value);
+    }
+
+    @Override
+    public ExecNode visitVariableExpression(Expression.Variable expression)
+    {
+        int depth = expression.getDepth();
+        int slot = expression.getSlot();
+        if (slot < 0)
+        {
+            return new TreeNode(expression);
+        }
+
+        Type type = expression.getType();
+        if (type == TypeFactory.INTEGER)
+        {
+            return new ValueNodes.IntVariable(depth, slot);
+        }
+        if (type == TypeFactory.FLOATING)
+        {
+            return new ValueNodes.RealVariable(depth, slot);
+        }
+        if (type == TypeFactory.BOOLEAN)
+        {
+            return new ValueNodes.BooleanVariable(depth, slot);
+        }
+        return new ValueNodes.Variable(depth, slot);
+    }
+
+    @Override
+    public ExecNode visitLogicalExpression(Expression.Logical expression)
+    {
+        ExecNode left = lower(expression.left);
+        ExecNode right = lower(expression.right);
+
+        return switch (expression.operator.type())
+        {
+            case OR -> new LogicNodes.Or(left, right);
+            default -> new LogicNodes.And(left, right);
+        };
+    }
+
+    @Override
+    public ExecNode visitCallExpression(Expression.Call expression)
+    {
+        lowerAll(expression.arguments);
+        return new TreeNode(expression);
+    }
+
+    @Override
+    public ExecNode visitArrayAccessExpression(Expression.ArrayAccess expression)
+    {
+        ExecNode array = lower(expression.array);
+        ExecNode index = lower(expression.index);
+        if (expression.index.getType() != TypeFactory.INTEGER)
+        {
+            return new TreeNode(expression);
+        }
+
+        Type type = expression.getType();
+        if (type == TypeFactory.INTEGER)
+        {
+            return new ArrayNodes.IntElement(array, index);
+        }
+        if (type == TypeFactory.FLOATING)
+        {
+            return new ArrayNodes.RealElement(array, index);
+        }
+        if (type == TypeFactory.BOOLEAN)
+        {
+            return new ArrayNodes.BooleanElement(array, index);
+        }
+        return new ArrayNodes.Element(array, index);
+    }
+
+    @Override
+    public ExecNode visitFieldAccessExpression(Expression.FieldAccess expression)
+    {
+        ExecNode object = lower(expression.object);
+        int index = expression.getFieldIndex();
+        if (index < 0)
+        {
+            return new TreeNode(expression);
+        }
+
+        Type type = expression.getType();
+        if (type == TypeFactory.INTEGER)
+        {
+            return new StructNodes.IntField(object, expression.field, index);
+        }
+        if (type == TypeFactory.FLOATING)
+        {
+            return new StructNodes.RealField(object, expression.field, index);
+        }
+        if (type == TypeFactory.BOOLEAN)
+        {
+            return new StructNodes.BooleanField(object, expression.field, index);
+        }
+        return new StructNodes.Field(object, expression.field, index);
+    }
+
+    @Override
+    public ExecNode visitArrayLiteralExpression(Expression.ArrayLiteral expression)
+    {
+        lowerAll(expression.elements);
+        return new TreeNode(expression);
+    }
+}
@@ -0,0 +1,65 @@
+package io.dream.exec;
+
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+
+/**
+ * chaine + value, printing the other operand like ecrire does
+ */
+final class StringConcat extends ExecNode
+{
+    private final ExecNode left;
+    private final ExecNode right;
+    private final Type leftType;
+    private final Type rightType;
+
+    StringConcat(ExecNode left, Type leftType, ExecNode right, Type rightType)
+    {
+        this.left = left;
+        this.right = right;
+        this.leftType = leftType;
+        this.rightType = rightType;
+    }
+
+    @Override
+    public Object execute(ExecutionContext context)
+    {
+        String text = text(left, leftType, context);
+        return text.concat(text(right, rightType, context));
+    }
+
+    private static String text(ExecNode node, Type type, ExecutionContext context)
+    {
+        if (type == TypeFactory.INTEGER)
+        {
+            return Integer.toString(node.executeInt(context));
+        }
+        if (type == TypeFactory.FLOATING)
+        {
+            return stringify(node.executeDouble(context));
+        }
+        return stringify(node.execute(context));
+    }
+
+    /**
+     * Same rules as the interpreter: reels drop a trailing ".0", null is "nil"
+     */
+    static String stringify(Object value)
+    {
+        if (value == null)
+        {
+            return "nil";
+        }
+        if (value instanceof Double real)
+        {
+            return stringify(real.doubleValue());
+        }
+        return value.toString();
+    }
+
+    private static String stringify(double value)
+    {
+        String text = Double.toString(value);
+        return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
+    }
+}
@@ -0,0 +1,111 @@
+package io.dream.exec;
+
+import io.dream.config.Messages;
+import io.dream.error.RuntimeError;
+import io.dream.scanner.Token;
+import io.dream.types.StructValue;
+
+/**
+ * Structure field reads
+ * The field index is bound by the Resolver, so a read is a single load
+ * from the structure's storage; entier, reel and booleen fields are read
+ * without boxing.
+ */
+final class StructNodes
+{
+    private StructNodes()
+    {
+    }
+
+    private static StructValue struct(ExecNode object, Token field, ExecutionContext context)
+    {
+        if (!(object.execute(context) instanceof StructValue value))
+        {
+            throw new RuntimeError(field, Messages.cannotAccessFieldOfNonStruct());
+        }
+        return value;
+    }
+
+    static final class IntField extends ExecNode.IntNode
+    {
+        private final ExecNode object;
+        private final Token field;
+        private final int index;
+
+        IntField(ExecNode object, Token field, int index)
+        {
+            this.object = object;
+            this.field = field;
+            this.index = index;
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            return struct(object, field, context).getIntField(index);
+        }
+    }
+
+    static final class RealField extends ExecNode.RealNode
+    {
+        private final ExecNode object;
+        private final Token field;
+        private final int index;
+
+        RealField(ExecNode object, Token field, int index)
+        {
+            this.object = object;
+            this.field = field;
+            this.index = index;
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            return struct(object, field, context).getDoubleField(index);
+        }
+    }
+
+    static final class BooleanField extends ExecNode.BooleanNode
+    {
+        private final ExecNode object;
+        private final Token field;
+        private final int index;
+
+        BooleanField(ExecNode object, Token field, int index)
+        {
+            this.object = object;
+            this.field = field;
+            this.index = index;
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return struct(object, field, context).getBooleanField(index);
+        }
+    }
+
+    /**
+     * Read of a caractere, chaine, array or structure field
+     */
+    static final class Field extends ExecNode
+    {
+        private final ExecNode object;
+        private final Token field;
+        private final int index;
+
+        Field(ExecNode object, Token field, int index)
+        {
+            this.object = object;
+            this.field = field;
+            this.index = index;
+        }
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return struct(object, field, context).loadField(index);
+        }
+    }
+}
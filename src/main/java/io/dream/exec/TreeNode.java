@@ -0,0 +1,23 @@
+package io.dream.exec;
+
+import io.dream.ast.Expression;
+
+/**
+ * Hands an expression back to the tree walker
+ * Used for calls, array literals and unresolved variables or fields.
+ */
+final class TreeNode extends ExecNode
+{
+    private final Expression expression;
+
+    TreeNode(Expression expression)
+    {
+        this.expression = expression;
+    }
+
+    @Override
+    public Object execute(ExecutionContext context)
+    {
+        return context.evaluateTree(expression);
+    }
+}
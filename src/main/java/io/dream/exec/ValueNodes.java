@@ -0,0 +1,171 @@
+package io.dream.exec;
+
+/**
+ * Literals and variable reads
+ * Variables read their resolved slot directly, unboxed for entier, reel
+ * and booleen; an unset local reads as the zero value of its type.
+ */
+final class ValueNodes
+{
+    private ValueNodes()
+    {
+    }
+
+    static final class IntLiteral extends ExecNode.IntNode
+    {
+        private final int value;
+        private final Integer boxed;
+
+        IntLiteral(int value)
+        {
+            this.value = value;
+            this.boxed = value;
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            return value;
+        }
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return boxed;
+        }
+    }
+
+    static final class RealLiteral extends ExecNode.RealNode
+    {
+        private final double value;
+        private final Double boxed;
+
+        RealLiteral(double value)
+        {
+            this.value = value;
+            this.boxed = value;
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            return value;
+        }
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return boxed;
+        }
+    }
+
+    static final class BooleanLiteral extends ExecNode.BooleanNode
+    {
+        private final boolean value;
+
+        BooleanLiteral(boolean value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return value;
+        }
+    }
+
+    /**
+     * Any other literal (chaine, caractere, nil)
+     */
+    static final class Constant extends ExecNode
+    {
+        private final Object value;
+
+        Constant(Object value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return value;
+        }
+    }
+
+    static final class IntVariable extends ExecNode.IntNode
+    {
+        private final int depth;
+        private final int slot;
+
+        IntVariable(int depth, int slot)
+        {
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        @Override
+        public int executeInt(ExecutionContext context)
+        {
+            return context.environment().getIntAt(depth, slot);
+        }
+    }
+
+    static final class RealVariable extends ExecNode.RealNode
+    {
+        private final int depth;
+        private final int slot;
+
+        RealVariable(int depth, int slot)
+        {
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        @Override
+        public double executeDouble(ExecutionContext context)
+        {
+            return context.environment().getDoubleAt(depth, slot);
+        }
+    }
+
+    static final class BooleanVariable extends ExecNode.BooleanNode
+    {
+        private final int depth;
+        private final int slot;
+
+        BooleanVariable(int depth, int slot)
+        {
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean executeBoolean(ExecutionContext context)
+        {
+            return context.environment().getBooleanAt(depth, slot);
+        }
+    }
+
+    /**
+     * Read of a caractere, chaine, array or structure variable
+     */
+    static final class Variable extends ExecNode
+    {
+        private final int depth;
+        private final int slot;
+
+        Variable(int depth, int slot)
+        {
+            this.depth = depth;
+            this.slot = slot;
+        }
+
+        @Override
+        public Object execute(ExecutionContext context)
+        {
+            return context.environment().loadAt(depth, slot);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package io.dream.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer for the JIT
+ *
+ * Only what compiled routines need: a constant pool, public static methods
+ * and their Code attribute. Classes are emitted as version 49 so the JVM
+ * infers stack map frames itself and no StackMapTable has to be computed.
+ */
+final class ClassFile
+{
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int TAG_UTF8 = 1;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_CLASS = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_METHODREF = 10;
+    private static final int TAG_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> entries = new HashMap<>();
+    private int poolCount = 1;
+
+    private final String name;
+    private final List<byte[]> methods = new ArrayList<>();
+
+    ClassFile(String name)
+    {
+        this.name = name;
+    }
+
+    String getName()
+    {
+        return name;
+    }
+
+    // ========================================================================
+    // CONSTANT POOL
+    // ========================================================================
+
+    int utf8(String value)
+    {
+        return entry("U" + value, 1, out -> {
+            out.writeByte(TAG_UTF8);
+            out.writeUTF(value);
+        });
+    }
+
+    int classRef(String internalName)
+    {
+        int nameIndex = utf8(internalName);
+        return entry("C" + internalName, 1, out -> {
+            out.writeByte(TAG_CLASS);
+            out.writeShort(nameIndex);
+        });
+    }
+
+    int string(String value)
+    {
+        int valueIndex = utf8(value);
+        return entry("S" + value, 1, out -> {
+            out.writeByte(TAG_STRING);
+            out.writeShort(valueIndex);
+        });
+    }
+
+    int integer(int value)
+    {
+        return entry("I" + value, 1, out -> {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt(value);
+        });
+    }
+
+    int real(double value)
+    {
+        long bits = Double.doubleToRawLongBits(value);
+        return entry("D" + bits, 2, out -> {
+            out.writeByte(TAG_DOUBLE);
+            out.writeLong(bits);
+        });
+    }
+
+    int methodRef(String owner, String methodName, String descriptor)
+    {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(methodName);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndType = entry("N" + methodName + ":" + descriptor, 1, out -> {
+            out.writeByte(TAG_NAME_AND_TYPE);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return entry("M" + owner + "." + methodName + ":" + descriptor, 1, out -> {
+            out.writeByte(TAG_METHODREF);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private interface EntryWriter
+    {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private int entry(String key, int size, EntryWriter writer)
+    {
+        Integer existing = entries.get(key);
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        try
+        {
+            writer.write(poolOut);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        int index = poolCount;
+        poolCount += size;
+        if (poolCount > 0xFFFF)
+        {
+            throw new Unsupported("constant pool too large");
+        }
+        entries.put(key, index);
+        return index;
+    }
+
+    // ========================================================================
+    // METHODS
+    // ========================================================================
+
+    /**
+     * Add a public static method with the given body
+     */
+    void addMethod(String methodName, String descriptor, Code code)
+    {
+        int nameIndex = utf8(methodName);
+        int descriptorIndex = utf8(descriptor);
+        int codeName = utf8("Code");
+        byte[] bytes = code.toByteArray();
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        try
+        {
+            out.writeShort(ACC_PUBLIC | ACC_STATIC);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+            out.writeShort(1);
+
+            out.writeShort(codeName);
+            out.writeInt(12 + bytes.length);
+            out.writeShort(code.getMaxStack());
+            out.writeShort(code.getMaxLocals());
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeShort(0);      // exception table
+            out.writeShort(0);      // attributes
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        methods.add(buffer.toByteArray());
+    }
+
+    byte[] toByteArray()
+    {
+        int thisClass = classRef(name);
+        int superClass = classRef("java/lang/Object");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        try
+        {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            poolOut.flush();
+            pool.writeTo(out);
+
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);      // interfaces
+            out.writeShort(0);      // fields
+
+            out.writeShort(methods.size());
+            for (byte[] method : methods)
+            {
+                out.write(method);
+            }
+            out.writeShort(0);      // attributes
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
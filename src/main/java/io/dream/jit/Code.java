@@ -0,0 +1,266 @@
+package io.dream.jit;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of one JVM method under construction
+ * Tracks the operand stack depth so max_stack is exact, and resolves
+ * forward branches through labels.
+ */
+final class Code
+{
+    // JVM opcodes used by the JIT
+    static final int ICONST_0 = 3;
+    static final int BIPUSH = 16;
+    static final int SIPUSH = 17;
+    static final int LDC_W = 19;
+    static final int LDC2_W = 20;
+    static final int ILOAD = 21;
+    static final int DLOAD = 24;
+    static final int ALOAD = 25;
+    static final int ISTORE = 54;
+    static final int DSTORE = 57;
+    static final int ASTORE = 58;
+    static final int POP = 87;
+    static final int POP2 = 88;
+    static final int IADD = 96;
+    static final int DADD = 99;
+    static final int ISUB = 100;
+    static final int DSUB = 103;
+    static final int IMUL = 104;
+    static final int DMUL = 107;
+    static final int INEG = 116;
+    static final int DNEG = 119;
+    static final int IXOR = 130;
+    static final int IINC = 132;
+    static final int I2D = 135;
+    static final int DCMPL = 151;
+    static final int DCMPG = 152;
+    static final int IFEQ = 153;
+    static final int IFNE = 154;
+    static final int IFLT = 155;
+    static final int IFGE = 156;
+    static final int IFGT = 157;
+    static final int IFLE = 158;
+    static final int IF_ICMPEQ = 159;
+    static final int IF_ICMPNE = 160;
+    static final int IF_ICMPLT = 161;
+    static final int IF_ICMPGE = 162;
+    static final int IF_ICMPGT = 163;
+    static final int IF_ICMPLE = 164;
+    static final int GOTO = 167;
+    static final int IRETURN = 172;
+    static final int DRETURN = 175;
+    static final int ARETURN = 176;
+    static final int RETURN = 177;
+    static final int INVOKESTATIC = 184;
+
+    private static final int MAX_CODE = 0xFFFF;
+
+    /**
+     * A branch target, placed once, possibly after the branches to it
+     */
+    static final class Label
+    {
+        private int position = -1;
+        private int depth = -1;
+        private final List<Integer> branches = new ArrayList<>();
+    }
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    private byte[] patched;
+    private final List<int[]> fixups = new ArrayList<>();
+    private int depth;
+    private int maxStack;
+    private int maxLocals;
+
+    Code(int maxLocals)
+    {
+        this.maxLocals = maxLocals;
+    }
+
+    int getMaxStack()
+    {
+        return maxStack;
+    }
+
+    int getMaxLocals()
+    {
+        return maxLocals;
+    }
+
+    /**
+     * Reserve a new local variable of one or two words and return its index
+     */
+    int newLocal(int size)
+    {
+        int index = maxLocals;
+        maxLocals += size;
+        if (maxLocals > 0xFF)
+        {
+            throw new Unsupported("too many locals");
+        }
+        return index;
+    }
+
+    // ========================================================================
+    // EMISSION
+    // ========================================================================
+
+    /**
+     * Emit an instruction and account for its effect on the stack (in words)
+     */
+    void op(int opcode, int stackEffect)
+    {
+        code.write(opcode);
+        adjust(stackEffect);
+    }
+
+    void u1(int value)
+    {
+        code.write(value);
+    }
+
+    void u2(int value)
+    {
+        code.write(value >> 8);
+        code.write(value);
+    }
+
+    private void adjust(int stackEffect)
+    {
+        depth += stackEffect;
+        if (depth > maxStack)
+        {
+            maxStack = depth;
+        }
+    }
+
+    void pushInt(ClassFile classFile, int value)
+    {
+        if (value >= -1 && value <= 5)
+        {
+            op(ICONST_0 + value, 1);
+        }
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+        {
+            op(BIPUSH, 1);
+            u1(value);
+        }
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+        {
+            op(SIPUSH, 1);
+            u2(value);
+        }
+        else
+        {
+            op(LDC_W, 1);
+            u2(classFile.integer(value));
+        }
+    }
+
+    void pushReal(ClassFile classFile, double value)
+    {
+        op(LDC2_W, 2);
+        u2(classFile.real(value));
+    }
+
+    void pushString(ClassFile classFile, String value)
+    {
+        op(LDC_W, 1);
+        u2(classFile.string(value));
+    }
+
+    void local(int opcode, int index, int stackEffect)
+    {
+        op(opcode, stackEffect);
+        u1(index);
+    }
+
+    void invokeStatic(ClassFile classFile, String owner, String name, String descriptor, int stackEffect)
+    {
+        op(INVOKESTATIC, stackEffect);
+        u2(classFile.methodRef(owner, name, descriptor));
+    }
+
+    // ========================================================================
+    // BRANCHES
+    // ========================================================================
+
+    /**
+     * Emit a branch to a label; the stack depth after the branch is recorded
+     * as the depth on arrival at the label
+     */
+    void branch(int opcode, Label label, int stackEffect)
+    {
+        int at = code.size();
+        op(opcode, stackEffect);
+        label.depth = depth;
+        if (label.position >= 0)
+        {
+            u2(offset(label.position - at));
+        }
+        else
+        {
+            fixups.add(new int[] { at, code.size() });
+            label.branches.add(fixups.size() - 1);
+            u2(0);
+        }
+    }
+
+    /**
+     * Place a label on the next instruction
+     */
+    void place(Label label)
+    {
+        label.position = code.size();
+        if (label.depth >= 0)
+        {
+            depth = label.depth;
+        }
+        for (int fixup : label.branches)
+        {
+            fixups.get(fixup)[0] = label.position - fixups.get(fixup)[0];
+        }
+        label.branches.clear();
+    }
+
+    /**
+     * Code after an unconditional jump or a return is only reached through
+     * a label, which restores the stack depth
+     */
+    void unreachable()
+    {
+        depth = 0;
+    }
+
+    private static int offset(int distance)
+    {
+        if (distance < Short.MIN_VALUE || distance > Short.MAX_VALUE)
+        {
+            throw new Unsupported("branch too far");
+        }
+        return distance;
+    }
+
+    byte[] toByteArray()
+    {
+        if (patched == null)
+        {
+            patched = code.toByteArray();
+            if (patched.length > MAX_CODE)
+            {
+                throw new Unsupported("method too large");
+            }
+            for (int[] fixup : fixups)
+            {
+                int distance = offset(fixup[0]);
+                patched[fixup[1]] = (byte) (distance >> 8);
+                patched[fixup[1] + 1] = (byte) distance;
+            }
+        }
+        return patched;
+    }
+}
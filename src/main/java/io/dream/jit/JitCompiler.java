@@ -0,0 +1,1039 @@
+package io.dream.jit;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.environment.FrameLayout;
+import io.dream.scanner.Token;
+import io.dream.scanner.TokenType;
+import io.dream.types.AtomicValue;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Translates AlgoLang functions and methods into JVM bytecode
+ *
+ * A routine is compiled together with every routine it calls into one
+ * hidden class, one static method each, so calls between them are plain
+ * invokestatic. entier, booleen and car live in int locals, reel in double
+ * locals and chaine in String locals. Anything else (arrays, structures,
+ * input, natives, globals) makes the routine unsupported.
+ *
+ * Every routine takes one more int, the number of calls it may still nest,
+ * so the frame budget of the tree walker holds in compiled code too.
+ */
+final class JitCompiler implements Expression.Visitor<Void>, Statement.Visitor<Void>
+{
+    private static final String CLASS_NAME = "io/dream/jit/CompiledRoutines";
+    private static final String RUNTIME = "io/dream/jit/JitRuntime";
+    private static final String STRING = "Ljava/lang/String;";
+
+    private final Map<String, Statement.FunctionDeclaration> functions;
+    private final Map<String, Statement.MethodDeclaration> methods;
+
+    // Functions that must keep running in the interpreter, so calls to them are unsupported
+    private Set<String> interpreted = Set.of();
+
+    // Routines of the class being built and their method names
+    private final Map<Statement, String> names = new IdentityHashMap<>();
+    private final Deque<Statement> pending = new ArrayDeque<>();
+    private ClassFile classFile;
+
+    // State of the routine being compiled
+    private Code code;
+    private int[] locals;
+    private Type[] slotTypes;
+    private Type returnType;
+    private Statement routine;
+    private Code.Label entry;
+    private int frames;
+
+    JitCompiler(Map<String, Statement.FunctionDeclaration> functions,
+                Map<String, Statement.MethodDeclaration> methods)
+    {
+        this.functions = functions;
+        this.methods = methods;
+    }
+
+    void keepInterpreted(Set<String> functionNames)
+    {
+        this.interpreted = functionNames;
+    }
+
+    /**
+     * Compile a routine and its callees, returning a handle on the routine
+     *
+     * @throws Unsupported when one of them cannot be translated
+     */
+    MethodHandle compile(Statement routine)
+    {
+        names.clear();
+        pending.clear();
+        classFile = new ClassFile(CLASS_NAME);
+
+        String entry = nameOf(routine);
+        while (!pending.isEmpty())
+        {
+            compileRoutine(pending.pop());
+        }
+
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClass(classFile.toByteArray(), true);
+            return lookup.findStatic(lookup.lookupClass(), entry, methodType(routine));
+        }
+        catch (IllegalAccessException | NoSuchMethodException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String nameOf(Statement routine)
+    {
+        String name = names.get(routine);
+        if (name == null)
+        {
+            name = "r" + names.size();
+            names.put(routine, name);
+            pending.push(routine);
+        }
+        return name;
+    }
+
+    // ========================================================================
+    // SIGNATURES
+    // ========================================================================
+
+    private static List<Statement.Parameter> parametersOf(Statement routine)
+    {
+        return routine instanceof Statement.FunctionDeclaration function
+                ? function.parameters
+                : ((Statement.MethodDeclaration) routine).parameters;
+    }
+
+    private static Type returnTypeOf(Statement routine)
+    {
+        return routine instanceof Statement.FunctionDeclaration function ? function.returnType : null;
+    }
+
+    private static String descriptorOf(Statement routine)
+    {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Statement.Parameter parameter : parametersOf(routine))
+        {
+            descriptor.append(descriptorOf(parameter.type));
+        }
+        Type result = returnTypeOf(routine);
+        return descriptor.append("I)").append(result == null ? "V" : descriptorOf(result)).toString();
+    }
+
+    private static String descriptorOf(Type type)
+    {
+        if (type == TypeFactory.INTEGER) return "I";
+        if (type == TypeFactory.FLOATING) return "D";
+        if (type == TypeFactory.BOOLEAN) return "Z";
+        if (type == TypeFactory.CHAR) return "C";
+        if (type == TypeFactory.STRING) return STRING;
+        throw new Unsupported("type " + type);
+    }
+
+    private static MethodType methodType(Statement routine)
+    {
+        Class<?>[] parameters = parametersOf(routine).stream()
+                .map(parameter -> classOf(parameter.type))
+                .toArray(Class<?>[]::new);
+        Type result = returnTypeOf(routine);
+        return MethodType.methodType(result == null ? void.class : classOf(result), parameters)
+                .appendParameterTypes(int.class);
+    }
+
+    private static Class<?> classOf(Type type)
+    {
+        if (type == TypeFactory.INTEGER) return int.class;
+        if (type == TypeFactory.FLOATING) return double.class;
+        if (type == TypeFactory.BOOLEAN) return boolean.class;
+        if (type == TypeFactory.CHAR) return char.class;
+        return String.class;
+    }
+
+    private static int sizeOf(Type type)
+    {
+        return type == TypeFactory.FLOATING ? 2 : 1;
+    }
+
+    // ========================================================================
+    // ROUTINES
+    // ========================================================================
+
+    private void compileRoutine(Statement routine)
+    {
+        FrameLayout layout = routine instanceof Statement.FunctionDeclaration function
+                ? function.getLayout()
+                : ((Statement.MethodDeclaration) routine).getLayout();
+        if (layout == null)
+        {
+            throw new Unsupported("routine not resolved");
+        }
+
+        // Frame slots map to JVM locals, reel taking two words
+        slotTypes = layout.getTypes();
+        locals = new int[slotTypes.length];
+        int next = 0;
+        for (int slot = 0; slot < slotTypes.length; slot++)
+        {
+            descriptorOf(slotTypes[slot]);
+            locals[slot] = next;
+            next += sizeOf(slotTypes[slot]);
+        }
+        code = new Code(next);
+        frames = code.newLocal(1);
+        returnType = returnTypeOf(routine);
+        this.routine = routine;
+        entry = new Code.Label();
+
+        // Locals start at their zero value, parameters hold the arguments
+        // (a tail call jumps back here)
+        code.place(entry);
+        for (int slot = parametersOf(routine).size(); slot < slotTypes.length; slot++)
+        {
+            pushZero(slotTypes[slot]);
+            storeSlot(slot);
+        }
+
+        List<Statement> body = routine instanceof Statement.FunctionDeclaration function
+                ? function.body
+                : ((Statement.MethodDeclaration) routine).body;
+        compileBlock(body);
+
+        if (returnType == null)
+        {
+            code.op(Code.RETURN, 0);
+        }
+        else
+        {
+            // Falling off the end returns the zero value of the return type
+            pushZero(returnType);
+            returnValue();
+        }
+
+        classFile.addMethod(names.get(routine), descriptorOf(routine), code);
+    }
+
+    private void pushZero(Type type)
+    {
+        if (type == TypeFactory.FLOATING)
+        {
+            code.pushReal(classFile, 0.0);
+        }
+        else if (type == TypeFactory.STRING)
+        {
+            code.pushString(classFile, "");
+        }
+        else
+        {
+            code.pushInt(classFile, 0);
+        }
+    }
+
+    private void returnValue()
+    {
+        if (returnType == TypeFactory.FLOATING)
+        {
+            code.op(Code.DRETURN, -2);
+        }
+        else if (returnType == TypeFactory.STRING)
+        {
+            code.op(Code.ARETURN, -1);
+        }
+        else
+        {
+            code.op(Code.IRETURN, -1);
+        }
+        code.unreachable();
+    }
+
+    // ========================================================================
+    // LOCALS
+    // ========================================================================
+
+    private int slotOf(int depth, int slot)
+    {
+        // Only the routine's own frame is reachable from compiled code
+        if (depth != 0 || slot < 0)
+        {
+            throw new Unsupported("variable outside the routine frame");
+        }
+        return slot;
+    }
+
+    private void loadSlot(int slot)
+    {
+        Type type = slotTypes[slot];
+        if (type == TypeFactory.FLOATING)
+        {
+            code.local(Code.DLOAD, locals[slot], 2);
+        }
+        else if (type == TypeFactory.STRING)
+        {
+            code.local(Code.ALOAD, locals[slot], 1);
+        }
+        else
+        {
+            code.local(Code.ILOAD, locals[slot], 1);
+        }
+    }
+
+    private void storeSlot(int slot)
+    {
+        Type type = slotTypes[slot];
+        if (type == TypeFactory.FLOATING)
+        {
+            code.local(Code.DSTORE, locals[slot], -2);
+        }
+        else if (type == TypeFactory.STRING)
+        {
+            code.local(Code.ASTORE, locals[slot], -1);
+        }
+        else
+        {
+            code.local(Code.ISTORE, locals[slot], -1);
+        }
+    }
+
+    // ========================================================================
+    // STATEMENTS
+    // ========================================================================
+
+    private void compileBlock(List<Statement> statements)
+    {
+        for (Statement statement : statements)
+        {
+            statement.accept(this);
+        }
+    }
+
+    private void compile(Expression expression)
+    {
+        expression.accept(this);
+    }
+
+    @Override
+    public Void visitExpressionStmtStatement(Statement.ExpressionStmt statement)
+    {
+        compile(statement.expression);
+        if (statement.expression.getType() == TypeFactory.FLOATING)
+        {
+            code.op(Code.POP2, -2);
+        }
+        else
+        {
+            code.op(Code.POP, -1);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitWriteStatement(Statement.Write statement)
+    {
+        compileText(statement.expression);
+        code.invokeStatic(classFile, RUNTIME, "write", "(" + STRING + ")V", -1);
+        return null;
+    }
+
+    @Override
+    public Void visitReadStatement(Statement.Read statement)
+    {
+        throw new Unsupported("lire");
+    }
+
+    @Override
+    public Void visitVariableDeclarationStatement(Statement.VariableDeclaration statement)
+    {
+        if (statement.value != null)
+        {
+            compile(statement.value);
+            storeSlot(slotOf(statement.getDepth(), statement.getSlot()));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
+    {
+        throw new Unsupported("constante");
+    }
+
+    @Override
+    public Void visitAssignmentStatement(Statement.Assignment statement)
+    {
+        int slot = slotOf(statement.getDepth(), statement.getSlot());
+        if (!increment(statement, slot))
+        {
+            compile(statement.value);
+            storeSlot(slot);
+        }
+        return null;
+    }
+
+    /**
+     * x <- x + k (or x - k) on an entier becomes a single IINC
+     */
+    private boolean increment(Statement.Assignment statement, int slot)
+    {
+        if (slotTypes[slot] != TypeFactory.INTEGER
+                || !(statement.value instanceof Expression.Binary binary)
+                || !(binary.left instanceof Expression.Variable variable)
+                || variable.getDepth() != 0
+                || variable.getSlot() != slot
+                || !(binary.right instanceof Expression.Literal literal)
+                || !(literal.value instanceof AtomicValue<?> atomic)
+                || !(atomic.getValue() instanceof Integer amount))
+        {
+            return false;
+        }
+
+        if (binary.operator.type() == TokenType.MINUS)
+        {
+            amount = -amount;
+        }
+        else if (binary.operator.type() != TokenType.PLUS)
+        {
+            return false;
+        }
+
+        if (amount < Byte.MIN_VALUE || amount > Byte.MAX_VALUE)
+        {
+            return false;
+        }
+
+        code.op(Code.IINC, 0);
+        code.u1(locals[slot]);
+        code.u1(amount);
+        return true;
+    }
+
+    @Override
+    public Void visitIfStatement(Statement.If statement)
+    {
+        Code.Label elseBranch = new Code.Label();
+        branch(statement.condition, false, elseBranch);
+        compileBlock(statement.thenBranch);
+
+        if (statement.elseBranch != null && !statement.elseBranch.isEmpty())
+        {
+            Code.Label end = new Code.Label();
+            code.branch(Code.GOTO, end, 0);
+            code.unreachable();
+            code.place(elseBranch);
+            compileBlock(statement.elseBranch);
+            code.place(end);
+        }
+        else
+        {
+            code.place(elseBranch);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        Code.Label start = new Code.Label();
+        Code.Label exit = new Code.Label();
+
+        code.place(start);
+        branch(statement.condition, false, exit);
+        compileBlock(statement.body);
+        code.branch(Code.GOTO, start, 0);
+        code.unreachable();
+        code.place(exit);
+        return null;
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        // repeter ... jusqu_a condition: loop until the condition holds
+        Code.Label start = new Code.Label();
+        code.place(start);
+        compileBlock(statement.body);
+        branch(statement.condition, false, start);
+        return null;
+    }
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        // Like the tree walker, bounds are evaluated once into hidden locals
+        // and the body cannot change the iteration; a pour parallele runs in order
+        int variable = slotOf(statement.getDepth(), statement.getSlot());
+        int counter = code.newLocal(1);
+        int end = code.newLocal(1);
+
+        compile(statement.start);
+        code.local(Code.ISTORE, counter, -1);
+        compile(statement.end);
+        code.local(Code.ISTORE, end, -1);
+
+        Integer constantStep = statement.step == null ? Integer.valueOf(1) : constantInt(statement.step);
+        int step = -1;
+        if (constantStep == null)
+        {
+            step = code.newLocal(1);
+            compile(statement.step);
+            code.local(Code.ISTORE, step, -1);
+        }
+
+        Code.Label test = new Code.Label();
+        Code.Label body = new Code.Label();
+        Code.Label exit = new Code.Label();
+
+        code.place(test);
+        if (constantStep != null)
+        {
+            code.local(Code.ILOAD, counter, 1);
+            code.local(Code.ILOAD, end, 1);
+            code.branch(constantStep > 0 ? Code.IF_ICMPGT : Code.IF_ICMPLT, exit, -2);
+        }
+        else
+        {
+            // The direction depends on the sign of the step
+            Code.Label descending = new Code.Label();
+            code.local(Code.ILOAD, step, 1);
+            code.branch(Code.IFLE, descending, -1);
+            code.local(Code.ILOAD, counter, 1);
+            code.local(Code.ILOAD, end, 1);
+            code.branch(Code.IF_ICMPGT, exit, -2);
+            code.branch(Code.GOTO, body, 0);
+            code.unreachable();
+            code.place(descending);
+            code.local(Code.ILOAD, counter, 1);
+            code.local(Code.ILOAD, end, 1);
+            code.branch(Code.IF_ICMPLT, exit, -2);
+        }
+
+        code.place(body);
+        code.local(Code.ILOAD, counter, 1);
+        storeSlot(variable);
+        compileBlock(statement.body);
+
+        if (constantStep != null && constantStep >= Byte.MIN_VALUE && constantStep <= Byte.MAX_VALUE)
+        {
+            code.op(Code.IINC, 0);
+            code.u1(counter);
+            code.u1(constantStep);
+        }
+        else
+        {
+            code.local(Code.ILOAD, counter, 1);
+            if (constantStep != null)
+            {
+                code.pushInt(classFile, constantStep);
+            }
+            else
+            {
+                code.local(Code.ILOAD, step, 1);
+            }
+            code.op(Code.IADD, -1);
+            code.local(Code.ISTORE, counter, -1);
+        }
+        code.branch(Code.GOTO, test, 0);
+        code.unreachable();
+        code.place(exit);
+        return null;
+    }
+
+    /**
+     * Value of an entier literal, possibly negated, or null
+     */
+    private static Integer constantInt(Expression expression)
+    {
+        while (expression instanceof Expression.Grouping grouping)
+        {
+            expression = grouping.expression;
+        }
+        if (expression instanceof Expression.Literal literal
+                && literal.value instanceof AtomicValue<?> atomic
+                && atomic.getValue() instanceof Integer value)
+        {
+            return value;
+        }
+        if (expression instanceof Expression.Unary unary
+                && unary.operator.type() == TokenType.MINUS)
+        {
+            Integer value = constantInt(unary.right);
+            return value == null ? null : -value;
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        throw new Unsupported("nested function");
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        throw new Unsupported("nested method");
+    }
+
+    @Override
+    public Void visitReturnStatement(Statement.Return statement)
+    {
+        if (returnType == null || statement.value == null)
+        {
+            throw new Unsupported("retourne outside a function");
+        }
+        // retourne f(...) inside f stores the arguments and starts over
+        if (statement.value instanceof Expression.Call call && functions.get(call.name.lexeme()) == routine)
+        {
+            List<Statement.Parameter> parameters = parametersOf(routine);
+            for (int i = 0; i < parameters.size(); i++)
+            {
+                compileAs(call.arguments.get(i), parameters.get(i).type);
+            }
+            for (int slot = parameters.size() - 1; slot >= 0; slot--)
+            {
+                storeSlot(slot);
+            }
+            code.branch(Code.GOTO, entry, 0);
+            code.unreachable();
+            return null;
+        }
+
+        compileAs(statement.value, returnType);
+        returnValue();
+        return null;
+    }
+
+    @Override
+    public Void visitStructDeclarationStatement(Statement.StructDeclaration statement)
+    {
+        // Structure declarations don't generate code
+        return null;
+    }
+
+    @Override
+    public Void visitMethodCallStatement(Statement.MethodCall statement)
+    {
+        Statement.MethodDeclaration method = methods.get(statement.name.lexeme());
+        if (method == null)
+        {
+            throw new Unsupported("unknown method " + statement.name.lexeme());
+        }
+        call(method, statement.name, statement.arguments);
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
+    {
+        throw new Unsupported("tableau");
+    }
+
+    @Override
+    public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
+    {
+        throw new Unsupported("structure");
+    }
+
+    @Override
+    public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
+    {
+        throw new Unsupported("structure");
+    }
+
+    @Override
+    public Void visitFieldReadStatement(Statement.FieldRead statement)
+    {
+        throw new Unsupported("lire");
+    }
+
+    @Override
+    public Void visitArrayReadStatement(Statement.ArrayRead statement)
+    {
+        throw new Unsupported("lire");
+    }
+
+    @Override
+    public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
+    {
+        throw new Unsupported("lire");
+    }
+
+    // ========================================================================
+    // CONDITIONS
+    // ========================================================================
+
+    /**
+     * Compile a condition as a jump to target taken when it evaluates to when
+     */
+    private void branch(Expression condition, boolean when, Code.Label target)
+    {
+        while (condition instanceof Expression.Grouping grouping)
+        {
+            condition = grouping.expression;
+        }
+
+        if (condition instanceof Expression.Binary binary && compare(binary, when, target))
+        {
+            return;
+        }
+
+        if (condition instanceof Expression.Logical logical)
+        {
+            boolean or = logical.operator.type() == TokenType.OR;
+            if (or == when)
+            {
+                // Either operand alone decides
+                branch(logical.left, when, target);
+                branch(logical.right, when, target);
+            }
+            else
+            {
+                Code.Label skip = new Code.Label();
+                branch(logical.left, !when, skip);
+                branch(logical.right, when, target);
+                code.place(skip);
+            }
+            return;
+        }
+
+        if (condition instanceof Expression.Unary unary && unary.operator.type() != TokenType.MINUS)
+        {
+            branch(unary.right, !when, target);
+            return;
+        }
+
+        compile(condition);
+        code.branch(when ? Code.IFNE : Code.IFEQ, target, -1);
+    }
+
+    /**
+     * Fuse a comparison with its jump, returning false for non comparisons
+     */
+    private boolean compare(Expression.Binary binary, boolean when, Code.Label target)
+    {
+        TokenType operator = binary.operator.type();
+        if (!when)
+        {
+            operator = switch (operator)
+            {
+                case LESS -> TokenType.GREATER_OR_EQUAL;
+                case LESS_OR_EQUAL -> TokenType.GREATER;
+                case GREATER -> TokenType.LESS_OR_EQUAL;
+                case GREATER_OR_EQUAL -> TokenType.LESS;
+                case EQUAL_EQUAL -> TokenType.DIFF;
+                case DIFF -> TokenType.EQUAL_EQUAL;
+                default -> null;
+            };
+        }
+        if (operator == null || !isComparison(operator))
+        {
+            return false;
+        }
+
+        Type left = binary.left.getType();
+        Type right = binary.right.getType();
+        boolean equality = operator == TokenType.EQUAL_EQUAL || operator == TokenType.DIFF;
+
+        if (left == TypeFactory.STRING && right == TypeFactory.STRING && equality)
+        {
+            compile(binary.left);
+            compile(binary.right);
+            code.invokeStatic(classFile, RUNTIME, "same", "(" + STRING + STRING + ")Z", -1);
+            code.branch(operator == TokenType.EQUAL_EQUAL ? Code.IFNE : Code.IFEQ, target, -1);
+            return true;
+        }
+
+        if (left == TypeFactory.FLOATING || right == TypeFactory.FLOATING)
+        {
+            // NaN must fail every ordered comparison, whichever way it jumps
+            boolean lessFamily = when == (operator == TokenType.LESS || operator == TokenType.LESS_OR_EQUAL);
+            compileAs(binary.left, TypeFactory.FLOATING);
+            compileAs(binary.right, TypeFactory.FLOATING);
+            code.op(lessFamily ? Code.DCMPG : Code.DCMPL, -3);
+            code.branch(switch (operator)
+            {
+                case LESS -> Code.IFLT;
+                case LESS_OR_EQUAL -> Code.IFLE;
+                case GREATER -> Code.IFGT;
+                case GREATER_OR_EQUAL -> Code.IFGE;
+                case EQUAL_EQUAL -> Code.IFEQ;
+                default -> Code.IFNE;
+            }, target, -1);
+            return true;
+        }
+
+        if (!isIntLike(left) || !isIntLike(right))
+        {
+            throw new Unsupported("comparison of " + left + " and " + right);
+        }
+
+        compile(binary.left);
+        compile(binary.right);
+        code.branch(switch (operator)
+        {
+            case LESS -> Code.IF_ICMPLT;
+            case LESS_OR_EQUAL -> Code.IF_ICMPLE;
+            case GREATER -> Code.IF_ICMPGT;
+            case GREATER_OR_EQUAL -> Code.IF_ICMPGE;
+            case EQUAL_EQUAL -> Code.IF_ICMPEQ;
+            default -> Code.IF_ICMPNE;
+        }, target, -2);
+        return true;
+    }
+
+    private static boolean isComparison(TokenType operator)
+    {
+        return switch (operator)
+        {
+            case LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL, EQUAL_EQUAL, DIFF -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isIntLike(Type type)
+    {
+        return type == TypeFactory.INTEGER || type == TypeFactory.BOOLEAN || type == TypeFactory.CHAR;
+    }
+
+    /**
+     * Materialize a condition as 0 or 1
+     */
+    private void booleanValue(Expression condition)
+    {
+        Code.Label otherwise = new Code.Label();
+        Code.Label end = new Code.Label();
+
+        branch(condition, false, otherwise);
+        code.pushInt(classFile, 1);
+        code.branch(Code.GOTO, end, 0);
+        code.unreachable();
+        code.place(otherwise);
+        code.pushInt(classFile, 0);
+        code.place(end);
+    }
+
+    // ========================================================================
+    // EXPRESSIONS
+    // ========================================================================
+
+    /**
+     * Compile an expression, widening entier to reel when needed
+     */
+    private void compileAs(Expression expression, Type type)
+    {
+        compile(expression);
+        if (type == TypeFactory.FLOATING && expression.getType() == TypeFactory.INTEGER)
+        {
+            code.op(Code.I2D, 1);
+        }
+    }
+
+    /**
+     * Compile an expression converted to its printed form
+     */
+    private void compileText(Expression expression)
+    {
+        compile(expression);
+        Type type = expression.getType();
+        if (type != TypeFactory.STRING)
+        {
+            code.invokeStatic(classFile, RUNTIME, "text", "(" + descriptorOf(type) + ")" + STRING,
+                    1 - sizeOf(type));
+        }
+    }
+
+    @Override
+    public Void visitBinaryExpression(Expression.Binary expression)
+    {
+        TokenType operator = expression.operator.type();
+        if (isComparison(operator))
+        {
+            booleanValue(expression);
+            return null;
+        }
+
+        Type type = expression.getType();
+        if (type == TypeFactory.STRING)
+        {
+            compileText(expression.left);
+            compileText(expression.right);
+            code.invokeStatic(classFile, RUNTIME, "concat", "(" + STRING + STRING + ")" + STRING, -1);
+            return null;
+        }
+
+        boolean real = type == TypeFactory.FLOATING;
+        if (!real && type != TypeFactory.INTEGER)
+        {
+            throw new Unsupported("arithmetic on " + type);
+        }
+
+        compileAs(expression.left, type);
+        compileAs(expression.right, type);
+        int words = real ? 2 : 1;
+        switch (operator)
+        {
+            case PLUS -> code.op(real ? Code.DADD : Code.IADD, -words);
+            case MINUS -> code.op(real ? Code.DSUB : Code.ISUB, -words);
+            case STAR -> code.op(real ? Code.DMUL : Code.IMUL, -words);
+            case SLASH, MOD ->
+            {
+                // Division goes through the runtime to report division by zero
+                code.pushInt(classFile, expression.operator.line());
+                String descriptor = real ? "(DDI)D" : "(III)I";
+                code.invokeStatic(classFile, RUNTIME, operator == TokenType.SLASH ? "divide" : "remainder",
+                        descriptor, -1 - words);
+            }
+            default -> throw new Unsupported("operator " + operator);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpression(Expression.Grouping expression)
+    {
+        compile(expression.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpression(Expression.Unary expression)
+    {
+        if (expression.operator.type() != TokenType.MINUS)
+        {
+            compile(expression.right);
+            code.pushInt(classFile, 1);
+            code.op(Code.IXOR, -1);
+            return null;
+        }
+
+        Type type = expression.getType();
+        if (type == TypeFactory.FLOATING)
+        {
+            compileAs(expression.right, type);
+            code.op(Code.DNEG, 0);
+        }
+        else
+        {
+            compile(expression.right);
+            code.op(Code.INEG, 0);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpression(Expression.Literal expression)
+    {
+        Object value = expression.value instanceof AtomicValue<?> atomic ? atomic.getValue() : null;
+
+        if (value instanceof Integer integer)
+        {
+            code.pushInt(classFile, integer);
+        }
+        else if (value instanceof Double real)
+        {
+            code.pushReal(classFile, real);
+        }
+        else if (value instanceof Boolean bool)
+        {
+            code.pushInt(classFile, bool ? 1 : 0);
+        }
+        else if (value instanceof Character character)
+        {
+            code.pushInt(classFile, character);
+        }
+        else if (value instanceof String string)
+        {
+            code.pushString(classFile, string);
+        }
+        else
+        {
+            throw new Unsupported("literal " + expression.value);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpression(Expression.Variable expression)
+    {
+        loadSlot(slotOf(expression.getDepth(), expression.getSlot()));
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpression(Expression.Logical expression)
+    {
+        booleanValue(expression);
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpression(Expression.Call expression)
+    {
+        Statement.FunctionDeclaration function = functions.get(expression.name.lexeme());
+        if (function == null)
+        {
+            throw new Unsupported("unknown function " + expression.name.lexeme());
+        }
+        if (interpreted.contains(expression.name.lexeme()))
+        {
+            throw new Unsupported("interpreted function " + expression.name.lexeme());
+        }
+        call(function, expression.name, expression.arguments);
+        return null;
+    }
+
+    private void call(Statement routine, Token name, List<Expression> arguments)
+    {
+        List<Statement.Parameter> parameters = parametersOf(routine);
+        int words = 0;
+        for (int i = 0; i < arguments.size(); i++)
+        {
+            Type type = parameters.get(i).type;
+            compileAs(arguments.get(i), type);
+            words += sizeOf(type);
+        }
+
+        // The callee may nest one call less, or the budget is spent
+        code.local(Code.ILOAD, frames, 1);
+        code.pushString(classFile, name.lexeme());
+        code.pushInt(classFile, name.line());
+        code.invokeStatic(classFile, RUNTIME, "enterFrame", "(I" + STRING + "I)I", -2);
+
+        Type result = returnTypeOf(routine);
+        int resultWords = result == null ? 0 : sizeOf(result);
+        code.invokeStatic(classFile, CLASS_NAME, nameOf(routine), descriptorOf(routine), resultWords - words - 1);
+    }
+
+    @Override
+    public Void visitArrayAccessExpression(Expression.ArrayAccess expression)
+    {
+        throw new Unsupported("tableau");
+    }
+
+    @Override
+    public Void visitFieldAccessExpression(Expression.FieldAccess expression)
+    {
+        throw new Unsupported("structure");
+    }
+
+    @Override
+    public Void visitArrayLiteralExpression(Expression.ArrayLiteral expression)
+    {
+        throw new Unsupported("tableau");
+    }
+}
@@ -0,0 +1,142 @@
+package io.dream.jit;
+
+import io.dream.config.Messages;
+import io.dream.error.RuntimeError;
+import io.dream.natives.OutputSink;
+import io.dream.scanner.Token;
+import io.dream.scanner.TokenType;
+
+/**
+ * Helpers called from compiled routines
+ * They keep the tree walker's printing rules and error messages.
+ */
+public final class JitRuntime
+{
+    // Where ecrire prints in the thread running a script, null for the standard output
+    private static final ThreadLocal<OutputSink> output = new ThreadLocal<>();
+
+    private JitRuntime()
+    {
+    }
+
+    /**
+     * Set where compiled routines of the current thread print
+     *
+     * @return the previous setting, to restore afterwards
+     */
+    public static OutputSink setOutput(OutputSink out)
+    {
+        OutputSink previous = output.get();
+        output.set(out);
+        return previous;
+    }
+
+    // ========================================================================
+    // CALLS
+    // ========================================================================
+
+    /**
+     * Enter a call of a compiled routine
+     *
+     * @param frames how many calls the caller may still nest
+     * @return how many the callee may nest
+     */
+    public static int enterFrame(int frames, String name, int line)
+    {
+        if (frames == 0)
+        {
+            throw new RuntimeError(new Token(TokenType.IDENTIFIER, name, null, line), Messages.stackOverflow());
+        }
+        return frames - 1;
+    }
+
+    // ========================================================================
+    // ARITHMETIC
+    // ========================================================================
+
+    public static int divide(int left, int right, int line)
+    {
+        checkDivisor(right == 0, line, "/");
+        return left / right;
+    }
+
+    public static int remainder(int left, int right, int line)
+    {
+        checkDivisor(right == 0, line, "mod");
+        return left % right;
+    }
+
+    public static double divide(double left, double right, int line)
+    {
+        checkDivisor(right == 0.0, line, "/");
+        return left / right;
+    }
+
+    public static double remainder(double left, double right, int line)
+    {
+        checkDivisor(right == 0.0, line, "mod");
+        return left % right;
+    }
+
+    private static void checkDivisor(boolean zero, int line, String operator)
+    {
+        if (zero)
+        {
+            Token token = new Token(operator.equals("/") ? TokenType.SLASH : TokenType.MOD, operator, null, line);
+            throw new RuntimeError(token, Messages.divisionByZero());
+        }
+    }
+
+    // ========================================================================
+    // STRINGS AND OUTPUT
+    // ========================================================================
+
+    public static String text(int value)
+    {
+        return Integer.toString(value);
+    }
+
+    public static String text(double value)
+    {
+        String text = Double.toString(value);
+        return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
+    }
+
+    public static String text(boolean value)
+    {
+        return Boolean.toString(value);
+    }
+
+    public static String text(char value)
+    {
+        return String.valueOf(value);
+    }
+
+    public static String text(String value)
+    {
+        return value == null ? "nil" : value;
+    }
+
+    public static String concat(String left, String right)
+    {
+        return left.concat(right);
+    }
+
+    public static boolean same(String left, String right)
+    {
+        return left == null ? right == null : left.equals(right);
+    }
+
+    public static void write(String text)
+    {
+        OutputSink out = output.get();
+        if (out != null)
+        {
+            out.println(text);
+        }
+        else
+        {
+            System.out.println(text);
+        }
+    }
+}
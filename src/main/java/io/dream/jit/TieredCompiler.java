@@ -0,0 +1,148 @@
+package io.dream.jit;
+
+import io.dream.ast.Statement;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Second tier of the tree walker
+ *
+ * Counts calls and loop iterations per function or method. Once a routine
+ * crosses a threshold it is compiled to JVM bytecode and later calls run
+ * the compiled version; routines the JIT cannot translate stay interpreted.
+ * A running activation is not replaced: the switch happens on the next call.
+ */
+public class TieredCompiler
+{
+    public static final int CALL_THRESHOLD = 1_000;
+    public static final int LOOP_THRESHOLD = 10_000;
+
+    /**
+     * Hotness and compiled code of one routine
+     */
+    public static final class Profile
+    {
+        private int calls;
+        private int iterations;
+        private boolean failed;
+        private MethodHandle compiled;
+    }
+
+    private final JitCompiler compiler;
+    private final Map<Statement, Profile> profiles = new IdentityHashMap<>();
+    private final int callThreshold;
+    private final int loopThreshold;
+
+    public TieredCompiler(Map<String, Statement.FunctionDeclaration> functions,
+                          Map<String, Statement.MethodDeclaration> methods)
+    {
+        this(functions, methods, CALL_THRESHOLD, LOOP_THRESHOLD);
+    }
+
+    public TieredCompiler(Map<String, Statement.FunctionDeclaration> functions,
+                          Map<String, Statement.MethodDeclaration> methods,
+                          int callThreshold, int loopThreshold)
+    {
+        this.compiler = new JitCompiler(functions, methods);
+        this.callThreshold = callThreshold;
+        this.loopThreshold = loopThreshold;
+    }
+
+    /**
+     * Leave every routine calling one of the named functions to the interpreter
+     */
+    public void keepInterpreted(Set<String> functionNames)
+    {
+        compiler.keepInterpreted(functionNames);
+    }
+
+    /**
+     * Get the profile of a function or method
+     */
+    public Profile profile(Statement routine)
+    {
+        return profiles.computeIfAbsent(routine, key -> new Profile());
+    }
+
+    /**
+     * Record a call and return the compiled routine, or null to interpret it
+     */
+    public MethodHandle enter(Profile profile, Statement routine)
+    {
+        if (profile.compiled != null || profile.failed)
+        {
+            return profile.compiled;
+        }
+
+        profile.calls++;
+        if (profile.calls >= callThreshold || profile.iterations >= loopThreshold)
+        {
+            compile(profile, routine);
+        }
+        return profile.compiled;
+    }
+
+    /**
+     * Get the compiled routine without recording the call, or null to interpret it
+     */
+    public MethodHandle compiled(Statement routine)
+    {
+        Profile profile = profiles.get(routine);
+        return profile == null ? null : profile.compiled;
+    }
+
+    /**
+     * Record one loop iteration executed by the interpreter inside a routine
+     */
+    public static void loopIteration(Profile profile)
+    {
+        if (profile != null)
+        {
+            profile.iterations++;
+        }
+    }
+
+    private void compile(Profile profile, Statement routine)
+    {
+        try
+        {
+            MethodHandle handle = compiler.compile(routine);
+            int arity = handle.type().parameterCount();
+            profile.compiled = handle
+                    .asSpreader(Object[].class, arity)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        }
+        catch (Unsupported | LinkageError e)
+        {
+            profile.failed = true;
+        }
+    }
+
+    /**
+     * Run a compiled routine with the interpreter's raw argument values
+     *
+     * @param frames how many calls the routine may nest
+     */
+    public static Object invoke(MethodHandle compiled, List<Object> arguments, int frames)
+    {
+        Object[] values = arguments.toArray(new Object[arguments.size() + 1]);
+        values[arguments.size()] = frames;
+        try
+        {
+            return compiled.invokeExact(values);
+        }
+        catch (RuntimeException | Error e)
+        {
+            throw e;
+        }
+        catch (Throwable e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.dream.jit;
+
+/**
+ * Raised when a routine uses something the JIT cannot translate
+ * The routine then stays in the tree walker for good.
+ */
+final class Unsupported extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    Unsupported(String reason)
+    {
+        super(reason, null, false, false);
+    }
+}
@@ -1,24 +1,84 @@
 package io.dream.natives;
 
+import io.dream.config.Config;
 import io.dream.config.Messages;
 import io.dream.error.RuntimeError;
+import io.dream.types.ArrayType;
+import io.dream.types.ArrayValue;
+import io.dream.types.BooleanArrayValue;
+import io.dream.types.CharArrayValue;
+import io.dream.types.DoubleArrayValue;
+import io.dream.types.IntArrayValue;
+import io.dream.types.TypeFactory;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Native File I/O operations for AlgoLang
  * Provides file reading and writing capabilities
+ *
+ * Handles are numbered per instance: every execution of a script owns one,
+ * confined to the thread running it, so concurrent scripts never see each
+ * other's files. A handle holds the index of a slot of the table, found in
+ * constant time, and the generation of that slot: once its file is closed
+ * and the slot reused, an old handle is reported as stale rather than
+ * reaching the new file.
+ *
+ * Whole-file reads and appends may also run in the background, each on a
+ * virtual thread, while the script goes on: they give a task number that
+ * attendre joins. Appends to a file are made in the order they were
+ * started, and closeAll waits for every task still running.
  */
 public class FileIO
 {
-    // File handle counter
-    private static int nextHandle = 1;
+    // A handle is the generation of its slot, then the slot index + 1 on SLOT_BITS bits
+    private static final int SLOT_BITS = 16;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = Integer.MAX_VALUE >>> SLOT_BITS;
 
-    // Open file handles: handle -> FileDescriptor
-    private static final Map<Integer, FileDescriptor> openFiles = new HashMap<>();
+    /**
+     * Files a script may have open at once
+     */
+    public static final int MAX_OPEN_FILES = SLOT_MASK;
+
+    // Descriptor of each slot (kept, closed, until the slot is reused) and its generation
+    private FileDescriptor[] slots = new FileDescriptor[8];
+    private int[] generations = new int[8];
+    private int used;
+
+    // Slots whose file was closed, the last freed reused first
+    private int[] free = new int[8];
+    private int freeCount;
+
+    // Background tasks, by number - 1 (null once joined), and the last append to each file
+    private ExecutorService executor;
+    private final List<Task> tasks = new ArrayList<>();
+    private final Map<Path, Future<String>> lastAppends = new HashMap<>();
+
+    /**
+     * Read or append running in the background
+     */
+    private record Task(String filename, boolean write, Future<String> result)
+    {
+    }
 
     /**
      * File descriptor holding reader/writer
@@ -27,7 +87,7 @@ public class FileIO
     {
         final String filename;
         final String mode; // "r" (read), "w" (write), "a" (append)
-        BufferedReader reader;
+        MappedLineReader reader;
         BufferedWriter writer;
         boolean closed;
 
@@ -47,7 +107,7 @@ public class FileIO
      * @return File handle (integer)
      * @throws RuntimeError if file cannot be opened
      */
-    public static int open(String filename, String mode) throws RuntimeError
+    public int open(String filename, String mode) throws RuntimeError
     {
         try
         {
@@ -57,12 +117,7 @@ public class FileIO
             {
                 case "r":
                     // Open for reading
-                    fd.reader = new BufferedReader(
-                            new InputStreamReader(
-                                    new FileInputStream(filename),
-                                    StandardCharsets.UTF_8
-                            )
-                    );
+                    fd.reader = MappedLineReader.open(Paths.get(filename));
                     break;
 
                 case "w":
@@ -89,11 +144,9 @@ public class FileIO
                     throw new RuntimeError(null, Messages.invalidFileMode(mode));
             }
 
-            int handle = nextHandle++;
-            openFiles.put(handle, fd);
-            return handle;
+            return allocate(fd);
         }
-        catch (FileNotFoundException e)
+        catch (FileNotFoundException | NoSuchFileException | AccessDeniedException | InvalidPathException e)
         {
             throw new RuntimeError(null, Messages.fileNotFound(filename));
         }
@@ -110,7 +163,7 @@ public class FileIO
      * @return The line read, or null if EOF
      * @throws RuntimeError if file not open or cannot be read
      */
-    public static String readLine(int handle) throws RuntimeError
+    public String readLine(int handle) throws RuntimeError
     {
         FileDescriptor fd = getFileDescriptor(handle);
 
@@ -141,7 +194,7 @@ public class FileIO
      * @return File content as string
      * @throws RuntimeError if file not open or cannot be read
      */
-    public static String readAll(int handle) throws RuntimeError
+    public String readAll(int handle) throws RuntimeError
     {
         FileDescriptor fd = getFileDescriptor(handle);
 
@@ -157,13 +210,7 @@ public class FileIO
 
         try
         {
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = fd.reader.readLine()) != null)
-            {
-                content.append(line).append("\n");
-            }
-            return content.toString();
+            return fd.reader.readAll();
         }
         catch (IOException e)
         {
@@ -178,7 +225,7 @@ public class FileIO
      * @return The integer read
      * @throws RuntimeError if file not open, cannot be read, or invalid format
      */
-    public static int readInt(int handle) throws RuntimeError
+    public int readInt(int handle) throws RuntimeError
     {
         String line = readLine(handle);
 
@@ -204,7 +251,7 @@ public class FileIO
      * @return The real number read
      * @throws RuntimeError if file not open, cannot be read, or invalid format
      */
-    public static double readReal(int handle) throws RuntimeError
+    public double readReal(int handle) throws RuntimeError
     {
         String line = readLine(handle);
 
@@ -223,6 +270,155 @@ public class FileIO
         }
     }
 
+    /**
+     * Read entiers, separated by blanks or line breaks, into an array
+     *
+     * @param handle File handle
+     * @param array Array of entier, filled from its lower bound on
+     * @param count Number of entiers to read at most
+     * @return The number of entiers read, fewer than count at the end of the file
+     * @throws RuntimeError if file not open, cannot be read, invalid format, or count beyond the array
+     */
+    public int readInts(int handle, ArrayValue array, int count) throws RuntimeError
+    {
+        FileDescriptor fd = getReadableFile(handle);
+
+        if (!(array instanceof IntArrayValue ints))
+        {
+            throw new RuntimeError(null, Messages.expectedArrayOf(TypeFactory.INTEGER.toString()));
+        }
+        int first = checkCount(array.getArrayType(), count);
+
+        try
+        {
+            int read = 0;
+            while (read < count && fd.reader.hasValue())
+            {
+                ints.setInt(first + read, fd.reader.readInt());
+                read++;
+            }
+            return read;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new RuntimeError(null, Messages.invalidIntegerFormat(e.getMessage()));
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeError(null, Messages.fileReadError(fd.filename, e.getMessage()));
+        }
+    }
+
+    /**
+     * Read reels, separated by blanks or line breaks, into an array
+     * In French a comma may separate the decimals, as with lire.
+     *
+     * @param handle File handle
+     * @param array Array of reel, filled from its lower bound on
+     * @param count Number of reels to read at most
+     * @return The number of reels read, fewer than count at the end of the file
+     * @throws RuntimeError if file not open, cannot be read, invalid format, or count beyond the array
+     */
+    public int readReals(int handle, ArrayValue array, int count) throws RuntimeError
+    {
+        FileDescriptor fd = getReadableFile(handle);
+
+        if (!(array instanceof DoubleArrayValue reals))
+        {
+            throw new RuntimeError(null, Messages.expectedArrayOf(TypeFactory.FLOATING.toString()));
+        }
+        int first = checkCount(array.getArrayType(), count);
+        boolean comma = Config.getLanguage();
+
+        try
+        {
+            int read = 0;
+            while (read < count && fd.reader.hasValue())
+            {
+                reals.setDouble(first + read, fd.reader.readReal(comma));
+                read++;
+            }
+            return read;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new RuntimeError(null, Messages.invalidRealFormat(e.getMessage()));
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeError(null, Messages.fileReadError(fd.filename, e.getMessage()));
+        }
+    }
+
+    /**
+     * Write every element of an array, one per line
+     *
+     * @param handle File handle
+     * @param array Array to write, from its lower to its upper bound
+     * @throws RuntimeError if file not open or cannot be written
+     */
+    public void writeArray(int handle, ArrayValue array) throws RuntimeError
+    {
+        FileDescriptor fd = getFileDescriptor(handle);
+
+        if (fd.writer == null)
+        {
+            throw new RuntimeError(null, Messages.fileNotOpenForWriting(fd.filename));
+        }
+
+        if (fd.closed)
+        {
+            throw new RuntimeError(null, Messages.fileAlreadyClosed(fd.filename));
+        }
+
+        String separator = System.lineSeparator();
+        StringBuilder text = new StringBuilder(8192 + 64);
+        try
+        {
+            ArrayType type = array.getArrayType();
+            for (int i = type.getLowerBound(); i <= type.getUpperBound(); i++)
+            {
+                // Elements print as ecrire prints them
+                if (array instanceof IntArrayValue ints)
+                {
+                    text.append(ints.getInt(i));
+                }
+                else if (array instanceof DoubleArrayValue reals)
+                {
+                    text.append(reals.getDouble(i));
+                    if (text.charAt(text.length() - 2) == '.' && text.charAt(text.length() - 1) == '0')
+                    {
+                        text.setLength(text.length() - 2);
+                    }
+                }
+                else if (array instanceof BooleanArrayValue booleans)
+                {
+                    text.append(booleans.getBoolean(i));
+                }
+                else if (array instanceof CharArrayValue chars)
+                {
+                    text.append(chars.getChar(i));
+                }
+                else
+                {
+                    text.append(array.getElement(i));
+                }
+                text.append(separator);
+
+                if (text.length() >= 8192)
+                {
+                    fd.writer.append(text);
+                    text.setLength(0);
+                }
+            }
+            fd.writer.append(text);
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeError(null, Messages.fileWriteError(fd.filename, e.getMessage()));
+        }
+    }
+
     /**
      * Write a string to a file
      *
@@ -230,7 +426,7 @@ public class FileIO
      * @param content Content to write
      * @throws RuntimeError if file not open or cannot be written
      */
-    public static void write(int handle, String content) throws RuntimeError
+    public void write(int handle, String content) throws RuntimeError
     {
         FileDescriptor fd = getFileDescriptor(handle);
 
@@ -261,7 +457,7 @@ public class FileIO
      * @param content Content to write
      * @throws RuntimeError if file not open or cannot be written
      */
-    public static void writeLine(int handle, String content) throws RuntimeError
+    public void writeLine(int handle, String content) throws RuntimeError
     {
         FileDescriptor fd = getFileDescriptor(handle);
 
@@ -292,7 +488,7 @@ public class FileIO
      * @param handle File handle
      * @throws RuntimeError if file not open or cannot be closed
      */
-    public static void close(int handle) throws RuntimeError
+    public void close(int handle) throws RuntimeError
     {
         FileDescriptor fd = getFileDescriptor(handle);
 
@@ -313,7 +509,7 @@ public class FileIO
                 fd.writer.close();
             }
             fd.closed = true;
-            openFiles.remove(handle);
+            release(slot(handle));
         }
         catch (IOException e)
         {
@@ -328,7 +524,7 @@ public class FileIO
      * @return true if EOF, false otherwise
      * @throws RuntimeError if file not open or not readable
      */
-    public static boolean eof(int handle) throws RuntimeError
+    public boolean eof(int handle) throws RuntimeError
     {
         FileDescriptor fd = getFileDescriptor(handle);
 
@@ -342,21 +538,110 @@ public class FileIO
             return true;
         }
 
+        return fd.reader.eof();
+    }
+
+    /**
+     * Start reading a whole file in the background
+     *
+     * @param filename Path to the file
+     * @return Task number, which attendre turns into the file content
+     */
+    public int readAllAsync(String filename)
+    {
+        return submit(new Task(filename, false, executor().submit(() ->
+        {
+            try (MappedLineReader reader = MappedLineReader.open(Paths.get(filename)))
+            {
+                return reader.readAll();
+            }
+        })));
+    }
+
+    /**
+     * Start appending content to a file in the background, after the appends started before
+     *
+     * @param filename Path to the file, created if needed
+     * @param content Content to append
+     * @return Task number, which attendre turns into ""
+     */
+    public int appendAsync(String filename, String content)
+    {
+        Path path = Paths.get(filename).toAbsolutePath().normalize();
+        Future<String> previous = lastAppends.get(path);
+        Future<String> append = executor().submit(() ->
+        {
+            if (previous != null)
+            {
+                try
+                {
+                    previous.get();
+                }
+                catch (ExecutionException e)
+                {
+                    // Reported when that append is joined
+                }
+            }
+            Files.writeString(path, content, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return "";
+        });
+        lastAppends.put(path, append);
+        return submit(new Task(filename, true, append));
+    }
+
+    /**
+     * Wait for a background task to end
+     *
+     * @param task Task number
+     * @return The content read, or "" for an append
+     * @throws RuntimeError if no such task is running or it failed
+     */
+    public String join(int task) throws RuntimeError
+    {
+        if (task < 1 || task > tasks.size() || tasks.get(task - 1) == null)
+        {
+            throw new RuntimeError(null, Messages.invalidTaskHandle(task));
+        }
+
+        // Joined once: the result is not kept past this call
+        Task joined = tasks.set(task - 1, null);
         try
         {
-            fd.reader.mark(1);
-            int c = fd.reader.read();
-            if (c == -1)
+            return joined.result().get();
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof FileNotFoundException || cause instanceof NoSuchFileException
+                    || cause instanceof AccessDeniedException || cause instanceof InvalidPathException)
             {
-                return true;
+                throw new RuntimeError(null, Messages.fileNotFound(joined.filename()));
             }
-            fd.reader.reset();
-            return false;
+            throw new RuntimeError(null, joined.write()
+                    ? Messages.fileWriteError(joined.filename(), cause.getMessage())
+                    : Messages.fileReadError(joined.filename(), cause.getMessage()));
         }
-        catch (IOException e)
+        catch (InterruptedException e)
         {
-            throw new RuntimeError(null, Messages.fileReadError(fd.filename, e.getMessage()));
+            Thread.currentThread().interrupt();
+            throw new RuntimeError(null, Messages.fileReadError(joined.filename(), e.getMessage()));
+        }
+    }
+
+    private ExecutorService executor()
+    {
+        if (executor == null)
+        {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
         }
+        return executor;
+    }
+
+    private int submit(Task task)
+    {
+        tasks.add(task);
+        return tasks.size();
     }
 
     /**
@@ -386,10 +671,24 @@ public class FileIO
     /**
      * Close all open files (cleanup)
      */
-    public static void closeAll()
+    public void closeAll()
     {
-        for (FileDescriptor fd : openFiles.values())
+        // Appends still running write their content first
+        if (executor != null)
+        {
+            executor.close();
+            executor = null;
+            lastAppends.clear();
+            Collections.fill(tasks, null);
+        }
+
+        for (int slot = 0; slot < used; slot++)
         {
+            FileDescriptor fd = slots[slot];
+            if (fd == null || fd.closed)
+            {
+                continue;
+            }
             try
             {
                 if (fd.reader != null) fd.reader.close();
@@ -403,8 +702,81 @@ public class FileIO
             {
                 // Ignore errors during cleanup
             }
+            fd.closed = true;
+            release(slot);
+        }
+    }
+
+    /**
+     * Put a descriptor in a free slot, and get its handle
+     */
+    private int allocate(FileDescriptor fd) throws RuntimeError
+    {
+        int slot;
+        if (freeCount > 0)
+        {
+            slot = free[--freeCount];
+            generations[slot] = (generations[slot] + 1) & GENERATION_MASK;
+        }
+        else
+        {
+            if (used == MAX_OPEN_FILES)
+            {
+                throw new RuntimeError(null, Messages.tooManyOpenFiles(MAX_OPEN_FILES));
+            }
+            if (used == slots.length)
+            {
+                slots = Arrays.copyOf(slots, used * 2);
+                generations = Arrays.copyOf(generations, used * 2);
+                free = Arrays.copyOf(free, used * 2);
+            }
+            slot = used++;
+        }
+
+        slots[slot] = fd;
+        return generations[slot] << SLOT_BITS | (slot + 1);
+    }
+
+    private void release(int slot)
+    {
+        free[freeCount++] = slot;
+    }
+
+    private static int slot(int handle)
+    {
+        return (handle & SLOT_MASK) - 1;
+    }
+
+    /**
+     * Get the descriptor of a file open for reading
+     */
+    private FileDescriptor getReadableFile(int handle) throws RuntimeError
+    {
+        FileDescriptor fd = getFileDescriptor(handle);
+
+        if (fd.reader == null)
+        {
+            throw new RuntimeError(null, Messages.fileNotOpenForReading(fd.filename));
         }
-        openFiles.clear();
+
+        if (fd.closed)
+        {
+            throw new RuntimeError(null, Messages.fileAlreadyClosed(fd.filename));
+        }
+        return fd;
+    }
+
+    /**
+     * Check that count elements fit in an array, and get the index of its first one
+     */
+    private static int checkCount(ArrayType type, int count) throws RuntimeError
+    {
+        if (count < 0 || count > type.getSize())
+        {
+            throw new RuntimeError(null, Messages.arrayIndexOutOfBounds(
+                    type.getLowerBound() + count - 1, type.getLowerBound(), type.getUpperBound()));
+        }
+        return type.getLowerBound();
     }
 
     /**
@@ -412,15 +784,19 @@ public class FileIO
      *
      * @param handle File handle
      * @return File descriptor
-     * @throws RuntimeError if handle is invalid
+     * @throws RuntimeError if handle is invalid, or stale: its slot now holds another file
      */
-    private static FileDescriptor getFileDescriptor(int handle) throws RuntimeError
+    private FileDescriptor getFileDescriptor(int handle) throws RuntimeError
     {
-        FileDescriptor fd = openFiles.get(handle);
-        if (fd == null)
+        int slot = slot(handle);
+        if (handle < 0 || slot < 0 || slot >= used)
         {
             throw new RuntimeError(null, Messages.invalidFileHandle(handle));
         }
-        return fd;
+        if (generations[slot] != handle >>> SLOT_BITS)
+        {
+            throw new RuntimeError(null, Messages.staleFileHandle(handle));
+        }
+        return slots[slot];
     }
 }
@@ -0,0 +1,271 @@
+package io.dream.natives;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.InputMismatchException;
+
+/**
+ * Where lire reads
+ *
+ * Input is read in large blocks and tokenized at the byte level: entiers,
+ * reels and booleens are parsed straight from the bytes into primitives,
+ * with no regular expression and no object per value. A value is a run of
+ * non-blank bytes; once read, the blanks after it are skipped up to and
+ * including the end of its line, so a following line read starts on the
+ * next line whether the values came one per line or several on a line.
+ * Text (lines and non-ASCII characters) is decoded with the given charset.
+ *
+ * Before it waits on the stream the reader runs a callback, which flushes
+ * what the script printed: a prompt shows before the script blocks, while
+ * values already buffered are read without writing anything.
+ */
+public final class InputReader
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final Charset charset;
+    private final Runnable beforeWait;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // The value or line being read, reused from one read to the next
+    private byte[] token = new byte[64];
+    private int length;
+
+    public InputReader(InputStream in, Runnable beforeWait)
+    {
+        this(in, Charset.defaultCharset(), beforeWait);
+    }
+
+    /**
+     * @param in         the stream read
+     * @param charset    the charset text is decoded with
+     * @param beforeWait run each time the reader is about to wait on the stream
+     */
+    public InputReader(InputStream in, Charset charset, Runnable beforeWait)
+    {
+        this.in = in;
+        this.charset = charset;
+        this.beforeWait = beforeWait;
+    }
+
+    /**
+     * Read an entier
+     *
+     * @throws InputMismatchException when the next value is not an entier
+     */
+    public int readInt()
+    {
+        readToken();
+        try
+        {
+            int value = Numbers.parseInt(token, length);
+            endValue();
+            return value;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new InputMismatchException();
+        }
+    }
+
+    /**
+     * Read a reel
+     *
+     * @param comma whether a comma separates the decimals, as in French (a dot always does)
+     * @throws InputMismatchException when the next value is not a reel
+     */
+    public double readDouble(boolean comma)
+    {
+        readToken();
+        try
+        {
+            double value = Numbers.parseReal(token, length, comma);
+            endValue();
+            return value;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new InputMismatchException();
+        }
+    }
+
+    /**
+     * Read a booleen: 1, vrai or true, and 0, faux or false, in any case
+     *
+     * @throws InputMismatchException when the next value is none of them
+     */
+    public boolean readBoolean()
+    {
+        readToken();
+        boolean value;
+        if (is("1") || is("vrai") || is("true"))
+        {
+            value = true;
+        }
+        else if (is("0") || is("faux") || is("false"))
+        {
+            value = false;
+        }
+        else
+        {
+            throw new InputMismatchException();
+        }
+        endValue();
+        return value;
+    }
+
+    private boolean is(String word)
+    {
+        if (length != word.length())
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            int b = token[i];
+            if ((b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b) != word.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read a caractere, written alone
+     *
+     * @throws InputMismatchException when the next value is not a single character
+     */
+    public char readChar()
+    {
+        readToken();
+        char value;
+        if (length == 1 && token[0] >= 0)
+        {
+            value = (char) token[0];
+        }
+        else
+        {
+            String text = new String(token, 0, length, charset);
+            if (text.length() != 1)
+            {
+                throw new InputMismatchException();
+            }
+            value = text.charAt(0);
+        }
+        endValue();
+        return value;
+    }
+
+    /**
+     * Read the rest of the current line, without its line break ("" at the end of the input)
+     */
+    public String readLine()
+    {
+        length = 0;
+        int b;
+        while ((b = peek()) >= 0)
+        {
+            position++;
+            if (b == '\n')
+            {
+                break;
+            }
+            append(b);
+        }
+        if (length > 0 && token[length - 1] == '\r')
+        {
+            length--;
+        }
+        return new String(token, 0, length, charset);
+    }
+
+    // ========================================================================
+    // BYTES
+    // ========================================================================
+
+    /**
+     * Read the next run of non-blank bytes
+     */
+    private void readToken()
+    {
+        int b;
+        while ((b = peek()) >= 0 && isBlank(b))
+        {
+            position++;
+        }
+
+        length = 0;
+        while ((b = peek()) >= 0 && !isBlank(b))
+        {
+            position++;
+            append(b);
+        }
+        if (length == 0)
+        {
+            throw new InputMismatchException();
+        }
+    }
+
+    /**
+     * Skip the blanks after a value, and its line break if nothing else follows on the line
+     */
+    private void endValue()
+    {
+        int b;
+        while ((b = peek()) == ' ' || b == '\t' || b == '\r')
+        {
+            position++;
+        }
+        if (b == '\n')
+        {
+            position++;
+        }
+    }
+
+    private static boolean isBlank(int b)
+    {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    private void append(int b)
+    {
+        if (length == token.length)
+        {
+            byte[] larger = new byte[token.length * 2];
+            System.arraycopy(token, 0, larger, 0, length);
+            token = larger;
+        }
+        token[length++] = (byte) b;
+    }
+
+    /**
+     * Get the next byte without consuming it, or -1 at the end of the input
+     */
+    private int peek()
+    {
+        if (position == limit)
+        {
+            beforeWait.run();
+            try
+            {
+                limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit == 0)
+            {
+                return -1;
+            }
+        }
+        return buffer[position] & 0xff;
+    }
+}
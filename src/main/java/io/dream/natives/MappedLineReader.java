@@ -0,0 +1,365 @@
+package io.dream.natives;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader of a file opened in mode "r"
+ *
+ * A regular file is mapped in windows of up to a gigabyte, so the kernel
+ * pages it in as it is read and nothing is copied but the bytes of the
+ * lines returned. Lines are found eight bytes at a time (a line break never
+ * occurs inside a multi-byte UTF-8 sequence), and the end of the file is
+ * known from its size. Anything else, a pipe for instance, is read whole
+ * when opened.
+ *
+ * Numbers are read as runs of non-blank bytes, parsed where they lie; as
+ * with lire, the blanks after a number are skipped up to the end of its line.
+ */
+final class MappedLineReader implements Closeable
+{
+    private static final long WINDOW = 1L << 30;
+
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long RETURNS = 0x0D0D0D0D0D0D0D0DL;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    private final FileChannel channel;
+    private final long size;
+
+    // Bytes of the file from base on; the next to read is at its position
+    private ByteBuffer window;
+    private long base;
+
+    // Bytes of the line or number being decoded, reused from one to the next
+    private byte[] line = new byte[256];
+
+    private MappedLineReader(FileChannel channel, long size, ByteBuffer window)
+    {
+        this.channel = channel;
+        this.size = size;
+        this.window = window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Open a file for reading
+     *
+     * @throws FileNotFoundException when there is no readable file at the path
+     */
+    static MappedLineReader open(Path path) throws IOException
+    {
+        if (Files.isDirectory(path))
+        {
+            throw new FileNotFoundException(path + " (Is a directory)");
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try
+        {
+            if (Files.isRegularFile(path))
+            {
+                long size = channel.size();
+                return new MappedLineReader(channel, size, map(channel, 0, size));
+            }
+
+            byte[] bytes = Channels.newInputStream(channel).readAllBytes();
+            channel.close();
+            return new MappedLineReader(null, bytes.length, ByteBuffer.wrap(bytes));
+        }
+        catch (IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long from, long size) throws IOException
+    {
+        long length = Math.min(WINDOW, size - from);
+        return length == 0 ? ByteBuffer.allocate(0)
+                : channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+    }
+
+    /**
+     * Read the next line, without its line break
+     *
+     * @return the line, or null at the end of the file
+     */
+    String readLine() throws IOException
+    {
+        if (eof())
+        {
+            return null;
+        }
+
+        int start = window.position();
+        int limit = window.limit();
+        int end = indexOfLineBreak(start, limit);
+        boolean more = base + limit < size;
+        if (end < 0 || end == limit - 1 && window.get(end) == '\r' && more)
+        {
+            if (more)
+            {
+                // The line, or its "\r\n", goes on past the window: map the next one from its start
+                if (start == 0)
+                {
+                    throw new IOException("Line longer than " + WINDOW + " bytes");
+                }
+                remap(base + start);
+                return readLine();
+            }
+
+            // The last line, without a line break
+            end = limit;
+        }
+
+        // A line ends at "\n", "\r\n" or a lone "\r"
+        int next = end;
+        if (end < limit)
+        {
+            next = window.get(end) == '\r' && end + 1 < limit && window.get(end + 1) == '\n' ? end + 2 : end + 1;
+        }
+        String text = decode(start, end - start);
+        window.position(next);
+        return text;
+    }
+
+    /**
+     * Read the rest of the file, decoded in one pass
+     * Line breaks come out as "\n", and the last line ends with one.
+     */
+    String readAll() throws IOException
+    {
+        long remaining = size - offset();
+        if (remaining > Integer.MAX_VALUE - 8)
+        {
+            throw new IOException("File too large to read at once");
+        }
+
+        byte[] bytes = new byte[(int) remaining];
+        if (window.remaining() < remaining)
+        {
+            // The rest of the file spans more than the window
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset(), remaining);
+        }
+        window.get(bytes);
+        base = size;
+        window = ByteBuffer.allocate(0);
+
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        if (text.indexOf('\r') >= 0)
+        {
+            text = text.replace("\r\n", "\n").replace('\r', '\n');
+        }
+        return text.isEmpty() || text.endsWith("\n") ? text : text + "\n";
+    }
+
+    /**
+     * Skip the blanks before the next value
+     *
+     * @return whether a value follows
+     */
+    boolean hasValue() throws IOException
+    {
+        while (true)
+        {
+            int i = window.position();
+            int limit = window.limit();
+            while (i < limit && isBlank(window.get(i)))
+            {
+                i++;
+            }
+            if (i < limit)
+            {
+                window.position(i);
+                return true;
+            }
+            if (base + limit >= size)
+            {
+                window.position(limit);
+                return false;
+            }
+            remap(base + limit);
+        }
+    }
+
+    /**
+     * Read the next value as an entier
+     *
+     * @throws NumberFormatException holding the value when it is not an entier
+     */
+    int readInt() throws IOException
+    {
+        int length = readValue();
+        try
+        {
+            return Numbers.parseInt(line, length);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new NumberFormatException(new String(line, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Read the next value as a reel
+     *
+     * @param comma whether a comma separates the decimals too
+     * @throws NumberFormatException holding the value when it is not a reel
+     */
+    double readReal(boolean comma) throws IOException
+    {
+        int length = readValue();
+        try
+        {
+            return Numbers.parseReal(line, length, comma);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new NumberFormatException(new String(line, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Whether everything was read, known without touching the file
+     */
+    boolean eof()
+    {
+        return offset() >= size;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (channel != null)
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Copy the value hasValue() found into the line buffer, then skip the
+     * blanks after it up to the end of its line
+     *
+     * @return the length of the value
+     */
+    private int readValue() throws IOException
+    {
+        if (!hasValue())
+        {
+            throw new EOFException();
+        }
+
+        int start = window.position();
+        int end = start;
+        while (end < window.limit() && !isBlank(window.get(end)))
+        {
+            end++;
+        }
+        if (end == window.limit() && base + end < size)
+        {
+            // The value goes on past the window
+            if (start == 0)
+            {
+                throw new IOException("Value longer than " + WINDOW + " bytes");
+            }
+            remap(base + start);
+            return readValue();
+        }
+
+        int length = end - start;
+        if (length > line.length)
+        {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        window.get(start, line, 0, length);
+        window.position(end);
+        endValue();
+        return length;
+    }
+
+    private void endValue() throws IOException
+    {
+        while (true)
+        {
+            int i = window.position();
+            int limit = window.limit();
+            while (i < limit && (window.get(i) == ' ' || window.get(i) == '\t' || window.get(i) == '\r'))
+            {
+                i++;
+            }
+            if (i < limit || base + limit >= size)
+            {
+                window.position(i < limit && window.get(i) == '\n' ? i + 1 : i);
+                return;
+            }
+            remap(base + limit);
+        }
+    }
+
+    private static boolean isBlank(byte b)
+    {
+        return b == ' ' || b == '\n' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    private long offset()
+    {
+        return base + window.position();
+    }
+
+    private void remap(long from) throws IOException
+    {
+        window = map(channel, from, size).order(ByteOrder.LITTLE_ENDIAN);
+        base = from;
+    }
+
+    /**
+     * Find the first line feed or carriage return in [from, to), or -1
+     */
+    private int indexOfLineBreak(int from, int to)
+    {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES)
+        {
+            // A byte of a word is zero where the window holds that line break
+            long word = window.getLong(i);
+            long feeds = word ^ NEWLINES;
+            long returns = word ^ RETURNS;
+            long found = ((feeds - ONES) & ~feeds | (returns - ONES) & ~returns) & HIGHS;
+            if (found != 0)
+            {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++)
+        {
+            byte b = window.get(i);
+            if (b == '\n' || b == '\r')
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String decode(int from, int length)
+    {
+        if (length > line.length)
+        {
+            line = new byte[Math.max(length, line.length * 2)];
+        }
+        window.get(from, line, 0, length);
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+}
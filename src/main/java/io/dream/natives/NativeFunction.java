@@ -0,0 +1,275 @@
+package io.dream.natives;
+
+import io.dream.types.ArrayType;
+import io.dream.types.Type;
+import io.dream.types.Value;
+
+import java.util.List;
+
+/**
+ * Function built into the language, like the file operations
+ *
+ * Its signature is checked like the one of a Fonction. A call is bound to
+ * it once, then runs the method of its arity: callN gets the evaluated
+ * arguments and the files of the execution, with no list in between.
+ * Only the arity is specialized: the signature types hold for the Checker
+ * alone, and arguments arrive boxed, as the tree walker evaluates them,
+ * to be cast back by the native. Natives hold no state of their own, so
+ * one instance serves every execution.
+ */
+public abstract class NativeFunction
+{
+    @FunctionalInterface
+    public interface Body0
+    {
+        Object call(FileIO files);
+    }
+
+    @FunctionalInterface
+    public interface Body1
+    {
+        Object call(FileIO files, Object a);
+    }
+
+    @FunctionalInterface
+    public interface Body2
+    {
+        Object call(FileIO files, Object a, Object b);
+    }
+
+    @FunctionalInterface
+    public interface Body3
+    {
+        Object call(FileIO files, Object a, Object b, Object c);
+    }
+
+    private final String name;
+    private final Type returnType;
+    private final List<Type> parameterTypes;
+
+    protected NativeFunction(String name, Type returnType, Type... parameterTypes)
+    {
+        this.name = name;
+        this.returnType = returnType;
+        this.parameterTypes = List.of(parameterTypes);
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public List<Type> getParameterTypes()
+    {
+        return parameterTypes;
+    }
+
+    public int getArity()
+    {
+        return parameterTypes.size();
+    }
+
+    /**
+     * Get the type of a call, given the checked types of its arguments
+     */
+    public Type returnType(List<Type> argumentTypes)
+    {
+        return resolve(returnType, argumentTypes);
+    }
+
+    /**
+     * Get the type of a parameter, given the checked types of the arguments
+     * before it
+     */
+    public Type parameterType(int parameter, List<Type> argumentTypes)
+    {
+        return resolve(parameterTypes.get(parameter), argumentTypes);
+    }
+
+    /**
+     * Whether an argument may be passed to a parameter
+     *
+     * @param parameter     the position of the parameter
+     * @param argumentTypes the checked types of all the arguments
+     */
+    public boolean accepts(int parameter, List<Type> argumentTypes)
+    {
+        return parameterType(parameter, argumentTypes).equals(argumentTypes.get(parameter));
+    }
+
+    private static Type resolve(Type type, List<Type> argumentTypes)
+    {
+        if (type == ELEMENT || type instanceof ArrayParameter parameter && parameter.elementTypes.contains(ELEMENT))
+        {
+            // Only known once the first argument is: an array
+            Type element = ((ArrayType) argumentTypes.get(0)).getElementType();
+            return type == ELEMENT ? element : arrayOf(element);
+        }
+        return type;
+    }
+
+    public Object call0(FileIO files)
+    {
+        throw arity(0);
+    }
+
+    public Object call1(FileIO files, Object a)
+    {
+        throw arity(1);
+    }
+
+    public Object call2(FileIO files, Object a, Object b)
+    {
+        throw arity(2);
+    }
+
+    public Object call3(FileIO files, Object a, Object b, Object c)
+    {
+        throw arity(3);
+    }
+
+    /**
+     * Call with any number of arguments, for callers holding them in a list
+     */
+    public final Object call(FileIO files, List<Object> arguments)
+    {
+        return switch (arguments.size())
+        {
+            case 0 -> call0(files);
+            case 1 -> call1(files, arguments.get(0));
+            case 2 -> call2(files, arguments.get(0), arguments.get(1));
+            case 3 -> call3(files, arguments.get(0), arguments.get(1), arguments.get(2));
+            default -> throw arity(arguments.size());
+        };
+    }
+
+    private IllegalStateException arity(int count)
+    {
+        // The Checker rejects such calls
+        return new IllegalStateException(name + " takes " + getArity() + " arguments, not " + count);
+    }
+
+    // ========================================================================
+    // FACTORIES
+    // ========================================================================
+
+    public static NativeFunction of(String name, Type returnType, Body0 body)
+    {
+        return new NativeFunction(name, returnType)
+        {
+            @Override
+            public Object call0(FileIO files)
+            {
+                return body.call(files);
+            }
+        };
+    }
+
+    public static NativeFunction of(String name, Type returnType, Type a, Body1 body)
+    {
+        return new NativeFunction(name, returnType, a)
+        {
+            @Override
+            public Object call1(FileIO files, Object first)
+            {
+                return body.call(files, first);
+            }
+        };
+    }
+
+    public static NativeFunction of(String name, Type returnType, Type a, Type b, Body2 body)
+    {
+        return new NativeFunction(name, returnType, a, b)
+        {
+            @Override
+            public Object call2(FileIO files, Object first, Object second)
+            {
+                return body.call(files, first, second);
+            }
+        };
+    }
+
+    public static NativeFunction of(String name, Type returnType, Type a, Type b, Type c, Body3 body)
+    {
+        return new NativeFunction(name, returnType, a, b, c)
+        {
+            @Override
+            public Object call3(FileIO files, Object first, Object second, Object third)
+            {
+                return body.call(files, first, second, third);
+            }
+        };
+    }
+
+    /**
+     * Type of a parameter or result standing for the element type of the
+     * array passed first
+     */
+    public static final Type ELEMENT = new Type()
+    {
+        @Override
+        public boolean equals(Type other)
+        {
+            return false;
+        }
+
+        @Override
+        public Value zeroValue()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "element";
+        }
+    };
+
+    /**
+     * Get the type of a parameter taking an array of any bounds
+     *
+     * @param elementTypes the types its elements may have, any type when there is none
+     */
+    public static Type arrayOf(Type... elementTypes)
+    {
+        return new ArrayParameter(List.of(elementTypes));
+    }
+
+    private record ArrayParameter(List<Type> elementTypes) implements Type
+    {
+        @Override
+        public boolean equals(Type other)
+        {
+            if (!(other instanceof ArrayType array))
+            {
+                return false;
+            }
+            for (Type elementType : elementTypes)
+            {
+                if (elementType.equals(array.getElementType()))
+                {
+                    return true;
+                }
+            }
+            return elementTypes.isEmpty();
+        }
+
+        @Override
+        public Value zeroValue()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder text = new StringBuilder("tableau");
+            for (int i = 0; i < elementTypes.size(); i++)
+            {
+                text.append(i == 0 ? " de " : " ou ").append(elementTypes.get(i));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package io.dream.natives;
+
+import io.dream.config.Messages;
+import io.dream.error.RuntimeError;
+import io.dream.types.ArrayType;
+import io.dream.types.ArrayValue;
+import io.dream.types.CharArrayValue;
+import io.dream.types.DoubleArrayValue;
+import io.dream.types.IntArrayValue;
+import io.dream.types.ReferenceArrayValue;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The native functions of the language, by name
+ *
+ * A Fonction of the program with the same name as a native hides it.
+ */
+public final class Natives
+{
+    private static final Type ENTIER = TypeFactory.INTEGER;
+    private static final Type REEL = TypeFactory.FLOATING;
+    private static final Type CHAINE = TypeFactory.STRING;
+    private static final Type BOOLEEN = TypeFactory.BOOLEAN;
+    private static final Type CARACTERE = TypeFactory.CHAR;
+    private static final Type VIDE = TypeFactory.VOID;
+
+    private static final Map<String, NativeFunction> FUNCTIONS = registerNativeFunctions();
+
+    private Natives()
+    {
+    }
+
+    /**
+     * Get the native function of a name, or null when there is none
+     */
+    public static NativeFunction get(String name)
+    {
+        return FUNCTIONS.get(name);
+    }
+
+    /**
+     * Get the names of all native functions
+     */
+    public static Set<String> names()
+    {
+        return FUNCTIONS.keySet();
+    }
+
+    private static Map<String, NativeFunction> registerNativeFunctions()
+    {
+        Map<String, NativeFunction> natives = new LinkedHashMap<>();
+
+        // File I/O functions callable from AlgoLang
+        register(natives, NativeFunction.of("open", ENTIER, CHAINE, CHAINE,
+                (files, filename, mode) -> files.open((String) filename, (String) mode)));
+
+        register(natives, NativeFunction.of("close", VIDE, ENTIER, (files, handle) -> {
+            files.close((int) handle);
+            return null; // void function
+        }));
+
+        register(natives, NativeFunction.of("readLine", CHAINE, ENTIER,
+                (files, handle) -> files.readLine((int) handle)));
+
+        register(natives, NativeFunction.of("writeLine", VIDE, ENTIER, CHAINE, (files, handle, content) -> {
+            files.writeLine((int) handle, (String) content);
+            return null;
+        }));
+
+        register(natives, NativeFunction.of("eof", BOOLEEN, ENTIER,
+                (files, handle) -> files.eof((int) handle)));
+
+        register(natives, NativeFunction.of("readAll", CHAINE, ENTIER,
+                (files, handle) -> files.readAll((int) handle)));
+
+        register(natives, NativeFunction.of("readInt", ENTIER, ENTIER,
+                (files, handle) -> files.readInt((int) handle)));
+
+        register(natives, NativeFunction.of("readReal", REEL, ENTIER,
+                (files, handle) -> files.readReal((int) handle)));
+
+        register(natives, NativeFunction.of("readInts", ENTIER, ENTIER, NativeFunction.arrayOf(ENTIER), ENTIER,
+                (files, handle, array, count) -> files.readInts((int) handle, (ArrayValue) array, (int) count)));
+
+        register(natives, NativeFunction.of("readReals", ENTIER, ENTIER, NativeFunction.arrayOf(REEL), ENTIER,
+                (files, handle, array, count) -> files.readReals((int) handle, (ArrayValue) array, (int) count)));
+
+        register(natives, NativeFunction.of("writeArray", VIDE, ENTIER, NativeFunction.arrayOf(), (files, handle, array) -> {
+            files.writeArray((int) handle, (ArrayValue) array);
+            return null;
+        }));
+
+        register(natives, NativeFunction.of("readAllAsync", ENTIER, CHAINE,
+                (files, filename) -> files.readAllAsync((String) filename)));
+
+        register(natives, NativeFunction.of("appendAsync", ENTIER, CHAINE, CHAINE,
+                (files, filename, content) -> files.appendAsync((String) filename, (String) content)));
+
+        register(natives, NativeFunction.of("attendre", CHAINE, ENTIER,
+                (files, task) -> files.join((int) task)));
+
+        register(natives, NativeFunction.of("write", VIDE, ENTIER, CHAINE, (files, handle, content) -> {
+            files.write((int) handle, (String) content);
+            return null;
+        }));
+
+        register(natives, NativeFunction.of("closeAll", VIDE, files -> {
+            files.closeAll();
+            return null;
+        }));
+
+        register(natives, NativeFunction.of("exists", BOOLEEN, CHAINE,
+                (files, filename) -> FileIO.exists((String) filename)));
+
+        register(natives, NativeFunction.of("delete", BOOLEEN, CHAINE,
+                (files, filename) -> FileIO.delete((String) filename)));
+
+        // Array algorithms, run on the backing array of the tableau
+        Type sortable = NativeFunction.arrayOf(ENTIER, REEL, CARACTERE, CHAINE);
+        Type numbers = NativeFunction.arrayOf(ENTIER, REEL);
+        Type atomics = NativeFunction.arrayOf(ENTIER, REEL, CARACTERE, CHAINE, BOOLEEN);
+        Type element = NativeFunction.ELEMENT;
+
+        register(natives, NativeFunction.of("sortArray", VIDE, sortable, (files, array) -> {
+            sort((ArrayValue) array);
+            return null;
+        }));
+
+        register(natives, NativeFunction.of("binarySearch", ENTIER, sortable, element,
+                (files, array, key) -> binarySearch((ArrayValue) array, key)));
+
+        register(natives, NativeFunction.of("sumArray", element, numbers,
+                (files, array) -> sum((ArrayValue) array)));
+
+        register(natives, NativeFunction.of("minArray", element, numbers,
+                (files, array) -> min((ArrayValue) array)));
+
+        register(natives, NativeFunction.of("maxArray", element, numbers,
+                (files, array) -> max((ArrayValue) array)));
+
+        register(natives, NativeFunction.of("fillArray", VIDE, atomics, element, (files, array, value) -> {
+            ((ArrayValue) array).fill(value);
+            return null;
+        }));
+
+        register(natives, NativeFunction.of("copyArray", VIDE, NativeFunction.arrayOf(), NativeFunction.arrayOf(element),
+                (files, source, destination) -> {
+                    copy((ArrayValue) source, (ArrayValue) destination);
+                    return null;
+                }));
+
+        register(natives, NativeFunction.of("reverseArray", VIDE, NativeFunction.arrayOf(), (files, array) -> {
+            ((ArrayValue) array).reverse();
+            return null;
+        }));
+
+        return Collections.unmodifiableMap(natives);
+    }
+
+    private static void sort(ArrayValue array)
+    {
+        switch (array)
+        {
+            case IntArrayValue ints -> ints.sort();
+            case DoubleArrayValue reals -> reals.sort();
+            case CharArrayValue chars -> chars.sort();
+            default -> ((ReferenceArrayValue) array).sort();
+        }
+    }
+
+    /**
+     * Find a value in a sorted array
+     *
+     * @return its index, or the lower bound - 1 when it is absent
+     */
+    private static int binarySearch(ArrayValue array, Object key)
+    {
+        return switch (array)
+        {
+            case IntArrayValue ints -> ints.binarySearch((int) key);
+            case DoubleArrayValue reals -> reals.binarySearch((double) key);
+            case CharArrayValue chars -> chars.binarySearch((char) key);
+            default -> ((ReferenceArrayValue) array).binarySearch((String) key);
+        };
+    }
+
+    private static Object sum(ArrayValue array)
+    {
+        if (array instanceof IntArrayValue ints)
+        {
+            return ints.sum();
+        }
+        return ((DoubleArrayValue) array).sum();
+    }
+
+    private static Object min(ArrayValue array)
+    {
+        checkNotEmpty(array);
+        if (array instanceof IntArrayValue ints)
+        {
+            return ints.min();
+        }
+        return ((DoubleArrayValue) array).min();
+    }
+
+    private static Object max(ArrayValue array)
+    {
+        checkNotEmpty(array);
+        if (array instanceof IntArrayValue ints)
+        {
+            return ints.max();
+        }
+        return ((DoubleArrayValue) array).max();
+    }
+
+    private static void copy(ArrayValue source, ArrayValue destination)
+    {
+        // The destination must hold every element of the source
+        ArrayType type = destination.getArrayType();
+        int size = source.getArrayType().getSize();
+        if (size > type.getSize())
+        {
+            throw new RuntimeError(null, Messages.arrayIndexOutOfBounds(
+                    type.getLowerBound() + size - 1, type.getLowerBound(), type.getUpperBound()));
+        }
+        source.copyTo(destination);
+    }
+
+    private static void checkNotEmpty(ArrayValue array)
+    {
+        ArrayType type = array.getArrayType();
+        if (type.getSize() == 0)
+        {
+            throw new RuntimeError(null, Messages.arrayIndexOutOfBounds(
+                    type.getLowerBound(), type.getLowerBound(), type.getUpperBound()));
+        }
+    }
+
+    private static void register(Map<String, NativeFunction> natives, NativeFunction function)
+    {
+        natives.put(function.getName(), function);
+    }
+}
@@ -0,0 +1,117 @@
+package io.dream.natives;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parsing of entiers and reels from the bytes of a value, shared by the
+ * readers of lire and of files: no String is made unless a reel needs the
+ * JDK (an exponent, more than 15 significant digits...)
+ */
+final class Numbers
+{
+    // Powers of ten a double holds exactly
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private Numbers()
+    {
+    }
+
+    /**
+     * Parse the first length bytes as an entier
+     *
+     * @throws NumberFormatException when they are not one
+     */
+    static int parseInt(byte[] bytes, int length)
+    {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (bytes[0] == '-' || bytes[0] == '+'))
+        {
+            negative = bytes[0] == '-';
+            i++;
+        }
+        if (i == length)
+        {
+            throw new NumberFormatException();
+        }
+
+        long value = 0;
+        for (; i < length; i++)
+        {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9)
+            {
+                throw new NumberFormatException();
+            }
+            value = value * 10 + digit;
+            if (value > 1L + Integer.MAX_VALUE)
+            {
+                throw new NumberFormatException();
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE)
+        {
+            throw new NumberFormatException();
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse the first length bytes as a reel
+     *
+     * @param comma whether a comma separates the decimals, as in French (a dot always does)
+     * @throws NumberFormatException when they are not one
+     */
+    static double parseReal(byte[] bytes, int length, boolean comma)
+    {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (bytes[0] == '-' || bytes[0] == '+'))
+        {
+            negative = bytes[0] == '-';
+            i++;
+        }
+
+        // The digits, without the separator, and how many came after it
+        long mantissa = 0;
+        int decimals = 0;
+        boolean digit = false;
+        boolean separator = false;
+        boolean simple = true;
+        for (; i < length && simple; i++)
+        {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9')
+            {
+                digit = true;
+                mantissa = mantissa * 10 + (b - '0');
+                decimals += separator ? 1 : 0;
+                // Beyond 2^53 the mantissa is no longer exact as a double
+                simple = mantissa < 1L << 53;
+            }
+            else if (!separator && (b == '.' || (comma && b == ',')))
+            {
+                separator = true;
+            }
+            else
+            {
+                // An exponent, NaN, Infinity...
+                simple = false;
+            }
+        }
+
+        if (simple && digit && decimals < POWERS_OF_TEN.length)
+        {
+            // Both operands are exact, so the one division rounds correctly
+            double value = mantissa / POWERS_OF_TEN[decimals];
+            return negative ? -value : value;
+        }
+
+        String text = new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+        return Double.parseDouble(comma ? text.replace(',', '.') : text);
+    }
+}
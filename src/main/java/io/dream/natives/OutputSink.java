@@ -0,0 +1,73 @@
+package io.dream.natives;
+
+import java.io.PrintStream;
+
+/**
+ * Where ecrire prints
+ *
+ * Lines collect in a buffer written to the stream in one piece once it
+ * holds capacity characters, or when flush() is called: the interpreter
+ * does so before reading input, when the script ends and before reporting
+ * a runtime error. With a capacity of 0 every line is written and flushed
+ * at once, as an interactive session expects.
+ */
+public final class OutputSink
+{
+    /**
+     * Characters buffered before they are written
+     */
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final PrintStream target;
+    private final int capacity;
+    private final StringBuilder buffer;
+
+    public OutputSink(PrintStream target)
+    {
+        this(target, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param target   the stream written to
+     * @param capacity the characters buffered before they are written, 0 for none
+     */
+    public OutputSink(PrintStream target, int capacity)
+    {
+        this.target = target;
+        this.capacity = capacity;
+        this.buffer = new StringBuilder(Math.min(capacity, DEFAULT_CAPACITY) + 128);
+    }
+
+    public void print(String text)
+    {
+        buffer.append(text);
+        if (buffer.length() >= capacity)
+        {
+            flush();
+        }
+    }
+
+    public void println(String text)
+    {
+        buffer.append(text).append(LINE_SEPARATOR);
+        if (buffer.length() >= capacity)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Write everything buffered so far
+     */
+    public void flush()
+    {
+        if (!buffer.isEmpty())
+        {
+            target.append(buffer);
+            buffer.setLength(0);
+        }
+        target.flush();
+    }
+}
@@ -0,0 +1,117 @@
+package io.dream.optimizer;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+
+import java.util.List;
+
+/**
+ * Java stack one routine call of the tree walker may take
+ *
+ * The tree walker recurses on the Java stack: a call costs a fixed part,
+ * then a part for every statement and every expression enclosing the node
+ * it is evaluating. The costs were measured with the JVM interpreter
+ * (-Xint), whose frames are the largest, so compiled code takes less.
+ */
+public final class FrameSize extends Rewriter
+{
+    // Bytes taken by a call itself, and by each statement or expression it nests
+    private static final long CALL_BYTES = 1536;
+    private static final long STATEMENT_BYTES = 384;
+    private static final long EXPRESSION_BYTES = 96;
+
+    // Nesting of the node being visited, in its routine
+    private int statements;
+    private int expressions;
+    private long deepest;
+
+    private FrameSize()
+    {
+    }
+
+    /**
+     * Get the most Java stack one call of a routine of a program, or its
+     * main block, may take
+     *
+     * @param program the statements of the program, routines included
+     */
+    public static long bytesPerCall(List<Statement> program)
+    {
+        FrameSize size = new FrameSize();
+        size.block(program);
+        return CALL_BYTES + size.deepest;
+    }
+
+    @Override
+    protected void rewrite(Statement statement)
+    {
+        statements++;
+        measure();
+        try
+        {
+            super.rewrite(statement);
+        }
+        finally
+        {
+            statements--;
+        }
+    }
+
+    @Override
+    protected Expression rewrite(Expression expression)
+    {
+        if (expression == null)
+        {
+            return null;
+        }
+        expressions++;
+        measure();
+        try
+        {
+            return super.rewrite(expression);
+        }
+        finally
+        {
+            expressions--;
+        }
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        routine(statement.body);
+        return null;
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        routine(statement.body);
+        return null;
+    }
+
+    /**
+     * Measure the body of a routine, which starts a frame of its own
+     */
+    private void routine(List<Statement> body)
+    {
+        int enclosingStatements = statements;
+        int enclosingExpressions = expressions;
+        statements = 0;
+        expressions = 0;
+        try
+        {
+            block(body);
+        }
+        finally
+        {
+            statements = enclosingStatements;
+            expressions = enclosingExpressions;
+        }
+    }
+
+    private void measure()
+    {
+        deepest = Math.max(deepest, statements * STATEMENT_BYTES + expressions * EXPRESSION_BYTES);
+    }
+}
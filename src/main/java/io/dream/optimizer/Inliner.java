@@ -0,0 +1,505 @@
+package io.dream.optimizer;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.scanner.Token;
+import io.dream.scanner.TokenType;
+import io.dream.types.RawValues;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inlining pass of the Optimizer (level 2)
+ *
+ * A call to a small Fonction is replaced by the function's body, placed
+ * before the statement holding the call, and a temporary receiving the
+ * result. The parameters and locals of the body become temporaries of the
+ * caller, so they cannot clash with its variables; a parameter the body
+ * never assigns is replaced by its argument when that is a variable or a
+ * literal. Each retourne becomes an assignment of the result.
+ *
+ * A function is inlined when it is not recursive, its body is at most
+ * `maxSize` nodes, its parameters, locals and result are atomic, and every
+ * retourne ends its body (directly or through the branches of a final si).
+ * Calls inside inlined bodies are inlined up to `maxDepth` levels.
+ *
+ * The body has to run exactly where the call would have: a call is only
+ * inlined when everything its statement evaluates before it can neither
+ * fail nor have an effect, and never in a condition evaluated again by a
+ * loop or in the right operand of et / ou. The body keeps its own tokens,
+ * so a RuntimeError raised in it reports the same line as before.
+ */
+final class Inliner extends Rewriter
+{
+    private final Map<String, Type> globals;
+    private final int maxSize;
+    private final int maxDepth;
+
+    // Declarations of the program's functions, their own locals (inlining
+    // adds temporaries to the declarations), and which can be inlined
+    private final Map<String, Statement.FunctionDeclaration> functions = new HashMap<>();
+    private final Map<String, Map<String, Type>> locals = new HashMap<>();
+    private final Map<String, Boolean> inlinable = new HashMap<>();
+
+    // Variables of the routine being rewritten, which receive the temporaries
+    private Map<String, Type> scope;
+    private int depth = 0;
+
+    // Whether what the current statement evaluated so far can be run after a call
+    private boolean clean = false;
+
+    /**
+     * @param globals  the global symbol table
+     * @param maxSize  the largest body inlined, in AST nodes
+     * @param maxDepth how many calls deep inlining goes (0 turns it off)
+     */
+    Inliner(Map<String, Type> globals, int maxSize, int maxDepth)
+    {
+        this.globals = globals;
+        this.maxSize = maxSize;
+        this.maxDepth = maxDepth;
+    }
+
+    List<Statement> inline(List<Statement> statements)
+    {
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.FunctionDeclaration function)
+            {
+                functions.put(function.name.lexeme(), function);
+                locals.put(function.name.lexeme(), new LinkedHashMap<>(function.localVariables));
+            }
+        }
+        scope = globals;
+        return block(statements);
+    }
+
+    // ========================================================================
+    // STATEMENTS
+    // ========================================================================
+
+    @Override
+    protected void rewrite(Statement statement)
+    {
+        clean = true;
+        super.rewrite(statement);
+    }
+
+    @Override
+    public Void visitExpressionStmtStatement(Statement.ExpressionStmt statement)
+    {
+        // A call whose body took its place leaves only its result
+        Expression expression = rewrite(statement.expression);
+        if (!(expression instanceof Expression.Variable) || statement.expression instanceof Expression.Variable)
+        {
+            emit(expression == statement.expression ? statement : new Statement.ExpressionStmt(expression));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        clean = false;
+        return super.visitWhileStatement(statement);
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        List<Statement> body = block(statement.body);
+        clean = false;
+        emit(new Statement.DoWhile(body, rewrite(statement.condition)));
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        Map<String, Type> enclosing = scope;
+        scope = statement.localVariables;
+        super.visitFunctionDeclarationStatement(statement);
+        scope = enclosing;
+        return null;
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        Map<String, Type> enclosing = scope;
+        scope = statement.localVariables;
+        super.visitMethodDeclarationStatement(statement);
+        scope = enclosing;
+        return null;
+    }
+
+    // ========================================================================
+    // EXPRESSIONS
+    // ========================================================================
+
+    @Override
+    public Expression visitBinaryExpression(Expression.Binary expression)
+    {
+        Expression result = super.visitBinaryExpression(expression);
+        TokenType operator = expression.operator.type();
+        if (operator == TokenType.SLASH || operator == TokenType.MOD)
+        {
+            clean = false;
+        }
+        return result;
+    }
+
+    @Override
+    public Expression visitLogicalExpression(Expression.Logical expression)
+    {
+        Expression left = rewrite(expression.left);
+
+        // The right operand may not run at all
+        boolean before = clean;
+        clean = false;
+        Expression right = rewrite(expression.right);
+        clean = before && Optimizer.isPure(right);
+
+        return left == expression.left && right == expression.right
+                ? expression
+                : typed(new Expression.Logical(left, expression.operator, right), expression);
+    }
+
+    @Override
+    public Expression visitArrayAccessExpression(Expression.ArrayAccess expression)
+    {
+        Expression result = super.visitArrayAccessExpression(expression);
+        clean = false;
+        return result;
+    }
+
+    @Override
+    public Expression visitFieldAccessExpression(Expression.FieldAccess expression)
+    {
+        Expression result = super.visitFieldAccessExpression(expression);
+        clean = false;
+        return result;
+    }
+
+    @Override
+    public Expression visitCallExpression(Expression.Call expression)
+    {
+        // The arguments move before the statement along with the body
+        boolean before = clean;
+        List<Expression> arguments = rewriteAll(expression.arguments);
+        Statement.FunctionDeclaration function = functions.get(expression.name.lexeme());
+        if (before && depth < maxDepth && isInlinable(function) && matches(function, arguments))
+        {
+            return inline(expression, function, arguments);
+        }
+
+        clean = false;
+        return arguments == expression.arguments
+                ? expression
+                : called(expression, arguments);
+    }
+
+    /**
+     * Emit the body of a function in place of a call and return its result
+     */
+    private Expression inline(Expression.Call call, Statement.FunctionDeclaration function, List<Expression> arguments)
+    {
+        int line = call.name.line();
+        Set<String> written = LoopOptimizer.writes(function.body).keySet();
+        Map<String, Expression> renamed = new HashMap<>();
+
+        for (int i = 0; i < arguments.size(); i++)
+        {
+            Statement.Parameter parameter = function.parameters.get(i);
+            Expression argument = arguments.get(i);
+            if (!written.contains(parameter.name.lexeme())
+                    && (argument instanceof Expression.Literal || argument instanceof Expression.Variable))
+            {
+                renamed.put(parameter.name.lexeme(), argument);
+                continue;
+            }
+            String name = temporary(scope, parameter.type);
+            emit(new Statement.Assignment(token(name, line), argument));
+            renamed.put(parameter.name.lexeme(), variable(name, parameter.type, line));
+        }
+
+        // Locals start from their zero value on every call
+        for (Map.Entry<String, Type> local : locals.get(function.name.lexeme()).entrySet())
+        {
+            String name = temporary(scope, local.getValue());
+            emit(new Statement.Assignment(token(name, line),
+                    Optimizer.literal(RawValues.decode(local.getValue(), 0L), local.getValue())));
+            renamed.put(local.getKey(), variable(name, local.getValue(), line));
+        }
+
+        String result = temporary(scope, function.returnType);
+        List<Statement> body = new Renamer(renamed, result).block(function.body);
+
+        depth++;
+        emitAll(block(body));
+        depth--;
+        clean = true;
+
+        return variable(result, function.returnType, line);
+    }
+
+    private static boolean matches(Statement.FunctionDeclaration function, List<Expression> arguments)
+    {
+        if (arguments.size() != function.parameters.size())
+        {
+            return false;
+        }
+        for (int i = 0; i < arguments.size(); i++)
+        {
+            if (!function.parameters.get(i).type.equals(arguments.get(i).getType()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Token token(String name, int line)
+    {
+        return new Token(TokenType.IDENTIFIER, name, null, line);
+    }
+
+    private static Expression variable(String name, Type type, int line)
+    {
+        Expression variable = new Expression.Variable(token(name, line));
+        variable.setType(type);
+        return variable;
+    }
+
+    // ========================================================================
+    // CANDIDATES
+    // ========================================================================
+
+    private boolean isInlinable(Statement.FunctionDeclaration function)
+    {
+        if (function == null)
+        {
+            return false;
+        }
+        return inlinable.computeIfAbsent(function.name.lexeme(), name ->
+                isAtomic(function.returnType)
+                        && function.parameters.stream().allMatch(parameter -> isAtomic(parameter.type))
+                        && locals.get(name).values().stream().allMatch(RawValues::isUnboxed)
+                        && endsWithReturns(function.body, function.returnType)
+                        && size(function.body) <= maxSize
+                        && !reaches(function, name, new HashSet<>()));
+    }
+
+    private static boolean isAtomic(Type type)
+    {
+        return type == TypeFactory.INTEGER || type == TypeFactory.FLOATING || type == TypeFactory.BOOLEAN
+                || type == TypeFactory.CHAR || type == TypeFactory.STRING;
+    }
+
+    /**
+     * Whether a block ends with a retourne of the given type, or a si whose
+     * branches both do, and has no other retourne
+     */
+    private static boolean endsWithReturns(List<Statement> statements, Type type)
+    {
+        if (statements == null || statements.isEmpty())
+        {
+            return false;
+        }
+        for (int i = 0; i < statements.size() - 1; i++)
+        {
+            if (containsReturn(statements.get(i)))
+            {
+                return false;
+            }
+        }
+
+        Statement last = statements.get(statements.size() - 1);
+        if (last instanceof Statement.Return ret)
+        {
+            return ret.value != null && type.equals(ret.value.getType());
+        }
+        if (last instanceof Statement.If branch)
+        {
+            return endsWithReturns(branch.thenBranch, type) && endsWithReturns(branch.elseBranch, type);
+        }
+        return false;
+    }
+
+    private static boolean containsReturn(Statement statement)
+    {
+        if (statement instanceof Statement.Return)
+        {
+            return true;
+        }
+        List<List<Statement>> blocks = new ArrayList<>();
+        if (statement instanceof Statement.If branch)
+        {
+            blocks.add(branch.thenBranch);
+            blocks.add(branch.elseBranch);
+        }
+        else if (statement instanceof Statement.While loop)
+        {
+            blocks.add(loop.body);
+        }
+        else if (statement instanceof Statement.DoWhile loop)
+        {
+            blocks.add(loop.body);
+        }
+        else if (statement instanceof Statement.For loop)
+        {
+            blocks.add(loop.body);
+        }
+
+        for (List<Statement> block : blocks)
+        {
+            if (block != null && block.stream().anyMatch(Inliner::containsReturn))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a function calls the named one, directly or not
+     */
+    private boolean reaches(Statement.FunctionDeclaration function, String name, Set<String> visited)
+    {
+        for (String callee : callees(function.body))
+        {
+            if (callee.equals(name))
+            {
+                return true;
+            }
+            Statement.FunctionDeclaration next = functions.get(callee);
+            if (next != null && visited.add(callee) && reaches(next, name, visited))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> callees(List<Statement> body)
+    {
+        Set<String> callees = new HashSet<>();
+        new Rewriter()
+        {
+            @Override
+            public Expression visitCallExpression(Expression.Call expression)
+            {
+                callees.add(expression.name.lexeme());
+                return super.visitCallExpression(expression);
+            }
+        }.block(body);
+        return callees;
+    }
+
+    /**
+     * Number of statements and expressions in a block
+     */
+    private static int size(List<Statement> body)
+    {
+        int[] nodes = { 0 };
+        new Rewriter()
+        {
+            @Override
+            protected void rewrite(Statement statement)
+            {
+                nodes[0]++;
+                super.rewrite(statement);
+            }
+
+            @Override
+            protected Expression rewrite(Expression expression)
+            {
+                if (expression != null)
+                {
+                    nodes[0]++;
+                }
+                return super.rewrite(expression);
+            }
+        }.block(body);
+        return nodes[0];
+    }
+
+    /**
+     * Copy of a function body over the caller's temporaries, assigning
+     * the result instead of returning it
+     */
+    private static final class Renamer extends Rewriter
+    {
+        private final Map<String, Expression> renamed;
+        private final String result;
+
+        private Renamer(Map<String, Expression> renamed, String result)
+        {
+            this.renamed = renamed;
+            this.result = result;
+        }
+
+        private Token rename(Token name)
+        {
+            Expression replacement = renamed.get(name.lexeme());
+            return replacement instanceof Expression.Variable variable
+                    ? token(variable.name.lexeme(), name.line())
+                    : name;
+        }
+
+        @Override
+        public Expression visitVariableExpression(Expression.Variable expression)
+        {
+            Expression replacement = renamed.get(expression.name.lexeme());
+            if (replacement instanceof Expression.Variable variable)
+            {
+                return typed(new Expression.Variable(token(variable.name.lexeme(), expression.name.line())), variable);
+            }
+            if (replacement instanceof Expression.Literal literal)
+            {
+                return typed(new Expression.Literal(literal.value), literal);
+            }
+            return expression;
+        }
+
+        @Override
+        public Void visitAssignmentStatement(Statement.Assignment statement)
+        {
+            emit(new Statement.Assignment(rename(statement.name), rewrite(statement.value)));
+            return null;
+        }
+
+        @Override
+        public Void visitReadStatement(Statement.Read statement)
+        {
+            emit(new Statement.Read(rename(statement.variable)));
+            return null;
+        }
+
+        @Override
+        public Void visitForStatement(Statement.For statement)
+        {
+            Expression start = rewrite(statement.start);
+            Expression end = rewrite(statement.end);
+            Expression step = rewrite(statement.step);
+            emit(new Statement.For(rename(statement.variable), start, end, step, block(statement.body),
+                    statement.parallel));
+            return null;
+        }
+
+        @Override
+        public Void visitReturnStatement(Statement.Return statement)
+        {
+            emit(new Statement.Assignment(token(result, statement.keyword.line()), rewrite(statement.value)));
+            return null;
+        }
+    }
+}
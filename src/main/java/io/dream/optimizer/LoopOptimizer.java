@@ -0,0 +1,551 @@
+package io.dream.optimizer;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.scanner.Token;
+import io.dream.scanner.TokenType;
+import io.dream.tools.AstPrinter;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loop pass of the Optimizer (level 2)
+ *
+ * Loop-invariant code motion: an operation of a loop whose variables the
+ * loop never assigns is computed once, into a temporary, before the
+ * outermost loop it is invariant in.
+ *
+ * Strength reduction: a linear function of an induction variable
+ * (j + 1, 10 - i, 2 * k - 1) becomes a derived variable set before the loop
+ * and stepped along with the induction variable. The induction variable of
+ * a pour is its loop variable when the step is known; a tant_que or repeter
+ * has one when its body steps a variable by a known amount exactly once, at
+ * the top level of the body.
+ *
+ * Only operations that can neither fail nor have an effect are moved, so
+ * the program behaves the same even when a loop runs zero times.
+ * Temporaries are added to the scope of the routine (or the main program)
+ * holding the loop.
+ */
+final class LoopOptimizer extends Rewriter
+{
+    /**
+     * What is known about a loop being rewritten
+     */
+    private static final class Loop
+    {
+        private final Set<String> assigned;
+        private final String induction;
+        private final int step;
+        private final Expression origin;
+        private final Statement increment;
+
+        // Statements to run before the loop, and after each step of the induction variable
+        private final List<Statement> prelude = new ArrayList<>();
+        private final List<Statement> updates = new ArrayList<>();
+
+        // Temporaries already made for this loop, by printed expression
+        private final Map<String, String> temporaries = new HashMap<>();
+
+        /**
+         * @param assigned  the variables the loop writes
+         * @param induction the induction variable, or null
+         * @param step      what the induction variable is stepped by
+         * @param origin    the value of the induction variable on entry
+         * @param increment the statement stepping it, null for a pour
+         */
+        private Loop(Set<String> assigned, String induction, int step, Expression origin, Statement increment)
+        {
+            this.assigned = assigned;
+            this.induction = induction;
+            this.step = step;
+            this.origin = origin;
+            this.increment = increment;
+        }
+    }
+
+    private final Map<String, Type> globals;
+    private final AstPrinter printer = new AstPrinter();
+
+    // Variables of the routine being rewritten, which receive the temporaries
+    private Map<String, Type> scope;
+
+    // Loops around the code being rewritten, outermost first; an
+    // expression is only moved out of the first `limit` of them
+    private final List<Loop> loops = new ArrayList<>();
+    private int limit = 0;
+
+    LoopOptimizer(Map<String, Type> globals)
+    {
+        this.globals = globals;
+    }
+
+    List<Statement> optimize(List<Statement> statements)
+    {
+        scope = globals;
+        return block(statements);
+    }
+
+    // ========================================================================
+    // ROUTINES
+    // ========================================================================
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        Map<String, Type> enclosing = scope;
+        scope = statement.localVariables;
+        super.visitFunctionDeclarationStatement(statement);
+        scope = enclosing;
+        return null;
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        Map<String, Type> enclosing = scope;
+        scope = statement.localVariables;
+        super.visitMethodDeclarationStatement(statement);
+        scope = enclosing;
+        return null;
+    }
+
+    // ========================================================================
+    // FULL
+    // ========================================================================
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        // The bounds are evaluated once, before the loop
+        Expression start = rewrite(statement.start);
+        Expression end = rewrite(statement.end);
+        Expression step = rewrite(statement.step);
+
+        String name = statement.variable.lexeme();
+        Map<String, Integer> writes = writes(statement.body);
+        Integer by = step == null ? Integer.valueOf(1) : Optimizer.intValue(step);
+        // The iterations of a pour parallele share no running temporary
+        boolean induction = !statement.parallel && by != null && by != 0 && !writes.containsKey(name)
+                && scope.get(name) == TypeFactory.INTEGER && Optimizer.isPure(start);
+
+        Set<String> assigned = new HashSet<>(writes.keySet());
+        assigned.add(name);
+        Loop loop = new Loop(assigned, induction ? name : null, induction ? by : 0, start, null);
+
+        enter(loop);
+        List<Statement> body = block(statement.body);
+        leave();
+        body.addAll(loop.updates);
+
+        emitAll(loop.prelude);
+        emit(new Statement.For(statement.variable, start, end, step, body, statement.parallel));
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        Loop loop = loop(statement.body);
+        enter(loop);
+        Expression condition = rewrite(statement.condition);
+        List<Statement> body = block(statement.body);
+        leave();
+        body.addAll(body.indexOf(loop.increment) + 1, loop.updates);
+
+        emitAll(loop.prelude);
+        emit(new Statement.While(condition, body));
+        return null;
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        Loop loop = loop(statement.body);
+        enter(loop);
+        List<Statement> body = block(statement.body);
+        Expression condition = rewrite(statement.condition);
+        leave();
+        body.addAll(body.indexOf(loop.increment) + 1, loop.updates);
+
+        emitAll(loop.prelude);
+        emit(new Statement.DoWhile(body, condition));
+        return null;
+    }
+
+    @Override
+    public Void visitAssignmentStatement(Statement.Assignment statement)
+    {
+        // The step of an induction variable stays as written
+        for (Loop loop : loops)
+        {
+            if (loop.increment == statement)
+            {
+                emit(statement);
+                return null;
+            }
+        }
+        return super.visitAssignmentStatement(statement);
+    }
+
+    private void enter(Loop loop)
+    {
+        loops.add(loop);
+        limit = loops.size();
+    }
+
+    private void leave()
+    {
+        loops.remove(loops.size() - 1);
+        limit = loops.size();
+    }
+
+    /**
+     * Analyze a tant_que or repeter loop
+     */
+    private Loop loop(List<Statement> body)
+    {
+        Map<String, Integer> writes = writes(body);
+        for (Statement statement : body)
+        {
+            if (statement instanceof Statement.Assignment assignment)
+            {
+                String name = assignment.name.lexeme();
+                Integer by = step(assignment);
+                if (by != null && writes.get(name) == 1 && scope.get(name) == TypeFactory.INTEGER)
+                {
+                    Expression origin = new Expression.Variable(assignment.name);
+                    origin.setType(TypeFactory.INTEGER);
+                    return new Loop(writes.keySet(), name, by, origin, assignment);
+                }
+            }
+        }
+        return new Loop(writes.keySet(), null, 0, null, null);
+    }
+
+    /**
+     * What `v <- v + c`, `v <- c + v` or `v <- v - c` steps v by, or null
+     */
+    private static Integer step(Statement.Assignment assignment)
+    {
+        if (!(assignment.value instanceof Expression.Binary binary))
+        {
+            return null;
+        }
+        String name = assignment.name.lexeme();
+        TokenType operator = binary.operator.type();
+        Integer right = Optimizer.intValue(binary.right);
+        if (isVariable(binary.left, name) && right != null && right != 0)
+        {
+            if (operator == TokenType.PLUS)
+            {
+                return right;
+            }
+            if (operator == TokenType.MINUS)
+            {
+                return -right;
+            }
+        }
+        Integer left = Optimizer.intValue(binary.left);
+        if (operator == TokenType.PLUS && left != null && left != 0 && isVariable(binary.right, name))
+        {
+            return left;
+        }
+        return null;
+    }
+
+    private static boolean isVariable(Expression expression, String name)
+    {
+        return expression instanceof Expression.Variable variable && variable.name.lexeme().equals(name);
+    }
+
+    // ========================================================================
+    // EXPRESSIONS
+    // ========================================================================
+
+    @Override
+    protected Expression rewrite(Expression expression)
+    {
+        if (expression == null)
+        {
+            return null;
+        }
+        for (int i = 0; i < limit; i++)
+        {
+            Expression replacement = replace(i, expression);
+            if (replacement != null)
+            {
+                return replacement;
+            }
+        }
+        return expression.accept(this);
+    }
+
+    /**
+     * Replace an expression by a temporary of the i-th loop, or return null
+     */
+    private Expression replace(int i, Expression expression)
+    {
+        Loop loop = loops.get(i);
+        if (!isOperation(expression))
+        {
+            return null;
+        }
+
+        if (loop.induction != null && expression.getType() == TypeFactory.INTEGER)
+        {
+            int[] linear = linear(expression, loop.induction);
+            if (linear != null && linear[0] != 0)
+            {
+                return derived(loop, expression, linear[0], linear[1]);
+            }
+        }
+
+        if (Optimizer.isPure(expression) && isInvariant(expression, loop.assigned))
+        {
+            return hoisted(i, loop, expression);
+        }
+        return null;
+    }
+
+    /**
+     * Compute an invariant expression once before the loop
+     */
+    private Expression hoisted(int i, Loop loop, Expression expression)
+    {
+        String key = printer.print(expression);
+        String name = loop.temporaries.get(key);
+        if (name == null)
+        {
+            // Parts of it may be invariant in the loops further out
+            int enclosing = limit;
+            limit = i;
+            Expression value = expression.accept(this);
+            limit = enclosing;
+
+            name = temporary(scope, expression.getType());
+            loop.temporaries.put(key, name);
+            loop.prelude.add(new Statement.Assignment(token(name, expression), value));
+        }
+        return variable(name, expression);
+    }
+
+    /**
+     * Follow a*v + b with a variable stepped by a*step when v is
+     */
+    private Expression derived(Loop loop, Expression expression, int a, int b)
+    {
+        String key = a + "*" + loop.induction + "+" + b;
+        String name = loop.temporaries.get(key);
+        if (name == null)
+        {
+            name = temporary(scope, TypeFactory.INTEGER);
+            loop.temporaries.put(key, name);
+            loop.prelude.add(new Statement.Assignment(token(name, expression), linear(loop.origin, a, b, expression)));
+            loop.updates.add(new Statement.Assignment(token(name, expression),
+                    binary(variable(name, expression), TokenType.PLUS, Optimizer.literal(a * loop.step, TypeFactory.INTEGER), expression)));
+        }
+        return variable(name, expression);
+    }
+
+    private static Token token(String name, Expression at)
+    {
+        return new Token(TokenType.IDENTIFIER, name, null, line(at));
+    }
+
+    private static Expression variable(String name, Expression at)
+    {
+        return typed(new Expression.Variable(token(name, at)), at);
+    }
+
+    private static Expression binary(Expression left, TokenType operator, Expression right, Expression at)
+    {
+        String lexeme = operator == TokenType.PLUS ? "+" : "*";
+        Expression binary = new Expression.Binary(left, new Token(operator, lexeme, null, line(at)), right);
+        binary.setType(TypeFactory.INTEGER);
+        return binary;
+    }
+
+    /**
+     * Build a*x + b, computed right away when x is a literal
+     */
+    private static Expression linear(Expression x, int a, int b, Expression at)
+    {
+        Integer value = Optimizer.intValue(x);
+        if (value != null)
+        {
+            return Optimizer.literal(a * value + b, TypeFactory.INTEGER);
+        }
+        Expression term = a == 1 ? x : binary(Optimizer.literal(a, TypeFactory.INTEGER), TokenType.STAR, x, at);
+        return b == 0 ? term : binary(term, TokenType.PLUS, Optimizer.literal(b, TypeFactory.INTEGER), at);
+    }
+
+    private static int line(Expression expression)
+    {
+        if (expression instanceof Expression.Binary binary)
+        {
+            return binary.operator.line();
+        }
+        if (expression instanceof Expression.Unary unary)
+        {
+            return unary.operator.line();
+        }
+        if (expression instanceof Expression.Logical logical)
+        {
+            return logical.operator.line();
+        }
+        if (expression instanceof Expression.Variable variable)
+        {
+            return variable.name.line();
+        }
+        return 0;
+    }
+
+    // ========================================================================
+    // ANALYSIS
+    // ========================================================================
+
+    /**
+     * Whether an expression computes something (a variable or a literal is
+     * not worth a temporary)
+     */
+    private static boolean isOperation(Expression expression)
+    {
+        return expression instanceof Expression.Binary
+                || expression instanceof Expression.Logical
+                || expression instanceof Expression.Unary;
+    }
+
+    /**
+     * Coefficients {a, b} of an entier expression equal to a*v + b, or null
+     * (the arithmetic wraps like the program's own)
+     */
+    private static int[] linear(Expression expression, String v)
+    {
+        if (expression.getType() != TypeFactory.INTEGER)
+        {
+            return null;
+        }
+        if (expression instanceof Expression.Grouping grouping)
+        {
+            return linear(grouping.expression, v);
+        }
+        Integer value = Optimizer.intValue(expression);
+        if (value != null)
+        {
+            return new int[] { 0, value };
+        }
+        if (isVariable(expression, v))
+        {
+            return new int[] { 1, 0 };
+        }
+        if (expression instanceof Expression.Unary unary && unary.operator.type() == TokenType.MINUS)
+        {
+            int[] operand = linear(unary.right, v);
+            return operand == null ? null : new int[] { -operand[0], -operand[1] };
+        }
+        if (!(expression instanceof Expression.Binary binary))
+        {
+            return null;
+        }
+
+        int[] left = linear(binary.left, v);
+        int[] right = linear(binary.right, v);
+        if (left == null || right == null)
+        {
+            return null;
+        }
+        return switch (binary.operator.type())
+        {
+            case PLUS -> new int[] { left[0] + right[0], left[1] + right[1] };
+            case MINUS -> new int[] { left[0] - right[0], left[1] - right[1] };
+            case STAR -> left[0] == 0
+                    ? new int[] { left[1] * right[0], left[1] * right[1] }
+                    : right[0] == 0 ? new int[] { left[0] * right[1], left[1] * right[1] } : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Whether none of the variables an expression reads is assigned
+     */
+    private static boolean isInvariant(Expression expression, Set<String> assigned)
+    {
+        if (expression instanceof Expression.Variable variable)
+        {
+            return !assigned.contains(variable.name.lexeme());
+        }
+        if (expression instanceof Expression.Grouping grouping)
+        {
+            return isInvariant(grouping.expression, assigned);
+        }
+        if (expression instanceof Expression.Unary unary)
+        {
+            return isInvariant(unary.right, assigned);
+        }
+        if (expression instanceof Expression.Binary binary)
+        {
+            return isInvariant(binary.left, assigned) && isInvariant(binary.right, assigned);
+        }
+        if (expression instanceof Expression.Logical logical)
+        {
+            return isInvariant(logical.left, assigned) && isInvariant(logical.right, assigned);
+        }
+        return expression instanceof Expression.Literal;
+    }
+
+    /**
+     * Count the writes of each variable in a block, nested blocks included
+     * (calls cannot write the caller's variables: arguments are copied)
+     */
+    static Map<String, Integer> writes(List<Statement> statements)
+    {
+        Map<String, Integer> writes = new HashMap<>();
+        writes(statements, writes);
+        return writes;
+    }
+
+    private static void writes(List<Statement> statements, Map<String, Integer> writes)
+    {
+        if (statements == null)
+        {
+            return;
+        }
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.Assignment assignment)
+            {
+                writes.merge(assignment.name.lexeme(), 1, Integer::sum);
+            }
+            else if (statement instanceof Statement.Read read)
+            {
+                writes.merge(read.variable.lexeme(), 1, Integer::sum);
+            }
+            else if (statement instanceof Statement.For loop)
+            {
+                writes.merge(loop.variable.lexeme(), 1, Integer::sum);
+                writes(loop.body, writes);
+            }
+            else if (statement instanceof Statement.While loop)
+            {
+                writes(loop.body, writes);
+            }
+            else if (statement instanceof Statement.DoWhile loop)
+            {
+                writes(loop.body, writes);
+            }
+            else if (statement instanceof Statement.If branch)
+            {
+                writes(branch.thenBranch, writes);
+                writes(branch.elseBranch, writes);
+            }
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package io.dream.optimizer;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.environment.Environment;
+import io.dream.exec.ExecutionContext;
+import io.dream.exec.Lowering;
+import io.dream.scanner.TokenType;
+import io.dream.types.AtomicTypes;
+import io.dream.types.AtomicValue;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+import io.dream.types.Value;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AST optimizer for AlgoLang, run after the Checker and before the Resolver
+ *
+ * Level 1 folds operations on literals, replaces the uses of constants of
+ * the Constante: section by their value, removes the branches of a si whose
+ * condition is known and the loops that can never run or have nothing to
+ * do. Folding evaluates the same executable nodes the interpreter runs, so
+ * a folded value is exactly what the program would have computed; an
+ * operation that would fail (division by zero) is left for run time.
+ *
+ * Level 2 then inlines small functions (Inliner) and optimizes loops
+ * (LoopOptimizer).
+ */
+public class Optimizer extends Rewriter
+{
+    public static final int NONE = 0;
+    public static final int BASIC = 1;
+    public static final int FULL = 2;
+
+    public static final int DEFAULT_INLINE_SIZE = 40;
+    public static final int DEFAULT_INLINE_DEPTH = 3;
+
+    /**
+     * Context for folding: a tree of literals never reads a variable
+     */
+    private static final ExecutionContext CONSTANT = new ExecutionContext()
+    {
+        @Override
+        public Environment environment()
+        {
+            throw new NotConstant();
+        }
+
+        @Override
+        public Object evaluateTree(Expression expression)
+        {
+            throw new NotConstant();
+        }
+    };
+
+    private static final class NotConstant extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        NotConstant()
+        {
+            super(null, null, false, false);
+        }
+    }
+
+    private final int level;
+    private final Map<String, Type> globals;
+    private final int inlineSize;
+    private final int inlineDepth;
+    private final Lowering lowering = new Lowering();
+
+    // Values of the constants seen so far, by name
+    private final Map<String, Expression.Literal> constants = new HashMap<>();
+
+    // Functions and methods do not see the globals, constants included
+    private boolean inRoutine = false;
+
+    /**
+     * @param level   the optimization level, NONE to FULL
+     * @param globals the global symbol table, which receives the
+     *                temporaries of the main program
+     */
+    public Optimizer(int level, Map<String, Type> globals)
+    {
+        this(level, globals, DEFAULT_INLINE_SIZE, DEFAULT_INLINE_DEPTH);
+    }
+
+    /**
+     * @param inlineSize  the largest function body inlined, in AST nodes
+     * @param inlineDepth how many calls deep inlining goes (0 turns it off)
+     */
+    public Optimizer(int level, Map<String, Type> globals, int inlineSize, int inlineDepth)
+    {
+        this.level = level;
+        this.globals = globals;
+        this.inlineSize = inlineSize;
+        this.inlineDepth = inlineDepth;
+    }
+
+    /**
+     * Optimize a checked program
+     *
+     * @return the optimized statements (the same list at level 0)
+     */
+    public List<Statement> optimize(List<Statement> statements)
+    {
+        if (level <= NONE)
+        {
+            return statements;
+        }
+        List<Statement> optimized = block(statements);
+        if (level >= FULL)
+        {
+            optimized = new Inliner(globals, inlineSize, inlineDepth).inline(optimized);
+            optimized = new LoopOptimizer(globals).optimize(optimized);
+        }
+        return optimized;
+    }
+
+    // ========================================================================
+    // STATEMENT VISITORS
+    // ========================================================================
+
+    @Override
+    public Void visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
+    {
+        Expression value = rewrite(statement.value);
+        if (!inRoutine && value instanceof Expression.Literal literal)
+        {
+            constants.put(statement.name.lexeme(), literal);
+        }
+        emit(value == statement.value ? statement : new Statement.ConstantDeclaration(statement.name, value, statement.type));
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(Statement.If statement)
+    {
+        Expression condition = rewrite(statement.condition);
+        List<Statement> thenBranch = block(statement.thenBranch);
+        List<Statement> elseBranch = block(statement.elseBranch);
+
+        // Only the branch that runs is kept, in place of the si
+        Boolean known = booleanValue(condition);
+        if (known != null)
+        {
+            emitAll(known ? thenBranch : elseBranch);
+            return null;
+        }
+
+        if (isEmpty(thenBranch) && isEmpty(elseBranch) && isPure(condition))
+        {
+            return null;
+        }
+        emit(new Statement.If(condition, thenBranch, elseBranch));
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        Expression condition = rewrite(statement.condition);
+        List<Statement> body = block(statement.body);
+        if (Boolean.FALSE.equals(booleanValue(condition)))
+        {
+            return null;
+        }
+        emit(new Statement.While(condition, body));
+        return null;
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        List<Statement> body = block(statement.body);
+        Expression condition = rewrite(statement.condition);
+
+        // repeter ... jusqu_a vrai runs its body exactly once
+        if (Boolean.TRUE.equals(booleanValue(condition)))
+        {
+            emitAll(body);
+            return null;
+        }
+        emit(new Statement.DoWhile(body, condition));
+        return null;
+    }
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        Expression start = rewrite(statement.start);
+        Expression end = rewrite(statement.end);
+        Expression step = rewrite(statement.step);
+        List<Statement> body = block(statement.body);
+
+        if (body.isEmpty() && emptyLoop(statement, start, end, step))
+        {
+            return null;
+        }
+        emit(new Statement.For(statement.variable, start, end, step, body, statement.parallel));
+        return null;
+    }
+
+    /**
+     * Replace a pour with an empty body and known bounds by its only effect,
+     * leaving the loop variable on its last value
+     *
+     * @return false if the loop has to be kept
+     */
+    private boolean emptyLoop(Statement.For statement, Expression start, Expression end, Expression step)
+    {
+        Integer from = intValue(start);
+        Integer to = intValue(end);
+        Integer by = step == null ? Integer.valueOf(1) : intValue(step);
+        if (from == null || to == null || by == null || by == 0)
+        {
+            return false;
+        }
+
+        long distance = by > 0 ? (long) to - from : (long) from - to;
+        if (distance < 0)
+        {
+            return true;
+        }
+        long last = from + distance / Math.abs((long) by) * by;
+        if (last + by > Integer.MAX_VALUE || last + by < Integer.MIN_VALUE)
+        {
+            // The interpreter's counter would overflow and never leave the loop
+            return false;
+        }
+        emit(new Statement.Assignment(statement.variable, literal((int) last, TypeFactory.INTEGER)));
+        return true;
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        boolean enclosing = inRoutine;
+        inRoutine = true;
+        List<Statement> body = block(statement.body);
+        inRoutine = enclosing;
+
+        emit(new Statement.FunctionDeclaration(statement.name, statement.parameters, statement.returnType,
+                body, statement.localVariables));
+        return null;
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        boolean enclosing = inRoutine;
+        inRoutine = true;
+        List<Statement> body = block(statement.body);
+        inRoutine = enclosing;
+
+        emit(new Statement.MethodDeclaration(statement.name, statement.parameters, body, statement.localVariables));
+        return null;
+    }
+
+    // ========================================================================
+    // EXPRESSION VISITORS
+    // ========================================================================
+
+    @Override
+    public Expression visitBinaryExpression(Expression.Binary expression)
+    {
+        Expression left = rewrite(expression.left);
+        Expression right = rewrite(expression.right);
+        Expression result = left == expression.left && right == expression.right
+                ? expression
+                : typed(new Expression.Binary(left, expression.operator, right), expression);
+
+        return isLiteral(left) && isLiteral(right) ? fold(result) : result;
+    }
+
+    @Override
+    public Expression visitGroupingExpression(Expression.Grouping expression)
+    {
+        Expression inner = rewrite(expression.expression);
+        if (isLiteral(inner))
+        {
+            return inner;
+        }
+        return inner == expression.expression ? expression : typed(new Expression.Grouping(inner), expression);
+    }
+
+    @Override
+    public Expression visitUnaryExpression(Expression.Unary expression)
+    {
+        Expression right = rewrite(expression.right);
+        Expression result = right == expression.right
+                ? expression
+                : typed(new Expression.Unary(expression.operator, right), expression);
+
+        return isLiteral(right) ? fold(result) : result;
+    }
+
+    @Override
+    public Expression visitVariableExpression(Expression.Variable expression)
+    {
+        Expression.Literal constant = inRoutine ? null : constants.get(expression.name.lexeme());
+        if (constant == null)
+        {
+            return expression;
+        }
+        return typed(new Expression.Literal(constant.value), expression);
+    }
+
+    @Override
+    public Expression visitLogicalExpression(Expression.Logical expression)
+    {
+        Expression left = rewrite(expression.left);
+        Expression right = rewrite(expression.right);
+
+        // A known left operand decides the result or hands it to the right one
+        Boolean known = booleanValue(left);
+        if (known != null && right.getType() == TypeFactory.BOOLEAN)
+        {
+            boolean and = expression.operator.type() == TokenType.AND;
+            return known == and ? right : left;
+        }
+
+        return left == expression.left && right == expression.right
+                ? expression
+                : typed(new Expression.Logical(left, expression.operator, right), expression);
+    }
+
+    // ========================================================================
+    // FOLDING
+    // ========================================================================
+
+    /**
+     * Evaluate an operation on literals, or keep it if it fails or does not
+     * produce an atomic value
+     */
+    private Expression fold(Expression expression)
+    {
+        Type type = expression.getType();
+        if (!isAtomic(type))
+        {
+            return expression;
+        }
+
+        Object value;
+        try
+        {
+            value = lowering.lower(expression).execute(CONSTANT);
+        }
+        catch (RuntimeException e)
+        {
+            // Division by zero and the like are raised when the program runs
+            return expression;
+        }
+        return value == null ? expression : literal(value, type);
+    }
+
+    static Expression.Literal literal(Object value, Type type)
+    {
+        Value atomic;
+        if (type == TypeFactory.INTEGER)
+        {
+            atomic = new AtomicValue<>((Integer) value, AtomicTypes.INTEGER);
+        }
+        else if (type == TypeFactory.FLOATING)
+        {
+            atomic = new AtomicValue<>(((Number) value).doubleValue(), AtomicTypes.FLOATING);
+        }
+        else if (type == TypeFactory.BOOLEAN)
+        {
+            atomic = new AtomicValue<>((Boolean) value, AtomicTypes.BOOLEAN);
+        }
+        else if (type == TypeFactory.CHAR)
+        {
+            atomic = new AtomicValue<>((Character) value, AtomicTypes.CHAR);
+        }
+        else
+        {
+            atomic = new AtomicValue<>((String) value, AtomicTypes.STRING);
+        }
+
+        Expression.Literal literal = new Expression.Literal(atomic);
+        literal.setType(type);
+        return literal;
+    }
+
+    private static boolean isAtomic(Type type)
+    {
+        return type == TypeFactory.INTEGER || type == TypeFactory.FLOATING || type == TypeFactory.BOOLEAN
+                || type == TypeFactory.CHAR || type == TypeFactory.STRING;
+    }
+
+    private static boolean isLiteral(Expression expression)
+    {
+        return expression instanceof Expression.Literal literal
+                && literal.value instanceof AtomicValue<?> atomic
+                && atomic.getValue() != null;
+    }
+
+    private static Boolean booleanValue(Expression expression)
+    {
+        if (expression instanceof Expression.Literal literal
+                && literal.value instanceof AtomicValue<?> atomic
+                && atomic.getValue() instanceof Boolean bool)
+        {
+            return bool;
+        }
+        return null;
+    }
+
+    static Integer intValue(Expression expression)
+    {
+        if (expression instanceof Expression.Literal literal
+                && literal.value instanceof AtomicValue<?> atomic
+                && atomic.getValue() instanceof Integer integer)
+        {
+            return integer;
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(List<Statement> statements)
+    {
+        return statements == null || statements.isEmpty();
+    }
+
+    /**
+     * Whether evaluating an expression can neither fail nor have an effect
+     */
+    static boolean isPure(Expression expression)
+    {
+        if (expression instanceof Expression.Literal || expression instanceof Expression.Variable)
+        {
+            return true;
+        }
+        if (expression instanceof Expression.Grouping grouping)
+        {
+            return isPure(grouping.expression);
+        }
+        if (expression instanceof Expression.Unary unary)
+        {
+            return isPure(unary.right);
+        }
+        if (expression instanceof Expression.Logical logical)
+        {
+            return isPure(logical.left) && isPure(logical.right);
+        }
+        if (expression instanceof Expression.Binary binary)
+        {
+            TokenType operator = binary.operator.type();
+            return operator != TokenType.SLASH && operator != TokenType.MOD
+                    && isPure(binary.left) && isPure(binary.right);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,213 @@
+package io.dream.optimizer;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.scanner.Token;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Purity analysis of the Fonctions of a program
+ *
+ * A function is pure when its result depends only on its arguments and
+ * calling it has no visible effect, so a call can be answered from a cache:
+ * its parameters and result are atomic, it does no lire or ecrire, calls
+ * no procedure and no native, reads no global other than a constant,
+ * assigns only its parameters and locals, and calls only pure functions.
+ */
+public final class Purity extends Rewriter
+{
+    private final Set<String> constants;
+
+    // State of the function being analysed
+    private Statement.FunctionDeclaration function;
+    private final Set<String> callees = new HashSet<>();
+    private boolean pure;
+
+    private Purity(Set<String> constants)
+    {
+        this.constants = constants;
+    }
+
+    /**
+     * Get the names of the pure functions declared by a program
+     *
+     * @param statements the checked program
+     */
+    public static Set<String> pureFunctions(List<Statement> statements)
+    {
+        Set<String> constants = new HashSet<>();
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.ConstantDeclaration constant)
+            {
+                constants.add(constant.name.lexeme());
+            }
+        }
+
+        // Functions pure on their own, with the functions they call
+        Purity analysis = new Purity(constants);
+        Map<String, Set<String>> candidates = new HashMap<>();
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.FunctionDeclaration declaration)
+            {
+                Set<String> calls = analysis.analyse(declaration);
+                if (calls != null)
+                {
+                    candidates.put(declaration.name.lexeme(), calls);
+                }
+            }
+        }
+
+        // Then drop those calling a function that is not pure, until none is left
+        boolean changed = true;
+        while (changed)
+        {
+            changed = candidates.values().removeIf(calls -> !candidates.keySet().containsAll(calls));
+        }
+        return candidates.keySet();
+    }
+
+    /**
+     * Get the functions a function calls, or null when it is not pure on its own
+     */
+    private Set<String> analyse(Statement.FunctionDeclaration declaration)
+    {
+        if (!isAtomic(declaration.returnType)
+                || !declaration.parameters.stream().allMatch(parameter -> isAtomic(parameter.type)))
+        {
+            return null;
+        }
+
+        function = declaration;
+        callees.clear();
+        pure = true;
+        block(declaration.body);
+        return pure ? new HashSet<>(callees) : null;
+    }
+
+    private static boolean isAtomic(Type type)
+    {
+        return type == TypeFactory.INTEGER || type == TypeFactory.FLOATING || type == TypeFactory.BOOLEAN
+                || type == TypeFactory.CHAR || type == TypeFactory.STRING;
+    }
+
+    private boolean isLocal(Token name)
+    {
+        String lexeme = name.lexeme();
+        return function.localVariables.containsKey(lexeme)
+                || function.parameters.stream().anyMatch(parameter -> parameter.name.lexeme().equals(lexeme));
+    }
+
+    private void writes(Token name)
+    {
+        pure &= isLocal(name);
+    }
+
+    // ========================================================================
+    // STATEMENTS WITH EFFECTS
+    // ========================================================================
+
+    @Override
+    public Void visitWriteStatement(Statement.Write statement)
+    {
+        pure = false;
+        return null;
+    }
+
+    @Override
+    public Void visitReadStatement(Statement.Read statement)
+    {
+        pure = false;
+        return null;
+    }
+
+    @Override
+    public Void visitFieldReadStatement(Statement.FieldRead statement)
+    {
+        pure = false;
+        return null;
+    }
+
+    @Override
+    public Void visitArrayReadStatement(Statement.ArrayRead statement)
+    {
+        pure = false;
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
+    {
+        pure = false;
+        return null;
+    }
+
+    @Override
+    public Void visitMethodCallStatement(Statement.MethodCall statement)
+    {
+        pure = false;
+        return null;
+    }
+
+    @Override
+    public Void visitAssignmentStatement(Statement.Assignment statement)
+    {
+        writes(statement.name);
+        return super.visitAssignmentStatement(statement);
+    }
+
+    @Override
+    public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
+    {
+        writes(statement.arrayName);
+        return super.visitArrayAssignmentStatement(statement);
+    }
+
+    @Override
+    public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
+    {
+        writes(statement.objectName);
+        return super.visitFieldAssignmentStatement(statement);
+    }
+
+    @Override
+    public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
+    {
+        writes(statement.objectName);
+        return super.visitNestedFieldArrayAssignmentStatement(statement);
+    }
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        writes(statement.variable);
+        return super.visitForStatement(statement);
+    }
+
+    // ========================================================================
+    // EXPRESSIONS READING OUTSIDE THE FUNCTION
+    // ========================================================================
+
+    @Override
+    public Expression visitVariableExpression(Expression.Variable expression)
+    {
+        pure &= isLocal(expression.name) || constants.contains(expression.name.lexeme());
+        return expression;
+    }
+
+    @Override
+    public Expression visitCallExpression(Expression.Call expression)
+    {
+        // A native is no Fonction of the program, so its callers are dropped
+        callees.add(expression.name.lexeme());
+        return super.visitCallExpression(expression);
+    }
+}
@@ -0,0 +1,407 @@
+package io.dream.optimizer;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.types.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base of the optimizer passes
+ *
+ * The AST is immutable, so a pass rebuilds the program: this class visits
+ * every statement and expression and rebuilds a node only when one of its
+ * children changed, sharing the rest. A pass overrides the visits of the
+ * nodes it replaces; a statement visit emits zero or more statements into
+ * the block being rebuilt.
+ */
+abstract class Rewriter implements Expression.Visitor<Expression>, Statement.Visitor<Void>
+{
+    // Statements of the block being rebuilt
+    private List<Statement> output;
+
+    /**
+     * Rebuild a block of statements (null stays null)
+     */
+    protected List<Statement> block(List<Statement> statements)
+    {
+        if (statements == null)
+        {
+            return null;
+        }
+
+        List<Statement> enclosing = output;
+        output = new ArrayList<>(statements.size());
+        try
+        {
+            for (Statement statement : statements)
+            {
+                rewrite(statement);
+            }
+            return output;
+        }
+        finally
+        {
+            output = enclosing;
+        }
+    }
+
+    /**
+     * Rewrite one statement into the block being rebuilt
+     */
+    protected void rewrite(Statement statement)
+    {
+        statement.accept(this);
+    }
+
+    protected void emit(Statement statement)
+    {
+        output.add(statement);
+    }
+
+    protected void emitAll(List<Statement> statements)
+    {
+        if (statements != null)
+        {
+            output.addAll(statements);
+        }
+    }
+
+    /**
+     * Rewrite an expression (null stays null)
+     */
+    protected Expression rewrite(Expression expression)
+    {
+        return expression == null ? null : expression.accept(this);
+    }
+
+    protected List<Expression> rewriteAll(List<Expression> expressions)
+    {
+        List<Expression> rewritten = new ArrayList<>(expressions.size());
+        boolean changed = false;
+        for (Expression expression : expressions)
+        {
+            Expression result = rewrite(expression);
+            rewritten.add(result);
+            changed |= result != expression;
+        }
+        return changed ? rewritten : expressions;
+    }
+
+    /**
+     * Give a new expression the checked type of the one it replaces
+     */
+    protected static Expression typed(Expression expression, Expression original)
+    {
+        expression.setType(original.getType());
+        return expression;
+    }
+
+    /**
+     * Rebuild a call with new arguments, keeping its type and binding
+     */
+    protected static Expression called(Expression.Call original, List<Expression> arguments)
+    {
+        Expression.Call call = new Expression.Call(original.name, arguments);
+        if (original.isBound())
+        {
+            call.bind(original.getNativeFunction());
+        }
+        return typed(call, original);
+    }
+
+    /**
+     * Add a fresh variable to a scope, named $n so no program can spell it
+     */
+    protected static String temporary(Map<String, Type> scope, Type type)
+    {
+        int n = 0;
+        while (scope.containsKey("$" + n))
+        {
+            n++;
+        }
+        String name = "$" + n;
+        scope.put(name, type);
+        return name;
+    }
+
+    // ========================================================================
+    // STATEMENT VISITORS
+    // ========================================================================
+
+    @Override
+    public Void visitExpressionStmtStatement(Statement.ExpressionStmt statement)
+    {
+        Expression expression = rewrite(statement.expression);
+        emit(expression == statement.expression ? statement : new Statement.ExpressionStmt(expression));
+        return null;
+    }
+
+    @Override
+    public Void visitWriteStatement(Statement.Write statement)
+    {
+        Expression expression = rewrite(statement.expression);
+        emit(expression == statement.expression ? statement : new Statement.Write(expression));
+        return null;
+    }
+
+    @Override
+    public Void visitReadStatement(Statement.Read statement)
+    {
+        emit(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableDeclarationStatement(Statement.VariableDeclaration statement)
+    {
+        Expression value = rewrite(statement.value);
+        if (value == statement.value)
+        {
+            emit(statement);
+            return null;
+        }
+
+        Statement declaration = new Statement.VariableDeclaration(statement.name, value);
+        declaration.setType(statement.getType());
+        emit(declaration);
+        return null;
+    }
+
+    @Override
+    public Void visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
+    {
+        Expression value = rewrite(statement.value);
+        emit(value == statement.value ? statement : new Statement.ConstantDeclaration(statement.name, value, statement.type));
+        return null;
+    }
+
+    @Override
+    public Void visitAssignmentStatement(Statement.Assignment statement)
+    {
+        Expression value = rewrite(statement.value);
+        emit(value == statement.value ? statement : new Statement.Assignment(statement.name, value));
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(Statement.If statement)
+    {
+        Expression condition = rewrite(statement.condition);
+        emit(new Statement.If(condition, block(statement.thenBranch), block(statement.elseBranch)));
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        Expression condition = rewrite(statement.condition);
+        emit(new Statement.While(condition, block(statement.body)));
+        return null;
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        List<Statement> body = block(statement.body);
+        emit(new Statement.DoWhile(body, rewrite(statement.condition)));
+        return null;
+    }
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        Expression start = rewrite(statement.start);
+        Expression end = rewrite(statement.end);
+        Expression step = rewrite(statement.step);
+        emit(new Statement.For(statement.variable, start, end, step, block(statement.body), statement.parallel));
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        emit(new Statement.FunctionDeclaration(statement.name, statement.parameters, statement.returnType,
+                block(statement.body), statement.localVariables));
+        return null;
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        emit(new Statement.MethodDeclaration(statement.name, statement.parameters, block(statement.body),
+                statement.localVariables));
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStatement(Statement.Return statement)
+    {
+        Expression value = rewrite(statement.value);
+        emit(value == statement.value ? statement : new Statement.Return(statement.keyword, value));
+        return null;
+    }
+
+    @Override
+    public Void visitStructDeclarationStatement(Statement.StructDeclaration statement)
+    {
+        emit(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitMethodCallStatement(Statement.MethodCall statement)
+    {
+        List<Expression> arguments = rewriteAll(statement.arguments);
+        emit(arguments == statement.arguments ? statement : new Statement.MethodCall(statement.name, arguments));
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
+    {
+        Expression index = rewrite(statement.index);
+        Expression value = rewrite(statement.value);
+        emit(index == statement.index && value == statement.value
+                ? statement
+                : new Statement.ArrayAssignment(statement.arrayName, index, value));
+        return null;
+    }
+
+    @Override
+    public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
+    {
+        Expression value = rewrite(statement.value);
+        emit(value == statement.value
+                ? statement
+                : new Statement.FieldAssignment(statement.objectName, statement.fieldName, value));
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
+    {
+        Expression index = rewrite(statement.index);
+        Expression value = rewrite(statement.value);
+        emit(index == statement.index && value == statement.value
+                ? statement
+                : new Statement.NestedFieldArrayAssignment(statement.objectName, statement.fieldName, index, value));
+        return null;
+    }
+
+    @Override
+    public Void visitFieldReadStatement(Statement.FieldRead statement)
+    {
+        emit(statement);
+        return null;
+    }
+
+    @Override
+    public Void visitArrayReadStatement(Statement.ArrayRead statement)
+    {
+        Expression index = rewrite(statement.index);
+        emit(index == statement.index ? statement : new Statement.ArrayRead(statement.arrayName, index));
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
+    {
+        Expression index = rewrite(statement.index);
+        emit(index == statement.index
+                ? statement
+                : new Statement.NestedFieldArrayRead(statement.objectName, statement.fieldName, index));
+        return null;
+    }
+
+    // ========================================================================
+    // EXPRESSION VISITORS
+    // ========================================================================
+
+    @Override
+    public Expression visitBinaryExpression(Expression.Binary expression)
+    {
+        Expression left = rewrite(expression.left);
+        Expression right = rewrite(expression.right);
+        return left == expression.left && right == expression.right
+                ? expression
+                : typed(new Expression.Binary(left, expression.operator, right), expression);
+    }
+
+    @Override
+    public Expression visitGroupingExpression(Expression.Grouping expression)
+    {
+        Expression inner = rewrite(expression.expression);
+        return inner == expression.expression ? expression : typed(new Expression.Grouping(inner), expression);
+    }
+
+    @Override
+    public Expression visitUnaryExpression(Expression.Unary expression)
+    {
+        Expression right = rewrite(expression.right);
+        return right == expression.right
+                ? expression
+                : typed(new Expression.Unary(expression.operator, right), expression);
+    }
+
+    @Override
+    public Expression visitLiteralExpression(Expression.Literal expression)
+    {
+        return expression;
+    }
+
+    @Override
+    public Expression visitVariableExpression(Expression.Variable expression)
+    {
+        return expression;
+    }
+
+    @Override
+    public Expression visitLogicalExpression(Expression.Logical expression)
+    {
+        Expression left = rewrite(expression.left);
+        Expression right = rewrite(expression.right);
+        return left == expression.left && right == expression.right
+                ? expression
+                : typed(new Expression.Logical(left, expression.operator, right), expression);
+    }
+
+    @Override
+    public Expression visitCallExpression(Expression.Call expression)
+    {
+        List<Expression> arguments = rewriteAll(expression.arguments);
+        return arguments == expression.arguments
+                ? expression
+                : called(expression, arguments);
+    }
+
+    @Override
+    public Expression visitArrayAccessExpression(Expression.ArrayAccess expression)
+    {
+        Expression array = rewrite(expression.array);
+        Expression index = rewrite(expression.index);
+        return array == expression.array && index == expression.index
+                ? expression
+                : typed(new Expression.ArrayAccess(array, index), expression);
+    }
+
+    @Override
+    public Expression visitFieldAccessExpression(Expression.FieldAccess expression)
+    {
+        Expression object = rewrite(expression.object);
+        return object == expression.object
+                ? expression
+                : typed(new Expression.FieldAccess(object, expression.field), expression);
+    }
+
+    @Override
+    public Expression visitArrayLiteralExpression(Expression.ArrayLiteral expression)
+    {
+        List<Expression> elements = rewriteAll(expression.elements);
+        return elements == expression.elements
+                ? expression
+                : typed(new Expression.ArrayLiteral(elements), expression);
+    }
+}
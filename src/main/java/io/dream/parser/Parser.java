@@ -8,11 +8,12 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import io.dream.Main;
 import io.dream.ast.Expression;
 import io.dream.ast.Statement;
 import io.dream.config.Messages;
+import io.dream.error.ErrorReporter;
 import io.dream.scanner.Token;
+import io.dream.scanner.TokenSource;
 import io.dream.scanner.TokenType;
 import io.dream.types.*;
 
@@ -24,12 +25,17 @@ public class Parser
 {
     private static class ParseError extends RuntimeException {}
 
-    // Token list and current position
-    private final List<Token> tokens;
+    // Tokens are pulled from the source as needed; only a small window
+    // around the current position is kept (previous, current, lookahead)
+    private static final int WINDOW = 4;
+    private final TokenSource tokens;
+    private final Token[] window = new Token[WINDOW];
+    private int filled = 0;
+    private boolean exhausted = false;
     private int current = 0;
 
     // Symbol tables for different scopes
-    private final Map<String, Type> globalSymbolTable = new HashMap<>();
+    private final Map<String, Type> globalSymbolTable = new LinkedHashMap<>();
     private final Map<String, FunctionType> functionTable = new HashMap<>();
     private final Map<String, List<Statement.Parameter>> methodTable = new HashMap<>();
     private final Map<String, StructType> structTable = new HashMap<>();
@@ -38,15 +44,34 @@ public class Parser
     // Current scope for variables (for nested scopes in functions)
     private Map<String, Type> currentScope;
 
+    // Where syntax errors go
+    private ErrorReporter reporter = ErrorReporter.MAIN;
+
     /**
      * Instantiates a new Parser.
      */
     public Parser(List<Token> tokens)
+    {
+        this(TokenSource.of(tokens));
+    }
+
+    /**
+     * Instantiates a new Parser reading tokens lazily from a source.
+     */
+    public Parser(TokenSource tokens)
     {
         this.tokens = tokens;
         this.currentScope = globalSymbolTable;
     }
 
+    /**
+     * Send the syntax errors somewhere else than the command line
+     */
+    public void setReporter(ErrorReporter reporter)
+    {
+        this.reporter = reporter;
+    }
+
     /**
      * Parse the complete program
      */
@@ -238,7 +263,7 @@ public class Parser
 
         // Create new scope for function
         Map<String, Type> previousScope = currentScope;
-        currentScope = new HashMap<>();
+        currentScope = new LinkedHashMap<>();
 
         // Add parameters to function scope
         for (Statement.Parameter param : parameters)
@@ -259,7 +284,7 @@ public class Parser
         consume(SEMICOLON, Messages.expectSemicolon("function declaration"));
 
         // Capture local variables (excluding parameters)
-        Map<String, Type> localVars = new HashMap<>(currentScope);
+        Map<String, Type> localVars = new LinkedHashMap<>(currentScope);
         for (Statement.Parameter param : parameters)
         {
             localVars.remove(param.name.lexeme());
@@ -312,7 +337,7 @@ public class Parser
 
         // Create new scope for method
         Map<String, Type> previousScope = currentScope;
-        currentScope = new HashMap<>();
+        currentScope = new LinkedHashMap<>();
 
         // Add parameters to method scope
         for (Statement.Parameter param : parameters)
@@ -333,7 +358,7 @@ public class Parser
         consume(SEMICOLON, Messages.expectSemicolon("method declaration"));
 
         // Capture local variables (excluding parameters)
-        Map<String, Type> localVars = new HashMap<>(currentScope);
+        Map<String, Type> localVars = new LinkedHashMap<>(currentScope);
         for (Statement.Parameter param : parameters)
         {
             localVars.remove(param.name.lexeme());
@@ -530,10 +555,16 @@ public class Parser
             return doWhileStatement();
         }
 
-        // For loop
+        // For loop, "pour parallele" or "parallel for" when its iterations are independent
         if (match(FOR))
         {
-            return forStatement();
+            return forStatement(match(PARALLEL));
+        }
+        if (match(PARALLEL))
+        {
+            consume(FOR, Messages.expectAfter(previous().lexeme().equals("parallel") ? "for" : "pour",
+                    previous().lexeme()));
+            return forStatement(true);
         }
 
         // Check if it's an assignment or method call
@@ -558,7 +589,9 @@ public class Parser
                     {
                         // Treat as expression statement (function call)
                         // This handles built-in functions like writeLine, close, etc.
-                        return new Statement.ExpressionStmt(expression());
+                        Expression call = expression();
+                        consume(SEMICOLON, Messages.expectSemicolon("function call"));
+                        return new Statement.ExpressionStmt(call);
                     }
                 }
 
@@ -885,14 +918,14 @@ public class Parser
     }
 
     /**
-     * for_stmt -> ("pour" | "for") IDENTIFIER "<-" expression
+     * for_stmt -> (("pour" "parallele"?) | ("parallel"? "for")) IDENTIFIER "<-" expression
      *             ("jusqu_a" | "unti") expression
      *             (("pas" | "step") expression)?
      *             ("faire" | "do") ":"
      *             statement*
      *             ("finpour" | "endfor")
      */
-    private Statement forStatement()
+    private Statement forStatement(boolean parallel)
     {
         Token variable = consume(IDENTIFIER, Messages.expectVariableName());
         consume(ASSIGN, Messages.expectAssignOperator());
@@ -922,7 +955,7 @@ public class Parser
 
         consume(ENDFOR, Messages.expectEndForBlock());
 
-        return new Statement.For(variable, start, end, step, body);
+        return new Statement.For(variable, start, end, step, body, parallel);
     }
 
     /**
@@ -1183,7 +1216,7 @@ public class Parser
      */
     private ParseError error(Token token, String message)
     {
-        Main.error(token, message);
+        reporter.error(token, message);
         return new ParseError();
     }
 
@@ -1247,7 +1280,7 @@ public class Parser
      */
     private Token peek()
     {
-        return tokens.get(current);
+        return tokenAt(current);
     }
 
     /**
@@ -1255,7 +1288,7 @@ public class Parser
      */
     private Token previous()
     {
-        return tokens.get(current - 1);
+        return tokenAt(current - 1);
     }
 
     /**
@@ -1263,9 +1296,32 @@ public class Parser
      */
     private Token peekAhead(int n)
     {
-        int index = current + n;
-        if (index >= tokens.size()) return null;
-        return tokens.get(index);
+        return tokenAt(current + n);
+    }
+
+    /**
+     * Get the token at a position, pulling it from the source if needed
+     * Returns null past the end of the tokens.
+     */
+    private Token tokenAt(int index)
+    {
+        while (filled <= index && !exhausted)
+        {
+            Token token = tokens.next();
+            if (token == null)
+            {
+                exhausted = true;
+            }
+            else
+            {
+                window[filled++ % WINDOW] = token;
+            }
+        }
+        if (index >= filled)
+        {
+            return null;
+        }
+        return window[index % WINDOW];
     }
 
     /**
@@ -0,0 +1,434 @@
+package io.dream.resolver;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.environment.FrameLayout;
+import io.dream.scanner.Token;
+import io.dream.types.StructType;
+import io.dream.types.Type;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static resolution pass for AlgoLang, run after the Checker
+ * Gives every global, parameter and local a fixed (depth, slot) coordinate
+ * and stores it on the AST nodes that read or write it, so the Interpreter
+ * can index frames directly instead of looking names up.
+ *
+ * Globals take their slots in the order the Interpreter defines them:
+ * the global symbol table first, then constants in program order.
+ * Function and method frames hold parameters first, then local variables.
+ */
+public class Resolver implements Expression.Visitor<Void>, Statement.Visitor<Void>
+{
+    private final FrameLayout globals = new FrameLayout();
+
+    // Frame of the function or method being resolved (null in the main block)
+    private FrameLayout currentFrame = null;
+
+    public Resolver(Map<String, Type> globalSymbolTable)
+    {
+        for (Map.Entry<String, Type> entry : globalSymbolTable.entrySet())
+        {
+            globals.add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Resolve a whole program
+     */
+    public void resolve(List<Statement> statements)
+    {
+        // Constants are defined as globals when their declaration runs,
+        // reserve their slots before resolving any use
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.ConstantDeclaration constant)
+            {
+                globals.add(constant.name.lexeme(), constant.value.getType());
+            }
+        }
+
+        resolveBlock(statements);
+    }
+
+    /**
+     * Get the layout of the global frame
+     */
+    public FrameLayout getGlobalLayout()
+    {
+        return globals;
+    }
+
+    private void resolve(Statement statement)
+    {
+        statement.accept(this);
+    }
+
+    private void resolveBlock(List<Statement> statements)
+    {
+        for (Statement statement : statements)
+        {
+            resolve(statement);
+        }
+    }
+
+    private void resolve(Expression expression)
+    {
+        if (expression != null)
+        {
+            expression.accept(this);
+        }
+    }
+
+    private void resolveAll(List<Expression> expressions)
+    {
+        for (Expression expression : expressions)
+        {
+            resolve(expression);
+        }
+    }
+
+    /**
+     * Bind a statement to the frame slot of the variable it targets
+     */
+    private void bind(Statement statement, Token name)
+    {
+        String lexeme = name.lexeme();
+
+        if (currentFrame != null)
+        {
+            int slot = currentFrame.slotOf(lexeme);
+            if (slot >= 0)
+            {
+                statement.resolve(0, slot);
+                return;
+            }
+        }
+
+        int slot = globals.slotOf(lexeme);
+        if (slot >= 0)
+        {
+            statement.resolve(currentFrame != null ? 1 : 0, slot);
+        }
+    }
+
+    /**
+     * Bind a statement to the index of the structure field it targets
+     * (the statement must already be bound to its variable)
+     */
+    private void bindField(Statement statement, Token field)
+    {
+        if (statement.getSlot() < 0)
+        {
+            return;
+        }
+
+        FrameLayout frame = statement.getDepth() == 0 && currentFrame != null ? currentFrame : globals;
+        if (frame.typeAt(statement.getSlot()) instanceof StructType struct)
+        {
+            statement.bindField(struct.indexOf(field.lexeme()));
+        }
+    }
+
+    /**
+     * Create the frame layout of a function or method
+     */
+    private FrameLayout frameOf(List<Statement.Parameter> parameters, Map<String, Type> localVariables)
+    {
+        FrameLayout layout = new FrameLayout();
+        for (Statement.Parameter parameter : parameters)
+        {
+            layout.add(parameter.name.lexeme(), parameter.type);
+        }
+        for (Map.Entry<String, Type> local : localVariables.entrySet())
+        {
+            layout.add(local.getKey(), local.getValue());
+        }
+        return layout;
+    }
+
+    // ========================================================================
+    // STATEMENT VISITORS
+    // ========================================================================
+
+    @Override
+    public Void visitExpressionStmtStatement(Statement.ExpressionStmt statement)
+    {
+        resolve(statement.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitWriteStatement(Statement.Write statement)
+    {
+        resolve(statement.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitReadStatement(Statement.Read statement)
+    {
+        bind(statement, statement.variable);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableDeclarationStatement(Statement.VariableDeclaration statement)
+    {
+        resolve(statement.value);
+        bind(statement, statement.name);
+        return null;
+    }
+
+    @Override
+    public Void visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
+    {
+        resolve(statement.value);
+        bind(statement, statement.name);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignmentStatement(Statement.Assignment statement)
+    {
+        resolve(statement.value);
+        bind(statement, statement.name);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(Statement.If statement)
+    {
+        resolve(statement.condition);
+        resolveBlock(statement.thenBranch);
+        if (statement.elseBranch != null)
+        {
+            resolveBlock(statement.elseBranch);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        resolve(statement.condition);
+        resolveBlock(statement.body);
+        return null;
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        resolveBlock(statement.body);
+        resolve(statement.condition);
+        return null;
+    }
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        bind(statement, statement.variable);
+        resolve(statement.start);
+        resolve(statement.end);
+        resolve(statement.step);
+        resolveBlock(statement.body);
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        FrameLayout enclosing = currentFrame;
+        currentFrame = frameOf(statement.parameters, statement.localVariables);
+        statement.setLayout(currentFrame);
+
+        resolveBlock(statement.body);
+
+        currentFrame = enclosing;
+        return null;
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        FrameLayout enclosing = currentFrame;
+        currentFrame = frameOf(statement.parameters, statement.localVariables);
+        statement.setLayout(currentFrame);
+
+        resolveBlock(statement.body);
+
+        currentFrame = enclosing;
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStatement(Statement.Return statement)
+    {
+        resolve(statement.value);
+        return null;
+    }
+
+    @Override
+    public Void visitStructDeclarationStatement(Statement.StructDeclaration statement)
+    {
+        return null;
+    }
+
+    @Override
+    public Void visitMethodCallStatement(Statement.MethodCall statement)
+    {
+        resolveAll(statement.arguments);
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
+    {
+        resolve(statement.index);
+        resolve(statement.value);
+        bind(statement, statement.arrayName);
+        return null;
+    }
+
+    @Override
+    public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
+    {
+        resolve(statement.value);
+        bind(statement, statement.objectName);
+        bindField(statement, statement.fieldName);
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
+    {
+        resolve(statement.index);
+        resolve(statement.value);
+        bind(statement, statement.objectName);
+        bindField(statement, statement.fieldName);
+        return null;
+    }
+
+    @Override
+    public Void visitFieldReadStatement(Statement.FieldRead statement)
+    {
+        bind(statement, statement.objectName);
+        bindField(statement, statement.fieldName);
+        return null;
+    }
+
+    @Override
+    public Void visitArrayReadStatement(Statement.ArrayRead statement)
+    {
+        resolve(statement.index);
+        bind(statement, statement.arrayName);
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
+    {
+        resolve(statement.index);
+        bind(statement, statement.objectName);
+        bindField(statement, statement.fieldName);
+        return null;
+    }
+
+    // ========================================================================
+    // EXPRESSION VISITORS
+    // ========================================================================
+
+    @Override
+    public Void visitBinaryExpression(Expression.Binary expression)
+    {
+        resolve(expression.left);
+        resolve(expression.right);
+        return null;
+    }
+
+    @Override
+    public Void visitGroupingExpression(Expression.Grouping expression)
+    {
+        resolve(expression.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpression(Expression.Unary expression)
+    {
+        resolve(expression.right);
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpression(Expression.Literal expression)
+    {
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpression(Expression.Variable expression)
+    {
+        String lexeme = expression.name.lexeme();
+
+        if (currentFrame != null)
+        {
+            int slot = currentFrame.slotOf(lexeme);
+            if (slot >= 0)
+            {
+                expression.resolve(0, slot);
+                return null;
+            }
+        }
+
+        int slot = globals.slotOf(lexeme);
+        if (slot >= 0)
+        {
+            expression.resolve(currentFrame != null ? 1 : 0, slot);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpression(Expression.Logical expression)
+    {
+        resolve(expression.left);
+        resolve(expression.right);
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpression(Expression.Call expression)
+    {
+        resolveAll(expression.arguments);
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAccessExpression(Expression.ArrayAccess expression)
+    {
+        resolve(expression.array);
+        resolve(expression.index);
+        return null;
+    }
+
+    @Override
+    public Void visitFieldAccessExpression(Expression.FieldAccess expression)
+    {
+        resolve(expression.object);
+        if (expression.object.getType() instanceof StructType struct)
+        {
+            expression.bindField(struct.indexOf(expression.field.lexeme()));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitArrayLiteralExpression(Expression.ArrayLiteral expression)
+    {
+        resolveAll(expression.elements);
+        return null;
+    }
+}
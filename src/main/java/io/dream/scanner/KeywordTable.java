@@ -0,0 +1,189 @@
+package io.dream.scanner;
+
+import io.dream.config.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyword lookup table of one language, built once from the Config tables
+ *
+ * Single-word keywords sit in an open table whose hash seed is chosen so
+ * that no two keywords share a bucket (a perfect hash), so a lookup hashes
+ * the word in place in the source and compares at most one candidate.
+ * Multi-word keywords ("sinon si", "else if") hang off their first word.
+ */
+final class KeywordTable
+{
+    static final KeywordTable FRENCH = new KeywordTable(Config.keywordsFrench());
+    static final KeywordTable ENGLISH = new KeywordTable(Config.keywordsEnglish());
+
+    private static final int MAX_SEED = 1 << 16;
+
+    private final String[] words;
+    private final TokenType[] types;
+    private final String[][] nextWords;
+    private final TokenType[][] nextTypes;
+    private final int mask;
+    private final int seed;
+
+    private KeywordTable(Map<String, TokenType> keywords)
+    {
+        List<String> single = new ArrayList<>();
+        for (String keyword : keywords.keySet())
+        {
+            if (keyword.indexOf(' ') < 0)
+            {
+                single.add(keyword);
+            }
+        }
+
+        // Grow the table until some seed places every keyword in its own bucket
+        int size = Integer.highestOneBit(Math.max(single.size(), 1) * 4 - 1) << 1;
+        int found = -1;
+        while (found < 0)
+        {
+            found = findSeed(single, size - 1);
+            if (found < 0)
+            {
+                size <<= 1;
+            }
+        }
+        this.mask = size - 1;
+        this.seed = found;
+
+        this.words = new String[size];
+        this.types = new TokenType[size];
+        this.nextWords = new String[size][];
+        this.nextTypes = new TokenType[size][];
+        for (String word : single)
+        {
+            int bucket = hash(seed, word, 0, word.length()) & mask;
+            words[bucket] = word;
+            types[bucket] = keywords.get(word);
+        }
+
+        // A multi-word keyword is only recognized after a keyword, as before
+        for (Map.Entry<String, TokenType> keyword : keywords.entrySet())
+        {
+            int space = keyword.getKey().indexOf(' ');
+            if (space < 0)
+            {
+                continue;
+            }
+            String first = keyword.getKey().substring(0, space);
+            String second = keyword.getKey().substring(space + 1);
+            int bucket = hash(seed, first, 0, first.length()) & mask;
+            if (first.equals(words[bucket]))
+            {
+                nextWords[bucket] = append(nextWords[bucket], second);
+                nextTypes[bucket] = append(nextTypes[bucket], keyword.getValue());
+            }
+        }
+    }
+
+    private static int findSeed(List<String> words, int mask)
+    {
+        for (int candidate = 1; candidate < MAX_SEED; candidate++)
+        {
+            boolean[] used = new boolean[mask + 1];
+            boolean perfect = true;
+            for (String word : words)
+            {
+                int bucket = hash(candidate, word, 0, word.length()) & mask;
+                if (used[bucket])
+                {
+                    perfect = false;
+                    break;
+                }
+                used[bucket] = true;
+            }
+            if (perfect)
+            {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(int seed, String source, int start, int end)
+    {
+        int h = seed;
+        for (int i = start; i < end; i++)
+        {
+            h = h * 31 + source.charAt(i);
+        }
+        return h ^ (h >>> 15);
+    }
+
+    private static int hash(int seed, SourceBuffer source, int start, int end)
+    {
+        int h = source.hash(seed, start, end);
+        return h ^ (h >>> 15);
+    }
+
+    /**
+     * Find the keyword spelled by source[start, end), or -1
+     */
+    int lookup(SourceBuffer source, int start, int end)
+    {
+        int bucket = hash(seed, source, start, end) & mask;
+        String word = words[bucket];
+        if (word != null && source.matches(start, end, word))
+        {
+            return bucket;
+        }
+        return -1;
+    }
+
+    TokenType type(int keyword)
+    {
+        return types[keyword];
+    }
+
+    /**
+     * The keyword's own spelling, shared by every token of that keyword
+     */
+    String word(int keyword)
+    {
+        return words[keyword];
+    }
+
+    /**
+     * Type of the multi-word keyword made of this keyword followed by
+     * source[start, end), or null
+     */
+    TokenType next(int keyword, SourceBuffer source, int start, int end)
+    {
+        String[] candidates = nextWords[keyword];
+        if (candidates == null)
+        {
+            return null;
+        }
+        for (int i = 0; i < candidates.length; i++)
+        {
+            String word = candidates[i];
+            if (source.matches(start, end, word))
+            {
+                return nextTypes[keyword][i];
+            }
+        }
+        return null;
+    }
+
+    private static String[] append(String[] array, String value)
+    {
+        String[] result = array == null ? new String[1] : Arrays.copyOf(array, array.length + 1);
+        result[result.length - 1] = value;
+        return result;
+    }
+
+    private static TokenType[] append(TokenType[] array, TokenType value)
+    {
+        TokenType[] result = array == null ? new TokenType[1] : Arrays.copyOf(array, array.length + 1);
+        result[result.length - 1] = value;
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+package io.dream.scanner;
+
+/**
+ * Interning table for lexemes
+ * Looks a lexeme up directly over its range in the source, so a name or
+ * operator seen before costs no new String; only the first occurrence of
+ * each spelling is copied out of the source.
+ */
+final class Lexemes
+{
+    private static final int INITIAL_CAPACITY = 256;
+
+    private String[] strings = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Get the interned String for source[start, end)
+     */
+    String intern(SourceBuffer source, int start, int end)
+    {
+        int h = source.hash(0, start, end);
+
+        int mask = strings.length - 1;
+        int index = (h ^ (h >>> 16)) & mask;
+        while (strings[index] != null)
+        {
+            String candidate = strings[index];
+            if (hashes[index] == h && source.matches(start, end, candidate))
+            {
+                return candidate;
+            }
+            index = (index + 1) & mask;
+        }
+
+        String lexeme = source.text(start, end);
+        strings[index] = lexeme;
+        hashes[index] = h;
+        if (++size * 2 > strings.length)
+        {
+            grow();
+        }
+        return lexeme;
+    }
+
+    private void grow()
+    {
+        String[] oldStrings = strings;
+        int[] oldHashes = hashes;
+        strings = new String[oldStrings.length * 2];
+        hashes = new int[oldStrings.length * 2];
+
+        int mask = strings.length - 1;
+        for (int i = 0; i < oldStrings.length; i++)
+        {
+            if (oldStrings[i] != null)
+            {
+                int index = (oldHashes[i] ^ (oldHashes[i] >>> 16)) & mask;
+                while (strings[index] != null)
+                {
+                    index = (index + 1) & mask;
+                }
+                strings[index] = oldStrings[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+}
@@ -2,13 +2,15 @@ package io.dream.scanner;
 
 import static io.dream.scanner.TokenType.*;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import io.dream.Main;
 import io.dream.config.Config;
 import io.dream.config.Messages;
+import io.dream.error.ErrorReporter;
 import io.dream.types.AtomicTypes;
 import io.dream.types.AtomicValue;
 import io.dream.types.Value;
@@ -17,14 +19,19 @@ import io.dream.types.Value;
  * Scanner/Lexer for AlgoLang
  * Supports all language features including loops, functions, methods, structures, arrays
  */
-public class Scanner
+public class Scanner implements TokenSource
 {
-    protected final String source;
+    private final SourceBuffer source;
     protected final List<Token> tokens;
+    private final Lexemes lexemes = new Lexemes();
 
     protected int start = 0;
     protected int current = 0;
     protected int line = 1;
+    private boolean finished = false;
+
+    // Where lexical errors go
+    private ErrorReporter reporter = ErrorReporter.MAIN;
 
     /**
      * Instantiates a new Scanner.
@@ -33,10 +40,33 @@ public class Scanner
      */
     public Scanner(String source)
     {
-        this.source = source;
+        this.source = new SourceBuffer(source);
+        this.tokens = new ArrayList<>();
+    }
+
+    /**
+     * Instantiates a Scanner decoding a source file through a memory mapping.
+     * Use it as a TokenSource so that tokens are produced as the parser asks
+     * for them; the channel must stay open until then.
+     *
+     * @param channel the source file, opened for reading
+     * @param charset the encoding of the file
+     * @throws IOException if the file cannot be mapped
+     */
+    public Scanner(FileChannel channel, Charset charset) throws IOException
+    {
+        this.source = new SourceBuffer(channel, charset);
         this.tokens = new ArrayList<>();
     }
 
+    /**
+     * Send the lexical errors somewhere else than the command line
+     */
+    public void setReporter(ErrorReporter reporter)
+    {
+        this.reporter = reporter;
+    }
+
     /**
      * Scan the source code to produce a tokens list.
      *
@@ -48,6 +78,7 @@ public class Scanner
         {
             // start over to the next token
             this.start = this.current;
+            this.source.release(this.start);
 
             this.scanToken();
         }
@@ -57,6 +88,34 @@ public class Scanner
         return this.tokens;
     }
 
+    /**
+     * Scan just enough of the source to produce the next token.
+     * Tokens handed out this way are not kept by the scanner.
+     *
+     * @return the next token, EOF at the end, then null
+     */
+    @Override
+    public Token next()
+    {
+        while (this.tokens.isEmpty())
+        {
+            if (this.isAtEnd())
+            {
+                if (this.finished)
+                {
+                    return null;
+                }
+                this.finished = true;
+                return new Token(EOF, "nil", null, this.line);
+            }
+
+            this.start = this.current;
+            this.source.release(this.start);
+            this.scanToken();
+        }
+        return this.tokens.remove(0);
+    }
+
     /**
      * This function scan a single token and adds it to the tokens list
      */
@@ -74,7 +133,7 @@ public class Scanner
                     break;
                 } else
                 {
-                    Main.error(line, Messages.wrongDecimalSeparatorEnglish());
+                    reporter.error(line, Messages.wrongDecimalSeparatorEnglish());
                     break;
                 }
             }
@@ -224,7 +283,7 @@ public class Scanner
                 }
                 else
                 {
-                    Main.error(line, Messages.unsupportedCharacter());
+                    reporter.error(line, Messages.unsupportedCharacter());
                     break;
                 }
         }
@@ -254,70 +313,49 @@ public class Scanner
         }
 
         // If we reach here, comment was not closed
-        Main.error(line, Messages.unterminatedComment());
+        reporter.error(line, Messages.unterminatedComment());
     }
 
     /**
      * Scan an identifier or keyword
+     * Keywords are matched in place over the source, identifiers are interned
      */
     protected void identifier()
     {
         while (this.isAlphaNumeric(this.peek())) advance();
 
-        String text = this.source.substring(this.start, this.current);
-        Map<String, TokenType> keywords = Config.getLanguage() ? Config.keywordsFrench() : Config.keywordsEnglish();
-
-        // Check for multi-word keywords like "sinon si" or "else if"
-        // Peek ahead to see if this could be part of a multi-word keyword
-        if (keywords.containsKey(text))
+        KeywordTable keywords = Config.getLanguage() ? KeywordTable.FRENCH : KeywordTable.ENGLISH;
+        int keyword = keywords.lookup(this.source, this.start, this.current);
+        if (keyword < 0)
         {
-            // Check if this might be the start of a multi-word keyword
-            String potentialMultiWord = text + " " + peekWord();
-            if (keywords.containsKey(potentialMultiWord))
-            {
-                // Consume the whitespace
-                while (peek() == ' ' || peek() == '\t') advance();
-                // Consume the next word
-                while (isAlphaNumeric(peek())) advance();
-                TokenType type = keywords.get(potentialMultiWord);
-                this.addToken(type);
-                return;
-            }
+            this.addToken(IDENTIFIER);
+            return;
         }
 
-        TokenType relatedTokenTypeToText = keywords.get(text);
-        if (relatedTokenTypeToText == null) relatedTokenTypeToText = IDENTIFIER;
-
-        this.addToken(relatedTokenTypeToText);
-    }
-
-    /**
-     * Peek at the next word without consuming it
-     */
-    protected String peekWord()
-    {
-        int savedCurrent = this.current;
-
-        // Skip whitespace
-        while (savedCurrent < source.length() &&
-                (source.charAt(savedCurrent) == ' ' || source.charAt(savedCurrent) == '\t'))
+        // Check for multi-word keywords like "sinon si" or "else if"
+        int wordStart = this.current;
+        while (source.charAt(wordStart) == ' ' || source.charAt(wordStart) == '\t')
         {
-            savedCurrent++;
+            wordStart++;
         }
-
-        // Get the word
-        int wordStart = savedCurrent;
-        while (savedCurrent < source.length() && isAlphaNumeric(source.charAt(savedCurrent)))
+        int wordEnd = wordStart;
+        while (isAlphaNumeric(source.charAt(wordEnd)))
         {
-            savedCurrent++;
+            wordEnd++;
         }
 
-        if (savedCurrent > wordStart)
+        TokenType multiWord = wordEnd > wordStart
+                ? keywords.next(keyword, this.source, wordStart, wordEnd)
+                : null;
+        if (multiWord != null)
         {
-            return source.substring(wordStart, savedCurrent);
+            // Consume the whitespace and the next word
+            this.current = wordEnd;
+            this.addToken(multiWord);
+            return;
         }
 
-        return "";
+        this.tokens.add(new Token(keywords.type(keyword), keywords.word(keyword), null, this.line));
     }
 
     /**
@@ -342,16 +380,35 @@ public class Scanner
         if (isDecimal)
         {
             String numberStr = Config.getLanguage() ?
-                    this.source.substring(this.start, this.current).replace(',', '.') :
-                    this.source.substring(this.start, this.current);
+                    this.source.text(this.start, this.current).replace(',', '.') :
+                    this.source.text(this.start, this.current);
             double doubleValue = Double.parseDouble(numberStr);
             this.addToken(DOUBLE_LITERAL, new AtomicValue<Double>(doubleValue, AtomicTypes.FLOATING));
         }
         else
         {
-            int integerValue = Integer.parseInt(this.source.substring(this.start, this.current));
-            this.addToken(INTEGER_LITERAL, new AtomicValue<Integer>(integerValue, AtomicTypes.INTEGER));
+            this.addToken(INTEGER_LITERAL, new AtomicValue<Integer>(integerValue(), AtomicTypes.INTEGER));
+        }
+    }
+
+    /**
+     * Value of the integer literal source[start, current)
+     * (digits are accumulated in place; long literals go through parseInt
+     * so that overflow is still reported)
+     */
+    private int integerValue()
+    {
+        if (this.current - this.start > 9)
+        {
+            return Integer.parseInt(this.source.text(this.start, this.current));
+        }
+
+        int value = 0;
+        for (int i = this.start; i < this.current; i++)
+        {
+            value = value * 10 + (this.source.charAt(i) - '0');
         }
+        return value;
     }
 
     /**
@@ -370,13 +427,13 @@ public class Scanner
 
         if (this.isAtEnd())
         {
-            Main.error(line, Messages.unterminatedString());
+            reporter.error(line, Messages.unterminatedString());
             return;
         }
 
         // Consume the closing "
         this.advance();
-        String string = this.source.substring(start + 1, current - 1);
+        String string = this.source.text(start + 1, current - 1);
         this.addToken(STRING_LITERAL, new AtomicValue<>(string, AtomicTypes.STRING));
     }
 
@@ -387,7 +444,7 @@ public class Scanner
     {
         if (this.isAtEnd())
         {
-            Main.error(line, Messages.unterminatedCharacter());
+            reporter.error(line, Messages.unterminatedCharacter());
             return;
         }
 
@@ -397,7 +454,7 @@ public class Scanner
         // Check for closing quote
         if (this.peek() != '\'')
         {
-            Main.error(line, Messages.characterMustBeOne());
+            reporter.error(line, Messages.characterMustBeOne());
             return;
         }
 
@@ -413,7 +470,6 @@ public class Scanner
      */
     protected char peek()
     {
-        if (this.isAtEnd()) return '\0';
         return this.source.charAt(this.current);
     }
 
@@ -422,7 +478,6 @@ public class Scanner
      */
     protected char peekNext()
     {
-        if (this.current + 1 >= this.source.length()) return '\0';
         return this.source.charAt(this.current + 1);
     }
 
@@ -431,7 +486,7 @@ public class Scanner
      */
     protected boolean isAtEnd()
     {
-        return this.current >= this.source.length();
+        return !this.source.has(this.current);
     }
 
     /**
@@ -439,7 +494,7 @@ public class Scanner
      */
     protected void addToken(TokenType type, Value literal)
     {
-        String text = this.source.substring(this.start, this.current);
+        String text = this.lexemes.intern(this.source, this.start, this.current);
         this.tokens.add(new Token(type, text, literal, this.line));
     }
 
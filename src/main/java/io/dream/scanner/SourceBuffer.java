@@ -0,0 +1,184 @@
+package io.dream.scanner;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * Characters of the source seen by the Scanner, addressed by absolute index
+ *
+ * A String source is held whole. A file source is decoded on demand from a
+ * memory-mapped region of the file into a small window: characters before
+ * the token being scanned are dropped, so the window only grows with the
+ * longest token, not with the file.
+ */
+final class SourceBuffer
+{
+    private static final int CHUNK = 8192;
+    private static final long REGION = 64L << 20;
+
+    private char[] chars;
+    private int base;       // absolute index of chars[0]
+    private int end;        // absolute index one past the last decoded char
+    private int keep;       // characters before this index may be dropped
+
+    // Mapped input, null for a String source
+    private final FileChannel channel;
+    private final CharsetDecoder decoder;
+    private final long size;
+    private MappedByteBuffer bytes;
+    private long position;  // file offset of the mapped region
+    private boolean drained;
+
+    SourceBuffer(String text)
+    {
+        this.chars = text.toCharArray();
+        this.end = chars.length;
+        this.channel = null;
+        this.decoder = null;
+        this.size = 0;
+        this.drained = true;
+    }
+
+    SourceBuffer(FileChannel channel, Charset charset) throws IOException
+    {
+        this.chars = new char[CHUNK];
+        this.channel = channel;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.size = channel.size();
+        this.bytes = map(0);
+    }
+
+    private MappedByteBuffer map(long offset) throws IOException
+    {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(REGION, size - offset));
+    }
+
+    /**
+     * Whether there is a character at an index
+     */
+    boolean has(int index)
+    {
+        return index < end || fill(index);
+    }
+
+    /**
+     * Character at an index, or '\0' past the end of the source
+     */
+    char charAt(int index)
+    {
+        if (index < end)
+        {
+            return chars[index - base];
+        }
+        return fill(index) ? chars[index - base] : '\0';
+    }
+
+    /**
+     * Allow the characters before an index to be dropped
+     */
+    void release(int index)
+    {
+        keep = index;
+    }
+
+    String text(int start, int end)
+    {
+        return new String(chars, start - base, end - start);
+    }
+
+    /**
+     * Polynomial hash (h * 31 + c) of source[start, end), starting from h
+     */
+    int hash(int h, int start, int end)
+    {
+        for (int i = start - base; i < end - base; i++)
+        {
+            h = h * 31 + chars[i];
+        }
+        return h;
+    }
+
+    /**
+     * Whether source[start, end) spells the word
+     */
+    boolean matches(int start, int end, String word)
+    {
+        if (word.length() != end - start)
+        {
+            return false;
+        }
+        int offset = start - base;
+        for (int i = 0; i < word.length(); i++)
+        {
+            if (chars[offset + i] != word.charAt(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fill(int index)
+    {
+        try
+        {
+            while (end <= index)
+            {
+                if (drained)
+                {
+                    return false;
+                }
+                decode();
+            }
+            return true;
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void decode() throws IOException
+    {
+        // Drop what the scanner is done with, then make room for a chunk
+        int dropped = keep - base;
+        if (dropped > 0)
+        {
+            System.arraycopy(chars, dropped, chars, 0, end - keep);
+            base = keep;
+        }
+        int used = end - base;
+        if (chars.length - used < CHUNK)
+        {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, used + CHUNK));
+        }
+
+        CharBuffer out = CharBuffer.wrap(chars, used, chars.length - used);
+        boolean last = position + bytes.limit() >= size;
+        CoderResult result = decoder.decode(bytes, out, last);
+        if (result.isUnderflow())
+        {
+            if (last)
+            {
+                decoder.flush(out);
+                drained = true;
+            }
+            else
+            {
+                // Continue after the bytes decoded so far (a split character is decoded again)
+                position += bytes.position();
+                bytes = map(position);
+            }
+        }
+        end = base + out.position();
+    }
+}
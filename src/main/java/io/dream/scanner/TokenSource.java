@@ -0,0 +1,25 @@
+package io.dream.scanner;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pull-based supply of tokens for the Parser
+ * The last token supplied is EOF; after it next returns null.
+ */
+public interface TokenSource
+{
+    /**
+     * Get the next token, or null once the EOF token has been supplied
+     */
+    Token next();
+
+    /**
+     * Supply the tokens of an already scanned list
+     */
+    static TokenSource of(List<Token> tokens)
+    {
+        Iterator<Token> iterator = tokens.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+}
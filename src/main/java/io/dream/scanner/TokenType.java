@@ -50,7 +50,7 @@ public enum TokenType
 
     // Control flow keywords
     IF, THEN, ELSE, ELSEIF, ENDIF,
-    FOR, TO, STEP, ENDFOR,
+    FOR, TO, STEP, ENDFOR, PARALLEL,
     WHILE, DO, ENDWHILE,
     REPEAT, UNTIL,
 
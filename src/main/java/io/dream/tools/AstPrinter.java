@@ -1,18 +1,38 @@
 package io.dream.tools;
 
 import io.dream.ast.Expression;
+import io.dream.ast.Statement;
 import io.dream.scanner.Token;
 import io.dream.scanner.TokenType;
 import io.dream.types.AtomicTypes;
 import io.dream.types.AtomicValue;
+import io.dream.types.TypeFactory;
 
-public class AstPrinter implements Expression.Visitor<String>
+import java.util.List;
+
+/**
+ * Prints expressions and programs as parenthesized trees, one statement per
+ * line and nested blocks indented, to look at what the optimizer produced
+ */
+public class AstPrinter implements Expression.Visitor<String>, Statement.Visitor<String>
 {
+    private int indent = 0;
+
     public String print(Expression expression)
     {
         return expression.accept(this);
     }
 
+    public String print(List<Statement> statements)
+    {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (Statement statement : statements)
+        {
+            stringBuilder.append("  ".repeat(indent)).append(statement.accept(this)).append("\n");
+        }
+        return stringBuilder.toString();
+    }
+
     @Override
     public String visitBinaryExpression(Expression.Binary expression)
     {
@@ -36,57 +56,212 @@ public class AstPrinter implements Expression.Visitor<String>
         {
             return "nil";
         }
+        if (expression.getType() == TypeFactory.STRING)
+        {
+            return "\"" + expression.value + "\"";
+        }
         return expression.value.toString();
     }
 
     @Override
     public String visitVariableExpression(Expression.Variable expression) {
-        return "";
+        return expression.name.lexeme();
     }
 
-    /**
-     * @param expression
-     * @return
-     */
     @Override
     public String visitLogicalExpression(Expression.Logical expression) {
-        return "";
+        return parenthesize(expression.operator.lexeme(), expression.left, expression.right);
     }
 
-    /**
-     * @param expression
-     * @return
-     */
     @Override
     public String visitCallExpression(Expression.Call expression) {
-        return "";
+        return parenthesize("call " + expression.name.lexeme(), expression.arguments);
     }
 
-    /**
-     * @param expression
-     * @return
-     */
     @Override
     public String visitArrayAccessExpression(Expression.ArrayAccess expression) {
-        return "";
+        return parenthesize("[]", expression.array, expression.index);
     }
 
-    /**
-     * @param expression
-     * @return
-     */
     @Override
     public String visitFieldAccessExpression(Expression.FieldAccess expression) {
-        return "";
+        return parenthesize("." + expression.field.lexeme(), expression.object);
     }
 
-    /**
-     * @param expression
-     * @return
-     */
     @Override
     public String visitArrayLiteralExpression(Expression.ArrayLiteral expression) {
-        return "";
+        return parenthesize("array", expression.elements);
+    }
+
+    // ========================================================================
+    // STATEMENTS
+    // ========================================================================
+
+    @Override
+    public String visitExpressionStmtStatement(Statement.ExpressionStmt statement)
+    {
+        return print(statement.expression);
+    }
+
+    @Override
+    public String visitWriteStatement(Statement.Write statement)
+    {
+        return parenthesize("write", statement.expression);
+    }
+
+    @Override
+    public String visitReadStatement(Statement.Read statement)
+    {
+        return "(read " + statement.variable.lexeme() + ")";
+    }
+
+    @Override
+    public String visitVariableDeclarationStatement(Statement.VariableDeclaration statement)
+    {
+        return statement.value == null
+                ? "(var " + statement.name.lexeme() + ")"
+                : parenthesize("var " + statement.name.lexeme(), statement.value);
+    }
+
+    @Override
+    public String visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
+    {
+        return parenthesize("const " + statement.name.lexeme(), statement.value);
+    }
+
+    @Override
+    public String visitAssignmentStatement(Statement.Assignment statement)
+    {
+        return parenthesize("<- " + statement.name.lexeme(), statement.value);
+    }
+
+    @Override
+    public String visitIfStatement(Statement.If statement)
+    {
+        String text = parenthesize("if", statement.condition) + block(statement.thenBranch);
+        if (statement.elseBranch != null && !statement.elseBranch.isEmpty())
+        {
+            text += "\n" + "  ".repeat(indent) + "(else)" + block(statement.elseBranch);
+        }
+        return text;
+    }
+
+    @Override
+    public String visitWhileStatement(Statement.While statement)
+    {
+        return parenthesize("while", statement.condition) + block(statement.body);
+    }
+
+    @Override
+    public String visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        return parenthesize("until", statement.condition) + block(statement.body);
+    }
+
+    @Override
+    public String visitForStatement(Statement.For statement)
+    {
+        String name = (statement.parallel ? "parallel for " : "for ") + statement.variable.lexeme();
+        String header = statement.step == null
+                ? parenthesize(name, statement.start, statement.end)
+                : parenthesize(name, statement.start, statement.end, statement.step);
+        return header + block(statement.body);
+    }
+
+    @Override
+    public String visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        return "(function " + statement.name.lexeme() + parameters(statement.parameters) + ")" + block(statement.body);
+    }
+
+    @Override
+    public String visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        return "(method " + statement.name.lexeme() + parameters(statement.parameters) + ")" + block(statement.body);
+    }
+
+    @Override
+    public String visitReturnStatement(Statement.Return statement)
+    {
+        return statement.value == null ? "(return)" : parenthesize("return", statement.value);
+    }
+
+    @Override
+    public String visitStructDeclarationStatement(Statement.StructDeclaration statement)
+    {
+        StringBuilder stringBuilder = new StringBuilder("(struct ").append(statement.name.lexeme());
+        for (Statement.Field field : statement.fields)
+        {
+            stringBuilder.append(" ").append(field.name.lexeme());
+        }
+        return stringBuilder.append(")").toString();
+    }
+
+    @Override
+    public String visitMethodCallStatement(Statement.MethodCall statement)
+    {
+        return parenthesize("call " + statement.name.lexeme(), statement.arguments);
+    }
+
+    @Override
+    public String visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
+    {
+        return parenthesize("<- " + statement.arrayName.lexeme() + "[]", statement.index, statement.value);
+    }
+
+    @Override
+    public String visitFieldAssignmentStatement(Statement.FieldAssignment statement)
+    {
+        return parenthesize("<- " + statement.objectName.lexeme() + "." + statement.fieldName.lexeme(), statement.value);
+    }
+
+    @Override
+    public String visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
+    {
+        return parenthesize("<- " + statement.objectName.lexeme() + "." + statement.fieldName.lexeme() + "[]",
+                statement.index, statement.value);
+    }
+
+    @Override
+    public String visitFieldReadStatement(Statement.FieldRead statement)
+    {
+        return "(read " + statement.objectName.lexeme() + "." + statement.fieldName.lexeme() + ")";
+    }
+
+    @Override
+    public String visitArrayReadStatement(Statement.ArrayRead statement)
+    {
+        return parenthesize("read " + statement.arrayName.lexeme() + "[]", statement.index);
+    }
+
+    @Override
+    public String visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
+    {
+        return parenthesize("read " + statement.objectName.lexeme() + "." + statement.fieldName.lexeme() + "[]",
+                statement.index);
+    }
+
+    private String block(List<Statement> statements)
+    {
+        indent++;
+        String text = "\n" + print(statements);
+        indent--;
+        return text.stripTrailing();
+    }
+
+    private static String parameters(List<Statement.Parameter> parameters)
+    {
+        StringBuilder stringBuilder = new StringBuilder();
+        for (Statement.Parameter parameter : parameters)
+        {
+            stringBuilder.append(" ").append(parameter.name.lexeme());
+        }
+        return stringBuilder.toString();
+    }
+
+    private String parenthesize(String name, List<Expression> expressions)
+    {
+        return parenthesize(name, expressions.toArray(new Expression[0]));
     }
 
     private String parenthesize(String name, Expression... expressions)
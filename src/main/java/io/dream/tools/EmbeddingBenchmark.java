@@ -0,0 +1,88 @@
+package io.dream.tools;
+
+import io.dream.api.CompiledScript;
+import io.dream.api.Engine;
+import io.dream.api.ScriptContext;
+import io.dream.config.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measure how many executions of one compiled script the embedding API
+ * completes per second, one after the other and then on virtual threads
+ * spread over every core
+ */
+public class EmbeddingBenchmark
+{
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length == 0)
+        {
+            System.err.println("Usage: EmbeddingBenchmark <script>.al [--runs=N]");
+            System.exit(64);
+        }
+
+        int runs = 10_000;
+        String fileName = null;
+        for (String arg : args)
+        {
+            if (arg.startsWith("--runs="))
+            {
+                runs = Integer.parseInt(arg.substring("--runs=".length()));
+            }
+            else
+            {
+                fileName = arg;
+            }
+        }
+
+        String source = new String(Files.readAllBytes(Paths.get(fileName)), Charset.defaultCharset());
+        CompiledScript script = new Engine().compile(source, Config.getLanguage());
+        Runnable execution = () -> script.execute(new ScriptContext(InputStream.nullInputStream(),
+                new PrintStream(OutputStream.nullOutputStream()), Config.getLanguage()));
+
+        // Warm up both ways before timing them
+        sequential(execution, runs / 10);
+        concurrent(execution, runs / 10);
+
+        long sequentialNanos = sequential(execution, runs);
+        long concurrentNanos = concurrent(execution, runs);
+
+        System.out.format("%d executions of %s on %d cores%n", runs, Paths.get(fileName).getFileName(),
+                Runtime.getRuntime().availableProcessors());
+        System.out.format("%-12s %12.0f exec/s%n", "sequential", runs * 1e9 / sequentialNanos);
+        System.out.format("%-12s %12.0f exec/s %7.2fx%n", "virtual", runs * 1e9 / concurrentNanos,
+                (double) sequentialNanos / concurrentNanos);
+    }
+
+    private static long sequential(Runnable execution, int runs)
+    {
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++)
+        {
+            execution.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long concurrent(Runnable execution, int runs)
+    {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (int i = 0; i < runs; i++)
+            {
+                executor.execute(execution);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,128 @@
+package io.dream.tools;
+
+import io.dream.Interpreter;
+import io.dream.ast.Statement;
+import io.dream.exec.Lowering;
+import io.dream.optimizer.Optimizer;
+import io.dream.parser.Parser;
+import io.dream.resolver.Resolver;
+import io.dream.scanner.Scanner;
+import io.dream.types.Checker;
+import io.dream.vm.Compiler;
+import io.dream.vm.Program;
+import io.dream.vm.VM;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Compare the tree walker and the bytecode VM on the same scripts
+ * Each script is prepared once, then executed repeatedly by both engines
+ * with the output discarded, after the optimizer ran at the given level.
+ * With --jit=off the tree walker does not compile hot routines.
+ */
+public class EngineBenchmark
+{
+    private static final int WARMUP_RUNS = 2_000;
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length == 0)
+        {
+            System.err.println("Usage: EngineBenchmark <script>.al... [--runs=N] [--opt-level=(0|1|2)] [--jit=(on|off)]");
+            System.exit(64);
+        }
+
+        int runs = 20_000;
+        int optLevel = Optimizer.BASIC;
+        boolean jit = true;
+        for (String arg : args)
+        {
+            if (arg.startsWith("--runs="))
+            {
+                runs = Integer.parseInt(arg.substring("--runs=".length()));
+            }
+            else if (arg.startsWith("--opt-level="))
+            {
+                optLevel = Integer.parseInt(arg.substring("--opt-level=".length()));
+            }
+            else if (arg.startsWith("--jit="))
+            {
+                jit = !arg.equals("--jit=off");
+            }
+        }
+
+        System.out.format("%-30s %12s %12s %8s%n", "script", "tree (us)", "vm (us)", "speedup");
+        for (String arg : args)
+        {
+            if (!arg.startsWith("--"))
+            {
+                benchmark(arg, runs, optLevel, jit);
+            }
+        }
+    }
+
+    private static void benchmark(String fileName, int runs, int optLevel, boolean jit) throws IOException
+    {
+        String source = new String(Files.readAllBytes(Paths.get(fileName)), Charset.defaultCharset());
+
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        List<Statement> optimized = new Optimizer(optLevel, parser.getSymbolTable()).optimize(statements);
+        Resolver resolver = new Resolver(parser.getSymbolTable());
+        resolver.resolve(optimized);
+        Program program = new Compiler(resolver.getGlobalLayout()).compile(optimized);
+        new Lowering().lower(optimized);
+
+        Runnable tree = () ->
+        {
+            Interpreter interpreter = new Interpreter(parser.getSymbolTable(), parser.getFunctionTable(),
+                    parser.getMethodTable(), parser.getStructTable());
+            if (!jit)
+            {
+                interpreter.disableJit();
+            }
+            interpreter.interpret(optimized);
+        };
+        Runnable vm = () -> new VM(program).run();
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long treeNanos;
+        long vmNanos;
+        try
+        {
+            time(tree, WARMUP_RUNS);
+            time(vm, WARMUP_RUNS);
+            treeNanos = time(tree, runs);
+            vmNanos = time(vm, runs);
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+
+        System.out.format("%-30s %12.2f %12.2f %7.2fx%n",
+                Paths.get(fileName).getFileName(),
+                treeNanos / 1000.0 / runs,
+                vmNanos / 1000.0 / runs,
+                (double) treeNanos / vmNanos);
+    }
+
+    private static long time(Runnable engine, int runs)
+    {
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++)
+        {
+            engine.run();
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,174 @@
+package io.dream.tools;
+
+import io.dream.natives.FileIO;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.ToLongFunction;
+
+/**
+ * Measure how fast a script reads a file, through the BufferedReader FileIO
+ * used to open files with and through its mapped reader
+ * Writes a temporary file of --lines=N lines (or reads the given one) and
+ * reads it line by line, checking eof before each line as scripts do, and
+ * at once with readAll; reports the best of a few rounds.
+ */
+public class FileReadBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException
+    {
+        int lines = 2_000_000;
+        Path file = null;
+        for (String arg : args)
+        {
+            if (arg.startsWith("--lines="))
+            {
+                lines = Integer.parseInt(arg.substring("--lines=".length()));
+            }
+            else
+            {
+                file = Path.of(arg);
+            }
+        }
+
+        boolean temporary = file == null;
+        if (temporary)
+        {
+            file = Files.createTempFile("algolang", ".txt");
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+            {
+                for (int i = 1; i <= lines; i++)
+                {
+                    writer.write("élève " + i + ";" + (i % 20) + ",5;" + (i % 2 == 0 ? "admis" : "ajourné"));
+                    writer.newLine();
+                }
+            }
+        }
+
+        try
+        {
+            System.out.format("%-30s %12s %12s %8s%n", Files.size(file) / (1024 * 1024) + " MB",
+                    "reader (ms)", "mapped (ms)", "speedup");
+            String name = file.toString();
+            benchmark("readLine + eof", name, FileReadBenchmark::readLinesBuffered, FileReadBenchmark::readLinesMapped);
+            benchmark("readAll", name, FileReadBenchmark::readAllBuffered, FileReadBenchmark::readAllMapped);
+        }
+        finally
+        {
+            if (temporary)
+            {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void benchmark(String name, String file, ToLongFunction<String> buffered,
+                                  ToLongFunction<String> mapped)
+    {
+        long bufferedNanos = Long.MAX_VALUE;
+        long mappedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++)
+        {
+            bufferedNanos = Math.min(bufferedNanos, time(buffered, file));
+            mappedNanos = Math.min(mappedNanos, time(mapped, file));
+        }
+
+        System.out.format("%-30s %12.1f %12.1f %7.2fx%n", name,
+                bufferedNanos / 1e6, mappedNanos / 1e6, (double) bufferedNanos / mappedNanos);
+    }
+
+    private static long time(ToLongFunction<String> read, String file)
+    {
+        long start = System.nanoTime();
+        long characters = read.applyAsLong(file);
+        long nanos = System.nanoTime() - start;
+        if (characters < 0)
+        {
+            throw new IllegalStateException();
+        }
+        return nanos;
+    }
+
+    // ========================================================================
+    // FORMER READER: BufferedReader, eof through mark/read/reset
+    // ========================================================================
+
+    private static BufferedReader open(String file) throws IOException
+    {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    private static long readLinesBuffered(String file)
+    {
+        try (BufferedReader reader = open(file))
+        {
+            long characters = 0;
+            while (true)
+            {
+                reader.mark(1);
+                if (reader.read() == -1)
+                {
+                    return characters;
+                }
+                reader.reset();
+                characters += reader.readLine().length();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long readAllBuffered(String file)
+    {
+        try (BufferedReader reader = open(file))
+        {
+            StringBuilder content = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                content.append(line).append("\n");
+            }
+            return content.toString().length();
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // ========================================================================
+    // MAPPED READER: FileIO
+    // ========================================================================
+
+    private static long readLinesMapped(String file)
+    {
+        FileIO files = new FileIO();
+        int handle = files.open(file, "r");
+        long characters = 0;
+        while (!files.eof(handle))
+        {
+            characters += files.readLine(handle).length();
+        }
+        files.close(handle);
+        return characters;
+    }
+
+    private static long readAllMapped(String file)
+    {
+        FileIO files = new FileIO();
+        int handle = files.open(file, "r");
+        long characters = files.readAll(handle).length();
+        files.close(handle);
+        return characters;
+    }
+}
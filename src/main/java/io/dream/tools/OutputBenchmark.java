@@ -0,0 +1,111 @@
+package io.dream.tools;
+
+import io.dream.Interpreter;
+import io.dream.ast.Statement;
+import io.dream.exec.Lowering;
+import io.dream.natives.OutputSink;
+import io.dream.optimizer.Optimizer;
+import io.dream.parser.Parser;
+import io.dream.resolver.Resolver;
+import io.dream.scanner.Scanner;
+import io.dream.types.Checker;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measure how fast ecrire prints, line by line and through the buffered sink
+ * Runs the given scripts, or one printing --lines=N lines when none is given,
+ * with the output going to a temporary file through an autoflushing stream
+ * like the standard output, and reports the best of a few rounds.
+ */
+public class OutputBenchmark
+{
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException
+    {
+        int lines = 1_000_000;
+        List<String> scripts = new ArrayList<>();
+        for (String arg : args)
+        {
+            if (arg.startsWith("--lines="))
+            {
+                lines = Integer.parseInt(arg.substring("--lines=".length()));
+            }
+            else
+            {
+                scripts.add(arg);
+            }
+        }
+
+        System.out.format("%-30s %12s %12s %8s%n", "script", "line (ms)", "buffer (ms)", "speedup");
+        if (scripts.isEmpty())
+        {
+            String source = """
+                    Algorithme: lignes;
+                    Variables:
+                        i : entier;
+                    Debut:
+                        pour i <- 1 jusqu_a %d faire:
+                            ecrire("ligne " + i);
+                        finpour
+                    Fin
+                    """.formatted(lines);
+            benchmark(lines + " lines", source);
+        }
+        for (String script : scripts)
+        {
+            benchmark(Paths.get(script).getFileName().toString(),
+                    new String(Files.readAllBytes(Paths.get(script)), Charset.defaultCharset()));
+        }
+    }
+
+    private static void benchmark(String name, String source) throws IOException
+    {
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        List<Statement> optimized = new Optimizer(Optimizer.FULL, parser.getSymbolTable()).optimize(statements);
+        new Resolver(parser.getSymbolTable()).resolve(optimized);
+        new Lowering().lower(optimized);
+
+        Path file = Files.createTempFile("algolang", ".out");
+        try (PrintStream target = new PrintStream(new FileOutputStream(file.toFile()), true))
+        {
+            long lineNanos = Long.MAX_VALUE;
+            long bufferNanos = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                lineNanos = Math.min(lineNanos, time(parser, optimized, new OutputSink(target, 0)));
+                bufferNanos = Math.min(bufferNanos, time(parser, optimized, new OutputSink(target)));
+            }
+
+            System.out.format("%-30s %12.1f %12.1f %7.2fx%n", name,
+                    lineNanos / 1e6, bufferNanos / 1e6, (double) lineNanos / bufferNanos);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    private static long time(Parser parser, List<Statement> statements, OutputSink sink)
+    {
+        Interpreter interpreter = new Interpreter(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable());
+        interpreter.setOutputSink(sink);
+
+        long start = System.nanoTime();
+        interpreter.interpret(statements);
+        return System.nanoTime() - start;
+    }
+}
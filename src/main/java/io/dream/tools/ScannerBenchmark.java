@@ -0,0 +1,95 @@
+package io.dream.tools;
+
+import io.dream.scanner.Scanner;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Measure lexing throughput in tokens per second
+ * Scans the given scripts, or a generated script of --lines=N lines when
+ * none is given, repeatedly and reports the best round.
+ */
+public class ScannerBenchmark
+{
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException
+    {
+        int rounds = 20;
+        int lines = 50_000;
+        StringBuilder source = new StringBuilder();
+
+        for (String arg : args)
+        {
+            if (arg.startsWith("--rounds="))
+            {
+                rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+            }
+            else if (arg.startsWith("--lines="))
+            {
+                lines = Integer.parseInt(arg.substring("--lines=".length()));
+            }
+            else
+            {
+                source.append(new String(Files.readAllBytes(Paths.get(arg)), Charset.defaultCharset()))
+                        .append('\n');
+            }
+        }
+
+        String script = source.length() > 0 ? source.toString() : generate(lines);
+        int tokens = new Scanner(script).scanTokens().size();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+        {
+            new Scanner(script).scanTokens();
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++)
+        {
+            long start = System.nanoTime();
+            new Scanner(script).scanTokens();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.format("%d lines, %d tokens, best of %d rounds: %.2f ms, %.1f M tokens/s%n",
+                script.lines().count(), tokens, rounds, best / 1e6, tokens / (best / 1e9) / 1e6);
+    }
+
+    /**
+     * Generate a script in the style of the examples: a method per block of
+     * lines, with loops, conditions, arithmetic and output
+     */
+    private static String generate(int lines)
+    {
+        StringBuilder sb = new StringBuilder("Algorithme: genere;\n\n");
+        int block = 0;
+        for (int written = 2; written < lines - 3; written += 18)
+        {
+            String suffix = Integer.toString(block % 100);
+            sb.append("Methode: calcul").append(block).append("(tab: tableau[1..10] de entier):\n")
+                    .append("Variables:\n")
+                    .append("    i, somme").append(suffix).append(" : entier;\n")
+                    .append("    moyenne : reel;\n")
+                    .append("Debut:\n")
+                    .append("    somme").append(suffix).append(" <- 0;\n")
+                    .append("    pour i <- 1 jusqu_a 10 faire:\n")
+                    .append("        si tab[i] mod 2 == 0 alors:\n")
+                    .append("            somme").append(suffix).append(" <- somme").append(suffix).append(" + tab[i] * 3;\n")
+                    .append("        sinon si tab[i] > 100 alors:\n")
+                    .append("            ecrire(\"grand: \" + tab[i]);\n")
+                    .append("        finsi\n")
+                    .append("    finpour\n")
+                    .append("    moyenne <- somme").append(suffix).append(" / 10,5;\n")
+                    .append("    ecrire(moyenne);\n")
+                    .append("Fin\n")
+                    .append("FinMethode;\n\n");
+            block++;
+        }
+        sb.append("Debut:\n    ecrire(\"fin\");\nFin\n");
+        return sb.toString();
+    }
+}
@@ -62,7 +62,7 @@ public class ArrayType implements Type
     public Value zeroValue()
     {
         // Create an array value with all elements initialized to their zero values
-        return new ArrayValue(this);
+        return ArrayValue.create(this);
     }
 
     @Override
@@ -7,26 +7,45 @@ import java.util.Map;
 
 /**
  * Array Value representation
- * Stores array elements with their indices
+ * Elements live in a flat Java array offset by the lower bound; entier,
+ * reel, booleen and caractere arrays store primitives, every other element
+ * type falls back to a Value[].
  */
-public class ArrayValue implements Value
+public abstract class ArrayValue implements Value
 {
     private final ArrayType arrayType;
-    private final Map<Integer, Value> elements;
+    protected final int lowerBound;
 
-    public ArrayValue(ArrayType arrayType)
+    protected ArrayValue(ArrayType arrayType)
     {
         this.arrayType = arrayType;
-        this.elements = new HashMap<>();
+        this.lowerBound = arrayType.getLowerBound();
+    }
 
-        // Initialize all elements to their zero values
+    /**
+     * Create an array with all elements initialized to their zero values
+     */
+    public static ArrayValue create(ArrayType arrayType)
+    {
         Type elementType = arrayType.getElementType();
-        Value zeroValue = elementType.zeroValue();
 
-        for (int i = arrayType.getLowerBound(); i <= arrayType.getUpperBound(); i++)
+        if (elementType == TypeFactory.INTEGER)
+        {
+            return new IntArrayValue(arrayType);
+        }
+        if (elementType == TypeFactory.FLOATING)
+        {
+            return new DoubleArrayValue(arrayType);
+        }
+        if (elementType == TypeFactory.BOOLEAN)
+        {
+            return new BooleanArrayValue(arrayType);
+        }
+        if (elementType == TypeFactory.CHAR)
         {
-            elements.put(i, zeroValue);
+            return new CharArrayValue(arrayType);
         }
+        return new ReferenceArrayValue(arrayType);
     }
 
     public ArrayType getArrayType()
@@ -35,9 +54,9 @@ public class ArrayValue implements Value
     }
 
     /**
-     * Get element at index
+     * Position of an index in the backing array
      */
-    public Value get(int index)
+    protected final int offset(int index)
     {
         if (!arrayType.isValidIndex(index))
         {
@@ -45,29 +64,36 @@ public class ArrayValue implements Value
                     Messages.arrayIndexOutOfBounds(index, arrayType.getLowerBound(), arrayType.getUpperBound())
             );
         }
-        return elements.get(index);
+        return index - lowerBound;
     }
 
+    /**
+     * Get element at index
+     */
+    public abstract Value get(int index);
+
     /**
      * Set element at index
      */
-    public void set(int index, Value value)
-    {
-        if (!arrayType.isValidIndex(index))
-        {
-            throw new RuntimeException(
-                    Messages.arrayIndexOutOfBounds(index, arrayType.getLowerBound(), arrayType.getUpperBound())
-            );
-        }
-        elements.put(index, value);
-    }
+    public abstract void set(int index, Value value);
+
+    /**
+     * Get element at index as the interpreter sees it
+     * (Integer, Double, Boolean, Character, String, or a composite Value)
+     */
+    public abstract Object getElement(int index);
 
     /**
      * Get all elements (for iteration)
      */
     public Map<Integer, Value> getElements()
     {
-        return new HashMap<>(elements);
+        Map<Integer, Value> elements = new HashMap<>();
+        for (int i = arrayType.getLowerBound(); i <= arrayType.getUpperBound(); i++)
+        {
+            elements.put(i, get(i));
+        }
+        return elements;
     }
 
     @Override
@@ -82,18 +108,30 @@ public class ArrayValue implements Value
             {
                 sb.append(", ");
             }
-            Value element = elements.get(i);
-            if (element instanceof AtomicValue)
-            {
-                sb.append(((AtomicValue<?>) element).getValue());
-            }
-            else
-            {
-                sb.append(element.toString());
-            }
+            sb.append(getElement(i));
         }
 
         sb.append("]");
         return sb.toString();
     }
+
+    // ========================================================================
+    // WHOLE-ARRAY OPERATIONS (on the backing array)
+    // ========================================================================
+
+    /**
+     * Reverse the order of the elements
+     */
+    public abstract void reverse();
+
+    /**
+     * Set every element to a value, given as the interpreter sees it
+     */
+    public abstract void fill(Object value);
+
+    /**
+     * Copy the elements to the start of another array of the same element
+     * type holding at least as many
+     */
+    public abstract void copyTo(ArrayValue destination);
 }
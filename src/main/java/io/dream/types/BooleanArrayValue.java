@@ -0,0 +1,68 @@
+package io.dream.types;
+
+import java.util.Arrays;
+
+/**
+ * Array of booleen backed by a boolean[]
+ */
+public final class BooleanArrayValue extends ArrayValue
+{
+    private final boolean[] elements;
+
+    BooleanArrayValue(ArrayType arrayType)
+    {
+        super(arrayType);
+        this.elements = new boolean[arrayType.getSize()];
+    }
+
+    public boolean getBoolean(int index)
+    {
+        return elements[offset(index)];
+    }
+
+    public void setBoolean(int index, boolean value)
+    {
+        elements[offset(index)] = value;
+    }
+
+    @Override
+    public Value get(int index)
+    {
+        return new AtomicValue<>(elements[offset(index)], AtomicTypes.BOOLEAN);
+    }
+
+    @Override
+    public void set(int index, Value value)
+    {
+        elements[offset(index)] = (Boolean) ((AtomicValue<?>) value).getValue();
+    }
+
+    @Override
+    public Object getElement(int index)
+    {
+        return elements[offset(index)];
+    }
+
+    @Override
+    public void reverse()
+    {
+        for (int i = 0, j = elements.length - 1; i < j; i++, j--)
+        {
+            boolean element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+        }
+    }
+
+    @Override
+    public void fill(Object value)
+    {
+        Arrays.fill(elements, (boolean) value);
+    }
+
+    @Override
+    public void copyTo(ArrayValue destination)
+    {
+        System.arraycopy(elements, 0, ((BooleanArrayValue) destination).elements, 0, elements.length);
+    }
+}
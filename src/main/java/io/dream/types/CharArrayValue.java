@@ -0,0 +1,87 @@
+package io.dream.types;
+
+import java.util.Arrays;
+
+/**
+ * Array of caractere backed by a char[]
+ */
+public final class CharArrayValue extends ArrayValue
+{
+    private final char[] elements;
+
+    CharArrayValue(ArrayType arrayType)
+    {
+        super(arrayType);
+        this.elements = new char[arrayType.getSize()];
+    }
+
+    public char getChar(int index)
+    {
+        return elements[offset(index)];
+    }
+
+    public void setChar(int index, char value)
+    {
+        elements[offset(index)] = value;
+    }
+
+    @Override
+    public Value get(int index)
+    {
+        return new AtomicValue<>(elements[offset(index)], AtomicTypes.CHAR);
+    }
+
+    @Override
+    public void set(int index, Value value)
+    {
+        elements[offset(index)] = (Character) ((AtomicValue<?>) value).getValue();
+    }
+
+    @Override
+    public Object getElement(int index)
+    {
+        return elements[offset(index)];
+    }
+
+    @Override
+    public void reverse()
+    {
+        for (int i = 0, j = elements.length - 1; i < j; i++, j--)
+        {
+            char element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+        }
+    }
+
+    @Override
+    public void fill(Object value)
+    {
+        Arrays.fill(elements, (char) value);
+    }
+
+    @Override
+    public void copyTo(ArrayValue destination)
+    {
+        System.arraycopy(elements, 0, ((CharArrayValue) destination).elements, 0, elements.length);
+    }
+
+    /**
+     * Sort the elements in ascending order
+     */
+    public void sort()
+    {
+        Arrays.sort(elements);
+    }
+
+    /**
+     * Find a value in the sorted elements
+     *
+     * @return its index, or the lower bound - 1 when it is absent
+     */
+    public int binarySearch(char key)
+    {
+        int position = Arrays.binarySearch(elements, key);
+        return position >= 0 ? position + lowerBound : lowerBound - 1;
+    }
+}
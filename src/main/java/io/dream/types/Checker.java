@@ -4,12 +4,18 @@ import io.dream.ast.Expression;
 import io.dream.ast.Statement;
 import io.dream.config.Messages;
 import io.dream.error.TypeException;
+import io.dream.natives.NativeFunction;
+import io.dream.natives.Natives;
+import io.dream.optimizer.Purity;
 import io.dream.scanner.Token;
 import io.dream.scanner.TokenType;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Complete Type Checker for AlgoLang
@@ -26,10 +32,23 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     // Current scope for type checking (switches between global and local)
     private Map<String, Type> currentScope;
 
+    // Names declared in the Constante: section, which can never be assigned
+    private final Set<String> constants = new HashSet<>();
+
     // Track if we're inside a function (for return statement validation)
     private boolean inFunction = false;
     private Type currentFunctionReturnType = null;
 
+    // Variable of the pour parallele whose body is being checked, null outside one
+    private Token parallelIndex = null;
+
+    // Arrays the body of that pour parallele writes
+    private Set<String> parallelWrites = Set.of();
+
+    // Functions checked so far and, once asked, which of them are pure
+    private final List<Statement> functionDeclarations = new ArrayList<>();
+    private Set<String> pureFunctions = null;
+
     /**
      * Constructor with just symbol table (backward compatibility)
      */
@@ -68,6 +87,134 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
         }
     }
 
+    /**
+     * Reject a write to a name of the Constante: section
+     * (functions and methods have their own scope, where the name is a local)
+     */
+    private void checkNotConstant(Token name)
+    {
+        if (currentScope == globalSymbolTable && constants.contains(name.lexeme()))
+        {
+            throw new TypeException(Messages.cannotAssignConstant(name.lexeme()), name);
+        }
+    }
+
+    /**
+     * Reject, in the body of a pour parallele, a statement whose effect
+     * depends on the order of the iterations (lire, ecrire, a procedure
+     * call, retourne, another pour parallele)
+     */
+    private void checkNotParallel(Token where)
+    {
+        if (parallelIndex != null)
+        {
+            throw where == null
+                    ? new TypeException(Messages.parallelStatementNotAllowed())
+                    : new TypeException(Messages.parallelStatementNotAllowed(), where);
+        }
+    }
+
+    /**
+     * Reject, in the body of a pour parallele, the write of a variable
+     * every iteration shares
+     */
+    private void checkNotShared(Token name)
+    {
+        if (parallelIndex != null)
+        {
+            throw new TypeException(Messages.parallelSharedWrite(name.lexeme()), name);
+        }
+    }
+
+    /**
+     * Reject, in the body of a pour parallele, an array write at another
+     * index than the loop variable, which another iteration could write too
+     */
+    private void checkParallelIndex(Token array, Expression index)
+    {
+        if (parallelIndex != null && !isParallelIndex(index))
+        {
+            throw new TypeException(Messages.parallelIndexOnly(array.lexeme(), parallelIndex.lexeme()), array);
+        }
+    }
+
+    private boolean isParallelIndex(Expression index)
+    {
+        while (index instanceof Expression.Grouping grouping)
+        {
+            index = grouping.expression;
+        }
+        return index instanceof Expression.Variable variable
+                && variable.name.lexeme().equals(parallelIndex.lexeme());
+    }
+
+    /**
+     * Reject, in the body of a pour parallele, a read of an array the body
+     * writes at another index than the loop variable: the element may be
+     * the one another iteration is writing
+     */
+    private void checkParallelRead(Expression array, Expression index)
+    {
+        if (parallelIndex == null)
+        {
+            return;
+        }
+        Token name = rootName(array);
+        if (name != null && parallelWrites.contains(name.lexeme()) && !isParallelIndex(index))
+        {
+            throw new TypeException(Messages.parallelReadIndexOnly(name.lexeme(), parallelIndex.lexeme()), name);
+        }
+    }
+
+    private static Token rootName(Expression expression)
+    {
+        while (true)
+        {
+            switch (expression)
+            {
+                case Expression.Variable variable ->
+                {
+                    return variable.name;
+                }
+                case Expression.FieldAccess field -> expression = field.object;
+                case Expression.Grouping grouping -> expression = grouping.expression;
+                default ->
+                {
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collect the arrays written by some statements, nested blocks included
+     */
+    private static void collectArrayWrites(List<Statement> statements, Set<String> names)
+    {
+        for (Statement statement : statements)
+        {
+            switch (statement)
+            {
+                case Statement.ArrayAssignment assignment -> names.add(assignment.arrayName.lexeme());
+                case Statement.NestedFieldArrayAssignment assignment -> names.add(assignment.objectName.lexeme());
+                case Statement.If branch ->
+                {
+                    collectArrayWrites(branch.thenBranch, names);
+                    if (branch.elseBranch != null)
+                    {
+                        collectArrayWrites(branch.elseBranch, names);
+                    }
+                }
+                case Statement.While loop -> collectArrayWrites(loop.body, names);
+                case Statement.DoWhile loop -> collectArrayWrites(loop.body, names);
+                case Statement.For loop -> collectArrayWrites(loop.body, names);
+                default ->
+                {
+                }
+            }
+        }
+    }
+
     /**
      * Check a single statement
      */
@@ -111,6 +258,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitWriteStatement(Statement.Write statement)
     {
+        checkNotParallel(null);
         Type exprType = statement.expression.accept(this);
         statement.expression.setType(exprType);
         return null;
@@ -119,6 +267,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitReadStatement(Statement.Read statement)
     {
+        checkNotParallel(statement.variable);
         // Check that the variable exists
         String varName = statement.variable.lexeme();
         if (!currentScope.containsKey(varName))
@@ -128,6 +277,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
                     statement.variable
             );
         }
+        checkNotConstant(statement.variable);
         return null;
     }
 
@@ -175,12 +325,16 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
             );
         }
 
+        // Constants are globals that can be read but never assigned
+        currentScope.put(statement.name.lexeme(), valueType);
+        constants.add(statement.name.lexeme());
         return null;
     }
 
     @Override
     public Void visitAssignmentStatement(Statement.Assignment statement)
     {
+        checkNotShared(statement.name);
         // Check if variable exists
         Type varType = currentScope.get(statement.name.lexeme());
         if (varType == null)
@@ -190,6 +344,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
                     statement.name
             );
         }
+        checkNotConstant(statement.name);
 
         // Type check the value
         Type valueType = statement.value.accept(this);
@@ -299,6 +454,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
                     statement.variable
             );
         }
+        checkNotConstant(statement.variable);
 
         // Loop variable must be integer
         if (!varType.equals(TypeFactory.INTEGER))
@@ -342,10 +498,28 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
             }
         }
 
-        // Type check body
-        for (Statement stmt : statement.body)
+        // Type check body, in which every iteration of a pour parallele
+        // may only write its own array elements
+        Token enclosingIndex = parallelIndex;
+        Set<String> enclosingWrites = parallelWrites;
+        if (statement.parallel)
         {
-            check(stmt);
+            checkNotParallel(statement.variable);
+            parallelIndex = statement.variable;
+            parallelWrites = new HashSet<>();
+            collectArrayWrites(statement.body, parallelWrites);
+        }
+        try
+        {
+            for (Statement stmt : statement.body)
+            {
+                check(stmt);
+            }
+        }
+        finally
+        {
+            parallelIndex = enclosingIndex;
+            parallelWrites = enclosingWrites;
         }
 
         return null;
@@ -354,6 +528,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
     {
+        checkParallelIndex(statement.arrayName, statement.index);
         // Get array type
         Type arrayType = currentScope.get(statement.arrayName.lexeme());
         if (arrayType == null)
@@ -404,6 +579,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
     {
+        checkParallelIndex(statement.objectName, statement.index);
         // Get structure type
         Type structType = currentScope.get(statement.objectName.lexeme());
         if (structType == null)
@@ -475,6 +651,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
     {
+        checkNotShared(statement.objectName);
         // Get structure type
         Type structType = currentScope.get(statement.objectName.lexeme());
         if (structType == null)
@@ -525,6 +702,9 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
     {
+        functionDeclarations.add(statement);
+        pureFunctions = null;
+
         // Create new scope for function
         Map<String, Type> previousScope = currentScope;
         currentScope = new HashMap<>();
@@ -549,6 +729,12 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
             check(stmt);
         }
 
+        // A function must not fall off its end: it would have no value to return
+        if (!alwaysReturns(statement.body))
+        {
+            throw new TypeException(Messages.missingReturn(statement.name.lexeme()), statement.name);
+        }
+
         // Restore previous context
         inFunction = wasInFunction;
         currentFunctionReturnType = previousReturnType;
@@ -557,6 +743,24 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
         return null;
     }
 
+    /**
+     * Whether every path through statements ends on a retourne
+     */
+    private static boolean alwaysReturns(List<Statement> statements)
+    {
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.Return
+                    || statement instanceof Statement.If branch && branch.elseBranch != null
+                    && alwaysReturns(branch.thenBranch) && alwaysReturns(branch.elseBranch)
+                    || statement instanceof Statement.DoWhile loop && alwaysReturns(loop.body))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
     {
@@ -587,6 +791,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitReturnStatement(Statement.Return statement)
     {
+        checkNotParallel(statement.keyword);
         // Check that we're inside a function
         if (!inFunction)
         {
@@ -622,6 +827,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitMethodCallStatement(Statement.MethodCall statement)
     {
+        checkNotParallel(statement.name);
         // Check that method exists
         if (!methodTable.containsKey(statement.name.lexeme()))
         {
@@ -663,6 +869,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitFieldReadStatement(Statement.FieldRead statement)
     {
+        checkNotParallel(statement.objectName);
         // Type checking for field read
         Type structType = currentScope.get(statement.objectName.lexeme());
         if (structType == null)
@@ -693,6 +900,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitArrayReadStatement(Statement.ArrayRead statement)
     {
+        checkNotParallel(statement.arrayName);
         Type arrayType = currentScope.get(statement.arrayName.lexeme());
         if (arrayType == null)
         {
@@ -723,6 +931,7 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
     {
+        checkNotParallel(statement.objectName);
         // Get structure type
         Type structType = currentScope.get(statement.objectName.lexeme());
         if (structType == null)
@@ -1048,15 +1257,33 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
     @Override
     public Type visitCallExpression(Expression.Call expression)
     {
-        // Check if it's a function
+        // A Fonction of the program hides the native of the same name
         if (!functionTable.containsKey(expression.name.lexeme()))
         {
+            NativeFunction nativeFunction = Natives.get(expression.name.lexeme());
+            if (nativeFunction != null)
+            {
+                return checkNativeCall(expression, nativeFunction);
+            }
             throw new TypeException(
                     Messages.functionNotDefined(expression.name.lexeme()),
                     expression.name
             );
         }
 
+        // The iterations of a pour parallele may only call functions without effects
+        if (parallelIndex != null)
+        {
+            if (pureFunctions == null)
+            {
+                pureFunctions = Purity.pureFunctions(functionDeclarations);
+            }
+            if (!pureFunctions.contains(expression.name.lexeme()))
+            {
+                throw new TypeException(Messages.parallelImpureCall(expression.name.lexeme()), expression.name);
+            }
+        }
+
         // Get function type
         FunctionType funcType = functionTable.get(expression.name.lexeme());
 
@@ -1086,14 +1313,60 @@ public class Checker implements Expression.Visitor<Type>, Statement.Visitor<Void
         }
 
         // Return function's return type
+        expression.bind(null);
         Type returnType = funcType.getReturnType();
         expression.setType(returnType);
         return returnType;
     }
 
+    private Type checkNativeCall(Expression.Call expression, NativeFunction nativeFunction)
+    {
+        // Natives have effects: a pour parallele may not call them
+        if (parallelIndex != null)
+        {
+            throw new TypeException(Messages.parallelImpureCall(expression.name.lexeme()), expression.name);
+        }
+
+        if (expression.arguments.size() != nativeFunction.getArity())
+        {
+            throw new TypeException(
+                    Messages.wrongNumberOfArguments(nativeFunction.getArity(), expression.arguments.size()),
+                    expression.name
+            );
+        }
+
+        List<Type> argTypes = new ArrayList<>(expression.arguments.size());
+        for (Expression arg : expression.arguments)
+        {
+            Type argType = arg.accept(this);
+            arg.setType(argType);
+            argTypes.add(argType);
+        }
+
+        // Parameters may depend on the arguments before them, like the element type of an array
+        for (int i = 0; i < argTypes.size(); i++)
+        {
+            if (!nativeFunction.accepts(i, argTypes))
+            {
+                throw new TypeException(
+                        Messages.expectedTypeButGot(nativeFunction.parameterType(i, argTypes).toString(),
+                                argTypes.get(i).toString()),
+                        expression.name
+                );
+            }
+        }
+
+        // The call runs the native directly, with no lookup by name
+        expression.bind(nativeFunction);
+        Type returnType = nativeFunction.returnType(argTypes);
+        expression.setType(returnType);
+        return returnType;
+    }
+
     @Override
     public Type visitArrayAccessExpression(Expression.ArrayAccess expression)
     {
+        checkParallelRead(expression.array, expression.index);
         // Type check the array expression
         Type arrayType = expression.array.accept(this);
         expression.array.setType(arrayType);
@@ -0,0 +1,126 @@
+package io.dream.types;
+
+import java.util.Arrays;
+
+/**
+ * Array of reel backed by a double[]
+ */
+public final class DoubleArrayValue extends ArrayValue
+{
+    private final double[] elements;
+
+    DoubleArrayValue(ArrayType arrayType)
+    {
+        super(arrayType);
+        this.elements = new double[arrayType.getSize()];
+    }
+
+    public double getDouble(int index)
+    {
+        return elements[offset(index)];
+    }
+
+    public void setDouble(int index, double value)
+    {
+        elements[offset(index)] = value;
+    }
+
+    @Override
+    public Value get(int index)
+    {
+        return new AtomicValue<>(elements[offset(index)], AtomicTypes.FLOATING);
+    }
+
+    @Override
+    public void set(int index, Value value)
+    {
+        elements[offset(index)] = ((Number) ((AtomicValue<?>) value).getValue()).doubleValue();
+    }
+
+    @Override
+    public Object getElement(int index)
+    {
+        return elements[offset(index)];
+    }
+
+    @Override
+    public void reverse()
+    {
+        for (int i = 0, j = elements.length - 1; i < j; i++, j--)
+        {
+            double element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+        }
+    }
+
+    @Override
+    public void fill(Object value)
+    {
+        Arrays.fill(elements, (double) value);
+    }
+
+    @Override
+    public void copyTo(ArrayValue destination)
+    {
+        System.arraycopy(elements, 0, ((DoubleArrayValue) destination).elements, 0, elements.length);
+    }
+
+    /**
+     * Sort the elements in ascending order
+     */
+    public void sort()
+    {
+        Arrays.sort(elements);
+    }
+
+    /**
+     * Find a value in the sorted elements
+     *
+     * @return its index, or the lower bound - 1 when it is absent
+     */
+    public int binarySearch(double key)
+    {
+        int position = Arrays.binarySearch(elements, key);
+        return position >= 0 ? position + lowerBound : lowerBound - 1;
+    }
+
+    /**
+     * Get the sum of the elements
+     */
+    public double sum()
+    {
+        double sum = 0;
+        for (double element : elements)
+        {
+            sum += element;
+        }
+        return sum;
+    }
+
+    /**
+     * Get the smallest element (the array is not empty)
+     */
+    public double min()
+    {
+        double min = elements[0];
+        for (int i = 1; i < elements.length; i++)
+        {
+            min = Math.min(min, elements[i]);
+        }
+        return min;
+    }
+
+    /**
+     * Get the largest element (the array is not empty)
+     */
+    public double max()
+    {
+        double max = elements[0];
+        for (int i = 1; i < elements.length; i++)
+        {
+            max = Math.max(max, elements[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,95 @@
+package io.dream.types;
+
+/**
+ * Raw bits encoding of entier, reel, booleen and caractere values
+ * Frames and structures keep these types unboxed in a long[] and only
+ * build an AtomicValue when a Value is asked for.
+ */
+public final class RawValues
+{
+    private RawValues()
+    {
+    }
+
+    /**
+     * Whether values of a type are kept as raw bits
+     */
+    public static boolean isUnboxed(Type type)
+    {
+        return type == TypeFactory.INTEGER || type == TypeFactory.FLOATING
+                || type == TypeFactory.BOOLEAN || type == TypeFactory.CHAR;
+    }
+
+    /**
+     * Encode a plain Java value (Integer, Double, Boolean, Character) of a type
+     */
+    public static long encode(Type type, Object value)
+    {
+        if (value instanceof AtomicValue<?> atomic)
+        {
+            value = atomic.getValue();
+        }
+        if (type == TypeFactory.FLOATING)
+        {
+            double real = value instanceof Number number ? number.doubleValue() : 0.0;
+            return Double.doubleToRawLongBits(real);
+        }
+        if (value instanceof Number number)
+        {
+            return number.longValue();
+        }
+        if (value instanceof Boolean bool)
+        {
+            return bool ? 1 : 0;
+        }
+        if (value instanceof Character character)
+        {
+            return character;
+        }
+        return 0;
+    }
+
+    /**
+     * Decode raw bits back to the plain Java value the interpreter works with
+     */
+    public static Object decode(Type type, long bits)
+    {
+        if (type == TypeFactory.INTEGER)
+        {
+            return (int) bits;
+        }
+        if (type == TypeFactory.FLOATING)
+        {
+            return Double.longBitsToDouble(bits);
+        }
+        if (type == TypeFactory.BOOLEAN)
+        {
+            return bits != 0;
+        }
+        return (char) bits;
+    }
+
+    /**
+     * Wrap a plain Java value of an atomic type into an AtomicValue
+     */
+    public static Value box(Type type, Object value)
+    {
+        if (type == TypeFactory.INTEGER)
+        {
+            return new AtomicValue<>((Integer) value, AtomicTypes.INTEGER);
+        }
+        if (type == TypeFactory.FLOATING)
+        {
+            return new AtomicValue<>((Double) value, AtomicTypes.FLOATING);
+        }
+        if (type == TypeFactory.BOOLEAN)
+        {
+            return new AtomicValue<>((Boolean) value, AtomicTypes.BOOLEAN);
+        }
+        if (type == TypeFactory.CHAR)
+        {
+            return new AtomicValue<>((Character) value, AtomicTypes.CHAR);
+        }
+        return new AtomicValue<>((String) value, AtomicTypes.STRING);
+    }
+}
@@ -0,0 +1,90 @@
+package io.dream.types;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Array of strings, structures or nested arrays backed by a Value[]
+ */
+public final class ReferenceArrayValue extends ArrayValue
+{
+    private static final Comparator<Value> BY_STRING =
+            Comparator.comparing(element -> (String) ((AtomicValue<?>) element).getValue());
+
+    private final Value[] elements;
+
+    ReferenceArrayValue(ArrayType arrayType)
+    {
+        super(arrayType);
+        this.elements = new Value[arrayType.getSize()];
+
+        // Each element gets its own zero value so composite elements are not shared
+        Type elementType = arrayType.getElementType();
+        for (int i = 0; i < elements.length; i++)
+        {
+            elements[i] = elementType.zeroValue();
+        }
+    }
+
+    @Override
+    public Value get(int index)
+    {
+        return elements[offset(index)];
+    }
+
+    @Override
+    public void set(int index, Value value)
+    {
+        elements[offset(index)] = value;
+    }
+
+    @Override
+    public Object getElement(int index)
+    {
+        Value element = elements[offset(index)];
+        return element instanceof AtomicValue<?> atomic ? atomic.getValue() : element;
+    }
+
+    @Override
+    public void reverse()
+    {
+        for (int i = 0, j = elements.length - 1; i < j; i++, j--)
+        {
+            Value element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+        }
+    }
+
+    @Override
+    public void fill(Object value)
+    {
+        // Only chaine arrays are filled: their elements are immutable, so they can be shared
+        Arrays.fill(elements, RawValues.box(getArrayType().getElementType(), value));
+    }
+
+    @Override
+    public void copyTo(ArrayValue destination)
+    {
+        System.arraycopy(elements, 0, ((ReferenceArrayValue) destination).elements, 0, elements.length);
+    }
+
+    /**
+     * Sort chaine elements in ascending order
+     */
+    public void sort()
+    {
+        Arrays.sort(elements, BY_STRING);
+    }
+
+    /**
+     * Find a chaine in the sorted elements
+     *
+     * @return its index, or the lower bound - 1 when it is absent
+     */
+    public int binarySearch(String key)
+    {
+        int position = Arrays.binarySearch(elements, new AtomicValue<>(key, AtomicTypes.STRING), BY_STRING);
+        return position >= 0 ? position + lowerBound : lowerBound - 1;
+    }
+}
@@ -1,21 +1,38 @@
 package io.dream.types;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Structure Type representation
  * Represents user-defined structures with named fields
+ * Each field gets a fixed index, in declaration order, when the type is created.
  */
 public class StructType implements Type
 {
     private final String name;
     private final Map<String, Type> fields; // LinkedHashMap to preserve field order
+    private final Map<String, Integer> indices;
+    private final String[] fieldNames;
+    private final Type[] fieldTypes;
 
     public StructType(String name, Map<String, Type> fields)
     {
         this.name = name;
         this.fields = new LinkedHashMap<>(fields); // Preserve insertion order
+        this.indices = new HashMap<>();
+        this.fieldNames = new String[fields.size()];
+        this.fieldTypes = new Type[fields.size()];
+
+        int index = 0;
+        for (Map.Entry<String, Type> field : this.fields.entrySet())
+        {
+            indices.put(field.getKey(), index);
+            fieldNames[index] = field.getKey();
+            fieldTypes[index] = field.getValue();
+            index++;
+        }
     }
 
     public String getName()
@@ -38,6 +55,30 @@ public class StructType implements Type
         return fields.containsKey(fieldName);
     }
 
+    /**
+     * Get the index of a field, or -1 if the structure has no such field
+     */
+    public int indexOf(String fieldName)
+    {
+        Integer index = indices.get(fieldName);
+        return index != null ? index : -1;
+    }
+
+    public int getFieldCount()
+    {
+        return fieldNames.length;
+    }
+
+    public String getFieldName(int index)
+    {
+        return fieldNames[index];
+    }
+
+    public Type getFieldTypeAt(int index)
+    {
+        return fieldTypes[index];
+    }
+
     @Override
     public boolean equals(Type other)
     {
@@ -7,24 +7,30 @@ import java.util.Map;
 
 /**
  * Structure Value representation
- * Stores structure field values
+ * Stores structure field values by field index: entier, reel, booleen and
+ * caractere fields as raw bits, every other field as a Value.
  */
 public class StructValue implements Value
 {
     private final StructType structType;
-    private final Map<String, Value> fieldValues;
+    private final Value[] values;
+    private final long[] bits;
 
     public StructValue(StructType structType)
     {
         this.structType = structType;
-        this.fieldValues = new LinkedHashMap<>();
+        int count = structType.getFieldCount();
+        this.values = new Value[count];
+        this.bits = new long[count];
 
-        // Initialize all fields to their zero values
-        for (Map.Entry<String, Type> entry : structType.getFields().entrySet())
+        // Initialize all fields to their zero values (unboxed fields are already zero)
+        for (int i = 0; i < count; i++)
         {
-            String fieldName = entry.getKey();
-            Type fieldType = entry.getValue();
-            fieldValues.put(fieldName, fieldType.zeroValue());
+            Type fieldType = structType.getFieldTypeAt(i);
+            if (!RawValues.isUnboxed(fieldType))
+            {
+                values[i] = fieldType.zeroValue();
+            }
         }
     }
 
@@ -33,18 +39,24 @@ public class StructValue implements Value
         return structType;
     }
 
-    /**
-     * Get field value
-     */
-    public Value getField(String fieldName)
+    private int indexOf(String fieldName)
     {
-        if (!structType.hasField(fieldName))
+        int index = structType.indexOf(fieldName);
+        if (index < 0)
         {
             throw new RuntimeException(
                     Messages.fieldNotFound(structType.getName(), fieldName)
             );
         }
-        return fieldValues.get(fieldName);
+        return index;
+    }
+
+    /**
+     * Get field value
+     */
+    public Value getField(String fieldName)
+    {
+        return getField(indexOf(fieldName));
     }
 
     /**
@@ -52,13 +64,90 @@ public class StructValue implements Value
      */
     public void setField(String fieldName, Value value)
     {
-        if (!structType.hasField(fieldName))
+        setField(indexOf(fieldName), value);
+    }
+
+    /**
+     * Get field value by index
+     */
+    public Value getField(int index)
+    {
+        Type fieldType = structType.getFieldTypeAt(index);
+        return RawValues.isUnboxed(fieldType)
+                ? RawValues.box(fieldType, RawValues.decode(fieldType, bits[index]))
+                : values[index];
+    }
+
+    /**
+     * Set field value by index
+     */
+    public void setField(int index, Value value)
+    {
+        Type fieldType = structType.getFieldTypeAt(index);
+        if (RawValues.isUnboxed(fieldType))
         {
-            throw new RuntimeException(
-                    Messages.fieldNotFound(structType.getName(), fieldName)
-            );
+            bits[index] = RawValues.encode(fieldType, value);
+        }
+        else
+        {
+            values[index] = value;
+        }
+    }
+
+    /**
+     * Get field value by index as the interpreter sees it
+     * (Integer, Double, Boolean, Character, String, or a composite Value)
+     */
+    public Object loadField(int index)
+    {
+        Type fieldType = structType.getFieldTypeAt(index);
+        if (RawValues.isUnboxed(fieldType))
+        {
+            return RawValues.decode(fieldType, bits[index]);
         }
-        fieldValues.put(fieldName, value);
+
+        Value value = values[index];
+        return value instanceof AtomicValue<?> atomic ? atomic.getValue() : value;
+    }
+
+    public int getIntField(int index)
+    {
+        return (int) bits[index];
+    }
+
+    public void setIntField(int index, int value)
+    {
+        bits[index] = value;
+    }
+
+    public double getDoubleField(int index)
+    {
+        return Double.longBitsToDouble(bits[index]);
+    }
+
+    public void setDoubleField(int index, double value)
+    {
+        bits[index] = Double.doubleToRawLongBits(value);
+    }
+
+    public boolean getBooleanField(int index)
+    {
+        return bits[index] != 0;
+    }
+
+    public void setBooleanField(int index, boolean value)
+    {
+        bits[index] = value ? 1 : 0;
+    }
+
+    public char getCharField(int index)
+    {
+        return (char) bits[index];
+    }
+
+    public void setCharField(int index, char value)
+    {
+        bits[index] = value;
     }
 
     /**
@@ -66,7 +155,12 @@ public class StructValue implements Value
      */
     public Map<String, Value> getFieldValues()
     {
-        return new LinkedHashMap<>(fieldValues);
+        Map<String, Value> fieldValues = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++)
+        {
+            fieldValues.put(structType.getFieldName(i), getField(i));
+        }
+        return fieldValues;
     }
 
     @Override
@@ -75,26 +169,13 @@ public class StructValue implements Value
         StringBuilder sb = new StringBuilder();
         sb.append(structType.getName()).append("{");
 
-        boolean first = true;
-        for (Map.Entry<String, Value> entry : fieldValues.entrySet())
+        for (int i = 0; i < values.length; i++)
         {
-            if (!first)
+            if (i > 0)
             {
                 sb.append(", ");
             }
-            first = false;
-
-            sb.append(entry.getKey()).append(": ");
-            Value value = entry.getValue();
-
-            if (value instanceof AtomicValue)
-            {
-                sb.append(((AtomicValue<?>) value).getValue());
-            }
-            else
-            {
-                sb.append(value.toString());
-            }
+            sb.append(structType.getFieldName(i)).append(": ").append(loadField(i));
         }
 
         sb.append("}");
@@ -0,0 +1,199 @@
+package io.dream.vm;
+
+import io.dream.scanner.Token;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled block of bytecode with its constant pools
+ * Also records which source token each instruction range comes from,
+ * so runtime errors can report a line.
+ */
+public final class Chunk
+{
+    private byte[] code = new byte[64];
+    private int count = 0;
+
+    // Primitive constants are stored as raw long bits
+    private long[] primitives = new long[8];
+    private int primitiveCount = 0;
+    private final Map<Long, Integer> primitiveIndex = new HashMap<>();
+
+    private final List<Object> references = new ArrayList<>();
+    private final Map<Object, Integer> referenceIndex = new HashMap<>();
+
+    // Token table: tokens[i] covers the code starting at tokenIps[i]
+    private int[] tokenIps = new int[8];
+    private Token[] tokens = new Token[8];
+    private int tokenCount = 0;
+
+    /**
+     * Append a byte
+     */
+    public void write(int value)
+    {
+        if (count == code.length)
+        {
+            code = Arrays.copyOf(code, count * 2);
+        }
+        code[count++] = (byte) value;
+    }
+
+    /**
+     * Append an unsigned 16 bits operand
+     */
+    public void writeShort(int value)
+    {
+        checkShort(value);
+        write(value >> 8);
+        write(value);
+    }
+
+    /**
+     * Overwrite an unsigned 16 bits operand (jump patching)
+     */
+    public void patchShort(int offset, int value)
+    {
+        checkShort(value);
+        code[offset] = (byte) (value >> 8);
+        code[offset + 1] = (byte) value;
+    }
+
+    private void checkShort(int value)
+    {
+        if (value < 0 || value > 0xFFFF)
+        {
+            throw new IllegalStateException("Bytecode operand out of range: " + value);
+        }
+    }
+
+    /**
+     * Current size of the code (offset of the next instruction)
+     */
+    public int count()
+    {
+        return count;
+    }
+
+    /**
+     * Add a primitive constant and return its pool index
+     */
+    public int addPrimitive(long bits)
+    {
+        Integer existing = primitiveIndex.get(bits);
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        if (primitiveCount == primitives.length)
+        {
+            primitives = Arrays.copyOf(primitives, primitiveCount * 2);
+        }
+        primitives[primitiveCount] = bits;
+        primitiveIndex.put(bits, primitiveCount);
+        return primitiveCount++;
+    }
+
+    /**
+     * Add a reference constant (string, type, field name) and return its pool index
+     */
+    public int addReference(Object value)
+    {
+        Integer existing = referenceIndex.get(value);
+        if (existing != null)
+        {
+            return existing;
+        }
+
+        references.add(value);
+        referenceIndex.put(value, references.size() - 1);
+        return references.size() - 1;
+    }
+
+    /**
+     * Attribute the code emitted from now on to a token
+     */
+    public void markToken(Token token)
+    {
+        if (token == null)
+        {
+            return;
+        }
+
+        if (tokenCount > 0 && tokens[tokenCount - 1] == token)
+        {
+            return;
+        }
+
+        if (tokenCount > 0 && tokenIps[tokenCount - 1] == count)
+        {
+            // Nothing emitted for the previous token, replace it
+            tokens[tokenCount - 1] = token;
+            return;
+        }
+
+        if (tokenCount == tokens.length)
+        {
+            tokenIps = Arrays.copyOf(tokenIps, tokenCount * 2);
+            tokens = Arrays.copyOf(tokens, tokenCount * 2);
+        }
+        tokenIps[tokenCount] = count;
+        tokens[tokenCount] = token;
+        tokenCount++;
+    }
+
+    /**
+     * Find the token an instruction was compiled from
+     */
+    public Token tokenAt(int ip)
+    {
+        int low = 0;
+        int high = tokenCount - 1;
+        Token found = tokenCount > 0 ? tokens[0] : null;
+
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            if (tokenIps[middle] <= ip)
+            {
+                found = tokens[middle];
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Trim the buffers once compilation is done
+     */
+    public void seal()
+    {
+        code = Arrays.copyOf(code, count);
+        primitives = Arrays.copyOf(primitives, primitiveCount);
+    }
+
+    public byte[] getCode()
+    {
+        return code;
+    }
+
+    public long[] getPrimitives()
+    {
+        return primitives;
+    }
+
+    public Object[] getReferences()
+    {
+        return references.toArray();
+    }
+}
@@ -0,0 +1,1040 @@
+package io.dream.vm;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.config.Messages;
+import io.dream.environment.FrameLayout;
+import io.dream.error.RuntimeError;
+import io.dream.natives.Natives;
+import io.dream.scanner.Token;
+import io.dream.scanner.TokenType;
+import io.dream.types.ArrayType;
+import io.dream.types.AtomicValue;
+import io.dream.types.StructType;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bytecode compiler for AlgoLang
+ * Translates a checked and resolved program into a Program for the VM.
+ * Instructions are chosen from the types the Checker annotated on each
+ * expression, so the VM never inspects values to pick an operation.
+ */
+public class Compiler implements Expression.Visitor<Void>, Statement.Visitor<Void>
+{
+    private final FrameLayout globals;
+
+    private final Map<String, Integer> functionIndex = new HashMap<>();
+    private final Map<String, Integer> methodIndex = new HashMap<>();
+    private Function[] functions;
+
+    // State of the routine being compiled
+    private Chunk chunk;
+    private boolean inMain;
+    private String function;
+    private List<Type> slotTypes;
+    private int hiddenTop;
+    private int stackDepth;
+    private int maxStackDepth;
+
+    public Compiler(FrameLayout globals)
+    {
+        this.globals = globals;
+    }
+
+    /**
+     * Compile a whole program (statements must have been checked and resolved)
+     */
+    public Program compile(List<Statement> statements)
+    {
+        // First pass: number functions and methods so calls can be emitted
+        // before their callee is compiled
+        int count = 0;
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.FunctionDeclaration function)
+            {
+                functionIndex.put(function.name.lexeme(), count++);
+            }
+            else if (statement instanceof Statement.MethodDeclaration method)
+            {
+                methodIndex.put(method.name.lexeme(), count++);
+            }
+        }
+        functions = new Function[count];
+
+        List<Statement> mainBody = new ArrayList<>();
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.FunctionDeclaration function)
+            {
+                functions[functionIndex.get(function.name.lexeme())] = compileFunction(function);
+            }
+            else if (statement instanceof Statement.MethodDeclaration method)
+            {
+                functions[methodIndex.get(method.name.lexeme())] = compileMethod(method);
+            }
+            else
+            {
+                mainBody.add(statement);
+            }
+        }
+
+        // The main block runs in the global frame
+        begin(globals, true);
+        compileBlock(mainBody);
+        emit(OpCode.HALT, 0);
+        Function main = end("main", 0, -1);
+
+        return new Program(main, functions);
+    }
+
+    private Function compileFunction(Statement.FunctionDeclaration function)
+    {
+        begin(layoutOf(function.getLayout(), function.name), false);
+        this.function = function.name.lexeme();
+        compileBlock(function.body);
+
+        // The Checker makes every path return, this only ends the code
+        pushZero(function.returnType);
+        emit(OpCode.RETURN, -1);
+
+        return end(function.name.lexeme(), function.parameters.size(), kindOf(function.returnType));
+    }
+
+    private Function compileMethod(Statement.MethodDeclaration method)
+    {
+        begin(layoutOf(method.getLayout(), method.name), false);
+        compileBlock(method.body);
+        emit(OpCode.RETURN_VOID, 0);
+
+        return end(method.name.lexeme(), method.parameters.size(), -1);
+    }
+
+    private FrameLayout layoutOf(FrameLayout layout, Token name)
+    {
+        if (layout == null)
+        {
+            throw new RuntimeError(name, Messages.functionNotResolved(name.lexeme()));
+        }
+        return layout;
+    }
+
+    private void begin(FrameLayout layout, boolean main)
+    {
+        chunk = new Chunk();
+        inMain = main;
+        function = null;
+        slotTypes = new ArrayList<>(Arrays.asList(layout.getTypes()));
+        hiddenTop = slotTypes.size();
+        stackDepth = 0;
+        maxStackDepth = 0;
+    }
+
+    private Function end(String name, int arity, int returnKind)
+    {
+        chunk.seal();
+        return new Function(name, arity, slotTypes.toArray(new Type[0]), maxStackDepth, returnKind, chunk);
+    }
+
+    // ========================================================================
+    // EMISSION HELPERS
+    // ========================================================================
+
+    private void emit(byte opCode, int stackEffect)
+    {
+        chunk.write(opCode);
+        stackDepth += stackEffect;
+        if (stackDepth > maxStackDepth)
+        {
+            maxStackDepth = stackDepth;
+        }
+    }
+
+    private void emitByte(int value)
+    {
+        chunk.write(value);
+    }
+
+    private void emitShort(int value)
+    {
+        chunk.writeShort(value);
+    }
+
+    /**
+     * Emit a jump with a placeholder target and return the operand offset
+     */
+    private int emitJump(byte opCode, int stackEffect)
+    {
+        emit(opCode, stackEffect);
+        int operand = chunk.count();
+        emitShort(0);
+        return operand;
+    }
+
+    /**
+     * Make a jump land on the next instruction
+     */
+    private void patchJump(int operand)
+    {
+        chunk.patchShort(operand, chunk.count());
+    }
+
+    private void emitJumpTo(byte opCode, int stackEffect, int target)
+    {
+        emit(opCode, stackEffect);
+        emitShort(target);
+    }
+
+    private void pushInt(int value)
+    {
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+        {
+            emit(OpCode.IPUSH, 1);
+            emitByte(value);
+        }
+        else
+        {
+            emit(OpCode.PCONST, 1);
+            emitShort(chunk.addPrimitive(value));
+        }
+    }
+
+    private void pushZero(Type type)
+    {
+        if (OpCode.isPrimitive(kindOf(type)))
+        {
+            pushInt(0);
+        }
+        else
+        {
+            emit(OpCode.NIL, 1);
+        }
+    }
+
+    /**
+     * Reserve consecutive hidden slots (loop counters) in the current frame
+     */
+    private int allocateHidden(int count)
+    {
+        int first = hiddenTop;
+        hiddenTop += count;
+        while (slotTypes.size() < hiddenTop)
+        {
+            slotTypes.add(TypeFactory.INTEGER);
+        }
+        return first;
+    }
+
+    /**
+     * Map a type to the kind operand of typed instructions
+     */
+    static int kindOf(Type type)
+    {
+        if (type == TypeFactory.INTEGER) return OpCode.KIND_INT;
+        if (type == TypeFactory.FLOATING) return OpCode.KIND_REAL;
+        if (type == TypeFactory.BOOLEAN) return OpCode.KIND_BOOL;
+        if (type == TypeFactory.CHAR) return OpCode.KIND_CHAR;
+        if (type == TypeFactory.STRING) return OpCode.KIND_STRING;
+        return OpCode.KIND_REF;
+    }
+
+    // ========================================================================
+    // VARIABLES
+    // ========================================================================
+
+    /**
+     * Frame slots of the main block are the globals, so only code inside a
+     * function reaches globals through the absolute instructions
+     */
+    private boolean isGlobal(int depth)
+    {
+        return !inMain && depth > 0;
+    }
+
+    private Type slotType(int depth, int slot)
+    {
+        return isGlobal(depth) ? globals.typeAt(slot) : slotTypes.get(slot);
+    }
+
+    private void checkResolved(int slot, Token name)
+    {
+        if (slot < 0)
+        {
+            throw new RuntimeError(name, Messages.variableNotDefined(name.lexeme()));
+        }
+    }
+
+    private void load(int depth, int slot, Token name)
+    {
+        checkResolved(slot, name);
+        boolean primitive = OpCode.isPrimitive(kindOf(slotType(depth, slot)));
+
+        if (isGlobal(depth))
+        {
+            emit(primitive ? OpCode.GPLOAD : OpCode.GRLOAD, 1);
+        }
+        else
+        {
+            emit(primitive ? OpCode.PLOAD : OpCode.RLOAD, 1);
+        }
+        emitShort(slot);
+    }
+
+    private void store(int depth, int slot, Token name)
+    {
+        checkResolved(slot, name);
+        boolean primitive = OpCode.isPrimitive(kindOf(slotType(depth, slot)));
+
+        if (isGlobal(depth))
+        {
+            emit(primitive ? OpCode.GPSTORE : OpCode.GRSTORE, -1);
+        }
+        else
+        {
+            emit(primitive ? OpCode.PSTORE : OpCode.RSTORE, -1);
+        }
+        emitShort(slot);
+    }
+
+    private void load(Statement statement, Token name)
+    {
+        load(statement.getDepth(), statement.getSlot(), name);
+    }
+
+    private void store(Statement statement, Token name)
+    {
+        store(statement.getDepth(), statement.getSlot(), name);
+    }
+
+    private Type targetType(Statement statement, Token name)
+    {
+        checkResolved(statement.getSlot(), name);
+        return slotType(statement.getDepth(), statement.getSlot());
+    }
+
+    // ========================================================================
+    // STATEMENTS
+    // ========================================================================
+
+    private void compileBlock(List<Statement> statements)
+    {
+        for (Statement statement : statements)
+        {
+            statement.accept(this);
+        }
+    }
+
+    private void compile(Expression expression)
+    {
+        expression.accept(this);
+    }
+
+    @Override
+    public Void visitExpressionStmtStatement(Statement.ExpressionStmt statement)
+    {
+        compile(statement.expression);
+        emit(OpCode.POP, -1);
+        return null;
+    }
+
+    @Override
+    public Void visitWriteStatement(Statement.Write statement)
+    {
+        compile(statement.expression);
+        emit(OpCode.WRITE, -1);
+        emitByte(kindOf(statement.expression.getType()));
+        return null;
+    }
+
+    @Override
+    public Void visitReadStatement(Statement.Read statement)
+    {
+        chunk.markToken(statement.variable);
+        emit(OpCode.READ, 1);
+        emitByte(kindOf(targetType(statement, statement.variable)));
+        store(statement, statement.variable);
+        return null;
+    }
+
+    @Override
+    public Void visitVariableDeclarationStatement(Statement.VariableDeclaration statement)
+    {
+        // Slots start at their zero value, only an initializer needs code
+        if (statement.value != null)
+        {
+            compile(statement.value);
+            store(statement, statement.name);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitConstantDeclarationStatement(Statement.ConstantDeclaration statement)
+    {
+        compile(statement.value);
+        store(statement, statement.name);
+        return null;
+    }
+
+    @Override
+    public Void visitAssignmentStatement(Statement.Assignment statement)
+    {
+        if (!increment(statement) && !move(statement))
+        {
+            compile(statement.value);
+            store(statement, statement.name);
+        }
+        return null;
+    }
+
+    /**
+     * x <- x + k (or x - k) on a local entier becomes a single IINC
+     */
+    private boolean increment(Statement.Assignment statement)
+    {
+        if (!(statement.value instanceof Expression.Binary binary)
+                || isGlobal(statement.getDepth())
+                || binary.getType() != TypeFactory.INTEGER
+                || !(binary.left instanceof Expression.Variable variable)
+                || !(binary.right instanceof Expression.Literal literal)
+                || !(literal.value instanceof AtomicValue<?> atomic)
+                || !(atomic.getValue() instanceof Integer amount))
+        {
+            return false;
+        }
+
+        TokenType operator = binary.operator.type();
+        if (operator == TokenType.MINUS)
+        {
+            amount = -amount;
+        }
+        else if (operator != TokenType.PLUS)
+        {
+            return false;
+        }
+
+        if (variable.getSlot() != statement.getSlot()
+                || isGlobal(variable.getDepth())
+                || variable.getSlot() < 0
+                || amount < Byte.MIN_VALUE || amount > Byte.MAX_VALUE)
+        {
+            return false;
+        }
+
+        emit(OpCode.IINC, 0);
+        emitShort(statement.getSlot());
+        emitByte(amount);
+        return true;
+    }
+
+    /**
+     * Copying one local primitive into another becomes a single MOVE
+     */
+    private boolean move(Statement.Assignment statement)
+    {
+        if (!(statement.value instanceof Expression.Variable variable)
+                || isGlobal(statement.getDepth())
+                || isGlobal(variable.getDepth())
+                || variable.getSlot() < 0
+                || statement.getSlot() < 0
+                || !OpCode.isPrimitive(kindOf(variable.getType())))
+        {
+            return false;
+        }
+
+        emit(OpCode.MOVE, 0);
+        emitShort(statement.getSlot());
+        emitShort(variable.getSlot());
+        return true;
+    }
+
+    /**
+     * Compile a condition followed by a jump taken when it is false and
+     * return the jump's operand offset. Comparisons of entier, booleen or
+     * car operands fuse with the jump.
+     */
+    private int jumpUnless(Expression condition)
+    {
+        while (condition instanceof Expression.Grouping grouping)
+        {
+            condition = grouping.expression;
+        }
+
+        if (condition instanceof Expression.Binary binary
+                && isFusable(binary.left.getType())
+                && binary.left.getType() == binary.right.getType())
+        {
+            byte inverse = switch (binary.operator.type())
+            {
+                case LESS -> OpCode.IF_IGE;
+                case LESS_OR_EQUAL -> OpCode.IF_IGT;
+                case GREATER -> OpCode.IF_ILE;
+                case GREATER_OR_EQUAL -> OpCode.IF_ILT;
+                case EQUAL_EQUAL -> OpCode.IF_INE;
+                case DIFF -> OpCode.IF_IEQ;
+                default -> -1;
+            };
+
+            if (inverse != -1)
+            {
+                compile(binary.left);
+                compile(binary.right);
+                return emitJump(inverse, -2);
+            }
+        }
+
+        compile(condition);
+        return emitJump(OpCode.JUMP_FALSE, -1);
+    }
+
+    private static boolean isFusable(Type type)
+    {
+        return type == TypeFactory.INTEGER || type == TypeFactory.BOOLEAN || type == TypeFactory.CHAR;
+    }
+
+    @Override
+    public Void visitIfStatement(Statement.If statement)
+    {
+        int elseJump = jumpUnless(statement.condition);
+        compileBlock(statement.thenBranch);
+
+        if (statement.elseBranch != null && !statement.elseBranch.isEmpty())
+        {
+            int endJump = emitJump(OpCode.JUMP, 0);
+            patchJump(elseJump);
+            compileBlock(statement.elseBranch);
+            patchJump(endJump);
+        }
+        else
+        {
+            patchJump(elseJump);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(Statement.While statement)
+    {
+        int start = chunk.count();
+        int exitJump = jumpUnless(statement.condition);
+        compileBlock(statement.body);
+        emitJumpTo(OpCode.JUMP, 0, start);
+        patchJump(exitJump);
+        return null;
+    }
+
+    @Override
+    public Void visitDoWhileStatement(Statement.DoWhile statement)
+    {
+        // repeter ... jusqu_a condition: loop until the condition holds
+        int start = chunk.count();
+        compileBlock(statement.body);
+        chunk.patchShort(jumpUnless(statement.condition), start);
+        return null;
+    }
+
+    @Override
+    public Void visitForStatement(Statement.For statement)
+    {
+        // Counter, end and step live in hidden slots: like the tree walker,
+        // bounds are evaluated once and the body cannot change the iteration.
+        // The iterations of a pour parallele are independent, the VM runs them in order
+        int counter = allocateHidden(3);
+
+        compile(statement.start);
+        emit(OpCode.PSTORE, -1);
+        emitShort(counter);
+
+        compile(statement.end);
+        emit(OpCode.PSTORE, -1);
+        emitShort(counter + 1);
+
+        if (statement.step != null)
+        {
+            compile(statement.step);
+        }
+        else
+        {
+            pushInt(1);
+        }
+        emit(OpCode.PSTORE, -1);
+        emitShort(counter + 2);
+
+        // The loop variable is always a frame slot: the Checker only lets a
+        // function see its own parameters and locals
+        checkResolved(statement.getSlot(), statement.variable);
+        int variable = statement.getSlot();
+
+        emit(OpCode.FOR_ENTER, 0);
+        emitShort(counter);
+        emitShort(variable);
+        int exitJump = chunk.count();
+        emitShort(0);
+
+        int body = chunk.count();
+        compileBlock(statement.body);
+
+        emit(OpCode.FOR_NEXT, 0);
+        emitShort(counter);
+        emitShort(variable);
+        emitShort(body);
+        patchJump(exitJump);
+
+        hiddenTop -= 3;
+        return null;
+    }
+
+    @Override
+    public Void visitFunctionDeclarationStatement(Statement.FunctionDeclaration statement)
+    {
+        // Compiled separately in compile()
+        return null;
+    }
+
+    @Override
+    public Void visitMethodDeclarationStatement(Statement.MethodDeclaration statement)
+    {
+        // Compiled separately in compile()
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStatement(Statement.Return statement)
+    {
+        // retourne f(...) inside f jumps back to the start of f
+        if (statement.value instanceof Expression.Call call && call.name.lexeme().equals(function))
+        {
+            for (Expression argument : call.arguments)
+            {
+                compile(argument);
+            }
+            chunk.markToken(call.name);
+            emit(OpCode.TAIL_CALL, -call.arguments.size());
+            return null;
+        }
+
+        compile(statement.value);
+        chunk.markToken(statement.keyword);
+        emit(OpCode.RETURN, -1);
+        return null;
+    }
+
+    @Override
+    public Void visitStructDeclarationStatement(Statement.StructDeclaration statement)
+    {
+        // Structure declarations don't generate code
+        return null;
+    }
+
+    @Override
+    public Void visitMethodCallStatement(Statement.MethodCall statement)
+    {
+        Integer index = methodIndex.get(statement.name.lexeme());
+        if (index == null)
+        {
+            throw new RuntimeError(statement.name,
+                    Messages.functionNotDefined(statement.name.lexeme()));
+        }
+
+        for (Expression argument : statement.arguments)
+        {
+            compile(argument);
+        }
+
+        chunk.markToken(statement.name);
+        emit(OpCode.CALL, -statement.arguments.size());
+        emitShort(index);
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAssignmentStatement(Statement.ArrayAssignment statement)
+    {
+        ArrayType arrayType = (ArrayType) targetType(statement, statement.arrayName);
+
+        load(statement, statement.arrayName);
+        compile(statement.index);
+        compile(statement.value);
+
+        chunk.markToken(statement.arrayName);
+        emit(OpCode.ASTORE, -3);
+        emitByte(kindOf(arrayType.getElementType()));
+        return null;
+    }
+
+    @Override
+    public Void visitFieldAssignmentStatement(Statement.FieldAssignment statement)
+    {
+        StructType structType = (StructType) targetType(statement, statement.objectName);
+
+        load(statement, statement.objectName);
+        compile(statement.value);
+
+        chunk.markToken(statement.fieldName);
+        emit(OpCode.SETFIELD, -2);
+        emitByte(kindOf(structType.getFieldType(statement.fieldName.lexeme())));
+        emitShort(structType.indexOf(statement.fieldName.lexeme()));
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayAssignmentStatement(Statement.NestedFieldArrayAssignment statement)
+    {
+        StructType structType = (StructType) targetType(statement, statement.objectName);
+        ArrayType arrayType = (ArrayType) structType.getFieldType(statement.fieldName.lexeme());
+
+        load(statement, statement.objectName);
+        getField(structType, statement.fieldName, OpCode.KIND_REF);
+        compile(statement.index);
+        compile(statement.value);
+
+        chunk.markToken(statement.fieldName);
+        emit(OpCode.ASTORE, -3);
+        emitByte(kindOf(arrayType.getElementType()));
+        return null;
+    }
+
+    @Override
+    public Void visitFieldReadStatement(Statement.FieldRead statement)
+    {
+        StructType structType = (StructType) targetType(statement, statement.objectName);
+        int kind = kindOf(structType.getFieldType(statement.fieldName.lexeme()));
+
+        load(statement, statement.objectName);
+        chunk.markToken(statement.fieldName);
+        readValue(kind);
+        emit(OpCode.SETFIELD, -2);
+        emitByte(kind);
+        emitShort(structType.indexOf(statement.fieldName.lexeme()));
+        return null;
+    }
+
+    @Override
+    public Void visitArrayReadStatement(Statement.ArrayRead statement)
+    {
+        ArrayType arrayType = (ArrayType) targetType(statement, statement.arrayName);
+        int kind = kindOf(arrayType.getElementType());
+
+        load(statement, statement.arrayName);
+        compile(statement.index);
+        chunk.markToken(statement.arrayName);
+        readValue(kind);
+        emit(OpCode.ASTORE, -3);
+        emitByte(kind);
+        return null;
+    }
+
+    @Override
+    public Void visitNestedFieldArrayReadStatement(Statement.NestedFieldArrayRead statement)
+    {
+        StructType structType = (StructType) targetType(statement, statement.objectName);
+        ArrayType arrayType = (ArrayType) structType.getFieldType(statement.fieldName.lexeme());
+        int kind = kindOf(arrayType.getElementType());
+
+        load(statement, statement.objectName);
+        getField(structType, statement.fieldName, OpCode.KIND_REF);
+        compile(statement.index);
+        chunk.markToken(statement.fieldName);
+        readValue(kind);
+        emit(OpCode.ASTORE, -3);
+        emitByte(kind);
+        return null;
+    }
+
+    /**
+     * Prompt and read a value for an array element or a field
+     */
+    private void readValue(int kind)
+    {
+        emit(OpCode.PROMPT, 0);
+        emit(OpCode.READ, 1);
+        emitByte(kind);
+    }
+
+    private void getField(StructType structType, Token field, int kind)
+    {
+        chunk.markToken(field);
+        emit(OpCode.GETFIELD, 0);
+        emitByte(kind);
+        emitShort(structType.indexOf(field.lexeme()));
+    }
+
+    // ========================================================================
+    // EXPRESSIONS
+    // ========================================================================
+
+    @Override
+    public Void visitBinaryExpression(Expression.Binary expression)
+    {
+        Type type = expression.getType();
+        Type leftType = expression.left.getType();
+        Type rightType = expression.right.getType();
+        boolean real = leftType == TypeFactory.FLOATING || rightType == TypeFactory.FLOATING;
+
+        switch (expression.operator.type())
+        {
+            case PLUS:
+                if (type == TypeFactory.STRING)
+                {
+                    compileText(expression.left);
+                    compileText(expression.right);
+                    emit(OpCode.CONCAT, -1);
+                    return null;
+                }
+                arithmetic(expression, OpCode.IADD, OpCode.DADD);
+                return null;
+
+            case MINUS:
+                arithmetic(expression, OpCode.ISUB, OpCode.DSUB);
+                return null;
+
+            case STAR:
+                arithmetic(expression, OpCode.IMUL, OpCode.DMUL);
+                return null;
+
+            case SLASH:
+                arithmetic(expression, OpCode.IDIV, OpCode.DDIV);
+                return null;
+
+            case MOD:
+                arithmetic(expression, OpCode.IMOD, OpCode.DMOD);
+                return null;
+
+            case GREATER:
+                comparison(expression, real, OpCode.IGT, OpCode.DGT);
+                return null;
+
+            case GREATER_OR_EQUAL:
+                comparison(expression, real, OpCode.IGE, OpCode.DGE);
+                return null;
+
+            case LESS:
+                comparison(expression, real, OpCode.ILT, OpCode.DLT);
+                return null;
+
+            case LESS_OR_EQUAL:
+                comparison(expression, real, OpCode.ILE, OpCode.DLE);
+                return null;
+
+            case EQUAL_EQUAL:
+                equality(expression, real, OpCode.IEQ, OpCode.DEQ, OpCode.REQ);
+                return null;
+
+            case DIFF:
+                equality(expression, real, OpCode.INE, OpCode.DNE, OpCode.RNE);
+                return null;
+
+            default:
+                throw new RuntimeError(expression.operator,
+                        Messages.unsupportedBinaryOperator(expression.operator.type().toString()));
+        }
+    }
+
+    private void arithmetic(Expression.Binary expression, byte intOp, byte realOp)
+    {
+        boolean real = expression.getType() == TypeFactory.FLOATING;
+        compileNumber(expression.left, real);
+        compileNumber(expression.right, real);
+        chunk.markToken(expression.operator);
+        emit(real ? realOp : intOp, -1);
+    }
+
+    private void comparison(Expression.Binary expression, boolean real, byte intOp, byte realOp)
+    {
+        compileNumber(expression.left, real);
+        compileNumber(expression.right, real);
+        chunk.markToken(expression.operator);
+        emit(real ? realOp : intOp, -1);
+    }
+
+    private void equality(Expression.Binary expression, boolean real,
+                          byte primitiveOp, byte realOp, byte referenceOp)
+    {
+        if (real)
+        {
+            compileNumber(expression.left, true);
+            compileNumber(expression.right, true);
+            emit(realOp, -1);
+            return;
+        }
+
+        compile(expression.left);
+        compile(expression.right);
+        boolean primitive = OpCode.isPrimitive(kindOf(expression.left.getType()));
+        emit(primitive ? primitiveOp : referenceOp, -1);
+    }
+
+    /**
+     * Compile a numeric operand, widening entier to reel when needed
+     */
+    private void compileNumber(Expression expression, boolean real)
+    {
+        compile(expression);
+        if (real && expression.getType() == TypeFactory.INTEGER)
+        {
+            emit(OpCode.I2D, 0);
+        }
+    }
+
+    /**
+     * Compile an operand of a string concatenation
+     */
+    private void compileText(Expression expression)
+    {
+        compile(expression);
+        int kind = kindOf(expression.getType());
+        if (kind != OpCode.KIND_STRING)
+        {
+            emit(OpCode.TO_STR, 0);
+            emitByte(kind);
+        }
+    }
+
+    @Override
+    public Void visitGroupingExpression(Expression.Grouping expression)
+    {
+        compile(expression.expression);
+        return null;
+    }
+
+    @Override
+    public Void visitUnaryExpression(Expression.Unary expression)
+    {
+        compile(expression.right);
+        chunk.markToken(expression.operator);
+
+        if (expression.operator.type() == TokenType.MINUS)
+        {
+            emit(expression.getType() == TypeFactory.FLOATING ? OpCode.DNEG : OpCode.INEG, 0);
+        }
+        else
+        {
+            emit(OpCode.NOT, 0);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitLiteralExpression(Expression.Literal expression)
+    {
+        Object value = expression.value instanceof AtomicValue<?> atomic
+                ? atomic.getValue()
+                : expression.value;
+
+        if (value instanceof Integer integer)
+        {
+            pushInt(integer);
+        }
+        else if (value instanceof Double real)
+        {
+            emit(OpCode.PCONST, 1);
+            emitShort(chunk.addPrimitive(Double.doubleToRawLongBits(real)));
+        }
+        else if (value instanceof Boolean bool)
+        {
+            pushInt(bool ? 1 : 0);
+        }
+        else if (value instanceof Character character)
+        {
+            pushInt(character);
+        }
+        else if (value == null)
+        {
+            emit(OpCode.NIL, 1);
+        }
+        else
+        {
+            emit(OpCode.RCONST, 1);
+            emitShort(chunk.addReference(value));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitVariableExpression(Expression.Variable expression)
+    {
+        chunk.markToken(expression.name);
+        load(expression.getDepth(), expression.getSlot(), expression.name);
+        return null;
+    }
+
+    @Override
+    public Void visitLogicalExpression(Expression.Logical expression)
+    {
+        boolean or = expression.operator.type() == TokenType.OR;
+
+        // The left operand decides alone when it is true for "ou", false for "et"
+        compile(expression.left);
+        int shortCircuit = emitJump(or ? OpCode.JUMP_TRUE : OpCode.JUMP_FALSE, -1);
+        compile(expression.right);
+        int end = emitJump(OpCode.JUMP, 0);
+
+        patchJump(shortCircuit);
+        stackDepth--;
+        pushInt(or ? 1 : 0);
+        patchJump(end);
+        return null;
+    }
+
+    @Override
+    public Void visitCallExpression(Expression.Call expression)
+    {
+        Integer index = functionIndex.get(expression.name.lexeme());
+        if (index == null)
+        {
+            // The Checker let it through: the call is to a native, which only the tree walker runs
+            throw new RuntimeError(expression.name, Natives.get(expression.name.lexeme()) != null
+                    ? Messages.nativeNotSupportedByVm(expression.name.lexeme())
+                    : Messages.functionNotDefined(expression.name.lexeme()));
+        }
+
+        for (Expression argument : expression.arguments)
+        {
+            compile(argument);
+        }
+
+        chunk.markToken(expression.name);
+        emit(OpCode.CALL, 1 - expression.arguments.size());
+        emitShort(index);
+        return null;
+    }
+
+    @Override
+    public Void visitArrayAccessExpression(Expression.ArrayAccess expression)
+    {
+        compile(expression.array);
+        compile(expression.index);
+        emit(OpCode.ALOAD, -1);
+        emitByte(kindOf(expression.getType()));
+        return null;
+    }
+
+    @Override
+    public Void visitFieldAccessExpression(Expression.FieldAccess expression)
+    {
+        compile(expression.object);
+        getField((StructType) expression.object.getType(), expression.field, kindOf(expression.getType()));
+        return null;
+    }
+
+    @Override
+    public Void visitArrayLiteralExpression(Expression.ArrayLiteral expression)
+    {
+        for (Expression element : expression.elements)
+        {
+            compile(element);
+        }
+
+        emit(OpCode.ARRAY, 1 - expression.elements.size());
+        emitShort(chunk.addReference(expression.getType()));
+        emitShort(expression.elements.size());
+        return null;
+    }
+}
@@ -0,0 +1,67 @@
+package io.dream.vm;
+
+import io.dream.types.Type;
+
+import java.util.Arrays;
+
+/**
+ * A compiled function, method or main block
+ */
+public final class Function
+{
+    public final String name;
+    public final int arity;
+
+    // Parameters, locals and hidden loop slots
+    public final int slotCount;
+
+    // Deepest operand stack used by the body
+    public final int maxStack;
+
+    // Type of every slot, used to give locals their zero value
+    public final Type[] slotTypes;
+
+    // Kind of the returned value, -1 for methods and the main block
+    public final int returnKind;
+
+    // Locals (parameters excluded) whose zero value is a string, array or structure
+    public final int[] referenceLocals;
+
+    public final byte[] code;
+    public final long[] primitives;
+    public final Object[] references;
+    public final Chunk chunk;
+
+    public Function(String name, int arity, Type[] slotTypes, int maxStack, int returnKind, Chunk chunk)
+    {
+        this.name = name;
+        this.arity = arity;
+        this.slotCount = slotTypes.length;
+        this.slotTypes = slotTypes;
+        this.maxStack = maxStack;
+        this.returnKind = returnKind;
+        this.chunk = chunk;
+        this.code = chunk.getCode();
+        this.primitives = chunk.getPrimitives();
+        this.references = chunk.getReferences();
+
+        int[] locals = new int[slotTypes.length];
+        int count = 0;
+        for (int slot = arity; slot < slotTypes.length; slot++)
+        {
+            if (!OpCode.isPrimitive(Compiler.kindOf(slotTypes[slot])))
+            {
+                locals[count++] = slot;
+            }
+        }
+        this.referenceLocals = Arrays.copyOf(locals, count);
+    }
+
+    /**
+     * Stack space needed by one activation
+     */
+    public int frameSize()
+    {
+        return slotCount + maxStack;
+    }
+}
@@ -0,0 +1,142 @@
+package io.dream.vm;
+
+/**
+ * Instruction set of the AlgoLang virtual machine
+ *
+ * Every instruction is one opcode byte followed by its operands.
+ * u8 operands take one byte, u16 operands two bytes (big endian).
+ * Jump targets are absolute offsets in the chunk.
+ *
+ * The stack holds primitives (entier, reel, booleen, car) as raw long bits
+ * and references (chaine, tableau, structure) as objects, so every
+ * instruction is typed by the Checker's annotations.
+ */
+public final class OpCode
+{
+    private OpCode()
+    {
+    }
+
+    // ========================================================================
+    // CONSTANTS
+    // ========================================================================
+    public static final byte PCONST = 0;        // u16 primitive pool index
+    public static final byte RCONST = 1;        // u16 reference pool index
+    public static final byte IPUSH = 2;         // s8 small integer
+    public static final byte NIL = 3;
+
+    // ========================================================================
+    // VARIABLES (frame relative and global)
+    // ========================================================================
+    public static final byte PLOAD = 4;         // u16 slot
+    public static final byte RLOAD = 5;         // u16 slot
+    public static final byte PSTORE = 6;        // u16 slot
+    public static final byte RSTORE = 7;        // u16 slot
+    public static final byte GPLOAD = 8;        // u16 slot
+    public static final byte GRLOAD = 9;        // u16 slot
+    public static final byte GPSTORE = 10;      // u16 slot
+    public static final byte GRSTORE = 11;      // u16 slot
+    public static final byte POP = 12;
+
+    // ========================================================================
+    // ARITHMETIC
+    // ========================================================================
+    public static final byte IADD = 13;
+    public static final byte ISUB = 14;
+    public static final byte IMUL = 15;
+    public static final byte IDIV = 16;
+    public static final byte IMOD = 17;
+    public static final byte INEG = 18;
+    public static final byte DADD = 19;
+    public static final byte DSUB = 20;
+    public static final byte DMUL = 21;
+    public static final byte DDIV = 22;
+    public static final byte DMOD = 23;
+    public static final byte DNEG = 24;
+    public static final byte I2D = 25;
+
+    // ========================================================================
+    // COMPARISON AND LOGIC
+    // ========================================================================
+    public static final byte ILT = 26;
+    public static final byte ILE = 27;
+    public static final byte IGT = 28;
+    public static final byte IGE = 29;
+    public static final byte IEQ = 30;
+    public static final byte INE = 31;
+    public static final byte DLT = 32;
+    public static final byte DLE = 33;
+    public static final byte DGT = 34;
+    public static final byte DGE = 35;
+    public static final byte DEQ = 36;
+    public static final byte DNE = 37;
+    public static final byte REQ = 38;
+    public static final byte RNE = 39;
+    public static final byte NOT = 40;
+
+    // ========================================================================
+    // CONTROL FLOW
+    // ========================================================================
+    public static final byte JUMP = 41;         // u16 target
+    public static final byte JUMP_FALSE = 42;   // u16 target
+    public static final byte JUMP_TRUE = 43;    // u16 target
+    public static final byte FOR_ENTER = 44;    // u16 counter slot, u16 variable slot, u16 exit target
+    public static final byte FOR_NEXT = 45;     // u16 counter slot, u16 variable slot, u16 body target
+
+    // ========================================================================
+    // STRINGS AND INPUT/OUTPUT
+    // ========================================================================
+    public static final byte TO_STR = 46;       // u8 kind
+    public static final byte CONCAT = 47;
+    public static final byte WRITE = 48;        // u8 kind
+    public static final byte READ = 49;         // u8 kind
+    public static final byte PROMPT = 50;
+
+    // ========================================================================
+    // ARRAYS AND STRUCTURES
+    // ========================================================================
+    public static final byte ALOAD = 51;        // u8 kind
+    public static final byte ASTORE = 52;       // u8 kind
+    public static final byte ARRAY = 53;        // u16 type index, u16 element count
+    public static final byte GETFIELD = 54;     // u8 kind, u16 field index
+    public static final byte SETFIELD = 55;     // u8 kind, u16 field index
+
+    // ========================================================================
+    // CALLS
+    // ========================================================================
+    public static final byte CALL = 56;         // u16 function index
+    public static final byte RETURN = 57;
+    public static final byte RETURN_VOID = 58;
+    public static final byte HALT = 59;
+    public static final byte TAIL_CALL = 68;    // call of the current function reusing its frame
+
+    // ========================================================================
+    // SUPERINSTRUCTIONS (fused common sequences)
+    // ========================================================================
+    public static final byte MOVE = 60;         // u16 destination slot, u16 source slot
+    public static final byte IINC = 61;         // u16 slot, s8 increment
+    public static final byte IF_ILT = 62;       // u16 target, jump when left < right
+    public static final byte IF_ILE = 63;       // u16 target
+    public static final byte IF_IGT = 64;       // u16 target
+    public static final byte IF_IGE = 65;       // u16 target
+    public static final byte IF_IEQ = 66;       // u16 target
+    public static final byte IF_INE = 67;       // u16 target
+
+    // ========================================================================
+    // VALUE KINDS (operand of typed instructions)
+    // ========================================================================
+    public static final int KIND_INT = 0;
+    public static final int KIND_REAL = 1;
+    public static final int KIND_BOOL = 2;
+    public static final int KIND_CHAR = 3;
+    public static final int KIND_STRING = 4;
+    public static final int KIND_REF = 5;
+
+    /**
+     * Check whether values of a kind live on the primitive side of the stack
+     */
+    public static boolean isPrimitive(int kind)
+    {
+        return kind <= KIND_CHAR;
+    }
+}
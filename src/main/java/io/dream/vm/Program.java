@@ -0,0 +1,17 @@
+package io.dream.vm;
+
+/**
+ * A whole compiled AlgoLang program
+ * The main block's slots are the global variables.
+ */
+public final class Program
+{
+    public final Function main;
+    public final Function[] functions;
+
+    public Program(Function main, Function[] functions)
+    {
+        this.main = main;
+        this.functions = functions;
+    }
+}
@@ -0,0 +1,857 @@
+package io.dream.vm;
+
+import io.dream.Interpreter;
+import io.dream.Main;
+import io.dream.config.Config;
+import io.dream.config.Messages;
+import io.dream.error.RuntimeError;
+import io.dream.natives.InputReader;
+import io.dream.natives.OutputSink;
+import io.dream.types.ArrayType;
+import io.dream.types.ArrayValue;
+import io.dream.types.AtomicTypes;
+import io.dream.types.AtomicValue;
+import io.dream.types.BooleanArrayValue;
+import io.dream.types.CharArrayValue;
+import io.dream.types.DoubleArrayValue;
+import io.dream.types.IntArrayValue;
+import io.dream.types.StructType;
+import io.dream.types.StructValue;
+import io.dream.types.Type;
+import io.dream.types.TypeFactory;
+import io.dream.types.Value;
+
+import java.util.Arrays;
+import java.util.InputMismatchException;
+
+/**
+ * Stack based virtual machine for AlgoLang bytecode
+ *
+ * One operand stack is shared by all frames: a frame's slots (parameters,
+ * locals, hidden loop counters) sit right below its operands, and the
+ * caller's pushed arguments become the callee's first slots.
+ * Primitives live in a long[] and references in a parallel Object[],
+ * so arithmetic never boxes. Calls push an explicit frame record instead
+ * of recursing on the Java stack, up to a budget of nested frames, and a
+ * function calling itself in tail position reuses its frame.
+ *
+ * The tree walker stays the default engine. The VM starts faster, so it
+ * wins on short scripts, but the tree walker lowers the tree to typed
+ * nodes and compiles hot routines to JVM bytecode, which outruns this
+ * dispatch loop once a script runs for long: the VM keeps the lead only
+ * on call heavy scripts with the JIT off, and loses on loops over arrays
+ * and structures either way. It runs no native function (the Compiler
+ * rejects scripts calling one) and does not memoize, so --memo requires
+ * the tree engine.
+ */
+public class VM
+{
+    private final Program program;
+    private final int maxFrames;
+
+    // Operand stack and frame slots
+    private long[] primitives = new long[256];
+    private Object[] references = new Object[256];
+
+    // Saved caller state, one entry per active call
+    private Function[] frameFunctions = new Function[64];
+    private int[] frameIps = new int[64];
+    private int[] frameFps = new int[64];
+    private int frameCount = 0;
+
+    private InputReader input;
+    private final OutputSink output;
+
+    public VM(Program program)
+    {
+        this(program, Interpreter.DEFAULT_MAX_FRAMES);
+    }
+
+    /**
+     * @param maxFrames how many calls may be nested before a stack overflow
+     */
+    public VM(Program program, int maxFrames)
+    {
+        this(program, maxFrames, new OutputSink(System.out));
+    }
+
+    /**
+     * @param maxFrames how many calls may be nested before a stack overflow
+     * @param output    where ecrire prints
+     */
+    public VM(Program program, int maxFrames, OutputSink output)
+    {
+        this.program = program;
+        this.maxFrames = maxFrames;
+        this.output = output;
+    }
+
+    /**
+     * Run the program, reporting runtime errors like the tree walker
+     */
+    public void run()
+    {
+        try
+        {
+            execute();
+        }
+        catch (RuntimeError error)
+        {
+            output.flush();
+            Main.runtimeError(error);
+        }
+        finally
+        {
+            output.flush();
+        }
+    }
+
+    /**
+     * The dispatch loop
+     */
+    private void execute()
+    {
+        Function function = program.main;
+        ensureCapacity(function.frameSize());
+        initSlots(function, 0);
+
+        long[] ps = primitives;
+        Object[] rs = references;
+        byte[] code = function.code;
+        long[] pool = function.primitives;
+        Object[] constants = function.references;
+        int ip = 0;
+        int fp = 0;
+        int sp = function.slotCount;
+
+        try
+        {
+            for (;;)
+            {
+                switch (code[ip++])
+                {
+                    case OpCode.PCONST:
+                        ps[sp++] = pool[u16(code, ip)];
+                        ip += 2;
+                        break;
+
+                    case OpCode.RCONST:
+                        rs[sp++] = constants[u16(code, ip)];
+                        ip += 2;
+                        break;
+
+                    case OpCode.IPUSH:
+                        ps[sp++] = code[ip++];
+                        break;
+
+                    case OpCode.NIL:
+                        rs[sp++] = null;
+                        break;
+
+                    case OpCode.PLOAD:
+                        ps[sp++] = ps[fp + u16(code, ip)];
+                        ip += 2;
+                        break;
+
+                    case OpCode.RLOAD:
+                        rs[sp++] = rs[fp + u16(code, ip)];
+                        ip += 2;
+                        break;
+
+                    case OpCode.PSTORE:
+                        ps[fp + u16(code, ip)] = ps[--sp];
+                        ip += 2;
+                        break;
+
+                    case OpCode.RSTORE:
+                        rs[fp + u16(code, ip)] = rs[--sp];
+                        ip += 2;
+                        break;
+
+                    case OpCode.GPLOAD:
+                        ps[sp++] = ps[u16(code, ip)];
+                        ip += 2;
+                        break;
+
+                    case OpCode.GRLOAD:
+                        rs[sp++] = rs[u16(code, ip)];
+                        ip += 2;
+                        break;
+
+                    case OpCode.GPSTORE:
+                        ps[u16(code, ip)] = ps[--sp];
+                        ip += 2;
+                        break;
+
+                    case OpCode.GRSTORE:
+                        rs[u16(code, ip)] = rs[--sp];
+                        ip += 2;
+                        break;
+
+                    case OpCode.POP:
+                        sp--;
+                        break;
+
+                    case OpCode.IADD:
+                        sp--;
+                        ps[sp - 1] = (int) ps[sp - 1] + (int) ps[sp];
+                        break;
+
+                    case OpCode.ISUB:
+                        sp--;
+                        ps[sp - 1] = (int) ps[sp - 1] - (int) ps[sp];
+                        break;
+
+                    case OpCode.IMUL:
+                        sp--;
+                        ps[sp - 1] = (int) ps[sp - 1] * (int) ps[sp];
+                        break;
+
+                    case OpCode.IDIV:
+                        sp--;
+                        checkDivisor((int) ps[sp]);
+                        ps[sp - 1] = (int) ps[sp - 1] / (int) ps[sp];
+                        break;
+
+                    case OpCode.IMOD:
+                        sp--;
+                        checkDivisor((int) ps[sp]);
+                        ps[sp - 1] = (int) ps[sp - 1] % (int) ps[sp];
+                        break;
+
+                    case OpCode.INEG:
+                        ps[sp - 1] = -(int) ps[sp - 1];
+                        break;
+
+                    case OpCode.DADD:
+                        sp--;
+                        ps[sp - 1] = bits(real(ps[sp - 1]) + real(ps[sp]));
+                        break;
+
+                    case OpCode.DSUB:
+                        sp--;
+                        ps[sp - 1] = bits(real(ps[sp - 1]) - real(ps[sp]));
+                        break;
+
+                    case OpCode.DMUL:
+                        sp--;
+                        ps[sp - 1] = bits(real(ps[sp - 1]) * real(ps[sp]));
+                        break;
+
+                    case OpCode.DDIV:
+                        sp--;
+                        checkDivisor(real(ps[sp]));
+                        ps[sp - 1] = bits(real(ps[sp - 1]) / real(ps[sp]));
+                        break;
+
+                    case OpCode.DMOD:
+                        sp--;
+                        checkDivisor(real(ps[sp]));
+                        ps[sp - 1] = bits(real(ps[sp - 1]) % real(ps[sp]));
+                        break;
+
+                    case OpCode.DNEG:
+                        ps[sp - 1] = bits(-real(ps[sp - 1]));
+                        break;
+
+                    case OpCode.I2D:
+                        ps[sp - 1] = bits((int) ps[sp - 1]);
+                        break;
+
+                    case OpCode.ILT:
+                        sp--;
+                        ps[sp - 1] = ps[sp - 1] < ps[sp] ? 1 : 0;
+                        break;
+
+                    case OpCode.ILE:
+                        sp--;
+                        ps[sp - 1] = ps[sp - 1] <= ps[sp] ? 1 : 0;
+                        break;
+
+                    case OpCode.IGT:
+                        sp--;
+                        ps[sp - 1] = ps[sp - 1] > ps[sp] ? 1 : 0;
+                        break;
+
+                    case OpCode.IGE:
+                        sp--;
+                        ps[sp - 1] = ps[sp - 1] >= ps[sp] ? 1 : 0;
+                        break;
+
+                    case OpCode.IEQ:
+                        sp--;
+                        ps[sp - 1] = ps[sp - 1] == ps[sp] ? 1 : 0;
+                        break;
+
+                    case OpCode.INE:
+                        sp--;
+                        ps[sp - 1] = ps[sp - 1] != ps[sp] ? 1 : 0;
+                        break;
+
+                    case OpCode.DLT:
+                        sp--;
+                        ps[sp - 1] = real(ps[sp - 1]) < real(ps[sp]) ? 1 : 0;
+                        break;
+
+                    case OpCode.DLE:
+                        sp--;
+                        ps[sp - 1] = real(ps[sp - 1]) <= real(ps[sp]) ? 1 : 0;
+                        break;
+
+                    case OpCode.DGT:
+                        sp--;
+                        ps[sp - 1] = real(ps[sp - 1]) > real(ps[sp]) ? 1 : 0;
+                        break;
+
+                    case OpCode.DGE:
+                        sp--;
+                        ps[sp - 1] = real(ps[sp - 1]) >= real(ps[sp]) ? 1 : 0;
+                        break;
+
+                    case OpCode.DEQ:
+                        sp--;
+                        ps[sp - 1] = real(ps[sp - 1]) == real(ps[sp]) ? 1 : 0;
+                        break;
+
+                    case OpCode.DNE:
+                        sp--;
+                        ps[sp - 1] = real(ps[sp - 1]) != real(ps[sp]) ? 1 : 0;
+                        break;
+
+                    case OpCode.REQ:
+                        sp--;
+                        ps[sp - 1] = equal(rs[sp - 1], rs[sp]) ? 1 : 0;
+                        break;
+
+                    case OpCode.RNE:
+                        sp--;
+                        ps[sp - 1] = equal(rs[sp - 1], rs[sp]) ? 0 : 1;
+                        break;
+
+                    case OpCode.NOT:
+                        ps[sp - 1] = ps[sp - 1] == 0 ? 1 : 0;
+                        break;
+
+                    case OpCode.JUMP:
+                        ip = u16(code, ip);
+                        break;
+
+                    case OpCode.JUMP_FALSE:
+                        ip = ps[--sp] == 0 ? u16(code, ip) : ip + 2;
+                        break;
+
+                    case OpCode.JUMP_TRUE:
+                        ip = ps[--sp] != 0 ? u16(code, ip) : ip + 2;
+                        break;
+
+                    case OpCode.FOR_ENTER:
+                    {
+                        // Counter, end and step occupy three consecutive slots
+                        int counter = fp + u16(code, ip);
+                        if (forDone(ps, counter))
+                        {
+                            ip = u16(code, ip + 4);
+                        }
+                        else
+                        {
+                            ps[fp + u16(code, ip + 2)] = ps[counter];
+                            ip += 6;
+                        }
+                        break;
+                    }
+
+                    case OpCode.FOR_NEXT:
+                    {
+                        int counter = fp + u16(code, ip);
+                        ps[counter] = (int) ps[counter] + (int) ps[counter + 2];
+                        if (forDone(ps, counter))
+                        {
+                            ip += 6;
+                        }
+                        else
+                        {
+                            ps[fp + u16(code, ip + 2)] = ps[counter];
+                            ip = u16(code, ip + 4);
+                        }
+                        break;
+                    }
+
+                    case OpCode.TO_STR:
+                        rs[sp - 1] = text(code[ip++], ps[sp - 1], rs[sp - 1]);
+                        break;
+
+                    case OpCode.CONCAT:
+                        sp--;
+                        rs[sp - 1] = ((String) rs[sp - 1]).concat((String) rs[sp]);
+                        break;
+
+                    case OpCode.WRITE:
+                        sp--;
+                        output.println(text(code[ip++], ps[sp], rs[sp]));
+                        break;
+
+                    case OpCode.READ:
+                        read(code[ip++], sp++);
+                        break;
+
+                    case OpCode.PROMPT:
+                        output.print("> ");
+                        break;
+
+                    case OpCode.ALOAD:
+                    {
+                        sp--;
+                        load(code[ip++], (ArrayValue) rs[sp - 1], (int) ps[sp], sp - 1);
+                        break;
+                    }
+
+                    case OpCode.ASTORE:
+                    {
+                        sp -= 3;
+                        store(code[ip++], (ArrayValue) rs[sp], (int) ps[sp + 1], ps[sp + 2], rs[sp + 2]);
+                        break;
+                    }
+
+                    case OpCode.ARRAY:
+                    {
+                        int count = u16(code, ip + 2);
+                        sp -= count;
+                        rs[sp] = arrayLiteral((ArrayType) constants[u16(code, ip)], sp, count);
+                        sp++;
+                        ip += 4;
+                        break;
+                    }
+
+                    case OpCode.GETFIELD:
+                    {
+                        getField(code[ip], (StructValue) rs[sp - 1], u16(code, ip + 1), sp - 1);
+                        ip += 3;
+                        break;
+                    }
+
+                    case OpCode.SETFIELD:
+                    {
+                        sp -= 2;
+                        setField(code[ip], (StructValue) rs[sp], u16(code, ip + 1), ps[sp + 1], rs[sp + 1]);
+                        ip += 3;
+                        break;
+                    }
+
+                    case OpCode.CALL:
+                    {
+                        Function callee = program.functions[u16(code, ip)];
+                        pushFrame(function, ip + 2, fp);
+
+                        // Arguments already on the stack become the first slots
+                        fp = sp - callee.arity;
+                        sp = fp + callee.slotCount;
+                        if (fp + callee.frameSize() > ps.length)
+                        {
+                            ensureCapacity(fp + callee.frameSize());
+                            ps = primitives;
+                            rs = references;
+                        }
+                        initSlots(callee, fp);
+
+                        function = callee;
+                        code = function.code;
+                        pool = function.primitives;
+                        constants = function.references;
+                        ip = 0;
+                        break;
+                    }
+
+                    case OpCode.TAIL_CALL:
+                    {
+                        // The arguments replace the parameters and the body starts over
+                        int arity = function.arity;
+                        System.arraycopy(ps, sp - arity, ps, fp, arity);
+                        System.arraycopy(rs, sp - arity, rs, fp, arity);
+                        sp = fp + function.slotCount;
+                        initSlots(function, fp);
+                        ip = 0;
+                        break;
+                    }
+
+                    case OpCode.RETURN:
+                    {
+                        // The result replaces the callee's frame
+                        ps[fp] = ps[sp - 1];
+                        rs[fp] = rs[sp - 1];
+                        sp = fp + 1;
+
+                        frameCount--;
+                        function = frameFunctions[frameCount];
+                        ip = frameIps[frameCount];
+                        fp = frameFps[frameCount];
+                        code = function.code;
+                        pool = function.primitives;
+                        constants = function.references;
+                        break;
+                    }
+
+                    case OpCode.RETURN_VOID:
+                    {
+                        sp = fp;
+
+                        frameCount--;
+                        function = frameFunctions[frameCount];
+                        ip = frameIps[frameCount];
+                        fp = frameFps[frameCount];
+                        code = function.code;
+                        pool = function.primitives;
+                        constants = function.references;
+                        break;
+                    }
+
+                    case OpCode.HALT:
+                        return;
+
+                    case OpCode.MOVE:
+                        ps[fp + u16(code, ip)] = ps[fp + u16(code, ip + 2)];
+                        ip += 4;
+                        break;
+
+                    case OpCode.IINC:
+                    {
+                        int slot = fp + u16(code, ip);
+                        ps[slot] = (int) ps[slot] + code[ip + 2];
+                        ip += 3;
+                        break;
+                    }
+
+                    case OpCode.IF_ILT:
+                        sp -= 2;
+                        ip = ps[sp] < ps[sp + 1] ? u16(code, ip) : ip + 2;
+                        break;
+
+                    case OpCode.IF_ILE:
+                        sp -= 2;
+                        ip = ps[sp] <= ps[sp + 1] ? u16(code, ip) : ip + 2;
+                        break;
+
+                    case OpCode.IF_IGT:
+                        sp -= 2;
+                        ip = ps[sp] > ps[sp + 1] ? u16(code, ip) : ip + 2;
+                        break;
+
+                    case OpCode.IF_IGE:
+                        sp -= 2;
+                        ip = ps[sp] >= ps[sp + 1] ? u16(code, ip) : ip + 2;
+                        break;
+
+                    case OpCode.IF_IEQ:
+                        sp -= 2;
+                        ip = ps[sp] == ps[sp + 1] ? u16(code, ip) : ip + 2;
+                        break;
+
+                    case OpCode.IF_INE:
+                        sp -= 2;
+                        ip = ps[sp] != ps[sp + 1] ? u16(code, ip) : ip + 2;
+                        break;
+
+                    default:
+                        throw new IllegalStateException("Unknown opcode " + code[ip - 1]);
+                }
+            }
+        }
+        catch (RuntimeError error)
+        {
+            // Helpers raise errors without position, attach the current line
+            if (error.token() != null)
+            {
+                throw error;
+            }
+            throw new RuntimeError(function.chunk.tokenAt(ip - 1), error.getMessage());
+        }
+    }
+
+    // ========================================================================
+    // FRAMES
+    // ========================================================================
+
+    private void pushFrame(Function function, int ip, int fp)
+    {
+        if (frameCount == maxFrames)
+        {
+            throw new RuntimeError(null, Messages.stackOverflow());
+        }
+        if (frameCount == frameFunctions.length)
+        {
+            int capacity = Math.min(maxFrames, frameCount * 2);
+            frameFunctions = Arrays.copyOf(frameFunctions, capacity);
+            frameIps = Arrays.copyOf(frameIps, capacity);
+            frameFps = Arrays.copyOf(frameFps, capacity);
+        }
+
+        frameFunctions[frameCount] = function;
+        frameIps[frameCount] = ip;
+        frameFps[frameCount] = fp;
+        frameCount++;
+    }
+
+    private void ensureCapacity(int size)
+    {
+        if (size > primitives.length)
+        {
+            int capacity = Math.max(size, primitives.length * 2);
+            primitives = Arrays.copyOf(primitives, capacity);
+            references = Arrays.copyOf(references, capacity);
+        }
+    }
+
+    /**
+     * Give the locals of a new frame their zero value (parameters are already set)
+     */
+    private void initSlots(Function function, int fp)
+    {
+        Arrays.fill(primitives, fp + function.arity, fp + function.slotCount, 0L);
+        for (int slot : function.referenceLocals)
+        {
+            references[fp + slot] = zeroReference(function.slotTypes[slot]);
+        }
+    }
+
+    private static Object zeroReference(Type type)
+    {
+        if (type == TypeFactory.STRING)
+        {
+            return "";
+        }
+        if (type instanceof ArrayType arrayType)
+        {
+            return ArrayValue.create(arrayType);
+        }
+        if (type instanceof StructType structType)
+        {
+            return new StructValue(structType);
+        }
+        return null;
+    }
+
+    // ========================================================================
+    // VALUE HELPERS
+    // ========================================================================
+
+    private static int u16(byte[] code, int offset)
+    {
+        return ((code[offset] & 0xFF) << 8) | (code[offset + 1] & 0xFF);
+    }
+
+    private static boolean forDone(long[] ps, int counter)
+    {
+        return ps[counter + 2] > 0
+                ? ps[counter] > ps[counter + 1]
+                : ps[counter] < ps[counter + 1];
+    }
+
+    private static double real(long bits)
+    {
+        return Double.longBitsToDouble(bits);
+    }
+
+    private static long bits(double value)
+    {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    private static void checkDivisor(int divisor)
+    {
+        if (divisor == 0)
+        {
+            throw new RuntimeError(null, Messages.divisionByZero());
+        }
+    }
+
+    private static void checkDivisor(double divisor)
+    {
+        if (divisor == 0.0)
+        {
+            throw new RuntimeError(null, Messages.divisionByZero());
+        }
+    }
+
+    private static boolean equal(Object left, Object right)
+    {
+        if (left == null && right == null) return true;
+        if (left == null || right == null) return false;
+        return left.equals(right);
+    }
+
+    private static void checkIndex(ArrayValue array, int index)
+    {
+        ArrayType type = array.getArrayType();
+        if (!type.isValidIndex(index))
+        {
+            throw new RuntimeError(null,
+                    Messages.arrayIndexOutOfBounds(index, type.getLowerBound(), type.getUpperBound()));
+        }
+    }
+
+    /**
+     * Read an array element into a stack slot, straight from primitive storage
+     */
+    private void load(int kind, ArrayValue array, int index, int slot)
+    {
+        checkIndex(array, index);
+        switch (kind)
+        {
+            case OpCode.KIND_INT -> primitives[slot] = ((IntArrayValue) array).getInt(index);
+            case OpCode.KIND_REAL -> primitives[slot] = bits(((DoubleArrayValue) array).getDouble(index));
+            case OpCode.KIND_BOOL -> primitives[slot] = ((BooleanArrayValue) array).getBoolean(index) ? 1 : 0;
+            case OpCode.KIND_CHAR -> primitives[slot] = ((CharArrayValue) array).getChar(index);
+            default -> unbox(kind, array.get(index), slot);
+        }
+    }
+
+    /**
+     * Write a stack value into an array element
+     */
+    private static void store(int kind, ArrayValue array, int index, long bits, Object reference)
+    {
+        checkIndex(array, index);
+        switch (kind)
+        {
+            case OpCode.KIND_INT -> ((IntArrayValue) array).setInt(index, (int) bits);
+            case OpCode.KIND_REAL -> ((DoubleArrayValue) array).setDouble(index, real(bits));
+            case OpCode.KIND_BOOL -> ((BooleanArrayValue) array).setBoolean(index, bits != 0);
+            case OpCode.KIND_CHAR -> ((CharArrayValue) array).setChar(index, (char) bits);
+            default -> array.set(index, box(kind, bits, reference));
+        }
+    }
+
+    /**
+     * Read a structure field into a stack slot, straight from primitive storage
+     */
+    private void getField(int kind, StructValue struct, int index, int slot)
+    {
+        switch (kind)
+        {
+            case OpCode.KIND_INT -> primitives[slot] = struct.getIntField(index);
+            case OpCode.KIND_REAL -> primitives[slot] = bits(struct.getDoubleField(index));
+            case OpCode.KIND_BOOL -> primitives[slot] = struct.getBooleanField(index) ? 1 : 0;
+            case OpCode.KIND_CHAR -> primitives[slot] = struct.getCharField(index);
+            default -> unbox(kind, struct.getField(index), slot);
+        }
+    }
+
+    /**
+     * Write a stack value into a structure field
+     */
+    private static void setField(int kind, StructValue struct, int index, long bits, Object reference)
+    {
+        switch (kind)
+        {
+            case OpCode.KIND_INT -> struct.setIntField(index, (int) bits);
+            case OpCode.KIND_REAL -> struct.setDoubleField(index, real(bits));
+            case OpCode.KIND_BOOL -> struct.setBooleanField(index, bits != 0);
+            case OpCode.KIND_CHAR -> struct.setCharField(index, (char) bits);
+            default -> struct.setField(index, box(kind, bits, reference));
+        }
+    }
+
+    /**
+     * Store a boxed element or field value into a stack slot
+     */
+    private void unbox(int kind, Value value, int slot)
+    {
+        Object raw = value instanceof AtomicValue<?> atomic ? atomic.getValue() : value;
+
+        switch (kind)
+        {
+            case OpCode.KIND_INT -> primitives[slot] = (Integer) raw;
+            case OpCode.KIND_REAL -> primitives[slot] = bits((Double) raw);
+            case OpCode.KIND_BOOL -> primitives[slot] = (Boolean) raw ? 1 : 0;
+            case OpCode.KIND_CHAR -> primitives[slot] = (Character) raw;
+            default -> references[slot] = raw;
+        }
+    }
+
+    /**
+     * Box a stack value for storage in an array or a structure
+     */
+    private static Value box(int kind, long bits, Object reference)
+    {
+        return switch (kind)
+        {
+            case OpCode.KIND_INT -> new AtomicValue<>((int) bits, AtomicTypes.INTEGER);
+            case OpCode.KIND_REAL -> new AtomicValue<>(real(bits), AtomicTypes.FLOATING);
+            case OpCode.KIND_BOOL -> new AtomicValue<>(bits != 0, AtomicTypes.BOOLEAN);
+            case OpCode.KIND_CHAR -> new AtomicValue<>((char) bits, AtomicTypes.CHAR);
+            case OpCode.KIND_STRING -> new AtomicValue<>((String) reference, AtomicTypes.STRING);
+            default -> (Value) reference;
+        };
+    }
+
+    private ArrayValue arrayLiteral(ArrayType type, int first, int count)
+    {
+        int kind = Compiler.kindOf(type.getElementType());
+        ArrayValue array = ArrayValue.create(type);
+        for (int i = 0; i < count; i++)
+        {
+            store(kind, array, type.getLowerBound() + i, primitives[first + i], references[first + i]);
+        }
+        return array;
+    }
+
+    /**
+     * Convert a value to its printed form (same rules as the tree walker)
+     */
+    private static String text(int kind, long bits, Object reference)
+    {
+        switch (kind)
+        {
+            case OpCode.KIND_INT:
+                return Integer.toString((int) bits);
+            case OpCode.KIND_REAL:
+                String real = Double.toString(real(bits));
+                return real.endsWith(".0") ? real.substring(0, real.length() - 2) : real;
+            case OpCode.KIND_BOOL:
+                return Boolean.toString(bits != 0);
+            case OpCode.KIND_CHAR:
+                return String.valueOf((char) bits);
+            default:
+                return reference == null ? "nil" : reference.toString();
+        }
+    }
+
+    // ========================================================================
+    // INPUT
+    // ========================================================================
+
+    /**
+     * Read a value of the given kind from the input and store it
+     */
+    private void read(int kind, int slot)
+    {
+        if (input == null)
+        {
+            // What was written so far shows before the script waits for input
+            input = new InputReader(System.in, output::flush);
+        }
+
+        try
+        {
+            switch (kind)
+            {
+                case OpCode.KIND_INT -> primitives[slot] = input.readInt();
+                // French accepts the comma as decimal separator too
+                case OpCode.KIND_REAL -> primitives[slot] = bits(input.readDouble(Config.getLanguage()));
+                case OpCode.KIND_BOOL -> primitives[slot] = input.readBoolean() ? 1 : 0;
+                case OpCode.KIND_CHAR -> primitives[slot] = input.readChar();
+                default -> references[slot] = input.readLine();
+            }
+        }
+        catch (InputMismatchException e)
+        {
+            throw new RuntimeError(null, switch (kind)
+            {
+                case OpCode.KIND_INT -> "Expected integer input";
+                case OpCode.KIND_REAL -> "Expected real number input";
+                case OpCode.KIND_CHAR -> "Expected single character input";
+                default -> "Expected boolean input ("
+                        + (Config.getLanguage() ? "vrai/faux, 1/0" : "true/false, 1/0") + ")";
+            });
+        }
+    }
+}
@@ -2,18 +2,33 @@ package io.dream;
 
 import io.dream.ast.Expression;
 import io.dream.ast.Statement;
+import io.dream.config.Messages;
+import io.dream.error.ErrorReporter;
+import io.dream.error.RuntimeError;
+import io.dream.exec.Lowering;
+import io.dream.natives.OutputSink;
+import io.dream.parser.Parser;
+import io.dream.resolver.Resolver;
+import io.dream.scanner.Scanner;
 import io.dream.scanner.Token;
 import io.dream.scanner.TokenType;
 import io.dream.types.*;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -287,4 +302,567 @@ class InterpreterTest {
         // Assert
         assertEquals("30\n", outContent.toString());
     }
+
+    @Test
+    void testBubbleSort_NoAllocationPerIteration() {
+        // Arrange
+        long small = allocatedWhileSorting(100);
+        long large = allocatedWhileSorting(1000);
+
+        // Assert: 100x more inner iterations, only the larger array to pay for
+        assertTrue(large - small < 256 * 1024, "allocated " + small + " then " + large + " bytes");
+        assertTrue(outContent.toString().endsWith("1\n1000\n"));
+    }
+
+    @Test
+    void testMemoize_PureFunctionsOnly() {
+        // Arrange
+        String source = """
+                Algorithme: memo;
+
+                Fonction: fib(n: entier): entier;
+                Debut:
+                    si n < 2 alors:
+                        retourne n;
+                    finsi
+                    retourne fib(n - 1) + fib(n - 2);
+                Fin
+                FinFonction;
+
+                Fonction: trace(n: entier): entier;
+                Debut:
+                    ecrire("trace");
+                    retourne n;
+                Fin
+                FinFonction;
+
+                Debut:
+                    ecrire(fib(40));
+                    ecrire(trace(1) + trace(1));
+                Fin
+                """;
+
+        // Act
+        Interpreter memoizing = run(source, (script, statements) -> script.memoize(statements, 100));
+
+        // Assert: each fib(n) computed once, trace left alone since it writes
+        assertEquals("102334155\ntrace\ntrace\n2\n", outContent.toString());
+        assertEquals(1, memoizing.memoStatistics().size());
+        assertTrue(memoizing.memoStatistics().get(0).contains("41"),
+                memoizing.memoStatistics().get(0));
+    }
+
+    @Test
+    void testParallelFor_SameResultAsSequentialLoop() {
+        // Arrange
+        String source = """
+                Algorithme: calcul;
+
+                Fonction: poids(k: entier): entier;
+                Variables:
+                    j, s : entier;
+                Debut:
+                    pour j <- 1 jusqu_a 50 faire:
+                        s <- (s + k * j) mod 997;
+                    finpour
+                    retourne s;
+                Fin
+                FinFonction;
+
+                Variables:
+                    t : tableau[1..5000] de entier;
+                    i, total : entier;
+                Debut:
+                    pour %s i <- 1 jusqu_a 5000 faire:
+                        t[i] <- poids(i);
+                    finpour
+                    pour i <- 1 jusqu_a 5000 faire:
+                        total <- total + t[i] * i;
+                    finpour
+                    ecrire(total);
+                    ecrire(i);
+                Fin
+                """;
+
+        // Act
+        run(source.formatted(""));
+        String sequential = outContent.toString();
+        outContent.reset();
+        run(source.formatted("parallele"));
+
+        // Assert
+        assertTrue(sequential.endsWith("\n5000\n"), sequential);
+        assertEquals(sequential, outContent.toString());
+    }
+
+    @Test
+    void testParallelFor_DeepRecursionInIterations() {
+        // Arrange
+        String source = """
+                Algorithme: profond;
+
+                Fonction: profondeur(n: entier): entier;
+                Debut:
+                    si n == 0 alors:
+                        retourne 0;
+                    sinon:
+                        retourne 1 + profondeur(n - 1);
+                    finsi
+                Fin
+                FinFonction;
+
+                Variables:
+                    t : tableau[1..4] de entier;
+                    i : entier;
+                Debut:
+                    pour parallele i <- 1 jusqu_a 4 faire:
+                        t[i] <- profondeur(20000 + i);
+                    finpour
+                    ecrire(t[1] + t[4]);
+                Fin
+                """;
+
+        // Act
+        run(source, (script, statements) -> script.disableJit());
+
+        // Assert
+        assertEquals("40005\n", outContent.toString().replace("\r\n", "\n"));
+    }
+
+    @Test
+    void testMaxFrames_NestedStatementsDoNotShortenTheBudget() {
+        // Arrange
+        String source = """
+                Algorithme: imbrique;
+
+                Methode: descendre(n: entier, fin: entier):
+                Variables:
+                    j, k : entier;
+                Debut:
+                    tant_que (k == 0) faire:
+                        pour j <- 1 jusqu_a 1 faire:
+                            si n < fin alors:
+                                tant_que (k == 0) faire:
+                                    pour j <- 1 jusqu_a 1 faire:
+                                        si vrai alors:
+                                            descendre(n + 1, fin);
+                                        finsi
+                                    finpour
+                                    k <- 1;
+                                fintantque
+                            finsi
+                        finpour
+                        k <- 1;
+                    fintantque
+                Fin
+                FinMethode;
+
+                Debut:
+                    descendre(1, %d);
+                    ecrire("fin");
+                Fin
+                """;
+
+        // Act
+        run(source.formatted(Interpreter.DEFAULT_MAX_FRAMES), (script, statements) -> script.disableJit());
+        RuntimeError overflow = runtimeErrorOf(source.formatted(Interpreter.DEFAULT_MAX_FRAMES + 1),
+                (script, statements) -> script.disableJit());
+
+        // Assert
+        assertEquals("fin\n", outContent.toString().replace("\r\n", "\n"));
+        assertEquals(Messages.stackOverflow(), overflow.getMessage());
+        assertEquals(13, overflow.token().line());
+    }
+
+    @Test
+    void testMaxFrames_CompiledRoutinesCountTheirCalls() {
+        // Arrange
+        String source = """
+                Algorithme: compile;
+
+                Fonction: profondeur(n: entier): entier;
+                Debut:
+                    si n == 0 alors:
+                        retourne 0;
+                    sinon:
+                        retourne 1 + profondeur(n - 1);
+                    finsi
+                Fin
+                FinFonction;
+
+                Variables:
+                    i, s : entier;
+                Debut:
+                    pour i <- 1 jusqu_a 2000 faire:
+                        s <- profondeur(3);
+                    finpour
+                    s <- profondeur(%d);
+                    ecrire(s);
+                Fin
+                """;
+
+        // Act
+        run(source.formatted(499), (script, statements) -> script.setMaxFrames(500));
+        RuntimeError overflow = runtimeErrorOf(source.formatted(500),
+                (script, statements) -> script.setMaxFrames(500));
+
+        // Assert
+        assertEquals("499\n", outContent.toString().replace("\r\n", "\n"));
+        assertEquals(Messages.stackOverflow(), overflow.getMessage());
+        assertEquals("profondeur", overflow.token().lexeme());
+        assertEquals(8, overflow.token().line());
+    }
+
+    @Test
+    void testOutputSink_FlushedBeforeReadingAndBeforeErrors() {
+        // Arrange
+        String source = """
+                Algorithme: echo;
+                Variables:
+                    n : entier;
+                Debut:
+                    ecrire("question");
+                    lire(n);
+                    ecrire(n);
+                    ecrire(n / 0);
+                Fin
+                """;
+        String[] seen = new String[2];
+        ByteArrayInputStream input = new ByteArrayInputStream("7\n".getBytes()) {
+            @Override
+            public synchronized int read(byte[] buffer, int offset, int length) {
+                if (seen[0] == null) {
+                    seen[0] = outContent.toString();
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+        ErrorReporter reporter = new ErrorReporter() {
+            @Override
+            public void error(int line, String message) {
+            }
+
+            @Override
+            public void error(Token token, String message) {
+            }
+
+            @Override
+            public void runtimeError(RuntimeError error) {
+                seen[1] = outContent.toString();
+            }
+        };
+
+        // Act
+        run(source, (script, statements) -> {
+            script.setOutputSink(new OutputSink(System.out));
+            script.setInput(input);
+            script.setErrorReporter(reporter);
+        });
+
+        // Assert
+        assertEquals("question\n", seen[0]);
+        assertEquals("question\n7\n", seen[1]);
+    }
+
+    @Test
+    void testRead_ValuesOnOneOrSeveralLines() {
+        // Arrange
+        String source = """
+                Algorithme: saisie;
+                Type:
+                    Structure Mesure
+                        valeur : reel;
+                        notes : tableau[1..2] de entier;
+                    FinStruct
+                Variables:
+                    t : tableau[1..3] de entier;
+                    m : Mesure;
+                    c : caractere;
+                    b : booleen;
+                    nom : chaine_charactere;
+                Debut:
+                    lire(t[1]);
+                    lire(t[2]);
+                    lire(t[3]);
+                    lire(m.valeur);
+                    lire(m.notes[2]);
+                    lire(c);
+                    lire(b);
+                    lire(nom);
+                    ecrire(t[1] + t[2] + t[3]);
+                    ecrire(m.valeur * 2);
+                    ecrire(m.notes[2]);
+                    ecrire(c);
+                    ecrire(b);
+                    ecrire(nom);
+                Fin
+                """;
+        byte[] input = "1 -2  40\r\n1,25\n7\n  z \nVRAI\nmarie curie\n".getBytes();
+
+        // Act
+        run(source, (script, statements) -> script.setInput(new ByteArrayInputStream(input)));
+
+        // Assert
+        String output = outContent.toString();
+        assertTrue(output.endsWith("39\n2.5\n7\nz\ntrue\nmarie curie\n"), output);
+    }
+
+    @Test
+    void testNatives_FilesFromScript(@TempDir Path directory) {
+        // Arrange
+        String file = directory.resolve("notes.txt").toString().replace("\\", "/");
+
+        // Act
+        run("""
+                Algorithme: notes;
+                Variables:
+                    f, n, i, somme : entier;
+                    t : tableau[1..5] de entier;
+                Debut:
+                    f <- open("%1$s", "w");
+                    writeLine(f, "12 15");
+                    writeLine(f, "9");
+                    close(f);
+                    f <- open("%1$s", "r");
+                    n <- readInts(f, t, 5);
+                    close(f);
+                    somme <- 0;
+                    pour i <- 1 jusqu_a n faire:
+                        somme <- somme + t[i];
+                    finpour
+                    ecrire(n);
+                    ecrire(somme);
+                    ecrire(exists("%1$s"));
+                Fin
+                """.formatted(file));
+
+        // Assert
+        assertTrue(outContent.toString().endsWith("3\n36\ntrue\n"), outContent.toString());
+    }
+
+    @Test
+    void testNatives_ErrorReportedAtTheCall(@TempDir Path directory) {
+        // Arrange
+        String file = directory.resolve("absent.txt").toString().replace("\\", "/");
+
+        // Act
+        RuntimeError error = runtimeErrorOf("""
+                Algorithme: absent;
+                Variables:
+                    f : entier;
+                Debut:
+                    f <- open("%s", "r");
+                Fin
+                """.formatted(file));
+
+        // Assert
+        assertEquals("open", error.token().lexeme());
+        assertEquals(5, error.token().line());
+        assertTrue(error.getMessage().contains("absent.txt"), error.getMessage());
+    }
+
+    @Test
+    void testNatives_BulkReadErrorReportedAtTheCall(@TempDir Path directory) throws IOException {
+        // Arrange
+        Path file = directory.resolve("entiers.txt");
+        Files.writeString(file, "1 deux 3\n");
+
+        // Act
+        RuntimeError error = runtimeErrorOf("""
+                Algorithme: lecture;
+                Variables:
+                    f, n : entier;
+                    t : tableau[1..3] de entier;
+                Debut:
+                    f <- open("%s", "r");
+                    n <- readInts(f, t, 3);
+                Fin
+                """.formatted(file.toString().replace("\\", "/")));
+
+        // Assert
+        assertEquals("readInts", error.token().lexeme());
+        assertEquals(7, error.token().line());
+        assertTrue(error.getMessage().contains("deux"), error.getMessage());
+    }
+
+    @Test
+    void testNatives_FailedTaskReportedAtAttendre(@TempDir Path directory) {
+        // Arrange
+        String file = directory.resolve("absent.txt").toString().replace("\\", "/");
+
+        // Act
+        RuntimeError error = runtimeErrorOf("""
+                Algorithme: tache;
+                Variables:
+                    t : entier;
+                    texte : chaine_charactere;
+                Debut:
+                    t <- readAllAsync("%s");
+                    texte <- attendre(t);
+                Fin
+                """.formatted(file));
+
+        // Assert
+        assertEquals("attendre", error.token().lexeme());
+        assertEquals(7, error.token().line());
+        assertTrue(error.getMessage().contains("absent.txt"), error.getMessage());
+    }
+
+    @Test
+    void testNatives_ArrayAlgorithms() {
+        // Act
+        run("""
+                Algorithme: tableaux;
+                Variables:
+                    t, copie : tableau[1..5] de entier;
+                    i : entier;
+                Debut:
+                    pour i <- 1 jusqu_a 5 faire:
+                        t[i] <- (i * 7) mod 5;
+                    finpour
+                    copyArray(t, copie);
+                    sortArray(t);
+                    ecrire(t);
+                    ecrire(binarySearch(t, 4));
+                    ecrire(sumArray(t));
+                    ecrire(maxArray(t) - minArray(t));
+                    reverseArray(copie);
+                    ecrire(copie);
+                    fillArray(t, 1);
+                    ecrire(sumArray(t));
+                Fin
+                """);
+
+        // Assert
+        assertTrue(outContent.toString().endsWith("[0, 1, 2, 3, 4]\n5\n10\n4\n[0, 3, 1, 4, 2]\n5\n"),
+                outContent.toString());
+    }
+
+    @Test
+    void testNatives_ArrayErrorsReportedAtTheCall() {
+        // Arrange
+        String source = """
+                Algorithme: erreurs;
+                Variables:
+                    vide : tableau[1..0] de entier;
+                    petit : tableau[1..2] de entier;
+                    grand : tableau[1..3] de entier;
+                    n : entier;
+                Debut:
+                    %s
+                Fin
+                """;
+
+        // Act
+        RuntimeError empty = runtimeErrorOf(source.formatted("n <- minArray(vide);"));
+        RuntimeError tooSmall = runtimeErrorOf(source.formatted("copyArray(grand, petit);"));
+
+        // Assert
+        assertEquals("minArray", empty.token().lexeme());
+        assertEquals(8, empty.token().line());
+        assertEquals("copyArray", tooSmall.token().lexeme());
+        assertTrue(tooSmall.getMessage().contains("3"), tooSmall.getMessage());
+    }
+
+    private void run(String source) {
+        run(source, (script, statements) -> {
+        });
+    }
+
+    /**
+     * Check and run a script, giving options (input, output sink, error
+     * reporter, memo cache...) to its interpreter before it starts
+     */
+    private Interpreter run(String source, BiConsumer<Interpreter, List<Statement>> options) {
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        new Resolver(parser.getSymbolTable()).resolve(statements);
+        new Lowering().lower(statements);
+        Interpreter script = new Interpreter(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable());
+        options.accept(script, statements);
+        script.interpret(statements);
+        return script;
+    }
+
+    /**
+     * Run a script expected to fail, and get the error it reported
+     */
+    private RuntimeError runtimeErrorOf(String source) {
+        return runtimeErrorOf(source, (script, statements) -> {
+        });
+    }
+
+    private RuntimeError runtimeErrorOf(String source, BiConsumer<Interpreter, List<Statement>> options) {
+        RuntimeError[] reported = new RuntimeError[1];
+        run(source, options.andThen((script, statements) -> script.setErrorReporter(new ErrorReporter() {
+            @Override
+            public void error(int line, String message) {
+            }
+
+            @Override
+            public void error(Token token, String message) {
+            }
+
+            @Override
+            public void runtimeError(RuntimeError error) {
+                reported[0] = error;
+            }
+        })));
+        assertNotNull(reported[0], "no runtime error");
+        return reported[0];
+    }
+
+    private long allocatedWhileSorting(int size) {
+        String source = """
+                Algorithme: tri;
+
+                Methode: triBulles(tab: tableau[1..%1$d] de entier):
+                Variables:
+                    i, j, temp : entier;
+                Debut:
+                    pour i <- 1 jusqu_a %1$d - 1 faire:
+                        pour j <- 1 jusqu_a (%1$d - i) faire:
+                            si tab[j] > tab[j + 1] alors:
+                                temp <- tab[j];
+                                tab[j] <- tab[j + 1];
+                                tab[j + 1] <- temp;
+                            finsi
+                        finpour
+                    finpour
+                Fin
+                FinMethode;
+
+                Variables:
+                    t : tableau[1..%1$d] de entier;
+                    k : entier;
+                Debut:
+                    pour k <- 1 jusqu_a %1$d faire:
+                        t[k] <- %1$d + 1 - k;
+                    finpour
+                    triBulles(t);
+                    ecrire(t[1]);
+                    ecrire(t[%1$d]);
+                Fin
+                """.formatted(size);
+
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        new Resolver(parser.getSymbolTable()).resolve(statements);
+        new Lowering().lower(statements);
+
+        Interpreter sorter = new Interpreter(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable());
+        sorter.disableJit();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        sorter.interpret(statements);
+        return threads.getCurrentThreadAllocatedBytes() - before;
+    }
 }
@@ -1,8 +1,15 @@
 package io.dream;
 
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.dream.config.Messages;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
 
 /**
  * A simple unit test
@@ -17,4 +24,42 @@ public class MainTest
     {
         assertTrue( true );
     }
+
+    @Test
+    public void runCodeReportsReuseOfClosedHandleAsRuntimeError(@TempDir Path directory)
+    {
+        // Arrange
+        String first = directory.resolve("premier.txt").toString().replace("\\", "/");
+        String second = directory.resolve("second.txt").toString().replace("\\", "/");
+        String script = """
+                Algorithme: perime;
+                Variables:
+                    ancien, nouveau : entier;
+                Debut:
+                    ancien <- open("%s", "w");
+                    close(ancien);
+                    nouveau <- open("%s", "w");
+                    writeLine(ancien, "perdu");
+                Fin
+                """.formatted(first, second);
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream originalErr = System.err;
+
+        // Act
+        System.setErr(new PrintStream(errors));
+        try
+        {
+            assertDoesNotThrow(() -> Main.runCode(script));
+        }
+        finally
+        {
+            System.setErr(originalErr);
+        }
+
+        // Assert
+        String reported = errors.toString();
+        String stale = Messages.staleFileHandle(0);
+        assertTrue(reported.contains(stale.substring(0, stale.indexOf(':'))), reported);
+        assertTrue(reported.contains(Messages.linePrefix(8)), reported);
+    }
 }
@@ -0,0 +1,189 @@
+package io.dream.api;
+
+import io.dream.Interpreter;
+import io.dream.error.RuntimeError;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineTest
+{
+    private static final String SOURCE = """
+            Algorithme: somme;
+
+            Variables:
+                n, i, total : entier;
+            Debut:
+                lire(n);
+                pour i <- 1 jusqu_a n faire:
+                    total <- total + i;
+                finpour
+                ecrire(total);
+                ecrire(total / (n - 7));
+            Fin
+            """;
+
+    private String execute(CompiledScript script, int n, boolean french)
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ScriptContext context = new ScriptContext(
+                new ByteArrayInputStream((n + "\n").getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(buffer, true, StandardCharsets.UTF_8),
+                french);
+        try
+        {
+            script.execute(context);
+        }
+        catch (ScriptException e)
+        {
+            buffer.writeBytes(e.errors().get(0).getBytes(StandardCharsets.UTF_8));
+        }
+        return buffer.toString(StandardCharsets.UTF_8).replace("\r\n", "\n");
+    }
+
+    @Test
+    void execute_ExecutionsConcurrentes_EtatsIsoles() throws Exception
+    {
+        // Arrange
+        CompiledScript script = new Engine().compile(SOURCE, true);
+        List<Future<String>> results = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (int n = 0; n < 200; n++)
+            {
+                int count = n;
+                results.add(executor.submit(() -> execute(script, count, count % 2 == 0)));
+            }
+        }
+
+        // Assert
+        for (int n = 0; n < 200; n++)
+        {
+            String output = results.get(n).get();
+            int total = n * (n + 1) / 2;
+            if (n == 7)
+            {
+                assertEquals(total + "\nDivision by zero.\n[line 11]", output);
+            }
+            else
+            {
+                assertEquals(total + "\n" + total / (n - 7) + "\n", output);
+            }
+        }
+        assertEquals("28\nDivision par zéro.\n[ligne 11]", execute(script, 7, true));
+    }
+
+    @Test
+    void execute_IndiceHorsBornes_LeveScriptException()
+    {
+        // Arrange
+        CompiledScript script = new Engine().compile("""
+                Algorithme: bornes;
+                Variables:
+                    t : tableau[1..3] de entier;
+                    i : entier;
+                Debut:
+                    lire(i);
+                    t[i] <- 1;
+                Fin
+                """, true);
+
+        // Act
+        String output = execute(script, 4, true);
+
+        // Assert
+        assertTrue(output.contains("4") && output.contains("[1..3]"), output);
+    }
+
+    @Test
+    void execute_ErreurSansPosition_LeveScriptException()
+    {
+        // Arrange
+        CompiledScript script = new Engine().compile("""
+                Algorithme: absent;
+                Variables:
+                    f : entier;
+                Debut:
+                    f <- open("/absent/nulle/part.txt", "r");
+                Fin
+                """, true);
+        Diagnostics diagnostics = new Diagnostics();
+
+        // Act
+        String output = execute(script, 0, true);
+        diagnostics.runtimeError(new RuntimeError(null, "sans position"));
+        ScriptException error = assertThrows(ScriptException.class, diagnostics::check);
+
+        // Assert
+        assertTrue(output.startsWith("Fichier introuvable") && output.endsWith("[ligne 5]"), output);
+        assertEquals(List.of("sans position"), error.errors());
+    }
+
+    @Test
+    void execute_RecursionProfonde_BudgetDuContexteSurToutThread() throws Exception
+    {
+        // Arrange
+        CompiledScript script = new Engine().compile("""
+                Algorithme: profond;
+
+                Fonction: s(n: entier): entier;
+                Debut:
+                    si n == 0 alors:
+                        retourne 0;
+                    sinon:
+                        retourne n + s(n - 1);
+                    finsi
+                Fin
+                FinFonction;
+
+                Variables:
+                    n : entier;
+                Debut:
+                    lire(n);
+                    ecrire(s(n));
+                Fin
+                """, true);
+
+        // Act
+        String caller = execute(script, 20000, true);
+        String virtual;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            virtual = executor.submit(() -> execute(script, 20000, true)).get();
+        }
+
+        // Assert
+        assertEquals("200010000\n", caller);
+        assertEquals(caller, virtual);
+        assertThrows(IllegalArgumentException.class, () -> new ScriptContext(
+                InputStream.nullInputStream(), System.out, true, Interpreter.MAX_FRAMES + 1));
+    }
+
+    @Test
+    void compile_ErreurDeSyntaxe_LeveScriptException()
+    {
+        // Arrange
+        Engine engine = new Engine();
+
+        // Act
+        ScriptException error = assertThrows(ScriptException.class,
+                () -> engine.compile("Algorithme: test;\nDebut:\n    ecrire(;\nFin\n", true));
+
+        // Assert
+        assertFalse(error.errors().isEmpty());
+        assertTrue(error.getMessage().startsWith("[ligne 3 ]"), error.getMessage());
+    }
+}
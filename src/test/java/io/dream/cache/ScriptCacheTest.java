@@ -0,0 +1,149 @@
+package io.dream.cache;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.parser.Parser;
+import io.dream.scanner.Scanner;
+import io.dream.tools.AstPrinter;
+import io.dream.types.Checker;
+import io.dream.types.TypeFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptCacheTest
+{
+    private static final String SOURCE = """
+            Algorithme: cache;
+
+            Type:
+                Structure Point
+                    x : reel;
+                    nom : chaine_charactere;
+                FinStruct
+
+            Fonction: carre(n: entier): entier;
+            Debut:
+                retourne n * n;
+            Fin
+            FinFonction;
+
+            Methode: afficher(p: Point):
+            Debut:
+                ecrire(p.nom + " " + p.x);
+            Fin
+            FinMethode;
+
+            Variables:
+                t : tableau[1..4] de entier;
+                p : Point;
+                i : entier;
+                c : caractere;
+                b : booleen;
+            Debut:
+                pour parallele i <- 1 jusqu_a 4 faire:
+                    t[i] <- carre(i);
+                finpour
+                p.x <- 2,5;
+                p.nom <- "origine";
+                c <- 'z';
+                b <- non (t[2] == 4) ou faux;
+                si b alors:
+                    afficher(p);
+                sinon:
+                    ecrire(c);
+                finsi
+            Fin
+            """;
+
+    private CheckedProgram check(String source)
+    {
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        return new CheckedProgram(statements, parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable(), parser.getConstantTable());
+    }
+
+    @Test
+    void store_PuisLoad_RendLeMemeProgramme(@TempDir Path directory)
+    {
+        // Arrange
+        CheckedProgram program = check(SOURCE);
+        ScriptCache cache = new ScriptCache(directory);
+        String key = cache.key(ByteBuffer.wrap(SOURCE.getBytes(StandardCharsets.UTF_8)), true, StandardCharsets.UTF_8);
+
+        // Act
+        boolean stored = cache.store(key, program);
+        CheckedProgram loaded = cache.load(key);
+
+        // Assert
+        assertTrue(stored);
+        assertEquals(new AstPrinter().print(program.statements()), new AstPrinter().print(loaded.statements()));
+        assertEquals(program.symbolTable().keySet(), loaded.symbolTable().keySet());
+        assertEquals(program.functionTable().keySet(), loaded.functionTable().keySet());
+        assertEquals(program.methodTable().keySet(), loaded.methodTable().keySet());
+        assertSame(TypeFactory.INTEGER, loaded.symbolTable().get("i"));
+        assertSame(loaded.structTable().get("Point"), loaded.symbolTable().get("p"));
+
+        // The checked types come back on the nodes
+        Statement.For loop = (Statement.For) loaded.statements().stream()
+                .filter(statement -> statement instanceof Statement.For)
+                .findFirst().orElseThrow();
+        assertTrue(loop.parallel);
+        Expression value = ((Statement.ArrayAssignment) loop.body.get(0)).value;
+        assertSame(TypeFactory.INTEGER, value.getType());
+    }
+
+    @Test
+    void key_DependDeLaSourceEtDeLaLangue(@TempDir Path directory)
+    {
+        // Arrange
+        ScriptCache cache = new ScriptCache(directory);
+        ByteBuffer source = ByteBuffer.wrap(SOURCE.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer edited = ByteBuffer.wrap((SOURCE + " ").getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        String key = cache.key(source, true, StandardCharsets.UTF_8);
+
+        // Assert
+        assertEquals(key, cache.key(source, true, StandardCharsets.UTF_8));
+        assertNotEquals(key, cache.key(edited, true, StandardCharsets.UTF_8));
+        assertNotEquals(key, cache.key(source, false, StandardCharsets.UTF_8));
+        assertNull(cache.load(key));
+    }
+
+    @Test
+    void load_FichierAltere_EstUnEchecEtEstSupprime(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        ScriptCache cache = new ScriptCache(directory);
+        String key = cache.key(ByteBuffer.wrap(SOURCE.getBytes(StandardCharsets.UTF_8)), true, StandardCharsets.UTF_8);
+        cache.store(key, check(SOURCE));
+        Path file = directory.resolve(key + ".alc");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(file, bytes);
+
+        // Act
+        CheckedProgram flipped = cache.load(key);
+        boolean kept = Files.exists(file);
+        Files.write(file, new byte[] { 0x41, 0x4C, 0x43 });
+        CheckedProgram truncated = cache.load(key);
+
+        // Assert
+        assertNull(flipped);
+        assertFalse(kept);
+        assertNull(truncated);
+        assertFalse(Files.exists(file));
+    }
+}
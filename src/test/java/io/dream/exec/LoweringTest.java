@@ -0,0 +1,97 @@
+package io.dream.exec;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.environment.Environment;
+import io.dream.parser.Parser;
+import io.dream.resolver.Resolver;
+import io.dream.scanner.Scanner;
+import io.dream.types.Checker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoweringTest
+{
+    // Literal-only expressions never touch the frame or the tree walker
+    private final ExecutionContext context = new ExecutionContext()
+    {
+        @Override
+        public Environment environment()
+        {
+            return null;
+        }
+
+        @Override
+        public Object evaluateTree(Expression expression)
+        {
+            throw new AssertionError("not lowered: " + expression);
+        }
+    };
+
+    private ExecNode lowerWrite(String expression)
+    {
+        String source = """
+            Algorithme: test;
+            Debut:
+                ecrire(%s);
+            Fin
+            """.formatted(expression);
+
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        new Resolver(parser.getSymbolTable()).resolve(statements);
+        new Lowering().lower(statements);
+
+        return ((Statement.Write) statements.get(0)).expression.getNode();
+    }
+
+    @Test
+    void lower_ComparaisonDeReels_ComparaisonSansTroncature()
+    {
+        // Arrange & Act
+        ExecNode node = lowerWrite("2,5 < 2,7");
+
+        // Assert
+        assertInstanceOf(ComparisonNodes.RealLess.class, node);
+        assertTrue(node.executeBoolean(context));
+    }
+
+    @Test
+    void lower_ArithmetiqueEntiere_NoeudsSpecialises()
+    {
+        // Arrange & Act
+        ExecNode node = lowerWrite("(7 + 5) mod 5 * 3");
+
+        // Assert
+        assertInstanceOf(ArithmeticNodes.IntMultiply.class, node);
+        assertEquals(6, node.executeInt(context));
+        assertEquals(6, node.execute(context));
+    }
+
+    @Test
+    void lower_ArithmetiqueMixte_ResultatReel()
+    {
+        // Arrange & Act
+        ExecNode node = lowerWrite("1 + 2,5");
+
+        // Assert
+        assertInstanceOf(ArithmeticNodes.RealAdd.class, node);
+        assertEquals(3.5, node.executeDouble(context));
+    }
+
+    @Test
+    void lower_Concatenation_MemeFormatQueEcrire()
+    {
+        // Arrange & Act
+        ExecNode node = lowerWrite("\"x = \" + 2,0 + vrai");
+
+        // Assert
+        assertInstanceOf(StringConcat.class, node);
+        assertEquals("x = 2true", node.execute(context));
+    }
+}
@@ -0,0 +1,155 @@
+package io.dream.jit;
+
+import io.dream.Interpreter;
+import io.dream.ast.Statement;
+import io.dream.parser.Parser;
+import io.dream.resolver.Resolver;
+import io.dream.scanner.Scanner;
+import io.dream.types.Checker;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredCompilerTest
+{
+    private final Map<String, Statement.FunctionDeclaration> functions = new HashMap<>();
+    private final Map<String, Statement.MethodDeclaration> methods = new HashMap<>();
+
+    private void prepare(String source)
+    {
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        new Resolver(parser.getSymbolTable()).resolve(statements);
+
+        for (Statement statement : statements)
+        {
+            if (statement instanceof Statement.FunctionDeclaration function)
+            {
+                functions.put(function.name.lexeme(), function);
+            }
+            else if (statement instanceof Statement.MethodDeclaration method)
+            {
+                methods.put(method.name.lexeme(), method);
+            }
+        }
+    }
+
+    @Test
+    void enter_FonctionChaude_CompileeEnBytecode()
+    {
+        // Arrange
+        prepare("""
+            Algorithme: test;
+
+            Fonction: fib(n: entier): entier;
+            Variables:
+                a, b, temp, i : entier;
+            Debut:
+                si n < 2 alors:
+                    retourne n;
+                finsi
+                a <- 0;
+                b <- 1;
+                pour i <- 2 jusqu_a n faire:
+                    temp <- a + b;
+                    a <- b;
+                    b <- temp;
+                finpour
+                retourne b;
+            Fin
+            FinFonction;
+
+            Variables:
+                r : entier;
+            Debut:
+                r <- fib(10);
+            Fin
+            """);
+        Statement.FunctionDeclaration fib = functions.get("fib");
+        TieredCompiler jit = new TieredCompiler(functions, methods, 2, 1_000);
+        TieredCompiler.Profile profile = jit.profile(fib);
+
+        // Act
+        MethodHandle cold = jit.enter(profile, fib);
+        MethodHandle hot = jit.enter(profile, fib);
+
+        // Assert
+        assertNull(cold);
+        assertNotNull(hot);
+        assertEquals(55, TieredCompiler.invoke(hot, List.of(10), Interpreter.DEFAULT_MAX_FRAMES));
+        assertEquals(832040, TieredCompiler.invoke(hot, List.of(30), Interpreter.DEFAULT_MAX_FRAMES));
+    }
+
+    @Test
+    void enter_FonctionAvecReelsEtRecursion_ResultatsIdentiques()
+    {
+        // Arrange
+        prepare("""
+            Algorithme: test;
+
+            Fonction: puissance(x: reel, n: entier): reel;
+            Debut:
+                si n == 0 alors:
+                    retourne 1,0;
+                finsi
+                retourne x * puissance(x, n - 1);
+            Fin
+            FinFonction;
+
+            Variables:
+                r : reel;
+            Debut:
+                r <- puissance(2,0, 3);
+            Fin
+            """);
+        Statement.FunctionDeclaration power = functions.get("puissance");
+        TieredCompiler jit = new TieredCompiler(functions, methods, 1, 1);
+
+        // Act
+        MethodHandle compiled = jit.enter(jit.profile(power), power);
+
+        // Assert
+        assertNotNull(compiled);
+        assertEquals(1024.0, TieredCompiler.invoke(compiled, List.of(2.0, 10), Interpreter.DEFAULT_MAX_FRAMES));
+    }
+
+    @Test
+    void enter_FonctionAvecTableau_ResteInterpretee()
+    {
+        // Arrange
+        prepare("""
+            Algorithme: test;
+
+            Fonction: premier(t: tableau[1..3] de entier): entier;
+            Debut:
+                retourne t[1];
+            Fin
+            FinFonction;
+
+            Variables:
+                v : tableau[1..3] de entier;
+                r : entier;
+            Debut:
+                r <- premier(v);
+            Fin
+            """);
+        Statement.FunctionDeclaration first = functions.get("premier");
+        TieredCompiler jit = new TieredCompiler(functions, methods, 1, 1);
+        TieredCompiler.Profile profile = jit.profile(first);
+
+        // Act
+        MethodHandle compiled = jit.enter(profile, first);
+
+        // Assert
+        assertNull(compiled);
+        assertNull(jit.enter(profile, first));
+    }
+}
@@ -0,0 +1,263 @@
+package io.dream.natives;
+
+import io.dream.error.RuntimeError;
+import io.dream.types.ArrayType;
+import io.dream.types.ArrayValue;
+import io.dream.types.DoubleArrayValue;
+import io.dream.types.IntArrayValue;
+import io.dream.types.TypeFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileIOTest
+{
+    @Test
+    void readLine_DecoupeLesLignesJusquaLaFin(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path file = directory.resolve("notes.txt");
+        Files.write(file, "élève;12\r\n\n42\nsans fin de ligne".getBytes(StandardCharsets.UTF_8));
+        FileIO files = new FileIO();
+        int handle = files.open(file.toString(), "r");
+
+        // Act
+        String first = files.readLine(handle);
+        String empty = files.readLine(handle);
+        int number = files.readInt(handle);
+        boolean eofBeforeLast = files.eof(handle);
+        String last = files.readLine(handle);
+
+        // Assert
+        assertEquals("élève;12", first);
+        assertEquals("", empty);
+        assertEquals(42, number);
+        assertFalse(eofBeforeLast);
+        assertEquals("sans fin de ligne", last);
+        assertTrue(files.eof(handle));
+        assertNull(files.readLine(handle));
+        files.close(handle);
+    }
+
+    @Test
+    void readLine_RetourChariotSeulFinitUneLigneCommeReadAll(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path file = directory.resolve("mac.txt");
+        Files.write(file, "x\ry\n\rz\r".getBytes(StandardCharsets.UTF_8));
+        FileIO files = new FileIO();
+        int byLine = files.open(file.toString(), "r");
+        int whole = files.open(file.toString(), "r");
+
+        // Act
+        StringBuilder lines = new StringBuilder();
+        for (String line = files.readLine(byLine); line != null; line = files.readLine(byLine))
+        {
+            lines.append(line).append('\n');
+        }
+        String all = files.readAll(whole);
+
+        // Assert
+        assertEquals("x\ny\n\nz\n", lines.toString());
+        assertEquals(all, lines.toString());
+        files.close(byLine);
+        files.close(whole);
+    }
+
+    @Test
+    void readAll_RendLeResteDuFichier(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path file = directory.resolve("texte.txt");
+        Files.write(file, "titre\r\nun\r\ndeux".getBytes(StandardCharsets.UTF_8));
+        FileIO files = new FileIO();
+        int handle = files.open(file.toString(), "r");
+
+        // Act
+        String title = files.readLine(handle);
+        String rest = files.readAll(handle);
+
+        // Assert
+        assertEquals("titre", title);
+        assertEquals("un\ndeux\n", rest);
+        assertTrue(files.eof(handle));
+        files.close(handle);
+    }
+
+    @Test
+    void readInts_RemplitLeTableauJusquaLaFin(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path file = directory.resolve("entiers.txt");
+        Files.write(file, "3 -14\t15\r\n\n  92\n65\nfin\n".getBytes(StandardCharsets.UTF_8));
+        IntArrayValue numbers = (IntArrayValue) ArrayValue.create(new ArrayType(TypeFactory.INTEGER, 0, 9));
+        FileIO files = new FileIO();
+        int handle = files.open(file.toString(), "r");
+
+        // Act
+        int first = files.readInts(handle, numbers, 2);
+        int second = files.readInts(handle, numbers, 3);
+        String rest = files.readLine(handle);
+
+        // Assert
+        assertEquals(2, first);
+        assertEquals(3, second);
+        assertArrayEquals(new int[] { 15, 92, 65 },
+                new int[] { numbers.getInt(0), numbers.getInt(1), numbers.getInt(2) });
+        assertEquals("fin", rest);
+        assertEquals(0, files.readInts(handle, numbers, 10));
+        files.close(handle);
+    }
+
+    @Test
+    void writeArray_PuisReadReals_RendLesMemesValeurs(@TempDir Path directory)
+    {
+        // Arrange
+        String file = directory.resolve("reels.txt").toString();
+        DoubleArrayValue written = (DoubleArrayValue) ArrayValue.create(new ArrayType(TypeFactory.FLOATING, 1, 4));
+        written.setDouble(1, 2.5);
+        written.setDouble(2, -0.125);
+        written.setDouble(3, 3);
+        written.setDouble(4, 1e300);
+        DoubleArrayValue read = (DoubleArrayValue) ArrayValue.create(new ArrayType(TypeFactory.FLOATING, 1, 4));
+        FileIO files = new FileIO();
+
+        // Act
+        int output = files.open(file, "w");
+        files.writeArray(output, written);
+        files.close(output);
+        int input = files.open(file, "r");
+        int count = files.readReals(input, read, 4);
+        files.close(input);
+
+        // Assert
+        assertEquals(4, count);
+        for (int i = 1; i <= 4; i++)
+        {
+            assertEquals(written.getDouble(i), read.getDouble(i));
+        }
+    }
+
+    @Test
+    void readInts_FormatInvalideOuTableauTropPetit_LeveUneErreur(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path file = directory.resolve("entiers.txt");
+        Files.write(file, "1 2,5\n".getBytes(StandardCharsets.UTF_8));
+        IntArrayValue numbers = (IntArrayValue) ArrayValue.create(new ArrayType(TypeFactory.INTEGER, 1, 2));
+        FileIO files = new FileIO();
+        int handle = files.open(file.toString(), "r");
+
+        // Act & Assert
+        assertThrows(RuntimeError.class, () -> files.readInts(handle, numbers, 3));
+        assertThrows(RuntimeError.class, () -> files.readInts(handle, numbers, 2));
+        assertEquals(1, numbers.getInt(1));
+        files.close(handle);
+    }
+
+    @Test
+    void close_PuisReouverture_AncienHandlePerime(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path first = directory.resolve("premier.txt");
+        Path second = directory.resolve("second.txt");
+        Files.write(first, "un\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(second, "deux\n".getBytes(StandardCharsets.UTF_8));
+        FileIO files = new FileIO();
+
+        // Act
+        int old = files.open(first.toString(), "r");
+        files.close(old);
+        RuntimeError closed = assertThrows(RuntimeError.class, () -> files.readLine(old));
+        int reused = files.open(second.toString(), "r");
+        RuntimeError stale = assertThrows(RuntimeError.class, () -> files.readLine(old));
+
+        // Assert
+        assertNotEquals(old, reused);
+        assertNotEquals(closed.getMessage(), stale.getMessage());
+        assertEquals("deux", files.readLine(reused));
+        assertThrows(RuntimeError.class, () -> files.readLine(0));
+        assertThrows(RuntimeError.class, () -> files.readLine(reused + 1));
+    }
+
+    @Test
+    void closeAll_FermeEtEcritLesFichiersOuverts(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path file = directory.resolve("sortie.txt");
+        FileIO files = new FileIO();
+        int handle = files.open(file.toString(), "w");
+        files.writeLine(handle, "gardee");
+
+        // Act
+        files.closeAll();
+
+        // Assert
+        assertEquals("gardee" + System.lineSeparator(), Files.readString(file));
+        assertThrows(RuntimeError.class, () -> files.writeLine(handle, "perdue"));
+    }
+
+    @Test
+    void readAllAsync_PuisAttendre_RendLeContenu(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path first = directory.resolve("a.txt");
+        Path second = directory.resolve("b.txt");
+        Files.write(first, "premier\r\nfichier".getBytes(StandardCharsets.UTF_8));
+        Files.write(second, "second\n".getBytes(StandardCharsets.UTF_8));
+        FileIO files = new FileIO();
+
+        // Act
+        int a = files.readAllAsync(first.toString());
+        int b = files.readAllAsync(second.toString());
+        int missing = files.readAllAsync(directory.resolve("absent.txt").toString());
+
+        // Assert
+        assertEquals("second\n", files.join(b));
+        assertEquals("premier\nfichier\n", files.join(a));
+        assertThrows(RuntimeError.class, () -> files.join(missing));
+        assertThrows(RuntimeError.class, () -> files.join(a));
+        files.closeAll();
+    }
+
+    @Test
+    void appendAsync_AjouteDansLOrdre(@TempDir Path directory) throws IOException
+    {
+        // Arrange
+        Path file = directory.resolve("journal.txt");
+        FileIO files = new FileIO();
+        StringBuilder expected = new StringBuilder();
+
+        // Act
+        int last = 0;
+        for (int i = 1; i <= 200; i++)
+        {
+            last = files.appendAsync(file.toString(), i + "\n");
+            expected.append(i).append('\n');
+        }
+        String result = files.join(last);
+        files.appendAsync(file.toString(), "fin\n");
+        files.closeAll();
+
+        // Assert
+        assertEquals("", result);
+        assertEquals(expected + "fin\n", Files.readString(file));
+    }
+
+    @Test
+    void open_FichierAbsent_LeveUneErreur(@TempDir Path directory)
+    {
+        // Arrange
+        FileIO files = new FileIO();
+
+        // Act & Assert
+        assertThrows(RuntimeError.class, () -> files.open(directory.resolve("absent.txt").toString(), "r"));
+        assertThrows(RuntimeError.class, () -> files.open(directory.toString(), "r"));
+    }
+}
@@ -0,0 +1,283 @@
+package io.dream.optimizer;
+
+import io.dream.ast.Statement;
+import io.dream.parser.Parser;
+import io.dream.scanner.Scanner;
+import io.dream.tools.AstPrinter;
+import io.dream.types.Checker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizerTest
+{
+    private String optimize(String source)
+    {
+        return optimize(source, Optimizer.BASIC);
+    }
+
+    private String optimize(String source, int level)
+    {
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+
+        return new AstPrinter().print(new Optimizer(level, parser.getSymbolTable()).optimize(statements));
+    }
+
+    @Test
+    void optimize_ExpressionsLitterales_Pliees()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Debut:
+                ecrire((10 - 2) * 3 + 1,5);
+                ecrire("x = " + 2 * 2);
+                ecrire(non (1 < 2) ou vrai);
+            Fin
+            """;
+
+        // Act
+        String printed = optimize(source);
+
+        // Assert
+        assertEquals("""
+            (write 25.5)
+            (write "x = 4")
+            (write true)
+            """, printed);
+    }
+
+    @Test
+    void optimize_DivisionParZero_LaisseePourLExecution()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Debut:
+                ecrire(1 / 0);
+            Fin
+            """;
+
+        // Act
+        String printed = optimize(source);
+
+        // Assert
+        assertEquals("(write (/ 1 0))\n", printed);
+    }
+
+    @Test
+    void optimize_Constantes_RemplaceesParLeurValeur()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Constante:
+                N = 10;
+                DOUBLE = N * 2;
+            Variables:
+                i : entier;
+            Debut:
+                i <- DOUBLE - N;
+            Fin
+            """;
+
+        // Act
+        String printed = optimize(source);
+
+        // Assert
+        assertEquals("""
+            (const N 10)
+            (const DOUBLE 20)
+            (<- i 10)
+            """, printed);
+    }
+
+    @Test
+    void optimize_BranchesEtBouclesMortes_Supprimees()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Variables:
+                i : entier;
+            Debut:
+                si faux alors:
+                    ecrire("jamais");
+                sinon:
+                    ecrire("toujours");
+                finsi
+                tant_que (faux) faire:
+                    ecrire("jamais");
+                fintantque
+                pour i <- 1 jusqu_a 10 pas 4 faire:
+                finpour
+            Fin
+            """;
+
+        // Act
+        String printed = optimize(source);
+
+        // Assert
+        assertEquals("""
+            (write "toujours")
+            (<- i 9)
+            """, printed);
+    }
+
+    @Test
+    void optimize_Boucles_InvariantsSortisEtIndicesIncrementaux()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Variables:
+                i, j, n, s : entier;
+            Debut:
+                n <- 10;
+                pour i <- 1 jusqu_a 9 faire:
+                    pour j <- 1 jusqu_a n - i faire:
+                        s <- s + (j + 1) * 2 + n * n;
+                    finpour
+                finpour
+            Fin
+            """;
+
+        // Act
+        String printed = optimize(source, Optimizer.FULL);
+
+        // Assert
+        assertEquals("""
+            (<- n 10)
+            (<- $1 (* n n))
+            (for i 1 9)
+              (<- $0 4)
+              (for j 1 (- n i))
+                (<- s (+ (+ s $0) $1))
+                (<- $0 (+ $0 2))
+            """, printed);
+    }
+
+    @Test
+    void optimize_TantQue_IndiceSuitLIncrement()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Variables:
+                k, s : entier;
+            Debut:
+                tant_que (k < 10) faire:
+                    s <- s + 3 * k;
+                    k <- k + 2;
+                    si s > k alors:
+                        k <- 0;
+                    finsi
+                fintantque
+                tant_que (k < 10) faire:
+                    s <- s + 3 * k;
+                    k <- k + 2;
+                fintantque
+            Fin
+            """;
+
+        // Act
+        String printed = optimize(source, Optimizer.FULL);
+
+        // Assert
+        assertEquals("""
+            (while (< k 10))
+              (<- s (+ s (* 3 k)))
+              (<- k (+ k 2))
+              (if (> s k))
+                (<- k 0)
+            (<- $0 (* 3 k))
+            (while (< k 10))
+              (<- s (+ s $0))
+              (<- k (+ k 2))
+              (<- $0 (+ $0 6))
+            """, printed);
+    }
+
+    @Test
+    void optimize_PetitesFonctions_Integrees()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Fonction: max(a: entier, b: entier): entier;
+            Debut:
+                si a > b alors:
+                    retourne a;
+                sinon:
+                    retourne b;
+                finsi
+            Fin
+            FinFonction;
+            Variables:
+                x : entier;
+            Debut:
+                ecrire(max(x * 2, 5));
+            Fin
+            """;
+
+        // Act
+        String printed = optimize(source, Optimizer.FULL);
+
+        // Assert
+        assertEquals("""
+            (function max a b)
+              (if (> a b))
+                (return a)
+              (else)
+                (return b)
+            (<- $0 (* x 2))
+            (if (> $0 5))
+              (<- $1 $0)
+            (else)
+              (<- $1 5)
+            (write $1)
+            """, printed);
+    }
+
+    @Test
+    void optimize_AppelsRecursifsOuApresUneDivision_Conserves()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Fonction: fact(n: entier): entier;
+            Debut:
+                si n < 2 alors:
+                    retourne 1;
+                sinon:
+                    retourne n * fact(n - 1);
+                finsi
+            Fin
+            FinFonction;
+            Fonction: carre(n: entier): entier;
+            Debut:
+                retourne n * n;
+            Fin
+            FinFonction;
+            Variables:
+                x : entier;
+            Debut:
+                ecrire(fact(x));
+                ecrire(10 / x + carre(x));
+            Fin
+            """;
+
+        // Act
+        String printed = optimize(source, Optimizer.FULL);
+
+        // Assert
+        assertTrue(printed.contains("(write (call fact x))"));
+        assertTrue(printed.contains("(write (+ (/ 10 x) (call carre x)))"));
+    }
+}
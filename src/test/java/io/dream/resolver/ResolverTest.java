@@ -0,0 +1,139 @@
+package io.dream.resolver;
+
+import io.dream.ast.Expression;
+import io.dream.ast.Statement;
+import io.dream.parser.Parser;
+import io.dream.scanner.Scanner;
+import io.dream.types.Checker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolverTest
+{
+    private List<Statement> resolve(String source)
+    {
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        new Resolver(parser.getSymbolTable()).resolve(statements);
+
+        return statements;
+    }
+
+    @Test
+    void resolve_VariablesGlobales_SlotsDansLOrdreDeDeclaration()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Variables:
+                x : entier;
+                y : entier;
+            Debut:
+                x <- 5;
+                y <- x;
+            Fin
+            """;
+
+        // Act
+        List<Statement> statements = resolve(source);
+
+        // Assert
+        Statement.Assignment first = (Statement.Assignment) statements.get(0);
+        Statement.Assignment second = (Statement.Assignment) statements.get(1);
+        Expression.Variable read = (Expression.Variable) second.value;
+
+        assertEquals(0, first.getDepth());
+        assertEquals(0, first.getSlot());
+        assertEquals(0, second.getDepth());
+        assertEquals(1, second.getSlot());
+        assertEquals(0, read.getDepth());
+        assertEquals(0, read.getSlot());
+    }
+
+    @Test
+    void resolve_Fonction_ParametresPuisLocales()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+
+            Fonction: somme(a: entier, b: entier): entier;
+            Variables:
+                s : entier;
+            Debut:
+                s <- a + b;
+                retourne s;
+            Fin
+            FinFonction;
+
+            Variables:
+                g : entier;
+            Debut:
+                g <- somme(1, 2);
+            Fin
+            """;
+
+        // Act
+        List<Statement> statements = resolve(source);
+
+        // Assert
+        Statement.FunctionDeclaration function = (Statement.FunctionDeclaration) statements.get(0);
+        Statement.Assignment assignment = (Statement.Assignment) function.body.get(0);
+        Expression.Binary sum = (Expression.Binary) assignment.value;
+        Expression.Variable a = (Expression.Variable) sum.left;
+        Expression.Variable b = (Expression.Variable) sum.right;
+
+        assertNotNull(function.getLayout());
+        assertEquals(3, function.getLayout().size());
+        assertEquals(0, a.getSlot());
+        assertEquals(1, b.getSlot());
+        assertEquals(0, a.getDepth());
+        assertEquals(2, assignment.getSlot());
+        assertEquals(0, assignment.getDepth());
+    }
+
+    @Test
+    void resolve_ChampsDeStructure_IndicesDansLOrdreDeDeclaration()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+
+            Type:
+                Structure Point
+                    x : entier;
+                    y : reel;
+                FinStruct
+
+            Variables:
+                p : Point;
+            Debut:
+                p.y <- 2,5;
+                ecrire(p.x);
+            Fin
+            """;
+
+        // Act
+        List<Statement> statements = resolve(source);
+
+        // Assert
+        Statement.FieldAssignment assignment = statements.stream()
+                .filter(Statement.FieldAssignment.class::isInstance)
+                .map(Statement.FieldAssignment.class::cast)
+                .findFirst().orElseThrow();
+        Statement.Write write = statements.stream()
+                .filter(Statement.Write.class::isInstance)
+                .map(Statement.Write.class::cast)
+                .findFirst().orElseThrow();
+        Expression.FieldAccess access = (Expression.FieldAccess) write.expression;
+
+        assertEquals(1, assignment.getFieldIndex());
+        assertEquals(0, access.getFieldIndex());
+    }
+}
@@ -1,9 +1,18 @@
 package io.dream.scanner;
 
+import io.dream.types.AtomicTypes;
+import io.dream.types.AtomicValue;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static io.dream.scanner.TokenType.*;
@@ -221,4 +230,59 @@ class ScannerTest
         assertEquals(VARIABLE, tokens.get(1).type());
         assertEquals(ALGORITHM, tokens.get(2).type());
     }
+
+    @Test
+    void scanMultiWordKeyword()
+    {
+        var source = "sinon  si sinon\nsi";
+        scanner = new Scanner(source);
+        List<Token> tokens = scanner.scanTokens();
+
+        assertEquals(4, tokens.size(), "check the number of tokens");
+        assertEquals(ELSEIF, tokens.get(0).type());
+        assertEquals("sinon  si", tokens.get(0).lexeme());
+        assertEquals(ELSE, tokens.get(1).type());
+        assertEquals(IF, tokens.get(2).type());
+        assertEquals(2, tokens.get(2).line());
+    }
+
+    @Test
+    void scanRepeatedLexemesAreShared()
+    {
+        var source = "total <- total + 1;\ntotal <- total + 12345;";
+        scanner = new Scanner(source);
+        List<Token> tokens = scanner.scanTokens();
+
+        assertSame(tokens.get(0).lexeme(), tokens.get(2).lexeme());
+        assertSame(tokens.get(0).lexeme(), tokens.get(6).lexeme());
+        assertSame(tokens.get(1).lexeme(), tokens.get(7).lexeme());
+        assertEquals(new AtomicValue<>(12345, AtomicTypes.INTEGER), tokens.get(10).literal());
+    }
+
+    @Test
+    void scanFromMappedFile(@TempDir Path directory) throws IOException
+    {
+        // a source larger than the decoding window, with accented strings
+        var source = new StringBuilder();
+        for (int i = 0; i < 2000; i++)
+        {
+            source.append("total <- total + ").append(i).append("; // é\n");
+        }
+        source.append("ecrire(\"été\");");
+        Path file = directory.resolve("source.al");
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+
+        List<Token> expected = new Scanner(source.toString()).scanTokens();
+        List<Token> streamed = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file))
+        {
+            scanner = new Scanner(channel, StandardCharsets.UTF_8);
+            for (Token token = scanner.next(); token != null; token = scanner.next())
+            {
+                streamed.add(token);
+            }
+        }
+
+        assertEquals(expected, streamed);
+    }
 }
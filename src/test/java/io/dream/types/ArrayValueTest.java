@@ -0,0 +1,104 @@
+package io.dream.types;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayValueTest
+{
+  @Test
+  void create_TableauEntiers_StockagePrimitifDecale()
+  {
+    // Arrange
+    ArrayType type = new ArrayType(TypeFactory.INTEGER, 5, 7);
+
+    // Act
+    ArrayValue array = ArrayValue.create(type);
+    ((IntArrayValue) array).setInt(7, 42);
+
+    // Assert
+    assertInstanceOf(IntArrayValue.class, array);
+    assertEquals(0, ((IntArrayValue) array).getInt(5));
+    assertEquals(42, array.getElement(7));
+    assertEquals(new AtomicValue<>(42, AtomicTypes.INTEGER), array.get(7));
+    assertEquals("[0, 0, 42]", array.toString());
+  }
+
+  @Test
+  void set_IndiceHorsBornes_LeveErreur()
+  {
+    // Arrange
+    ArrayValue array = ArrayValue.create(new ArrayType(TypeFactory.FLOATING, 1, 3));
+
+    // Act & Assert
+    assertThrows(RuntimeException.class,
+            () -> array.set(0, new AtomicValue<>(1.0, AtomicTypes.FLOATING)));
+    assertThrows(RuntimeException.class, () -> array.getElement(4));
+  }
+
+  @Test
+  void create_TableauChaines_ValeursParDefaut()
+  {
+    // Arrange
+    ArrayType type = new ArrayType(TypeFactory.STRING, 0, 1);
+
+    // Act
+    ArrayValue array = ArrayValue.create(type);
+    array.set(1, new AtomicValue<>("abc", AtomicTypes.STRING));
+
+    // Assert
+    assertInstanceOf(ReferenceArrayValue.class, array);
+    assertEquals("", array.getElement(0));
+    assertEquals("abc", array.getElement(1));
+  }
+
+  @Test
+  void sort_PuisBinarySearch_IndicesDuLangage()
+  {
+    // Arrange
+    IntArrayValue numbers = (IntArrayValue) ArrayValue.create(new ArrayType(TypeFactory.INTEGER, 1, 5));
+    int[] values = { 7, -2, 40, 7, 0 };
+    for (int i = 0; i < values.length; i++)
+    {
+      numbers.setInt(i + 1, values[i]);
+    }
+    ReferenceArrayValue names = (ReferenceArrayValue) ArrayValue.create(new ArrayType(TypeFactory.STRING, 0, 2));
+    names.fill("zoe");
+    names.set(1, new AtomicValue<>("ada", AtomicTypes.STRING));
+
+    // Act
+    numbers.sort();
+    names.sort();
+
+    // Assert
+    assertEquals("[-2, 0, 7, 7, 40]", numbers.toString());
+    assertEquals(5, numbers.binarySearch(40));
+    assertEquals(0, numbers.binarySearch(3));
+    assertEquals(52, numbers.sum());
+    assertEquals(-2, numbers.min());
+    assertEquals(40, numbers.max());
+    assertEquals("[ada, zoe, zoe]", names.toString());
+    assertEquals(0, names.binarySearch("ada"));
+    assertEquals(-1, names.binarySearch("bob"));
+  }
+
+  @Test
+  void copyTo_PuisReverse_LaSourceResteIntacte()
+  {
+    // Arrange
+    DoubleArrayValue source = (DoubleArrayValue) ArrayValue.create(new ArrayType(TypeFactory.FLOATING, 1, 3));
+    DoubleArrayValue destination = (DoubleArrayValue) ArrayValue.create(new ArrayType(TypeFactory.FLOATING, 0, 3));
+    source.setDouble(1, 1.5);
+    source.setDouble(3, -4);
+    destination.fill(9.0);
+
+    // Act
+    source.copyTo(destination);
+    destination.reverse();
+
+    // Assert
+    assertEquals("[9.0, -4.0, 0.0, 1.5]", destination.toString());
+    assertEquals("[1.5, 0.0, -4.0]", source.toString());
+    assertEquals(-2.5, source.sum());
+  }
+}
@@ -1,7 +1,10 @@
 package io.dream.types;
 
 import io.dream.ast.Expression;
+import io.dream.ast.Statement;
 import io.dream.error.TypeException;
+import io.dream.parser.Parser;
+import io.dream.scanner.Scanner;
 import io.dream.scanner.Token;
 import io.dream.scanner.TokenType;
 import org.junit.jupiter.api.AfterEach;
@@ -9,6 +12,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -429,4 +433,189 @@ class CheckerTest
     assertEquals(TypeFactory.INTEGER, vingt.getType());
     assertEquals(TypeFactory.INTEGER, trois.getType());
   }
+
+  @Test
+  void check_BouclePourParallele_SeulesLesCasesDeLIndiceModifiables()
+  {
+    // Arrange
+    String program = """
+        Algorithme: test;
+        Fonction: carre(n: entier): entier;
+        Debut:
+            retourne n * n;
+        Fin
+        FinFonction;
+        Variables:
+            t : tableau[1..10] de entier;
+            i, j, s : entier;
+        Debut:
+            pour parallele i <- 1 jusqu_a 10 faire:
+                pour j <- 1 jusqu_a i faire:
+                    t[i] <- t[i] + carre(j);
+                finpour
+            finpour
+            %s
+        Fin
+        """;
+
+    // Act
+    checkProgram(program.formatted(""));
+    TypeException partagee = assertThrows(TypeException.class, () -> checkProgram(program.formatted(
+        "pour parallele i <- 1 jusqu_a 10 faire: s <- s + t[i]; finpour")));
+    TypeException voisine = assertThrows(TypeException.class, () -> checkProgram(program.formatted(
+        "pour parallele i <- 1 jusqu_a 9 faire: t[i + 1] <- i; finpour")));
+    TypeException affichage = assertThrows(TypeException.class, () -> checkProgram(program.formatted(
+        "pour parallele i <- 1 jusqu_a 9 faire: ecrire(t[i]); finpour")));
+
+    // Assert
+    assertTrue(partagee.getMessage().contains("'s'"));
+    assertTrue(voisine.getMessage().contains("'t'"));
+    assertNotNull(affichage.getMessage());
+  }
+
+  @Test
+  void check_BouclePourParallele_LectureDUnTableauModifieALIndiceSeulement()
+  {
+    // Arrange
+    String program = """
+        Algorithme: test;
+        Variables:
+            t, u : tableau[1..10] de entier;
+            i : entier;
+        Debut:
+            pour parallele i <- 2 jusqu_a 9 faire:
+                %s
+            finpour
+        Fin
+        """;
+
+    // Act
+    checkProgram(program.formatted("t[i] <- (t[i]) + u[i + 1] + u[i - 1];"));
+    TypeException suivante = assertThrows(TypeException.class,
+        () -> checkProgram(program.formatted("t[i] <- t[i + 1];")));
+    TypeException precedente = assertThrows(TypeException.class,
+        () -> checkProgram(program.formatted("si i > 2 alors: t[i] <- (t[i - 1]); finsi")));
+
+    // Assert
+    assertTrue(suivante.getMessage().contains("'t'"), suivante.getMessage());
+    assertTrue(precedente.getMessage().contains("'t'"), precedente.getMessage());
+  }
+
+  @Test
+  void check_AppelNatif_SignatureVerifieeEtFonctionDuProgrammePrioritaire()
+  {
+    // Arrange
+    String program = """
+        Algorithme: test;
+        %s
+        Variables:
+            f, n : entier;
+            t : tableau[0..9] de entier;
+            r : tableau[1..2] de reel;
+        Debut:
+            %s
+        Fin
+        """;
+    String eof = """
+        Fonction: eof(n: entier): entier;
+        Debut:
+            retourne n;
+        Fin
+        FinFonction;
+        """;
+
+    // Act
+    checkProgram(program.formatted("", """
+        f <- open("notes.txt", "r");
+        n <- readInts(f, t, 10);
+        writeArray(f, r);
+        close(f);
+        """));
+    checkProgram(program.formatted(eof, "n <- eof(3);"));
+    TypeException mauvaisType = assertThrows(TypeException.class,
+        () -> checkProgram(program.formatted("", "f <- open(\"notes.txt\", 1);")));
+    TypeException mauvaisTableau = assertThrows(TypeException.class,
+        () -> checkProgram(program.formatted("", "n <- readInts(f, r, 2);")));
+    TypeException mauvaisNombre = assertThrows(TypeException.class,
+        () -> checkProgram(program.formatted("", "close(f, f);")));
+    TypeException mauvaisRetour = assertThrows(TypeException.class,
+        () -> checkProgram(program.formatted("", "n <- eof(f);")));
+
+    // Assert
+    assertNotNull(mauvaisType.getMessage());
+    assertNotNull(mauvaisTableau.getMessage());
+    assertNotNull(mauvaisNombre.getMessage());
+    assertNotNull(mauvaisRetour.getMessage());
+  }
+
+  @Test
+  void check_AlgorithmesDeTableaux_TypeDesElementsVerifie()
+  {
+    // Arrange
+    String program = """
+        Algorithme: test;
+        Variables:
+            n : entier;
+            x : reel;
+            t : tableau[1..5] de entier;
+            r : tableau[0..4] de reel;
+            s : tableau[1..2] de chaine_charactere;
+        Debut:
+            %s
+        Fin
+        """;
+
+    // Act
+    checkProgram(program.formatted("""
+        sortArray(s);
+        n <- binarySearch(s, "a") + sumArray(t) + maxArray(t);
+        x <- minArray(r);
+        fillArray(r, x);
+        copyArray(t, t);
+        reverseArray(s);
+        """));
+
+    // Assert
+    assertThrows(TypeException.class, () -> checkProgram(program.formatted("n <- binarySearch(t, x);")));
+    assertThrows(TypeException.class, () -> checkProgram(program.formatted("n <- sumArray(r);")));
+    assertThrows(TypeException.class, () -> checkProgram(program.formatted("x <- sumArray(s);")));
+    assertThrows(TypeException.class, () -> checkProgram(program.formatted("copyArray(t, r);")));
+    assertThrows(TypeException.class, () -> checkProgram(program.formatted("sortArray(n);")));
+  }
+
+  @Test
+  void check_FonctionPouvantTomberEnFin_Rejetee()
+  {
+    // Arrange
+    String program = """
+        Algorithme: test;
+        Fonction: signe(x: entier): entier;
+        Debut:
+            %s
+        Fin
+        FinFonction;
+        Debut:
+            ecrire(signe(-1));
+        Fin
+        """;
+
+    // Act
+    checkProgram(program.formatted("si x > 0 alors: retourne 1; sinon: retourne -1; finsi"));
+    TypeException sansSinon = assertThrows(TypeException.class,
+        () -> checkProgram(program.formatted("si x > 0 alors: retourne 1; finsi")));
+    TypeException dansUneBoucle = assertThrows(TypeException.class,
+        () -> checkProgram(program.formatted("tant_que (x > 0) faire: retourne x; fintantque")));
+
+    // Assert
+    assertTrue(sansSinon.getMessage().contains("'signe'"), sansSinon.getMessage());
+    assertTrue(dansUneBoucle.getMessage().contains("'signe'"), dansUneBoucle.getMessage());
+  }
+
+  private void checkProgram(String source)
+  {
+    Parser parser = new Parser(new Scanner(source).scanTokens());
+    List<Statement> statements = parser.parse();
+    new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+        parser.getMethodTable(), parser.getStructTable()).check(statements);
+  }
 }
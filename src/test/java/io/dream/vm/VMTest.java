@@ -0,0 +1,237 @@
+package io.dream.vm;
+
+import io.dream.Interpreter;
+import io.dream.ast.Statement;
+import io.dream.config.Messages;
+import io.dream.error.RuntimeError;
+import io.dream.exec.Lowering;
+import io.dream.parser.Parser;
+import io.dream.resolver.Resolver;
+import io.dream.scanner.Scanner;
+import io.dream.types.Checker;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VMTest
+{
+    private String run(String source)
+    {
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        Resolver resolver = new Resolver(parser.getSymbolTable());
+        resolver.resolve(statements);
+        Program program = new Compiler(resolver.getGlobalLayout()).compile(statements);
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer));
+        try
+        {
+            new VM(program).run();
+        }
+        finally
+        {
+            System.setOut(out);
+        }
+        return buffer.toString().replace("\r\n", "\n");
+    }
+
+    @Test
+    void run_FonctionRecursive_RetourneResultat()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+
+            Fonction: fact(n: entier): entier;
+            Debut:
+                si n <= 1 alors:
+                    retourne 1;
+                finsi
+                retourne n * fact(n - 1);
+            Fin
+            FinFonction;
+
+            Variables:
+                r : entier;
+            Debut:
+                r <- fact(10);
+                ecrire("fact(10) = " + r);
+            Fin
+            """;
+
+        // Act
+        String output = run(source);
+
+        // Assert
+        assertEquals("fact(10) = 3628800\n", output);
+    }
+
+    @Test
+    void run_BouclePourDescendante_CompteurIndependantDeLaVariable()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Variables:
+                i : entier;
+                s : entier;
+            Debut:
+                s <- 0;
+                pour i <- 5 jusqu_a 1 pas -2 faire:
+                    s <- s + i;
+                    i <- 100;
+                finpour
+                ecrire(s);
+            Fin
+            """;
+
+        // Act
+        String output = run(source);
+
+        // Assert
+        assertEquals("9\n", output);
+    }
+
+    @Test
+    void run_TableauEtReels_MemeAffichageQueLInterpreteur()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+            Variables:
+                t : tableau[1..3] de reel;
+                i : entier;
+                total : reel;
+            Debut:
+                t[1] <- 1,5;
+                t[2] <- 2,5;
+                t[3] <- 3,0;
+                total <- 0,0;
+                pour i <- 1 jusqu_a 3 faire:
+                    total <- total + t[i];
+                finpour
+                ecrire(total);
+                ecrire(total > 6,5);
+            Fin
+            """;
+
+        // Act
+        String output = run(source);
+
+        // Assert
+        assertEquals("7\ntrue\n", output);
+    }
+
+    @Test
+    void run_AppelTerminal_NeConsommePasDeCadre()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+
+            Fonction: compte(n: entier, acc: entier): entier;
+            Debut:
+                si n == 0 alors:
+                    retourne acc;
+                finsi
+                retourne compte(n - 1, acc + 1);
+            Fin
+            FinFonction;
+
+            Debut:
+                ecrire(compte(500000, 0));
+            Fin
+            """;
+
+        // Act
+        String output = run(source);
+
+        // Assert
+        assertEquals("500000\n", output);
+    }
+
+    @Test
+    void compile_AppelNatif_ErreurExplicite()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+
+            Variables:
+                f : entier;
+
+            Debut:
+                f <- open("notes.txt", "r");
+            Fin
+            """;
+
+        // Act
+        RuntimeError error = assertThrows(RuntimeError.class, () -> run(source));
+
+        // Assert
+        assertEquals(Messages.nativeNotSupportedByVm("open"), error.getMessage());
+        assertEquals(7, error.token().line());
+    }
+
+    @Test
+    void run_RetourDansLesDeuxBranches_MemeResultatQueLInterpreteur()
+    {
+        // Arrange
+        String source = """
+            Algorithme: test;
+
+            Fonction: signe(x: entier): entier;
+            Debut:
+                si x > 0 alors:
+                    retourne 1;
+                sinon:
+                    si x < 0 alors:
+                        retourne -1;
+                    sinon:
+                        retourne 0;
+                    finsi
+                finsi
+            Fin
+            FinFonction;
+
+            Debut:
+                ecrire(signe(-5));
+                ecrire(signe(0) + signe(3));
+            Fin
+            """;
+
+        // Act
+        String vm = run(source);
+        String tree = interpret(source);
+
+        // Assert
+        assertEquals("-1\n1\n", vm);
+        assertEquals(vm, tree);
+    }
+
+    private String interpret(String source)
+    {
+        Parser parser = new Parser(new Scanner(source).scanTokens());
+        List<Statement> statements = parser.parse();
+        new Checker(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable()).check(statements);
+        new Resolver(parser.getSymbolTable()).resolve(statements);
+        new Lowering().lower(statements);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        Interpreter interpreter = new Interpreter(parser.getSymbolTable(), parser.getFunctionTable(),
+                parser.getMethodTable(), parser.getStructTable());
+        interpreter.setOutput(new PrintStream(buffer));
+        interpreter.interpret(statements);
+        return buffer.toString().replace("\r\n", "\n");
+    }
+}